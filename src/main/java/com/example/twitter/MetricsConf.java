@@ -0,0 +1,24 @@
+package com.example.twitter;
+
+import io.micrometer.core.aop.TimedAspect;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Metrics exposed at /actuator/prometheus.
+ *
+ * HTTP endpoints are timed by Spring MVC ({@code http.server.requests}, tagged
+ * by uri, method and status) and Mongo commands by the driver's command
+ * listener ({@code mongodb.driver.commands}). Service methods annotated with
+ * {@link io.micrometer.core.annotation.Timed} are timed by the aspect below
+ * ({@code service.method}, tagged by class and method).
+ */
+@Configuration
+public class MetricsConf {
+
+        @Bean
+        public TimedAspect timedAspect(MeterRegistry registry) {
+                return new TimedAspect(registry);
+        }
+}
@@ -1,6 +1,10 @@
 package com.example.twitter;
 
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.boot.CommandLineRunner;
+import org.springframework.core.task.TaskExecutor;
 import org.springframework.data.mongodb.core.MongoTemplate;
 import org.springframework.stereotype.Component;
 
@@ -10,40 +14,48 @@ import com.mongodb.MongoException;
 
 @Component
 public class MongoTestConnection implements CommandLineRunner {
+    private static final Logger log = LoggerFactory.getLogger(MongoTestConnection.class);
 
     private final MongoTemplate mongoTemplate;
     private final MongoClient mongoClient;
+    private final TaskExecutor taskExecutor;
 
-    public MongoTestConnection(MongoTemplate mongoTemplate, MongoClient mongoClient) {
+    public MongoTestConnection(MongoTemplate mongoTemplate, MongoClient mongoClient,
+            @Qualifier("applicationTaskExecutor") TaskExecutor taskExecutor) {
         this.mongoTemplate = mongoTemplate;
         this.mongoClient = mongoClient;
+        this.taskExecutor = taskExecutor;
     }
 
     @Override
     public void run(String... args) {
-        System.out.println("🔍 Verificando conexión con MongoDB...");
+        // La verificación no retrasa el arranque; con hilos virtuales corre en uno de ellos
+        taskExecutor.execute(this::checkConnection);
+    }
+
+    private void checkConnection() {
+        log.info("🔍 Verificando conexión con MongoDB...");
         try {
             // Obtener nombre de la base de datos
             MongoDatabase database = mongoClient.getDatabase(mongoTemplate.getDb().getName());
             if (database == null || database.getName().isEmpty()) {
                 throw new MongoException("No se pudo conectar a la base de datos");
             }
-            System.out.println("✅ Conexión exitosa a MongoDB");
-            System.out.println("📂 Base de datos seleccionada: " + database.getName());
+            log.info("✅ Conexión exitosa a MongoDB");
+            log.info("📂 Base de datos seleccionada: {}", database.getName());
 
             // Verificar colecciones disponibles
-            System.out.println("📌 Colecciones en la base de datos:");
+            log.info("📌 Colecciones en la base de datos:");
             for (String collectionName : database.listCollectionNames()) {
-                System.out.println("   - " + collectionName);
+                log.info("   - {}", collectionName);
             }
 
             // Probar una consulta simple (contar documentos en una colección específica)
             long count = database.getCollection("usuarios").countDocuments();
-            System.out.println("📊 Documentos en la colección 'usuarios': " + count);
+            log.info("📊 Documentos en la colección 'usuarios': {}", count);
 
         } catch (MongoException e) {
-            System.err.println("❌ Error al conectar a MongoDB: " + e.getMessage());
-            e.printStackTrace();
+            log.error("❌ Error al conectar a MongoDB: {}", e.getMessage(), e);
         }
     }
 }
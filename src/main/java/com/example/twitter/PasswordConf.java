@@ -0,0 +1,20 @@
+package com.example.twitter;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+/**
+ * Password encoder shared by the servlet and the reactive security
+ * configurations.
+ */
+@Configuration
+public class PasswordConf {
+
+        @Bean
+        public PasswordEncoder passwordEncoder(@Value("${security.bcrypt.strength:10}") int strength) {
+                return new BCryptPasswordEncoder(strength);
+        }
+}
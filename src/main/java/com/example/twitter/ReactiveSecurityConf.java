@@ -0,0 +1,56 @@
+package com.example.twitter;
+
+import com.example.twitter.security.JwtSecurityContextRepository;
+import com.example.twitter.services.CustomUserDetailsService;
+import com.example.twitter.services.JWTService;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.security.config.annotation.web.reactive.EnableWebFluxSecurity;
+import org.springframework.security.config.web.server.ServerHttpSecurity;
+import org.springframework.security.core.userdetails.ReactiveUserDetailsService;
+import org.springframework.security.web.server.SecurityWebFilterChain;
+import org.springframework.security.web.server.authentication.HttpStatusServerEntryPoint;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+/**
+ * Security configuration of the reactive stack. Requests authenticate with the
+ * JWT of the "Authorization" header through
+ * {@link JwtSecurityContextRepository}, and the same endpoints as on the
+ * servlet stack require it.
+ */
+@Configuration
+@EnableWebFluxSecurity
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+public class ReactiveSecurityConf {
+
+        @Bean
+        public SecurityWebFilterChain securityWebFilterChain(ServerHttpSecurity http, JWTService jwtService) {
+                return http
+                                .csrf(ServerHttpSecurity.CsrfSpec::disable)
+                                .httpBasic(ServerHttpSecurity.HttpBasicSpec::disable)
+                                .formLogin(ServerHttpSecurity.FormLoginSpec::disable)
+                                .securityContextRepository(new JwtSecurityContextRepository(jwtService))
+                                .authorizeExchange(exchange -> exchange
+                                                .pathMatchers(HttpMethod.GET, "/posts/feed", "/posts/timeline").authenticated()
+                                                .pathMatchers(HttpMethod.POST, "/posts/create", "/posts/thread",
+                                                                "/posts/*/like")
+                                                .authenticated()
+                                                .pathMatchers("/users/*/follow").authenticated()
+                                                .anyExchange().permitAll())
+                                .exceptionHandling(exceptions -> exceptions
+                                                .authenticationEntryPoint(
+                                                                new HttpStatusServerEntryPoint(HttpStatus.UNAUTHORIZED)))
+                                .build();
+        }
+
+        @Bean
+        public ReactiveUserDetailsService reactiveUserDetailsService(CustomUserDetailsService userDetailsService) {
+                // El repositorio de usuarios es bloqueante; se consulta fuera del event loop
+                return username -> Mono.fromCallable(() -> userDetailsService.loadUserByUsername(username))
+                                .subscribeOn(Schedulers.boundedElastic());
+        }
+}
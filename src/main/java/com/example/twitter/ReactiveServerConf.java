@@ -0,0 +1,21 @@
+package com.example.twitter;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.boot.web.embedded.netty.NettyReactiveWebServerFactory;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Serves the reactive stack on Netty. Tomcat is also on the classpath for the
+ * servlet stack and Spring Boot would otherwise prefer it, running WebFlux on
+ * servlet threads instead of on the event loop.
+ */
+@Configuration
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+public class ReactiveServerConf {
+
+        @Bean
+        public NettyReactiveWebServerFactory nettyReactiveWebServerFactory() {
+                return new NettyReactiveWebServerFactory();
+        }
+}
@@ -1,41 +1,56 @@
 package com.example.twitter;
 
+import com.example.twitter.security.JwtAuthenticationFilter;
 import com.example.twitter.services.CustomUserDetailsService;
+import com.example.twitter.services.JWTService;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
 import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.config.annotation.authentication.builders.AuthenticationManagerBuilder;
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
 import org.springframework.security.config.annotation.web.configuration.EnableWebSecurity;
 import org.springframework.security.config.annotation.web.configurers.AbstractHttpConfigurer;
-import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.config.http.SessionCreationPolicy;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.security.web.SecurityFilterChain;
+import org.springframework.security.web.authentication.HttpStatusEntryPoint;
+import org.springframework.security.web.authentication.UsernamePasswordAuthenticationFilter;
 
 @Configuration
 @EnableWebSecurity
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
 public class SecurityConf {
 
         @Autowired
         private CustomUserDetailsService userDetailsService;
 
+        /**
+         * Stateless security: every request is authenticated by its JWT with
+         * {@link JwtAuthenticationFilter} and no session is created. The feed,
+         * post creation and following users require a token and answer 401
+         * without a valid one; the rest of the endpoints are public.
+         */
         @Bean
-        public SecurityFilterChain securityFilterChain(HttpSecurity http) throws Exception {
+        public SecurityFilterChain securityFilterChain(HttpSecurity http, JWTService jwtService) throws Exception {
                 http
                                 .csrf(AbstractHttpConfigurer::disable)
+                                .sessionManagement(session -> session
+                                                .sessionCreationPolicy(SessionCreationPolicy.STATELESS))
                                 .authorizeHttpRequests(auth -> auth
-                                                .requestMatchers("/index/**").authenticated()
-                                                .requestMatchers("/register", "/login").permitAll()
+                                                .requestMatchers(HttpMethod.GET, "/posts/feed", "/posts/timeline").authenticated()
+                                                .requestMatchers(HttpMethod.POST, "/posts/create", "/posts/thread",
+                                                                "/posts/*/like")
+                                                .authenticated()
+                                                .requestMatchers("/users/*/follow").authenticated()
                                                 .anyRequest().permitAll())
-                                .formLogin(login -> login
-                                                .loginPage("/login")
-                                                .defaultSuccessUrl("/index", true)
-                                                .permitAll())
-                                .logout(logout -> logout
-                                                .logoutUrl("/logout")
-                                                .logoutSuccessUrl("/login")
-                                                .permitAll());
+                                .exceptionHandling(exceptions -> exceptions
+                                                .authenticationEntryPoint(new HttpStatusEntryPoint(HttpStatus.UNAUTHORIZED)))
+                                .addFilterBefore(new JwtAuthenticationFilter(jwtService),
+                                                UsernamePasswordAuthenticationFilter.class);
 
                 return http.build();
         }
@@ -50,9 +65,4 @@ public class SecurityConf {
                                 .build();
         }
 
-        @Bean
-        public PasswordEncoder passwordEncoder() {
-                return new BCryptPasswordEncoder();
-        }
-
 }
@@ -0,0 +1,159 @@
+package com.example.twitter.cache;
+
+import com.example.twitter.model.Post;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Optional;
+import java.util.function.Function;
+
+/**
+ * In-process read-through cache of posts by id and of reply lists by parent
+ * id. Both caches are bounded by size with Caffeine's W-TinyLFU eviction, so
+ * the posts that keep being read stay in memory, and each has its own TTL.
+ *
+ * On a miss, concurrent callers for the same key share one load through a
+ * {@link SingleFlight}, so a viral post costs one query however many requests
+ * arrive at once; they wait at most {@code posts.cache.load-timeout}. The load
+ * runs inside Caffeine's per-key compute, so an update or invalidation of a
+ * key waits for an in-flight load of that key instead of being overwritten by
+ * it. Entries are kept up to date by {@link #postCreated(Post)} and
+ * {@link #postDeleted(String, String)}; other instances of the application
+ * only see a change once the TTL expires.
+ */
+@Component
+public class PostCache {
+    private final Cache<String, Post> byId;
+    private final Cache<String, List<Post>> repliesByParent;
+    private final SingleFlight<String, Optional<Post>> postLoads;
+    private final SingleFlight<String, List<Post>> replyLoads;
+
+    /**
+     * Constructs a new PostCache.
+     *
+     * @param meterRegistry  Registry for the hit, miss and eviction metrics.
+     * @param byIdMaxSize    Maximum number of posts cached by id.
+     * @param byIdTtl        Time a post stays cached after it is loaded.
+     * @param repliesMaxSize Maximum number of reply lists cached.
+     * @param repliesTtl     Time a reply list stays cached after it is loaded or
+     *                       updated.
+     * @param loadTimeout    Maximum time a caller waits for a load started by
+     *                       another caller.
+     */
+    public PostCache(MeterRegistry meterRegistry,
+            @Value("${posts.cache.by-id.max-size:100000}") long byIdMaxSize,
+            @Value("${posts.cache.by-id.ttl:PT10M}") Duration byIdTtl,
+            @Value("${posts.cache.replies.max-size:10000}") long repliesMaxSize,
+            @Value("${posts.cache.replies.ttl:PT1M}") Duration repliesTtl,
+            @Value("${posts.cache.load-timeout:PT2S}") Duration loadTimeout) {
+        this.byId = Caffeine.newBuilder()
+                .maximumSize(byIdMaxSize)
+                .expireAfterWrite(byIdTtl)
+                .recordStats()
+                .build();
+        this.repliesByParent = Caffeine.newBuilder()
+                .maximumSize(repliesMaxSize)
+                .expireAfterWrite(repliesTtl)
+                .recordStats()
+                .build();
+
+        this.postLoads = new SingleFlight<>(loadTimeout);
+        this.replyLoads = new SingleFlight<>(loadTimeout);
+
+        CaffeineCacheMetrics.monitor(meterRegistry, byId, "posts.by-id");
+        CaffeineCacheMetrics.monitor(meterRegistry, repliesByParent, "posts.replies");
+    }
+
+    /**
+     * Returns a post, loading it on a miss. Missing posts are not cached.
+     *
+     * @param id     The ID of the post.
+     * @param loader Loads the post from the database.
+     * @return The post, or empty if it does not exist.
+     * @throws org.springframework.dao.QueryTimeoutException if a concurrent
+     *                                                       load does not finish
+     *                                                       in time.
+     */
+    public Optional<Post> getPost(String id, Function<String, Optional<Post>> loader) {
+        Post cached = byId.getIfPresent(id);
+        if (cached != null) {
+            return Optional.of(cached);
+        }
+        return postLoads.load(id, key -> Optional.ofNullable(byId.get(key, k -> loader.apply(k).orElse(null))));
+    }
+
+    /**
+     * Returns the replies of a post, loading them on a miss.
+     *
+     * @param parentPostId The ID of the parent post.
+     * @param loader       Loads the replies from the database.
+     * @return The replies, as an unmodifiable list.
+     * @throws org.springframework.dao.QueryTimeoutException if a concurrent
+     *                                                       load does not finish
+     *                                                       in time.
+     */
+    public List<Post> getReplies(String parentPostId, Function<String, List<Post>> loader) {
+        List<Post> cached = repliesByParent.getIfPresent(parentPostId);
+        if (cached != null) {
+            return cached;
+        }
+        return replyLoads.load(parentPostId, key -> repliesByParent.get(key,
+                k -> Collections.unmodifiableList(loader.apply(k))));
+    }
+
+    /**
+     * Caches a new post and appends it to the cached replies of its parent.
+     *
+     * @param post The created post, with its id assigned.
+     */
+    public void postCreated(Post post) {
+        byId.put(post.getId(), post);
+        if (post.getParentPostId() != null) {
+            repliesByParent.asMap().computeIfPresent(post.getParentPostId(), (parentId, replies) -> {
+                // La carga en curso pudo leer ya la respuesta de la base de datos
+                if (replies.stream().anyMatch(reply -> post.getId().equals(reply.getId()))) {
+                    return replies;
+                }
+                List<Post> updated = new ArrayList<>(replies.size() + 1);
+                updated.addAll(replies);
+                updated.add(post);
+                return Collections.unmodifiableList(updated);
+            });
+        }
+    }
+
+    /**
+     * Forgets a deleted post, its own reply list and its place in the cached
+     * replies of its parent.
+     *
+     * @param id           The ID of the deleted post.
+     * @param parentPostId (Optional) The ID of its parent post.
+     */
+    public void postDeleted(String id, String parentPostId) {
+        byId.invalidate(id);
+        repliesByParent.invalidate(id);
+        if (parentPostId != null) {
+            repliesByParent.asMap().computeIfPresent(parentPostId, (parentId, replies) -> Collections
+                    .unmodifiableList(replies.stream().filter(reply -> !id.equals(reply.getId())).toList()));
+        }
+    }
+
+    /**
+     * Forgets posts whose stored fields changed, so the next read loads them
+     * again.
+     *
+     * @param ids The IDs of the updated posts.
+     */
+    public void postsUpdated(Collection<String> ids) {
+        byId.invalidateAll(ids);
+    }
+}
@@ -0,0 +1,131 @@
+package com.example.twitter.cache;
+
+import org.springframework.dao.QueryTimeoutException;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Function;
+
+/**
+ * Coalesces concurrent loads of the same key: the first caller (the leader)
+ * runs the load on its own thread and the callers that arrive while it is in
+ * flight wait for its result instead of issuing the same query again.
+ *
+ * Each flight has a deadline of {@code timeout} from its start. Waiting
+ * callers give up at the deadline with a {@link QueryTimeoutException}, and a
+ * flight past its deadline is no longer joined, so a hung load is retried by
+ * the next caller. The leader itself is bounded by the database driver's
+ * timeouts.
+ *
+ * A waiting caller that is interrupted stops waiting without affecting the
+ * flight. If the leader is interrupted while loading, the flight is cancelled
+ * and the waiting callers retry, one of them becoming the new leader; any
+ * other failure of the load is thrown to every caller of the flight.
+ *
+ * @param <K> The type of the keys.
+ * @param <V> The type of the loaded values.
+ */
+public class SingleFlight<K, V> {
+    private final Map<K, Flight<V>> flights = new ConcurrentHashMap<>();
+    private final Duration timeout;
+
+    public SingleFlight(Duration timeout) {
+        this.timeout = timeout;
+    }
+
+    /**
+     * Loads the value of a key, sharing the load with concurrent callers.
+     *
+     * @param key    The key to load.
+     * @param loader Loads the value; called at most once per flight.
+     * @return The loaded value.
+     * @throws QueryTimeoutException if the flight does not finish before its
+     *                               deadline.
+     * @throws CancellationException if the calling thread is interrupted while
+     *                               waiting.
+     */
+    public V load(K key, Function<? super K, ? extends V> loader) {
+        while (true) {
+            Flight<V> flight = new Flight<>(System.nanoTime() + timeout.toNanos());
+            Flight<V> current = flights.putIfAbsent(key, flight);
+            if (current == null) {
+                return lead(key, flight, loader);
+            }
+            if (current.isExpired()) {
+                // Vuelo colgado: se abandona y el siguiente intento lo reemplaza
+                flights.remove(key, current);
+                continue;
+            }
+            try {
+                return current.await(key);
+            } catch (CancellationException e) {
+                if (Thread.currentThread().isInterrupted()) {
+                    throw e;
+                }
+                // El líder fue cancelado: se reintenta
+            }
+        }
+    }
+
+    /**
+     * @return The number of keys with a load in flight.
+     */
+    public int inFlight() {
+        return flights.size();
+    }
+
+    private V lead(K key, Flight<V> flight, Function<? super K, ? extends V> loader) {
+        try {
+            V value = loader.apply(key);
+            flight.result.complete(value);
+            return value;
+        } catch (RuntimeException | Error e) {
+            if (Thread.currentThread().isInterrupted()) {
+                flight.result.cancel(false);
+            } else {
+                flight.result.completeExceptionally(e);
+            }
+            throw e;
+        } finally {
+            flights.remove(key, flight);
+        }
+    }
+
+    private static final class Flight<V> {
+        private final CompletableFuture<V> result = new CompletableFuture<>();
+        private final long deadline;
+
+        private Flight(long deadline) {
+            this.deadline = deadline;
+        }
+
+        private boolean isExpired() {
+            return System.nanoTime() - deadline >= 0;
+        }
+
+        private V await(Object key) {
+            try {
+                return result.get(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS);
+            } catch (TimeoutException e) {
+                throw new QueryTimeoutException("Timed out waiting for the load of " + key, e);
+            } catch (ExecutionException e) {
+                if (e.getCause() instanceof RuntimeException runtimeException) {
+                    throw runtimeException;
+                }
+                if (e.getCause() instanceof Error error) {
+                    throw error;
+                }
+                throw new IllegalStateException(e.getCause());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new CancellationException("Interrupted while waiting for the load of " + key);
+            }
+        }
+    }
+}
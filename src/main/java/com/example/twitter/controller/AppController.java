@@ -1,13 +1,29 @@
 package com.example.twitter.controller;
 
+import com.example.twitter.dto.CursorPost;
+import com.example.twitter.dto.TimelineCursor;
+import com.example.twitter.dto.TimelinePage;
 import com.example.twitter.model.Post;
-import com.example.twitter.services.JWTService;
+import com.example.twitter.security.AuthenticatedUser;
 import com.example.twitter.services.PostService;
+import com.example.twitter.services.TimelineService;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.dao.QueryTimeoutException;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.nio.charset.StandardCharsets;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Optional;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.stream.Stream;
 
 /**
  * REST controller for managing posts in the application.
@@ -16,7 +32,8 @@ import java.util.Optional;
  * posts,
  * as well as specialized operations like retrieving user feeds, post replies,
  * and
- * creating thread posts. Some endpoints require JWT authentication.
+ * creating thread posts. The feed and post creation require JWT
+ * authentication (see {@link com.example.twitter.SecurityConf}).
  * 
  * All endpoints are available under the "/posts" base path and support
  * cross-origin
@@ -27,92 +44,188 @@ import java.util.Optional;
  * @CrossOrigin Allows requests from any origin
  */
 @RestController
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
 @RequestMapping("/posts")
 @CrossOrigin(origins = "*")
 public class AppController {
+    private static final int DEFAULT_PAGE_SIZE = 20;
+    // Cada cuántas líneas se vacía el buffer durante una exportación
+    private static final int EXPORT_FLUSH_LINES = 100;
+
     private final PostService postService;
-    private final JWTService jwtService;
+    private final TimelineService timelineService;
+    private final ObjectWriter exportWriter;
 
-    public AppController(PostService postService, JWTService jwtService) {
+    public AppController(PostService postService, TimelineService timelineService, ObjectMapper objectMapper) {
         this.postService = postService;
-        this.jwtService = jwtService;
+        this.timelineService = timelineService;
+        this.exportWriter = objectMapper.writerFor(CursorPost.class);
     }
 
     /**
-     * Creates a new post based on the provided Post object.
+     * Creates a new post based on the provided Post object, on behalf of the
+     * user of the JWT.
      * 
-     * @param post The Post object containing userId, content, and optionally
-     *             parentPostId
+     * @param user The authenticated user, the author of the post
+     * @param post The Post object containing content, and optionally
+     *             parentPostId; its userId is ignored
      * @return ResponseEntity containing the newly created Post if successful, or an
-     *         error message if the operation fails
+     *         error message if the operation fails, or 429 Too Many Requests if
+     *         the ingestion queue is full
      * @throws IllegalArgumentException if the post parameters are invalid (handled
      *                                  within the method)
      */
     @PostMapping("/create")
-    public ResponseEntity<?> createPost(@RequestBody Post post) {
+    public ResponseEntity<?> createPost(@AuthenticationPrincipal AuthenticatedUser user, @RequestBody Post post) {
         try {
-            Post newPost = postService.createPost(post.getUserId(), post.getContent(), post.getParentPostId());
+            Post newPost = postService.createPost(user.getUserId(), post.getContent(), post.getParentPostId());
             return ResponseEntity.ok(newPost);
         } catch (IllegalArgumentException e) {
             return ResponseEntity.badRequest().body(e.getMessage());
+        } catch (RejectedExecutionException e) {
+            return tooManyRequests();
         }
     }
 
     /**
-     * Retrieves all posts created by a specific user.
+     * Retrieves the posts created by a specific user.
+     * 
+     * When {@code limit} or {@code after} are given the posts are returned one
+     * page at a time, newest first, together with the cursor of the next page.
+     * When {@code embedReplies} is given each post carries its first replies.
      * 
-     * @param userId The identifier of the user whose posts are to be retrieved
-     * @return ResponseEntity containing a list of posts if the user exists,
-     *         or a bad request with an error message if the user doesn't exist
+     * @param userId       The identifier of the user whose posts are to be
+     *                     retrieved
+     * @param limit        (Optional) The maximum number of posts in the page
+     * @param after        (Optional) The opaque cursor returned with the previous
+     *                     page
+     * @param embedReplies (Optional) The number of replies to embed in each post
+     * @return ResponseEntity containing a list or a page of posts if the user
+     *         exists, or a bad request with an error message if the user doesn't
+     *         exist or the pagination parameters are invalid
      */
     @GetMapping("/user")
-    public ResponseEntity<?> getPostsByUser(@RequestParam String userId) {
+    public ResponseEntity<?> getPostsByUser(@RequestParam String userId,
+            @RequestParam(required = false) Integer limit,
+            @RequestParam(required = false) String after,
+            @RequestParam(required = false) Integer embedReplies) {
         try {
-            return ResponseEntity.ok(postService.getPostsByUser(userId));
+            if (limit == null && after == null) {
+                return ResponseEntity.ok(withReplies(postService.getPostsByUser(userId), embedReplies));
+            }
+            TimelinePage<Post> page = postService.getPostsByUser(userId, after, pageSize(limit));
+            if (embedReplies == null) {
+                return ResponseEntity.ok(page);
+            }
+            return ResponseEntity.ok(new TimelinePage<>(postService.withReplies(page.getItems(), embedReplies),
+                    page.getNextCursor()));
         } catch (IllegalArgumentException e) {
             return ResponseEntity.badRequest().body(e.getMessage());
         }
     }
 
+    /**
+     * Exports every post of a specific user as newline-delimited JSON, newest
+     * first. Posts are written as they are read from the database, so memory
+     * stays constant regardless of the number of posts.
+     * 
+     * Each line carries a {@code cursor} field; sending the cursor of the last
+     * line received as {@code after} resumes an interrupted export.
+     * 
+     * @param userId The identifier of the user whose posts are exported
+     * @param after  (Optional) The cursor of the last post already received
+     * @return ResponseEntity streaming the posts in {@code application/x-ndjson},
+     *         or a bad request with an error message if the cursor is invalid
+     */
+    @GetMapping("/user/export")
+    public ResponseEntity<StreamingResponseBody> exportPostsByUser(@RequestParam String userId,
+            @RequestParam(required = false) String after) {
+        TimelineCursor cursor;
+        try {
+            cursor = after == null || after.isEmpty() ? null : TimelineCursor.decode(after);
+        } catch (IllegalArgumentException e) {
+            byte[] message = e.getMessage().getBytes(StandardCharsets.UTF_8);
+            return ResponseEntity.badRequest().contentType(MediaType.TEXT_PLAIN).body(out -> out.write(message));
+        }
+
+        StreamingResponseBody body = out -> {
+            try (Stream<Post> posts = postService.streamPostsByUser(userId, cursor)) {
+                Iterator<Post> iterator = posts.iterator();
+                int lines = 0;
+                while (iterator.hasNext()) {
+                    out.write(exportWriter.writeValueAsBytes(new CursorPost(iterator.next())));
+                    out.write('\n');
+                    // La primera línea sale de inmediato; luego se vacía por bloques
+                    if (++lines == 1 || lines % EXPORT_FLUSH_LINES == 0) {
+                        out.flush();
+                    }
+                }
+            }
+        };
+        return ResponseEntity.ok().contentType(MediaType.APPLICATION_NDJSON).body(body);
+    }
+
     /**
      * Retrieves the feed of posts for an authenticated user.
      * 
-     * This endpoint requires authentication via a JWT token in the Authorization
-     * header.
-     * The token must be in the format "Bearer [token]". The method validates the
-     * token
-     * and then returns the feed of posts if authentication is successful.
+     * This endpoint requires a JWT in the "Authorization: Bearer [token]"
+     * header; requests without a valid one are answered with 401
+     * (UNAUTHORIZED) before reaching the controller.
      *
-     * @param authHeader The Authorization header containing the JWT token
-     *                   (required)
+     * @param embedReplies (Optional) The number of replies to embed in each post
      * @return A ResponseEntity containing either:
-     *         - 200 OK with the feed of posts if authentication succeeds
-     *         - 401 Unauthorized if the token is invalid, missing, or
-     *         authentication fails
+     *         - 200 OK with the feed of posts
      *         - 400 Bad Request if there's an illegal argument
-     * @throws IllegalArgumentException if there's an issue with the request
-     *                                  parameters
-     * @throws Exception                if there's any other error during processing
      */
     @GetMapping("/feed")
-    public ResponseEntity<?> getFeed(@RequestHeader(value = "Authorization", required = true) String authHeader) {
+    public ResponseEntity<?> getFeed(@RequestParam(required = false) Integer embedReplies) {
         try {
-            // Verify JWT token
-            if (authHeader == null || !authHeader.startsWith("Bearer ")) {
-                return ResponseEntity.status(401).body("Unauthorized: Invalid or missing token");
-            }
-
-            String token = authHeader.substring(7);
+            return ResponseEntity.ok(withReplies(postService.getFeed(), embedReplies));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        }
+    }
 
-            if (!this.jwtService.verify(token)) {
-                return ResponseEntity.status(401).body("Unauthorized: Invalid token");
-            }
+    /**
+     * Retrieves the home timeline of the user of the JWT: the newest posts of
+     * the accounts the user follows.
+     *
+     * @param user  The authenticated user whose timeline is requested
+     * @param limit (Optional) The maximum number of posts to return
+     * @return ResponseEntity containing the list of posts, or a bad request with
+     *         an error message if the user doesn't exist
+     */
+    @GetMapping("/timeline")
+    public ResponseEntity<?> getTimeline(@AuthenticationPrincipal AuthenticatedUser user,
+            @RequestParam(required = false) Integer limit) {
+        try {
+            return ResponseEntity.ok(timelineService.getHomeTimeline(user.getUserId(), pageSize(limit)));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        }
+    }
 
-            return ResponseEntity.ok(postService.getFeed());
+    /**
+     * Searches posts by their content. Every term must appear in the post,
+     * ignoring case and accents; a term ending in {@code *} matches any word
+     * that starts with it.
+     *
+     * @param q     The terms to search for, separated by spaces
+     * @param limit (Optional) The maximum number of posts
+     * @return ResponseEntity containing the matching posts, newest first, a
+     *         bad request if the query or the limit are invalid, or 503
+     *         (SERVICE UNAVAILABLE) while the search index is being built
+     */
+    @GetMapping("/search")
+    public ResponseEntity<?> searchPosts(@RequestParam String q, @RequestParam(required = false) Integer limit) {
+        try {
+            return ResponseEntity.ok(postService.searchPosts(q, pageSize(limit)));
         } catch (IllegalArgumentException e) {
             return ResponseEntity.badRequest().body(e.getMessage());
-        } catch (Exception e) {
-            return ResponseEntity.status(401).body("Unauthorized: " + e.getMessage());
+        } catch (IllegalStateException e) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                    .header("Retry-After", "5")
+                    .body(e.getMessage());
         }
     }
 
@@ -122,24 +235,68 @@ public class AppController {
      * @param id The unique identifier of the post to retrieve
      * @return ResponseEntity containing the Post if found with status code 200
      *         (OK),
-     *         or status code 404 (NOT FOUND) if no post exists with the given ID
+     *         or status code 404 (NOT FOUND) if no post exists with the given ID,
+     *         or 503 (SERVICE UNAVAILABLE) if loading it from the database timed
+     *         out
      */
     @GetMapping("/{id}")
     public ResponseEntity<?> getPostById(@PathVariable String id) {
-        Optional<Post> post = postService.getPostById(id);
-        return post.map(ResponseEntity::ok).orElseGet(() -> ResponseEntity.notFound().build());
+        try {
+            Optional<Post> post = postService.getPostById(id);
+            return post.map(ResponseEntity::ok).orElseGet(() -> ResponseEntity.notFound().build());
+        } catch (QueryTimeoutException e) {
+            return loadTimedOut();
+        }
     }
 
     /**
-     * Retrieves all replies for a specific post.
+     * Retrieves the replies for a specific post.
+     * 
+     * When {@code limit} or {@code after} are given the replies are returned one
+     * page at a time, newest first, together with the cursor of the next page.
      * 
-     * @param id The unique identifier of the post for which replies are requested
-     * @return ResponseEntity containing a list of Post objects that are replies to
-     *         the specified post
+     * @param id    The unique identifier of the post for which replies are
+     *              requested
+     * @param limit (Optional) The maximum number of replies in the page
+     * @param after (Optional) The opaque cursor returned with the previous page
+     * @return ResponseEntity containing a list or a page of Post objects that are
+     *         replies to the specified post, a bad request if the pagination
+     *         parameters are invalid, or 503 (SERVICE UNAVAILABLE) if loading
+     *         them from the database timed out
      */
     @GetMapping("/{id}/replies")
-    public ResponseEntity<List<Post>> getReplies(@PathVariable String id) {
-        return ResponseEntity.ok(postService.getReplies(id));
+    public ResponseEntity<?> getReplies(@PathVariable String id,
+            @RequestParam(required = false) Integer limit,
+            @RequestParam(required = false) String after) {
+        try {
+            if (limit == null && after == null) {
+                return ResponseEntity.ok(postService.getReplies(id));
+            }
+            return ResponseEntity.ok(postService.getReplies(id, after, pageSize(limit)));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        } catch (QueryTimeoutException e) {
+            return loadTimedOut();
+        }
+    }
+
+    /**
+     * Retrieves the replies of several posts at once, grouped by parent post.
+     * Lets clients load the replies of a whole page of posts with one request.
+     * 
+     * @param parentIds The unique identifiers of the parent posts
+     * @param limit     (Optional) The maximum number of replies per parent post
+     * @return ResponseEntity containing a map from parent post ID to its replies,
+     *         or a bad request if the parameters are invalid
+     */
+    @GetMapping("/replies")
+    public ResponseEntity<?> getRepliesBatch(@RequestParam List<String> parentIds,
+            @RequestParam(required = false) Integer limit) {
+        try {
+            return ResponseEntity.ok(postService.getRepliesByParents(parentIds, pageSize(limit)));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        }
     }
 
     /**
@@ -157,28 +314,76 @@ public class AppController {
     }
 
     /**
-     * Creates a new thread starting with the given post.
+     * Likes a post on behalf of the user of the JWT. A user counts once per
+     * post, so repeating the like changes nothing. The like counter is updated
+     * in memory and written to the database in the next batch, so
+     * {@code likeCount} may take up to {@code posts.counters.flush-interval} to
+     * reflect it.
+     *
+     * @param user The authenticated user who likes the post
+     * @param id   The unique identifier of the post to like
+     * @return ResponseEntity with status code 202 (ACCEPTED), or 404 (NOT FOUND)
+     *         if no post exists with the given ID
+     */
+    @PostMapping("/{id}/like")
+    public ResponseEntity<?> likePost(@AuthenticationPrincipal AuthenticatedUser user, @PathVariable String id) {
+        try {
+            postService.likePost(id, user.getUserId());
+            return ResponseEntity.accepted().build();
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.notFound().build();
+        }
+    }
+
+    /**
+     * Creates a new thread starting with the given post, on behalf of the
+     * user of the JWT.
      * A thread must start with a main post that doesn't have a parent post.
      *
+     * @param user The authenticated user, the author of the thread
      * @param post The post that will serve as the start of the thread.
-     *             It should not have a parentPostId.
+     *             It should not have a parentPostId; its userId is ignored.
      * @return ResponseEntity containing the newly created thread post if
      *         successful,
-     *         or an error message if the request is invalid
+     *         or an error message if the request is invalid, or 429 Too Many
+     *         Requests if the ingestion queue is full
      * @throws IllegalArgumentException if the post contains invalid data
      *                                  or violates business rules
      */
     @PostMapping("/thread")
-    public ResponseEntity<?> createThread(@RequestBody Post post) {
+    public ResponseEntity<?> createThread(@AuthenticationPrincipal AuthenticatedUser user, @RequestBody Post post) {
         try {
             if (post.getParentPostId() != null) {
                 return ResponseEntity.badRequest().body("Un hilo debe empezar con un post principal sin parentPostId.");
             }
+            post.setUserId(user.getUserId());
 
             Post newThreadPost = postService.createThread(post);
             return ResponseEntity.ok(newThreadPost);
         } catch (IllegalArgumentException e) {
             return ResponseEntity.badRequest().body(e.getMessage());
+        } catch (RejectedExecutionException e) {
+            return tooManyRequests();
         }
     }
+
+    private ResponseEntity<?> tooManyRequests() {
+        return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+                .header("Retry-After", "1")
+                .body("Too many posts, please try again");
+    }
+
+    private ResponseEntity<?> loadTimedOut() {
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header("Retry-After", "1")
+                .body("Post storage is slow, please try again");
+    }
+
+    private int pageSize(Integer limit) {
+        return limit == null ? DEFAULT_PAGE_SIZE : limit;
+    }
+
+    private List<?> withReplies(List<Post> posts, Integer embedReplies) {
+        return embedReplies == null ? posts : postService.withReplies(posts, embedReplies);
+    }
 }
@@ -0,0 +1,59 @@
+package com.example.twitter.controller;
+
+import com.example.twitter.model.Post;
+import com.example.twitter.services.PostBroadcaster;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.http.MediaType;
+import org.springframework.web.bind.annotation.CrossOrigin;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+
+/**
+ * REST controller that pushes new posts to the web client with Server-Sent
+ * Events, so the client does not have to reload the feed to see them.
+ */
+@RestController
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
+@RequestMapping("/posts")
+@CrossOrigin(origins = "*")
+public class PostStreamController {
+    private final PostBroadcaster broadcaster;
+
+    public PostStreamController(PostBroadcaster broadcaster) {
+        this.broadcaster = broadcaster;
+    }
+
+    /**
+     * Opens a stream of the posts and replies created from now on. Each one is
+     * sent as a {@code post} event whose data is the post as JSON.
+     * 
+     * @return The SSE emitter, closed when the client disconnects, falls
+     *         behind for longer than the send timeout, or the async request
+     *         times out (the browser then reconnects by itself)
+     */
+    @GetMapping(value = "/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter stream() {
+        SseEmitter emitter = new SseEmitter();
+        PostBroadcaster.Subscription subscription = broadcaster.subscribe(new PostBroadcaster.Sink() {
+            @Override
+            public void send(Post post) throws IOException {
+                emitter.send(SseEmitter.event().name("post").id(post.getId()).data(post, MediaType.APPLICATION_JSON));
+            }
+
+            // Cliente demasiado lento: se cierra y el navegador se reconecta
+            @Override
+            public void close() {
+                emitter.complete();
+            }
+        });
+
+        emitter.onCompletion(subscription::cancel);
+        emitter.onTimeout(subscription::cancel);
+        emitter.onError(error -> subscription.cancel());
+        return emitter;
+    }
+}
@@ -0,0 +1,45 @@
+package com.example.twitter.controller;
+
+import com.example.twitter.dto.ThreadNode;
+import com.example.twitter.services.PostService;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+
+/**
+ * REST controller for reading whole conversations.
+ * 
+ * All endpoints are available under the "/threads" base path and support
+ * cross-origin requests from any domain.
+ */
+@RestController
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
+@RequestMapping("/threads")
+@CrossOrigin(origins = "*")
+public class ThreadController {
+    private final PostService postService;
+
+    public ThreadController(PostService postService) {
+        this.postService = postService;
+    }
+
+    /**
+     * Retrieves every post of a thread arranged as a reply tree.
+     * 
+     * @param id The unique identifier of the thread
+     * @return ResponseEntity containing the top-level posts of the thread (the
+     *         root post, plus any reply whose parent is no longer available)
+     *         with their nested replies, or status code 404 (NOT FOUND) if the
+     *         thread has no posts
+     */
+    @GetMapping("/{id}")
+    public ResponseEntity<?> getThread(@PathVariable String id) {
+        List<ThreadNode> thread = postService.getThread(id);
+        if (thread.isEmpty()) {
+            return ResponseEntity.notFound().build();
+        }
+        return ResponseEntity.ok(thread);
+    }
+}
@@ -0,0 +1,49 @@
+package com.example.twitter.controller;
+
+import com.example.twitter.trends.TrendingHashtags;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+/**
+ * REST controller for the most used hashtags.
+ *
+ * All endpoints are available under the "/trends" base path and support
+ * cross-origin requests from any domain.
+ */
+@RestController
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
+@RequestMapping("/trends")
+@CrossOrigin(origins = "*")
+public class TrendsController {
+    private static final int MAX_LIMIT = 100;
+
+    private final TrendingHashtags trendingHashtags;
+
+    public TrendsController(TrendingHashtags trendingHashtags) {
+        this.trendingHashtags = trendingHashtags;
+    }
+
+    /**
+     * Retrieves the hashtags used by the most posts in the last minutes.
+     *
+     * @param window The minutes to look back, from 1 to 60 (5 by default)
+     * @param limit  The maximum number of hashtags, from 1 to 100 (10 by
+     *               default)
+     * @return ResponseEntity containing the hashtags with their estimated
+     *         number of posts, most used first, or a bad request if the
+     *         window or the limit are out of range
+     */
+    @GetMapping
+    public ResponseEntity<?> getTrends(@RequestParam(defaultValue = "5") int window,
+            @RequestParam(defaultValue = "10") int limit) {
+        if (limit < 1 || limit > MAX_LIMIT) {
+            return ResponseEntity.badRequest().body("The limit must be between 1 and " + MAX_LIMIT);
+        }
+        try {
+            return ResponseEntity.ok(trendingHashtags.top(window, limit));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        }
+    }
+}
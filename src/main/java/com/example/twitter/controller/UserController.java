@@ -1,14 +1,20 @@
 package com.example.twitter.controller;
 
+import com.example.twitter.security.AuthenticatedUser;
 import com.example.twitter.services.JWTService;
 import com.example.twitter.services.UserService;
 
 import java.util.HashMap;
 import java.util.Map;
+import java.util.concurrent.RejectedExecutionException;
 
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.web.bind.annotation.*;
 
 import com.example.twitter.dto.LoginDTO;
@@ -16,7 +22,9 @@ import com.example.twitter.model.User;
 
 @RestController
 @CrossOrigin(origins = "*")
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
 public class UserController {
+    private static final Logger log = LoggerFactory.getLogger(UserController.class);
 
     @Autowired
     private UserService userService;
@@ -33,7 +41,8 @@ public class UserController {
      * @return ResponseEntity containing the session token if authentication is
      *         successful,
      *         or an error message with 401 Unauthorized status if credentials are
-     *         invalid
+     *         invalid, or 503 Service Unavailable if the server is too busy
+     *         hashing passwords
      */
     @PostMapping("/log-in")
     public ResponseEntity<?> login(@RequestBody LoginDTO loginDTO) {
@@ -46,8 +55,10 @@ public class UserController {
 
             return ResponseEntity.ok(responseBody);
 
+        } catch (RejectedExecutionException e) {
+            return tooBusy();
         } catch (Exception e) {
-            System.out.println(e);
+            log.debug("Login fallido para {}: {}", loginDTO.getUsername(), e.getMessage());
             return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body("Incorrect credentials");
         }
     }
@@ -55,14 +66,80 @@ public class UserController {
     /**
      * Registers a new user in the system.
      * 
-     * @param user the User object containing registration information
+     * @param user the User object containing registration information; the
+     *             followers and followed users are read-only and ignored
      * @return ResponseEntity containing the saved user and HTTP status CREATED
-     *         (201) if successful
+     *         (201) if successful, or 503 Service Unavailable if the server is
+     *         too busy hashing passwords
      */
     @PostMapping("/register")
     public ResponseEntity<?> register(@RequestBody User user) {
-        User savedUser = userService.registerUser(user);
+        try {
+            User savedUser = userService.registerUser(user);
+
+            return new ResponseEntity<>(savedUser, HttpStatus.CREATED);
+        } catch (RejectedExecutionException e) {
+            return tooBusy();
+        }
+    }
+
+    /**
+     * Makes the authenticated user follow another one.
+     *
+     * @param user the user who starts following, taken from the JWT
+     * @param id   the id of the user to follow
+     * @return ResponseEntity with status OK if the relationship was created or
+     *         already existed, or BAD REQUEST if it is not valid
+     */
+    @PostMapping("/users/{id}/follow")
+    public ResponseEntity<?> follow(@AuthenticationPrincipal AuthenticatedUser user, @PathVariable String id) {
+        try {
+            userService.follow(user.getUserId(), id);
+            return ResponseEntity.ok().build();
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        }
+    }
+
+    /**
+     * Makes the authenticated user stop following another one.
+     *
+     * @param user the user who stops following, taken from the JWT
+     * @param id   the id of the followed user
+     * @return ResponseEntity with status OK
+     */
+    @DeleteMapping("/users/{id}/follow")
+    public ResponseEntity<?> unfollow(@AuthenticationPrincipal AuthenticatedUser user, @PathVariable String id) {
+        userService.unfollow(user.getUserId(), id);
+        return ResponseEntity.ok().build();
+    }
+
+    /**
+     * Suggests usernames for a mention while it is being typed.
+     *
+     * @param prefix the start of the username, without the {@code @}
+     * @param limit  (Optional) the maximum number of users, 10 by default
+     * @return ResponseEntity containing the most followed users whose name
+     *         starts with the prefix, a bad request if the prefix or the limit
+     *         are invalid, or 503 (SERVICE UNAVAILABLE) while the suggestions
+     *         are being loaded
+     */
+    @GetMapping("/users/suggest")
+    public ResponseEntity<?> suggest(@RequestParam String prefix, @RequestParam(defaultValue = "10") int limit) {
+        try {
+            return ResponseEntity.ok(userService.suggestUsers(prefix, limit));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        } catch (IllegalStateException e) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                    .header("Retry-After", "5")
+                    .body(e.getMessage());
+        }
+    }
 
-        return new ResponseEntity<>(savedUser, HttpStatus.CREATED);
+    private ResponseEntity<?> tooBusy() {
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header("Retry-After", "1")
+                .body("Server busy, please try again");
     }
 }
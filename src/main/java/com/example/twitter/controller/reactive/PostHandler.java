@@ -0,0 +1,90 @@
+package com.example.twitter.controller.reactive;
+
+import com.example.twitter.model.Post;
+import com.example.twitter.security.AuthenticatedUser;
+import com.example.twitter.services.ReactivePostService;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.ReactiveSecurityContextHolder;
+import org.springframework.security.core.context.SecurityContext;
+import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.function.server.ServerRequest;
+import org.springframework.web.reactive.function.server.ServerResponse;
+import reactor.core.publisher.Mono;
+
+/**
+ * Handler functions of the reactive posts API. Mirrors the endpoints of
+ * {@link com.example.twitter.controller.AppController} that are served on the
+ * reactive stack, with the same status codes and error messages.
+ */
+@Component
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+public class PostHandler {
+    private final ReactivePostService postService;
+
+    public PostHandler(ReactivePostService postService) {
+        this.postService = postService;
+    }
+
+    /**
+     * POST /posts/create, authenticated with a "Bearer [token]" header. The
+     * author is the user of the token; a userId in the body is ignored.
+     */
+    public Mono<ServerResponse> createPost(ServerRequest request) {
+        return currentUser()
+                .zipWith(request.bodyToMono(Post.class))
+                .flatMap(auth -> postService.createPost(auth.getT1().getUserId(), auth.getT2().getContent(),
+                        auth.getT2().getParentPostId()))
+                .flatMap(post -> ServerResponse.ok().bodyValue(post))
+                .onErrorResume(IllegalArgumentException.class,
+                        e -> ServerResponse.badRequest().bodyValue(e.getMessage()));
+    }
+
+    /**
+     * GET /posts/user?userId=
+     */
+    public Mono<ServerResponse> getPostsByUser(ServerRequest request) {
+        return request.queryParam("userId")
+                .map(userId -> ServerResponse.ok().body(postService.getPostsByUser(userId), Post.class))
+                .orElseGet(() -> ServerResponse.badRequest().bodyValue("Missing userId"));
+    }
+
+    /**
+     * GET /posts/feed, authenticated with a "Bearer [token]" header.
+     */
+    public Mono<ServerResponse> getFeed(ServerRequest request) {
+        return ServerResponse.ok().body(postService.getFeed(), Post.class);
+    }
+
+    /**
+     * GET /posts/{id}
+     */
+    public Mono<ServerResponse> getPostById(ServerRequest request) {
+        return postService.getPostById(request.pathVariable("id"))
+                .flatMap(post -> ServerResponse.ok().bodyValue(post))
+                .switchIfEmpty(ServerResponse.notFound().build());
+    }
+
+    /**
+     * GET /posts/{id}/replies
+     */
+    public Mono<ServerResponse> getReplies(ServerRequest request) {
+        return ServerResponse.ok().body(postService.getReplies(request.pathVariable("id")), Post.class);
+    }
+
+    /**
+     * DELETE /posts/{id}
+     */
+    public Mono<ServerResponse> deletePost(ServerRequest request) {
+        return postService.deletePost(request.pathVariable("id"))
+                .then(ServerResponse.ok().bodyValue("Post deleted successfully"));
+    }
+
+    // ReactiveSecurityConf exige el token en estas rutas, así que el usuario siempre está
+    static Mono<AuthenticatedUser> currentUser() {
+        return ReactiveSecurityContextHolder.getContext()
+                .map(SecurityContext::getAuthentication)
+                .map(Authentication::getPrincipal)
+                .cast(AuthenticatedUser.class);
+    }
+}
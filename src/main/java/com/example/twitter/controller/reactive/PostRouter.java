@@ -0,0 +1,33 @@
+package com.example.twitter.controller.reactive;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.reactive.function.server.RouterFunction;
+import org.springframework.web.reactive.function.server.ServerResponse;
+
+import static org.springframework.web.reactive.function.server.RequestPredicates.DELETE;
+import static org.springframework.web.reactive.function.server.RequestPredicates.GET;
+import static org.springframework.web.reactive.function.server.RequestPredicates.POST;
+import static org.springframework.web.reactive.function.server.RouterFunctions.route;
+
+/**
+ * Routes of the posts API on the reactive stack ({@code WEB_STACK=reactive}).
+ *
+ * The list endpoints stream the Mongo cursor straight to the response, so a
+ * slow client slows down the cursor instead of buffering the whole result.
+ */
+@Configuration
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+public class PostRouter {
+
+    @Bean
+    public RouterFunction<ServerResponse> postRoutes(PostHandler handler) {
+        return route(POST("/posts/create"), handler::createPost)
+                .andRoute(GET("/posts/user"), handler::getPostsByUser)
+                .andRoute(GET("/posts/feed"), handler::getFeed)
+                .andRoute(GET("/posts/{id}/replies"), handler::getReplies)
+                .andRoute(GET("/posts/{id}"), handler::getPostById)
+                .andRoute(DELETE("/posts/{id}"), handler::deletePost);
+    }
+}
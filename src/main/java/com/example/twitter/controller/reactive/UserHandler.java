@@ -0,0 +1,123 @@
+package com.example.twitter.controller.reactive;
+
+import com.example.twitter.dto.LoginDTO;
+import com.example.twitter.dto.UserSuggestion;
+import com.example.twitter.model.User;
+import com.example.twitter.services.UserService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.function.server.ServerRequest;
+import org.springframework.web.reactive.function.server.ServerResponse;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.RejectedExecutionException;
+
+/**
+ * Handler functions of the users API on the reactive stack. Mirrors
+ * {@link com.example.twitter.controller.UserController}, with the same status
+ * codes and error messages.
+ *
+ * {@link UserService} reads a blocking repository and waits for the password
+ * hashing pool, so those calls run on the bounded elastic scheduler instead of
+ * the event loop.
+ */
+@Component
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+public class UserHandler {
+    private static final Logger log = LoggerFactory.getLogger(UserHandler.class);
+
+    private final UserService userService;
+
+    public UserHandler(UserService userService) {
+        this.userService = userService;
+    }
+
+    /**
+     * POST /log-in
+     */
+    public Mono<ServerResponse> login(ServerRequest request) {
+        return request.bodyToMono(LoginDTO.class)
+                .flatMap(login -> blocking(() -> userService.authUser(login.getUsername(), login.getPassword()))
+                        .flatMap(session -> ServerResponse.ok().bodyValue(Map.of("session", session)))
+                        .onErrorResume(RejectedExecutionException.class, e -> tooBusy())
+                        .onErrorResume(e -> {
+                            log.debug("Login fallido para {}: {}", login.getUsername(), e.getMessage());
+                            return ServerResponse.status(HttpStatus.UNAUTHORIZED).bodyValue("Incorrect credentials");
+                        }));
+    }
+
+    /**
+     * POST /register
+     */
+    public Mono<ServerResponse> register(ServerRequest request) {
+        return request.bodyToMono(User.class)
+                .flatMap(user -> blocking(() -> userService.registerUser(user)))
+                .flatMap(saved -> ServerResponse.status(HttpStatus.CREATED).bodyValue(saved))
+                .onErrorResume(RejectedExecutionException.class, e -> tooBusy());
+    }
+
+    /**
+     * POST /users/{id}/follow, authenticated with a "Bearer [token]" header.
+     */
+    public Mono<ServerResponse> follow(ServerRequest request) {
+        String id = request.pathVariable("id");
+        return PostHandler.currentUser()
+                .flatMap(user -> blocking(() -> userService.follow(user.getUserId(), id)))
+                .then(ServerResponse.ok().build())
+                .onErrorResume(IllegalArgumentException.class,
+                        e -> ServerResponse.badRequest().bodyValue(e.getMessage()));
+    }
+
+    /**
+     * DELETE /users/{id}/follow, authenticated with a "Bearer [token]" header.
+     */
+    public Mono<ServerResponse> unfollow(ServerRequest request) {
+        String id = request.pathVariable("id");
+        return PostHandler.currentUser()
+                .flatMap(user -> blocking(() -> userService.unfollow(user.getUserId(), id)))
+                .then(ServerResponse.ok().build());
+    }
+
+    /**
+     * GET /users/suggest?prefix=&limit=
+     */
+    public Mono<ServerResponse> suggest(ServerRequest request) {
+        String prefix = request.queryParam("prefix").orElse(null);
+        if (prefix == null) {
+            return ServerResponse.badRequest().bodyValue("Missing prefix");
+        }
+        try {
+            int limit = Integer.parseInt(request.queryParam("limit").orElse("10"));
+            // Las sugerencias están en memoria; no bloquean
+            List<UserSuggestion> suggestions = userService.suggestUsers(prefix, limit);
+            return ServerResponse.ok().bodyValue(suggestions);
+        } catch (IllegalArgumentException e) {
+            return ServerResponse.badRequest().bodyValue(e.getMessage());
+        } catch (IllegalStateException e) {
+            return ServerResponse.status(HttpStatus.SERVICE_UNAVAILABLE)
+                    .header("Retry-After", "5")
+                    .bodyValue(e.getMessage());
+        }
+    }
+
+    private static <T> Mono<T> blocking(Callable<T> call) {
+        return Mono.fromCallable(call).subscribeOn(Schedulers.boundedElastic());
+    }
+
+    private static Mono<Void> blocking(Runnable call) {
+        return Mono.<Void>fromRunnable(call).subscribeOn(Schedulers.boundedElastic());
+    }
+
+    private static Mono<ServerResponse> tooBusy() {
+        return ServerResponse.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header("Retry-After", "1")
+                .bodyValue("Server busy, please try again");
+    }
+}
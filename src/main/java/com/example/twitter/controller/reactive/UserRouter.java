@@ -0,0 +1,31 @@
+package com.example.twitter.controller.reactive;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.reactive.function.server.RouterFunction;
+import org.springframework.web.reactive.function.server.ServerResponse;
+
+import static org.springframework.web.reactive.function.server.RequestPredicates.DELETE;
+import static org.springframework.web.reactive.function.server.RequestPredicates.GET;
+import static org.springframework.web.reactive.function.server.RequestPredicates.POST;
+import static org.springframework.web.reactive.function.server.RouterFunctions.route;
+
+/**
+ * Routes of the users API on the reactive stack ({@code WEB_STACK=reactive}).
+ * The login and registration pages stay in
+ * {@link com.example.twitter.controller.ViewController}.
+ */
+@Configuration
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+public class UserRouter {
+
+    @Bean
+    public RouterFunction<ServerResponse> userRoutes(UserHandler handler) {
+        return route(POST("/log-in"), handler::login)
+                .andRoute(POST("/register"), handler::register)
+                .andRoute(POST("/users/{id}/follow"), handler::follow)
+                .andRoute(DELETE("/users/{id}/follow"), handler::unfollow)
+                .andRoute(GET("/users/suggest"), handler::suggest);
+    }
+}
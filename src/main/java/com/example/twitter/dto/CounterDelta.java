@@ -0,0 +1,31 @@
+package com.example.twitter.dto;
+
+/**
+ * Pending increments of the engagement counters of one post, written with a
+ * single {@code $inc}.
+ */
+public class CounterDelta {
+    private final long replies;
+    private final long likes;
+
+    public CounterDelta(long replies, long likes) {
+        this.replies = replies;
+        this.likes = likes;
+    }
+
+    public long getReplies() {
+        return replies;
+    }
+
+    public long getLikes() {
+        return likes;
+    }
+
+    public boolean isEmpty() {
+        return replies == 0 && likes == 0;
+    }
+
+    public CounterDelta plus(CounterDelta other) {
+        return new CounterDelta(replies + other.replies, likes + other.likes);
+    }
+}
@@ -0,0 +1,28 @@
+package com.example.twitter.dto;
+
+import com.example.twitter.model.Post;
+import com.fasterxml.jackson.annotation.JsonUnwrapped;
+
+/**
+ * A post together with the cursor of its position in the timeline. Serializes
+ * as the post's own fields plus a {@code cursor} field, so an interrupted
+ * export can resume after the last line it received.
+ */
+public class CursorPost {
+    @JsonUnwrapped
+    private final Post post;
+    private final String cursor;
+
+    public CursorPost(Post post) {
+        this.post = post;
+        this.cursor = new TimelineCursor(post.getCreationDate(), post.getId()).encode();
+    }
+
+    public Post getPost() {
+        return post;
+    }
+
+    public String getCursor() {
+        return cursor;
+    }
+}
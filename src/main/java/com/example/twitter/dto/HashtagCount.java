@@ -0,0 +1,22 @@
+package com.example.twitter.dto;
+
+/**
+ * A hashtag and the number of posts that used it in a trends window.
+ */
+public class HashtagCount {
+    private final String hashtag;
+    private final long count;
+
+    public HashtagCount(String hashtag, long count) {
+        this.hashtag = hashtag;
+        this.count = count;
+    }
+
+    public String getHashtag() {
+        return hashtag;
+    }
+
+    public long getCount() {
+        return count;
+    }
+}
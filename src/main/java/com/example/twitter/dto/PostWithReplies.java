@@ -0,0 +1,30 @@
+package com.example.twitter.dto;
+
+import com.example.twitter.model.Post;
+import com.fasterxml.jackson.annotation.JsonUnwrapped;
+
+import java.util.List;
+
+/**
+ * A post together with its first replies. Serializes as the post's own fields
+ * plus a {@code replies} array, so clients can render both without another
+ * request.
+ */
+public class PostWithReplies {
+    @JsonUnwrapped
+    private final Post post;
+    private final List<Post> replies;
+
+    public PostWithReplies(Post post, List<Post> replies) {
+        this.post = post;
+        this.replies = replies;
+    }
+
+    public Post getPost() {
+        return post;
+    }
+
+    public List<Post> getReplies() {
+        return replies;
+    }
+}
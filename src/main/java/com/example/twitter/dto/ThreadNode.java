@@ -0,0 +1,32 @@
+package com.example.twitter.dto;
+
+import com.example.twitter.model.Post;
+import com.fasterxml.jackson.annotation.JsonUnwrapped;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A post of a conversation and the replies it received, recursively.
+ */
+public class ThreadNode {
+    @JsonUnwrapped
+    private final Post post;
+    private final List<ThreadNode> replies = new ArrayList<>();
+
+    public ThreadNode(Post post) {
+        this.post = post;
+    }
+
+    public Post getPost() {
+        return post;
+    }
+
+    public List<ThreadNode> getReplies() {
+        return replies;
+    }
+
+    public void addReply(ThreadNode reply) {
+        this.replies.add(reply);
+    }
+}
@@ -0,0 +1,26 @@
+package com.example.twitter.dto;
+
+import java.util.List;
+
+/**
+ * One page of a keyset-paginated timeline of posts ({@code T} is the post
+ * representation). {@code nextCursor} is null when
+ * there are no more posts.
+ */
+public class TimelinePage<T> {
+    private final List<T> items;
+    private final String nextCursor;
+
+    public TimelinePage(List<T> items, String nextCursor) {
+        this.items = items;
+        this.nextCursor = nextCursor;
+    }
+
+    public List<T> getItems() {
+        return items;
+    }
+
+    public String getNextCursor() {
+        return nextCursor;
+    }
+}
@@ -0,0 +1,23 @@
+package com.example.twitter.dto;
+
+/**
+ * A username suggested for a prefix, with the follower count it is ranked
+ * by.
+ */
+public class UserSuggestion {
+    private final String username;
+    private final long followerCount;
+
+    public UserSuggestion(String username, long followerCount) {
+        this.username = username;
+        this.followerCount = followerCount;
+    }
+
+    public String getUsername() {
+        return username;
+    }
+
+    public long getFollowerCount() {
+        return followerCount;
+    }
+}
@@ -0,0 +1,19 @@
+package com.example.twitter.events;
+
+import com.example.twitter.model.Post;
+
+/**
+ * Published by {@link com.example.twitter.services.PostService} after a post or
+ * reply has been created.
+ */
+public class PostCreatedEvent {
+    private final Post post;
+
+    public PostCreatedEvent(Post post) {
+        this.post = post;
+    }
+
+    public Post getPost() {
+        return post;
+    }
+}
@@ -0,0 +1,19 @@
+package com.example.twitter.events;
+
+/**
+ * Published when a post stops being visible: by
+ * {@link com.example.twitter.services.PostService} when it is deleted, and by
+ * {@link com.example.twitter.services.PostDeletionWorker} for each reply
+ * removed with it.
+ */
+public class PostDeletedEvent {
+    private final String postId;
+
+    public PostDeletedEvent(String postId) {
+        this.postId = postId;
+    }
+
+    public String getPostId() {
+        return postId;
+    }
+}
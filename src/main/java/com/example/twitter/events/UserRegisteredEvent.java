@@ -0,0 +1,19 @@
+package com.example.twitter.events;
+
+import com.example.twitter.model.User;
+
+/**
+ * Published by {@link com.example.twitter.services.UserService} after a user
+ * has been registered.
+ */
+public class UserRegisteredEvent {
+    private final User user;
+
+    public UserRegisteredEvent(User user) {
+        this.user = user;
+    }
+
+    public User getUser() {
+        return user;
+    }
+}
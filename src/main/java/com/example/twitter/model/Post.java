@@ -1,11 +1,21 @@
 package com.example.twitter.model;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonProperty;
 import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
+import org.springframework.data.mongodb.core.index.CompoundIndexes;
+import org.springframework.data.mongodb.core.index.Indexed;
 import org.springframework.data.mongodb.core.mapping.Document;
 import jakarta.validation.constraints.Size;
 import java.time.LocalDate;
 
 @Document(collection = "posts")
+@CompoundIndexes({
+        @CompoundIndex(name = "user_timeline", def = "{'userId': 1, 'creationDate': -1, '_id': -1}"),
+        @CompoundIndex(name = "replies_timeline", def = "{'parentPostId': 1, 'creationDate': -1, '_id': -1}"),
+        @CompoundIndex(name = "thread_order", def = "{'threadId': 1, 'creationDate': 1, '_id': 1}")
+})
 public class Post {
     @Id
     private String id;
@@ -18,6 +28,18 @@ public class Post {
     private String parentPostId;
     private String threadId;
 
+    // Contadores acumulados en memoria y volcados con $inc; los clientes no los escriben
+    @JsonProperty(access = JsonProperty.Access.READ_ONLY)
+    private long replyCount;
+    @JsonProperty(access = JsonProperty.Access.READ_ONLY)
+    private long likeCount;
+
+    // Tombstone: el post está borrado y su subárbol pendiente de limpieza.
+    // Solo existe en los posts borrados, así que el índice disperso es pequeño
+    @JsonIgnore
+    @Indexed(sparse = true)
+    private Boolean deleted;
+
     public Post() {
     }
 
@@ -74,4 +96,28 @@ public class Post {
     public void setThreadId(String threadId) {
         this.threadId = threadId;
     }
+
+    public long getReplyCount() {
+        return replyCount;
+    }
+
+    public void setReplyCount(long replyCount) {
+        this.replyCount = replyCount;
+    }
+
+    public long getLikeCount() {
+        return likeCount;
+    }
+
+    public void setLikeCount(long likeCount) {
+        this.likeCount = likeCount;
+    }
+
+    public boolean isDeleted() {
+        return Boolean.TRUE.equals(deleted);
+    }
+
+    public void setDeleted(boolean deleted) {
+        this.deleted = deleted ? Boolean.TRUE : null;
+    }
 }
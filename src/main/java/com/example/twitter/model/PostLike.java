@@ -0,0 +1,50 @@
+package com.example.twitter.model;
+
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+/**
+ * Like of a user on a post. The unique index rejects a second like of the
+ * same user, so each user counts once towards {@link Post#getLikeCount()}.
+ */
+@Document(collection = "likes")
+@CompoundIndex(name = "post_user", def = "{'postId': 1, 'userId': 1}", unique = true)
+public class PostLike {
+    @Id
+    private String id;
+    private String postId;
+    private String userId;
+
+    public PostLike() {
+    }
+
+    public PostLike(String postId, String userId) {
+        this.postId = postId;
+        this.userId = userId;
+    }
+
+    public String getId() {
+        return id;
+    }
+
+    public void setId(String id) {
+        this.id = id;
+    }
+
+    public String getPostId() {
+        return postId;
+    }
+
+    public void setPostId(String postId) {
+        this.postId = postId;
+    }
+
+    public String getUserId() {
+        return userId;
+    }
+
+    public void setUserId(String userId) {
+        this.userId = userId;
+    }
+}
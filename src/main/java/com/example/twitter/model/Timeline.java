@@ -0,0 +1,37 @@
+package com.example.twitter.model;
+
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.mapping.Document;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Materialized home timeline of a user: the ids of the latest posts of the
+ * accounts the user follows, newest first and capped in length.
+ */
+@Document(collection = "timelines")
+public class Timeline {
+    @Id
+    private String userId;
+
+    private List<String> postIds = new ArrayList<>();
+
+    public Timeline() {
+    }
+
+    public String getUserId() {
+        return userId;
+    }
+
+    public void setUserId(String userId) {
+        this.userId = userId;
+    }
+
+    public List<String> getPostIds() {
+        return postIds;
+    }
+
+    public void setPostIds(List<String> postIds) {
+        this.postIds = postIds;
+    }
+}
@@ -1,16 +1,29 @@
 package com.example.twitter.model;
 
+import com.fasterxml.jackson.annotation.JsonProperty;
 import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.Indexed;
 import org.springframework.data.mongodb.core.mapping.Document;
 
+import java.util.ArrayList;
+import java.util.List;
+
 @Document(collection = "Users")
 public class User {
 
     @Id
     private String id;
+    @Indexed(unique = true)
     private String username;
     private String password;
 
+    // Solo cambian al seguir o dejar de seguir, nunca desde el registro
+    @Indexed
+    @JsonProperty(access = JsonProperty.Access.READ_ONLY)
+    private List<String> following = new ArrayList<>();
+    @JsonProperty(access = JsonProperty.Access.READ_ONLY)
+    private long followerCount;
+
     /**
      * Default constructor.
      */
@@ -76,6 +89,42 @@ public class User {
         this.password = password;
     }
 
+    /**
+     * Gets the ids of the users this user follows.
+     *
+     * @return the ids of the followed users
+     */
+    public List<String> getFollowing() {
+        return following;
+    }
+
+    /**
+     * Sets the ids of the users this user follows.
+     *
+     * @param following the ids of the followed users
+     */
+    public void setFollowing(List<String> following) {
+        this.following = following;
+    }
+
+    /**
+     * Gets the number of users following this user.
+     *
+     * @return the number of followers
+     */
+    public long getFollowerCount() {
+        return followerCount;
+    }
+
+    /**
+     * Sets the number of users following this user.
+     *
+     * @param followerCount the number of followers
+     */
+    public void setFollowerCount(long followerCount) {
+        this.followerCount = followerCount;
+    }
+
     @Override
     public String toString() {
         return "User{" +
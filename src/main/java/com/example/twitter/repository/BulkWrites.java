@@ -0,0 +1,31 @@
+package com.example.twitter.repository;
+
+import com.mongodb.ErrorCategory;
+import org.springframework.data.mongodb.BulkOperationException;
+import org.springframework.data.mongodb.core.BulkOperations;
+
+/**
+ * Helpers for bulk writes that may be retried.
+ */
+final class BulkWrites {
+
+    private BulkWrites() {
+    }
+
+    /**
+     * Executes an unordered bulk write, ignoring the inserts that fail only
+     * because the document already exists. A batch that failed halfway can then
+     * be sent again as is.
+     */
+    static void executeIgnoringDuplicates(BulkOperations bulk) {
+        try {
+            bulk.execute();
+        } catch (BulkOperationException e) {
+            boolean onlyDuplicates = e.getErrors().stream()
+                    .allMatch(error -> ErrorCategory.fromErrorCode(error.getCode()) == ErrorCategory.DUPLICATE_KEY);
+            if (!onlyDuplicates) {
+                throw e;
+            }
+        }
+    }
+}
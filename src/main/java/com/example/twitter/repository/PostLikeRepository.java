@@ -0,0 +1,11 @@
+package com.example.twitter.repository;
+
+import com.example.twitter.model.PostLike;
+import org.springframework.data.mongodb.repository.MongoRepository;
+
+import java.util.Collection;
+
+public interface PostLikeRepository extends MongoRepository<PostLike, String> {
+    // Usa el prefijo postId del índice único post_user
+    void deleteByPostIdIn(Collection<String> postIds);
+}
@@ -1,11 +1,25 @@
 package com.example.twitter.repository;
 
 import com.example.twitter.model.Post;
+import org.springframework.data.mongodb.repository.Aggregation;
 import org.springframework.data.mongodb.repository.MongoRepository;
+import org.springframework.data.mongodb.repository.Query;
 import java.util.List;
 
-public interface PostRepository extends MongoRepository<Post, String> {
+public interface PostRepository extends MongoRepository<Post, String>, PostRepositoryCustom {
+    // Los posts borrados (tombstone) no se devuelven mientras se limpian
+    @Query("{ 'parentPostId': ?0, 'deleted': { '$ne': true } }")
     List<Post> findByParentPostId(String parentPostId);
 
+    @Query("{ 'userId': ?0, 'deleted': { '$ne': true } }")
     List<Post> findByUserId(String userId);
+
+    // Incluye los tombstones para poder ocultar también sus respuestas
+    List<Post> findByThreadIdOrderByCreationDateAscIdAsc(String threadId);
+
+    // $sample se resuelve en el servidor: solo viajan "size" documentos.
+    // Un $match previo lo convertiría en un recorrido completo, así que los
+    // tombstones se descartan al leer
+    @Aggregation(pipeline = { "{ '$sample': { 'size': ?0 } }" })
+    List<Post> findRandomPosts(int size);
 }
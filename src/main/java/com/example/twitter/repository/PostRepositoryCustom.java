@@ -0,0 +1,88 @@
+package com.example.twitter.repository;
+
+import com.example.twitter.dto.CounterDelta;
+import com.example.twitter.dto.TimelineCursor;
+import com.example.twitter.model.Post;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
+
+/**
+ * Queries on posts that need {@link org.springframework.data.mongodb.core.MongoTemplate}
+ * instead of derived query methods. Reads skip tombstoned posts.
+ */
+public interface PostRepositoryCustom {
+    List<Post> findPageByUserId(String userId, TimelineCursor after, int limit);
+
+    /**
+     * Reads every post of a user, newest first, from an open Mongo cursor.
+     * The returned stream must be closed to release the cursor.
+     *
+     * @param after (Optional) Only posts older than this position are read.
+     */
+    Stream<Post> streamByUserId(String userId, TimelineCursor after);
+
+    /**
+     * Reads the id and content of every live post in {@code _id} order, which
+     * follows creation order, from an open Mongo cursor. The returned stream
+     * must be closed to release the cursor.
+     */
+    Stream<Post> streamForSearchIndex();
+
+    List<Post> findPageByParentPostId(String parentPostId, TimelineCursor after, int limit);
+
+    /**
+     * Inserts posts with a single unordered bulk write. Posts that already
+     * exist are skipped, so a batch that failed can be retried.
+     */
+    void insertBatch(Collection<Post> posts);
+
+    List<Post> findRecentByUserIdIn(Collection<String> userIds, int limit);
+
+    /**
+     * Loads the newest replies of several posts in a single query.
+     *
+     * @return The replies of each parent id that has any, at most
+     *         {@code perParent} per parent, newest first.
+     */
+    Map<String, List<Post>> findRepliesByParentPostIdIn(Collection<String> parentPostIds, int perParent);
+
+    /**
+     * Tombstones a post: it stays in the collection, hidden from reads, until
+     * its subtree is cleaned up.
+     *
+     * @return Whether a live post was tombstoned.
+     */
+    boolean markDeleted(String id);
+
+    /**
+     * Loads tombstoned posts whose cleanup has not finished.
+     */
+    List<Post> findDeleted(int limit);
+
+    /**
+     * Tombstones live replies of the given posts, at most {@code limit} of
+     * them, with one query and one multi-document update.
+     *
+     * @return The replies that were tombstoned; fewer than {@code limit} once
+     *         every reply is.
+     */
+    List<Post> markRepliesDeleted(Collection<String> parentPostIds, int limit);
+
+    /**
+     * Deletes at most {@code limit} posts of a thread with one
+     * {@code deleteMany}, keeping {@code exceptId}.
+     *
+     * @return The ids of the deleted posts; fewer than {@code limit} once the
+     *         thread is empty.
+     */
+    List<String> deleteBatchByThreadId(String threadId, String exceptId, int limit);
+
+    /**
+     * Adds to the reply and like counters of several posts with a single
+     * unordered bulk write of {@code $inc} updates.
+     */
+    void incrementCounters(Map<String, CounterDelta> deltas);
+}
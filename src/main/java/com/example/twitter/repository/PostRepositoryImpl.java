@@ -0,0 +1,171 @@
+package com.example.twitter.repository;
+
+import com.example.twitter.dto.CounterDelta;
+import com.example.twitter.dto.TimelineCursor;
+import com.example.twitter.model.Post;
+import org.bson.Document;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.Aggregation;
+import org.springframework.data.mongodb.core.aggregation.AggregationOperation;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
+
+public class PostRepositoryImpl implements PostRepositoryCustom {
+    private static final Sort TIMELINE_ORDER = Sort.by(Sort.Direction.DESC, "creationDate", "id");
+    // Documentos por lote del cursor al exportar; acota la memoria del stream
+    private static final int STREAM_BATCH_SIZE = 500;
+
+    private final MongoTemplate mongoTemplate;
+
+    public PostRepositoryImpl(MongoTemplate mongoTemplate) {
+        this.mongoTemplate = mongoTemplate;
+    }
+
+    @Override
+    public List<Post> findPageByUserId(String userId, TimelineCursor after, int limit) {
+        return findPage(Criteria.where("userId").is(userId), after, limit);
+    }
+
+    @Override
+    public Stream<Post> streamByUserId(String userId, TimelineCursor after) {
+        Query query = timelineQuery(Criteria.where("userId").is(userId), after).cursorBatchSize(STREAM_BATCH_SIZE);
+        return mongoTemplate.stream(query, Post.class);
+    }
+
+    @Override
+    public Stream<Post> streamForSearchIndex() {
+        // Recorre el índice de _id: no hace falta ordenar en el servidor
+        Query query = new Query(Criteria.where("deleted").ne(true)).with(Sort.by("id"))
+                .cursorBatchSize(STREAM_BATCH_SIZE);
+        query.fields().include("content");
+        return mongoTemplate.stream(query, Post.class);
+    }
+
+    @Override
+    public List<Post> findPageByParentPostId(String parentPostId, TimelineCursor after, int limit) {
+        return findPage(Criteria.where("parentPostId").is(parentPostId), after, limit);
+    }
+
+    @Override
+    public void insertBatch(Collection<Post> posts) {
+        if (posts.isEmpty()) {
+            return;
+        }
+        BulkWrites.executeIgnoringDuplicates(
+                mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, Post.class).insert(List.copyOf(posts)));
+    }
+
+    @Override
+    public List<Post> findRecentByUserIdIn(Collection<String> userIds, int limit) {
+        Query query = new Query(Criteria.where("userId").in(userIds).and("deleted").ne(true))
+                .with(TIMELINE_ORDER).limit(limit);
+        return mongoTemplate.find(query, Post.class);
+    }
+
+    /**
+     * Groups the replies on the server with a single {@code $in} match, so the
+     * client gets every parent's replies in one round trip. {@code $topN}
+     * (MongoDB 5.2) keeps at most {@code perParent} replies per group while
+     * grouping, so a post with millions of replies never builds a group larger
+     * than the page.
+     */
+    @Override
+    public Map<String, List<Post>> findRepliesByParentPostIdIn(Collection<String> parentPostIds, int perParent) {
+        // Escrito a mano: SelectionOperators.Top envuelve $$ROOT en un array
+        AggregationOperation newestReplies = context -> new Document("$group", new Document("_id", "$parentPostId")
+                .append("replies", new Document("$topN", new Document("n", perParent)
+                        .append("sortBy", new Document("creationDate", -1).append("_id", -1))
+                        .append("output", "$$ROOT"))));
+        Aggregation aggregation = Aggregation.newAggregation(
+                Aggregation.match(Criteria.where("parentPostId").in(parentPostIds).and("deleted").ne(true)),
+                newestReplies);
+
+        Map<String, List<Post>> replies = new HashMap<>();
+        for (ReplyGroup group : mongoTemplate.aggregate(aggregation, Post.class, ReplyGroup.class)) {
+            replies.put(group.id, group.replies);
+        }
+        return replies;
+    }
+
+    @Override
+    public boolean markDeleted(String id) {
+        Query live = new Query(Criteria.where("id").is(id).and("deleted").ne(true));
+        return mongoTemplate.updateFirst(live, Update.update("deleted", true), Post.class).getModifiedCount() > 0;
+    }
+
+    @Override
+    public List<Post> findDeleted(int limit) {
+        return mongoTemplate.find(new Query(Criteria.where("deleted").is(true)).limit(limit), Post.class);
+    }
+
+    @Override
+    public List<Post> markRepliesDeleted(Collection<String> parentPostIds, int limit) {
+        Query liveReplies = new Query(Criteria.where("parentPostId").in(parentPostIds).and("deleted").ne(true))
+                .limit(limit);
+        liveReplies.fields().include("parentPostId", "threadId");
+        List<Post> replies = mongoTemplate.find(liveReplies, Post.class);
+        if (!replies.isEmpty()) {
+            mongoTemplate.updateMulti(new Query(Criteria.where("id").in(replies.stream().map(Post::getId).toList())),
+                    Update.update("deleted", true), Post.class);
+        }
+        return replies;
+    }
+
+    @Override
+    public List<String> deleteBatchByThreadId(String threadId, String exceptId, int limit) {
+        Query batch = new Query(Criteria.where("threadId").is(threadId).and("id").ne(exceptId)).limit(limit);
+        batch.fields().include("id");
+        List<String> ids = mongoTemplate.find(batch, Post.class).stream().map(Post::getId).toList();
+        if (!ids.isEmpty()) {
+            mongoTemplate.remove(new Query(Criteria.where("id").in(ids)), Post.class);
+        }
+        return ids;
+    }
+
+    @Override
+    public void incrementCounters(Map<String, CounterDelta> deltas) {
+        if (deltas.isEmpty()) {
+            return;
+        }
+        BulkOperations bulk = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, Post.class);
+        deltas.forEach((id, delta) -> bulk.updateOne(new Query(Criteria.where("id").is(id)),
+                new Update().inc("replyCount", delta.getReplies()).inc("likeCount", delta.getLikes())));
+        bulk.execute();
+    }
+
+    /**
+     * Reads one page as a single range scan over the compound
+     * {@code (field, creationDate, _id)} index: the cursor becomes a bound on
+     * the index instead of a skip.
+     */
+    private List<Post> findPage(Criteria owner, TimelineCursor after, int limit) {
+        return mongoTemplate.find(timelineQuery(owner, after).limit(limit), Post.class);
+    }
+
+    private Query timelineQuery(Criteria owner, TimelineCursor after) {
+        Query query = new Query(owner).addCriteria(Criteria.where("deleted").ne(true));
+        if (after != null) {
+            query.addCriteria(new Criteria().orOperator(
+                    Criteria.where("creationDate").lt(after.getCreationDate()),
+                    Criteria.where("creationDate").is(after.getCreationDate()).and("id").lt(after.getId())));
+        }
+        return query.with(TIMELINE_ORDER);
+    }
+
+    /**
+     * Result of the grouping stage: the parent id and its replies.
+     */
+    static class ReplyGroup {
+        private String id;
+        private List<Post> replies;
+    }
+}
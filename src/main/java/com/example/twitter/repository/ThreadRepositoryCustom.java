@@ -0,0 +1,35 @@
+package com.example.twitter.repository;
+
+import com.example.twitter.model.Thread;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+
+public interface ThreadRepositoryCustom {
+    /**
+     * Appends a post id to a thread with an atomic {@code $push}, without
+     * reading the thread document.
+     */
+    void appendPost(String threadId, String postId);
+
+    /**
+     * Inserts threads with a single unordered bulk write. Threads that already
+     * exist are skipped, so a batch that failed can be retried.
+     */
+    void insertBatch(Collection<Thread> threads);
+
+    /**
+     * Appends post ids to several threads with a single unordered bulk write.
+     * Ids already in a thread are not added twice, so a batch that failed can
+     * be retried.
+     *
+     * @param postIdsByThread The ids to append to each thread, in order.
+     */
+    void appendPosts(Map<String, List<String>> postIdsByThread);
+
+    /**
+     * Removes post ids from a thread with an atomic {@code $pullAll}.
+     */
+    void removePosts(String threadId, Collection<String> postIds);
+}
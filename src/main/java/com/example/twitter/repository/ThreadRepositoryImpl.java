@@ -0,0 +1,55 @@
+package com.example.twitter.repository;
+
+import com.example.twitter.model.Thread;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+
+public class ThreadRepositoryImpl implements ThreadRepositoryCustom {
+    private final MongoTemplate mongoTemplate;
+
+    public ThreadRepositoryImpl(MongoTemplate mongoTemplate) {
+        this.mongoTemplate = mongoTemplate;
+    }
+
+    @Override
+    public void appendPost(String threadId, String postId) {
+        mongoTemplate.updateFirst(new Query(Criteria.where("id").is(threadId)),
+                new Update().push("posts", postId), Thread.class);
+    }
+
+    @Override
+    public void insertBatch(Collection<Thread> threads) {
+        if (threads.isEmpty()) {
+            return;
+        }
+        BulkWrites.executeIgnoringDuplicates(
+                mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, Thread.class).insert(List.copyOf(threads)));
+    }
+
+    @Override
+    public void appendPosts(Map<String, List<String>> postIdsByThread) {
+        if (postIdsByThread.isEmpty()) {
+            return;
+        }
+        BulkOperations bulk = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, Thread.class);
+        postIdsByThread.forEach((threadId, postIds) -> bulk.updateOne(new Query(Criteria.where("id").is(threadId)),
+                new Update().addToSet("posts").each(postIds.toArray())));
+        bulk.execute();
+    }
+
+    @Override
+    public void removePosts(String threadId, Collection<String> postIds) {
+        if (postIds.isEmpty()) {
+            return;
+        }
+        mongoTemplate.updateFirst(new Query(Criteria.where("id").is(threadId)),
+                new Update().pullAll("posts", postIds.toArray()), Thread.class);
+    }
+}
@@ -0,0 +1,7 @@
+package com.example.twitter.repository;
+
+import com.example.twitter.model.Timeline;
+import org.springframework.data.mongodb.repository.MongoRepository;
+
+public interface TimelineRepository extends MongoRepository<Timeline, String>, TimelineRepositoryCustom {
+}
@@ -0,0 +1,11 @@
+package com.example.twitter.repository;
+
+import java.util.Collection;
+
+public interface TimelineRepositoryCustom {
+    /**
+     * Prepends a post id to the timeline of every given user, keeping at most
+     * {@code maxLength} ids per timeline.
+     */
+    void pushToAll(Collection<String> userIds, String postId, int maxLength);
+}
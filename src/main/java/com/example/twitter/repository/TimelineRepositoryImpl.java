@@ -0,0 +1,32 @@
+package com.example.twitter.repository;
+
+import com.example.twitter.model.Timeline;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+
+import java.util.Collection;
+
+public class TimelineRepositoryImpl implements TimelineRepositoryCustom {
+    private final MongoTemplate mongoTemplate;
+
+    public TimelineRepositoryImpl(MongoTemplate mongoTemplate) {
+        this.mongoTemplate = mongoTemplate;
+    }
+
+    @Override
+    public void pushToAll(Collection<String> userIds, String postId, int maxLength) {
+        if (userIds.isEmpty()) {
+            return;
+        }
+        BulkOperations bulk = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, Timeline.class);
+        for (String userId : userIds) {
+            Update update = new Update();
+            update.push("postIds").atPosition(0).slice(maxLength).each(postId);
+            bulk.upsert(new Query(Criteria.where("userId").is(userId)), update);
+        }
+        bulk.execute();
+    }
+}
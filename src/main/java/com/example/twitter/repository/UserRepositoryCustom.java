@@ -0,0 +1,33 @@
+package com.example.twitter.repository;
+
+import com.example.twitter.model.User;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.stream.Stream;
+
+public interface UserRepositoryCustom {
+    /**
+     * Adds {@code followeeId} to the accounts followed by {@code followerId}.
+     *
+     * @return true if the relationship did not exist before.
+     */
+    boolean follow(String followerId, String followeeId);
+
+    /**
+     * Removes {@code followeeId} from the accounts followed by {@code followerId}.
+     *
+     * @return true if the relationship existed.
+     */
+    boolean unfollow(String followerId, String followeeId);
+
+    List<String> findFollowerIds(String userId);
+
+    List<String> findIdsWithFollowersAtLeast(Collection<String> userIds, long followerCount);
+
+    /**
+     * Reads the id, username and follower count of every user from an open
+     * Mongo cursor. The returned stream must be closed to release the cursor.
+     */
+    Stream<User> streamUsernames();
+}
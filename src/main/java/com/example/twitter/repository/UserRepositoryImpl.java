@@ -0,0 +1,67 @@
+package com.example.twitter.repository;
+
+import com.example.twitter.model.User;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.stream.Stream;
+
+public class UserRepositoryImpl implements UserRepositoryCustom {
+    private static final int STREAM_BATCH_SIZE = 1000;
+
+    private final MongoTemplate mongoTemplate;
+
+    public UserRepositoryImpl(MongoTemplate mongoTemplate) {
+        this.mongoTemplate = mongoTemplate;
+    }
+
+    @Override
+    public boolean follow(String followerId, String followeeId) {
+        // $addToSet + condición: solo se cuenta el seguidor si la relación es nueva
+        Query query = new Query(Criteria.where("id").is(followerId).and("following").ne(followeeId));
+        if (mongoTemplate.updateFirst(query, new Update().addToSet("following", followeeId), User.class)
+                .getModifiedCount() == 0) {
+            return false;
+        }
+        mongoTemplate.updateFirst(new Query(Criteria.where("id").is(followeeId)),
+                new Update().inc("followerCount", 1), User.class);
+        return true;
+    }
+
+    @Override
+    public boolean unfollow(String followerId, String followeeId) {
+        Query query = new Query(Criteria.where("id").is(followerId).and("following").is(followeeId));
+        if (mongoTemplate.updateFirst(query, new Update().pull("following", followeeId), User.class)
+                .getModifiedCount() == 0) {
+            return false;
+        }
+        mongoTemplate.updateFirst(new Query(Criteria.where("id").is(followeeId)),
+                new Update().inc("followerCount", -1), User.class);
+        return true;
+    }
+
+    @Override
+    public List<String> findFollowerIds(String userId) {
+        Query query = new Query(Criteria.where("following").is(userId));
+        query.fields().include("id");
+        return mongoTemplate.find(query, User.class).stream().map(User::getId).toList();
+    }
+
+    @Override
+    public List<String> findIdsWithFollowersAtLeast(Collection<String> userIds, long followerCount) {
+        Query query = new Query(Criteria.where("id").in(userIds).and("followerCount").gte(followerCount));
+        query.fields().include("id");
+        return mongoTemplate.find(query, User.class).stream().map(User::getId).toList();
+    }
+
+    @Override
+    public Stream<User> streamUsernames() {
+        Query query = new Query().cursorBatchSize(STREAM_BATCH_SIZE);
+        query.fields().include("username", "followerCount");
+        return mongoTemplate.stream(query, User.class);
+    }
+}
@@ -0,0 +1,30 @@
+package com.example.twitter.repository.reactive;
+
+import com.example.twitter.model.Post;
+import org.springframework.data.mongodb.repository.Aggregation;
+import org.springframework.data.mongodb.repository.Query;
+import org.springframework.data.mongodb.repository.ReactiveMongoRepository;
+import org.springframework.data.mongodb.repository.Update;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+public interface ReactivePostRepository extends ReactiveMongoRepository<Post, String> {
+    // Los posts borrados (tombstone) no se devuelven mientras se limpian
+    @Query("{ '_id': ?0, 'deleted': { '$ne': true } }")
+    Mono<Post> findLiveById(String id);
+
+    // Devuelve 1 si el post estaba vivo y queda marcado como borrado
+    @Query("{ '_id': ?0, 'deleted': { '$ne': true } }")
+    @Update("{ '$set': { 'deleted': true } }")
+    Mono<Long> markDeleted(String id);
+
+    @Query("{ 'parentPostId': ?0, 'deleted': { '$ne': true } }")
+    Flux<Post> findByParentPostId(String parentPostId);
+
+    @Query("{ 'userId': ?0, 'deleted': { '$ne': true } }")
+    Flux<Post> findByUserId(String userId);
+
+    // El $match va después de $sample para no convertirlo en un recorrido completo
+    @Aggregation(pipeline = { "{ '$sample': { 'size': ?0 } }", "{ '$match': { 'deleted': { '$ne': true } } }" })
+    Flux<Post> findRandomPosts(int size);
+}
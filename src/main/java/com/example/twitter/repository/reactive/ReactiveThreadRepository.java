@@ -0,0 +1,7 @@
+package com.example.twitter.repository.reactive;
+
+import com.example.twitter.model.Thread;
+import org.springframework.data.mongodb.repository.ReactiveMongoRepository;
+
+public interface ReactiveThreadRepository extends ReactiveMongoRepository<Thread, String>, ReactiveThreadRepositoryCustom {
+}
@@ -0,0 +1,10 @@
+package com.example.twitter.repository.reactive;
+
+import reactor.core.publisher.Mono;
+
+public interface ReactiveThreadRepositoryCustom {
+    /**
+     * Appends a post id to a thread with an atomic {@code $push}.
+     */
+    Mono<Void> appendPost(String threadId, String postId);
+}
@@ -0,0 +1,22 @@
+package com.example.twitter.repository.reactive;
+
+import com.example.twitter.model.Thread;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import reactor.core.publisher.Mono;
+
+public class ReactiveThreadRepositoryImpl implements ReactiveThreadRepositoryCustom {
+    private final ReactiveMongoTemplate mongoTemplate;
+
+    public ReactiveThreadRepositoryImpl(ReactiveMongoTemplate mongoTemplate) {
+        this.mongoTemplate = mongoTemplate;
+    }
+
+    @Override
+    public Mono<Void> appendPost(String threadId, String postId) {
+        return mongoTemplate.updateFirst(new Query(Criteria.where("id").is(threadId)),
+                new Update().push("posts", postId), Thread.class).then();
+    }
+}
@@ -0,0 +1,20 @@
+package com.example.twitter.search;
+
+/**
+ * Iterates the documents matching a term from the newest to the oldest.
+ */
+interface DocCursor {
+
+    /**
+     * @return The greatest matching document id that is not greater than
+     *         {@code target}, or {@link InvertedIndex#NO_DOC} if there is none.
+     *         Targets must not increase between calls.
+     */
+    int prev(int target);
+
+    /**
+     * @return The number of documents the cursor can visit, used to start the
+     *         intersection with the most selective term.
+     */
+    long cost();
+}
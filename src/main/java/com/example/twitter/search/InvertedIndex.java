@@ -0,0 +1,290 @@
+package com.example.twitter.search;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.NavigableMap;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.TreeMap;
+
+/**
+ * Inverted index of post contents.
+ *
+ * Every post gets a dense document id in the order it is added, so a greater
+ * id means a newer post. Each term maps to a {@link PostingList} of those ids,
+ * and a query walks the posting lists of its terms backwards and intersects
+ * them, which yields the newest matches first and stops after {@code limit}.
+ * A query term ending in {@code *} matches every term with that prefix.
+ *
+ * Removed posts are only flagged; their ids stay in the posting lists until
+ * the index is rebuilt, which {@link PostSearchIndex} does once they reach a
+ * share of the index.
+ *
+ * Not thread-safe: writes must be serialized and must not overlap with
+ * queries ({@link PostSearchIndex} takes care of it).
+ */
+public class InvertedIndex {
+    static final int NO_DOC = -1;
+    static final int MIN_PREFIX_LENGTH = 2;
+    static final int MAX_PREFIX_TERMS = 256;
+    static final int MAX_QUERY_TERMS = 8;
+
+    private final NavigableMap<String, PostingList> postings = new TreeMap<>();
+    // Términos con al menos un bloque completo, para expandir prefijos sin recorrer los raros
+    private final NavigableMap<String, PostingList> frequentPostings = new TreeMap<>();
+    private final PostIds ids = new PostIds();
+    private final BitSet removed = new BitSet();
+    private int removedCount;
+
+    /**
+     * Indexes a post.
+     *
+     * @param postId  The ID of the post; must be an ObjectId.
+     * @param content The text of the post.
+     * @return Whether the post was added; false if it was already indexed or
+     *         its id is not an ObjectId.
+     */
+    public boolean add(String postId, String content) {
+        if (!PostIds.isValid(postId) || ids.find(postId) != NO_DOC) {
+            return false;
+        }
+        int doc = ids.add(postId);
+        for (String term : terms(content)) {
+            PostingList list = postings.computeIfAbsent(term, key -> new PostingList());
+            list.add(doc);
+            if (list.size() == PostingList.BLOCK_SIZE) {
+                frequentPostings.put(term, list);
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Removes a post from the results.
+     *
+     * @return Whether the post was indexed and not removed yet.
+     */
+    public boolean remove(String postId) {
+        int doc = ids.find(postId);
+        if (doc == NO_DOC || removed.get(doc)) {
+            return false;
+        }
+        removed.set(doc);
+        removedCount++;
+        return true;
+    }
+
+    /**
+     * Finds the newest posts that contain every term of the query.
+     *
+     * @param query Terms separated by spaces; the last one may end in
+     *              {@code *} to match as a prefix.
+     * @param limit The maximum number of results.
+     * @return The IDs of the matching posts, newest first.
+     * @throws IllegalArgumentException if the query has no terms, too many
+     *                                  terms, more than one prefix or a prefix
+     *                                  that is too short.
+     */
+    public List<String> search(String query, int limit) {
+        List<String> terms = new ArrayList<>();
+        String prefix = null;
+        for (String token : query.trim().split("\\s+")) {
+            boolean isPrefix = token.endsWith("*");
+            List<String> tokenTerms = new ArrayList<>(terms(isPrefix ? token.substring(0, token.length() - 1) : token));
+            // En "hola-mun*" solo el último término es un prefijo
+            if (isPrefix && !tokenTerms.isEmpty()) {
+                if (prefix != null) {
+                    throw new IllegalArgumentException("At most one prefix per query");
+                }
+                prefix = tokenTerms.remove(tokenTerms.size() - 1);
+            }
+            terms.addAll(tokenTerms);
+        }
+        int termCount = terms.size() + (prefix == null ? 0 : 1);
+        if (termCount == 0) {
+            throw new IllegalArgumentException("The query has no terms");
+        }
+        if (termCount > MAX_QUERY_TERMS) {
+            throw new IllegalArgumentException("At most " + MAX_QUERY_TERMS + " terms per query");
+        }
+        if (prefix != null && prefix.length() < MIN_PREFIX_LENGTH) {
+            throw new IllegalArgumentException("A prefix needs at least " + MIN_PREFIX_LENGTH + " characters");
+        }
+
+        List<DocCursor> cursors = new ArrayList<>(termCount);
+        for (String term : terms) {
+            PostingList list = postings.get(term);
+            if (list == null) {
+                return List.of();
+            }
+            cursors.add(list.cursor());
+        }
+        if (prefix != null) {
+            DocCursor cursor = prefixCursor(prefix);
+            if (cursor == null) {
+                return List.of();
+            }
+            cursors.add(cursor);
+        }
+        cursors.sort(Comparator.comparingLong(DocCursor::cost));
+        return intersect(cursors, limit);
+    }
+
+    /**
+     * @return The number of indexed posts, removed ones excluded.
+     */
+    public int size() {
+        return ids.size() - removedCount;
+    }
+
+    /**
+     * @return The number of removed posts still in the posting lists.
+     */
+    public int removedCount() {
+        return removedCount;
+    }
+
+    public int termCount() {
+        return postings.size();
+    }
+
+    /**
+     * Approximate heap used by the ids and posting lists, without the term
+     * dictionary.
+     */
+    public long sizeInBytes() {
+        long bytes = ids.sizeInBytes() + removed.size() / 8;
+        for (PostingList list : postings.values()) {
+            bytes += list.sizeInBytes();
+        }
+        return bytes;
+    }
+
+    /**
+     * Splits text into lowercase terms without accents, so that "Canción"
+     * and "cancion" match. Anything that is not a letter or a digit separates
+     * terms.
+     */
+    static Set<String> terms(String text) {
+        Set<String> terms = new LinkedHashSet<>();
+        if (text == null) {
+            return terms;
+        }
+        String folded = text.toLowerCase(Locale.ROOT);
+        if (!isAscii(folded)) {
+            folded = Normalizer.normalize(folded, Normalizer.Form.NFD).replaceAll("\\p{M}+", "");
+        }
+        int start = -1;
+        for (int i = 0; i <= folded.length(); i++) {
+            boolean inTerm = i < folded.length() && Character.isLetterOrDigit(folded.charAt(i));
+            if (inTerm && start < 0) {
+                start = i;
+            } else if (!inTerm && start >= 0) {
+                terms.add(folded.substring(start, i));
+                start = -1;
+            }
+        }
+        return terms;
+    }
+
+    // Salto alterno hacia atrás: el término más selectivo propone y el resto confirma
+    private List<String> intersect(List<DocCursor> cursors, int limit) {
+        List<String> results = new ArrayList<>(Math.min(limit, 64));
+        DocCursor lead = cursors.get(0);
+        int candidate = lead.prev(ids.size() - 1);
+        while (candidate != NO_DOC && results.size() < limit) {
+            int agreed = candidate;
+            for (int i = 1; i < cursors.size() && agreed == candidate; i++) {
+                agreed = cursors.get(i).prev(candidate);
+            }
+            if (agreed == NO_DOC) {
+                break;
+            }
+            if (agreed < candidate) {
+                candidate = lead.prev(agreed);
+                continue;
+            }
+            if (!removed.get(candidate)) {
+                results.add(ids.get(candidate));
+            }
+            candidate = lead.prev(candidate - 1);
+        }
+        return results;
+    }
+
+    private DocCursor prefixCursor(String prefix) {
+        // Si hay bastantes términos frecuentes, los más frecuentes están entre ellos
+        PriorityQueue<PostingList> mostFrequent = mostFrequent(withPrefix(frequentPostings, prefix));
+        if (mostFrequent.size() < MAX_PREFIX_TERMS) {
+            mostFrequent = mostFrequent(withPrefix(postings, prefix));
+        }
+        if (mostFrequent.isEmpty()) {
+            return null;
+        }
+        List<DocCursor> cursors = new ArrayList<>(mostFrequent.size());
+        for (PostingList list : mostFrequent) {
+            cursors.add(list.cursor());
+        }
+        return cursors.size() == 1 ? cursors.get(0) : new UnionCursor(cursors);
+    }
+
+    private static Collection<PostingList> withPrefix(NavigableMap<String, PostingList> postings, String prefix) {
+        return postings.subMap(prefix, true, prefix + Character.MAX_VALUE, false).values();
+    }
+
+    // Los MAX_PREFIX_TERMS de mayor tamaño, sin ordenarlos todos
+    private static PriorityQueue<PostingList> mostFrequent(Collection<PostingList> lists) {
+        PriorityQueue<PostingList> mostFrequent = new PriorityQueue<>(Comparator.comparingInt(PostingList::size));
+        for (PostingList list : lists) {
+            if (mostFrequent.size() < MAX_PREFIX_TERMS) {
+                mostFrequent.add(list);
+            } else if (list.size() > mostFrequent.peek().size()) {
+                mostFrequent.poll();
+                mostFrequent.add(list);
+            }
+        }
+        return mostFrequent;
+    }
+
+    private static boolean isAscii(String text) {
+        for (int i = 0; i < text.length(); i++) {
+            if (text.charAt(i) > 0x7F) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Documents that match any of several terms.
+     */
+    private static final class UnionCursor implements DocCursor {
+        private final List<DocCursor> cursors;
+        private final long cost;
+
+        UnionCursor(List<DocCursor> cursors) {
+            this.cursors = cursors;
+            this.cost = cursors.stream().mapToLong(DocCursor::cost).sum();
+        }
+
+        @Override
+        public int prev(int target) {
+            int best = NO_DOC;
+            for (DocCursor cursor : cursors) {
+                best = Math.max(best, cursor.prev(target));
+            }
+            return best;
+        }
+
+        @Override
+        public long cost() {
+            return cost;
+        }
+    }
+}
@@ -0,0 +1,107 @@
+package com.example.twitter.search;
+
+import org.bson.types.ObjectId;
+
+import java.util.Arrays;
+import java.util.HexFormat;
+
+/**
+ * Two-way mapping between dense document ids and post ids. Post ids are
+ * ObjectIds, kept as their 12 raw bytes in one array instead of a
+ * {@code String} per post; the reverse lookup is an open-addressing table of
+ * document ids. At 10 million posts both take under 300 MB, against more than
+ * a gigabyte for a {@code HashMap<String, Integer>}.
+ *
+ * Not thread-safe; {@link InvertedIndex} serializes writes.
+ */
+final class PostIds {
+    private static final int ID_BYTES = 12;
+    private static final HexFormat HEX = HexFormat.of();
+
+    private byte[] bytes = new byte[ID_BYTES * 1024];
+    private int size;
+    // Posición libre = 0; en otro caso, id de documento + 1
+    private int[] table = new int[2048];
+
+    static boolean isValid(String postId) {
+        return ObjectId.isValid(postId);
+    }
+
+    int size() {
+        return size;
+    }
+
+    long sizeInBytes() {
+        return bytes.length + 4L * table.length;
+    }
+
+    /**
+     * Assigns the next document id to a post.
+     *
+     * @param postId A valid ObjectId not added before.
+     */
+    int add(String postId) {
+        byte[] id = HEX.parseHex(postId);
+        if ((size + 1) * 2 > table.length) {
+            rehash(table.length * 2);
+        }
+        if ((size + 1) * ID_BYTES > bytes.length) {
+            bytes = Arrays.copyOf(bytes, bytes.length * 2);
+        }
+        int doc = size++;
+        System.arraycopy(id, 0, bytes, doc * ID_BYTES, ID_BYTES);
+        insert(doc, hash(id, 0));
+        return doc;
+    }
+
+    /**
+     * @return The document id of a post, or {@link InvertedIndex#NO_DOC}.
+     */
+    int find(String postId) {
+        if (!isValid(postId)) {
+            return InvertedIndex.NO_DOC;
+        }
+        byte[] id = HEX.parseHex(postId);
+        int mask = table.length - 1;
+        for (int slot = hash(id, 0) & mask; table[slot] != 0; slot = (slot + 1) & mask) {
+            int doc = table[slot] - 1;
+            if (Arrays.equals(bytes, doc * ID_BYTES, (doc + 1) * ID_BYTES, id, 0, ID_BYTES)) {
+                return doc;
+            }
+        }
+        return InvertedIndex.NO_DOC;
+    }
+
+    String get(int doc) {
+        return HEX.formatHex(bytes, doc * ID_BYTES, (doc + 1) * ID_BYTES);
+    }
+
+    private void rehash(int capacity) {
+        table = new int[capacity];
+        for (int doc = 0; doc < size; doc++) {
+            insert(doc, hash(bytes, doc * ID_BYTES));
+        }
+    }
+
+    private void insert(int doc, int hash) {
+        int mask = table.length - 1;
+        int slot = hash & mask;
+        while (table[slot] != 0) {
+            slot = (slot + 1) & mask;
+        }
+        table[slot] = doc + 1;
+    }
+
+    private static int hash(byte[] source, int offset) {
+        int h = 1;
+        for (int i = offset; i < offset + ID_BYTES; i++) {
+            h = 31 * h + source[i];
+        }
+        // Los ObjectIds consecutivos solo cambian en el contador; se mezcla para no formar racimos
+        h ^= h >>> 16;
+        h *= 0x85ebca6b;
+        h ^= h >>> 13;
+        h *= 0xc2b2ae35;
+        return h ^ (h >>> 16);
+    }
+}
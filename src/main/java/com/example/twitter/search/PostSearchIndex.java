@@ -0,0 +1,208 @@
+package com.example.twitter.search;
+
+import com.example.twitter.events.PostCreatedEvent;
+import com.example.twitter.events.PostDeletedEvent;
+import com.example.twitter.model.Post;
+import com.example.twitter.repository.PostRepository;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Async;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.stream.Stream;
+
+/**
+ * Full-text search over the content of posts, kept in memory by each
+ * instance.
+ *
+ * The index is built from MongoDB when the application starts and then kept
+ * up to date with {@link PostCreatedEvent}s and {@link PostDeletedEvent}s.
+ * Changes that arrive while it is being built are replayed on the new index,
+ * so none is lost. Until the first build finishes, searches fail with
+ * {@link IllegalStateException}; if the database is unavailable at startup
+ * the build is retried until it succeeds. Deleted posts are only flagged in
+ * the index, so it is rebuilt again once they exceed
+ * {@code posts.search.compact-ratio} of it.
+ */
+@Component
+public class PostSearchIndex {
+    private static final Logger log = LoggerFactory.getLogger(PostSearchIndex.class);
+
+    private final PostRepository postRepository;
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Timer rebuildLatency;
+    private final Duration retryInterval;
+    private final double compactRatio;
+    private InvertedIndex index = new InvertedIndex();
+    // Cambios recibidos durante una reconstrucción; null si no hay ninguna en curso
+    private List<Consumer<InvertedIndex>> pendingChanges;
+    private volatile boolean ready;
+
+    /**
+     * Constructs a new PostSearchIndex. The index stays empty until
+     * {@link #rebuild()} runs.
+     *
+     * @param postRepository Repository from which the index is built.
+     * @param meterRegistry  Registry for the index size and rebuild time
+     *                       metrics.
+     * @param retryInterval  Time between attempts to build the index at
+     *                       startup while the database is unavailable.
+     * @param compactRatio   Share of removed posts in the index above which
+     *                       it is rebuilt.
+     */
+    public PostSearchIndex(PostRepository postRepository, MeterRegistry meterRegistry,
+            @Value("${posts.search.retry-interval:PT30S}") Duration retryInterval,
+            @Value("${posts.search.compact-ratio:0.25}") double compactRatio) {
+        this.postRepository = postRepository;
+        this.retryInterval = retryInterval;
+        this.compactRatio = compactRatio;
+
+        Gauge.builder("posts.search.documents", this, search -> search.read(InvertedIndex::size))
+                .description("Posts in the search index")
+                .register(meterRegistry);
+        Gauge.builder("posts.search.terms", this, search -> search.read(InvertedIndex::termCount))
+                .description("Distinct terms in the search index")
+                .register(meterRegistry);
+        this.rebuildLatency = Timer.builder("posts.search.rebuild")
+                .description("Time to build the search index from the database")
+                .register(meterRegistry);
+    }
+
+    public boolean isReady() {
+        return ready;
+    }
+
+    /**
+     * Finds the newest posts whose content contains every term of the query.
+     *
+     * @param query Terms separated by spaces; a term ending in {@code *} is a
+     *              prefix.
+     * @param limit The maximum number of results.
+     * @return The IDs of the matching posts, newest first.
+     * @throws IllegalArgumentException if the query is invalid.
+     * @throws IllegalStateException    if the index is still being built.
+     */
+    public List<String> search(String query, int limit) {
+        if (!ready) {
+            throw new IllegalStateException("The search index is being built");
+        }
+        return read(index -> index.search(query, limit));
+    }
+
+    @Async
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        // Sin índice no hay búsqueda: se reintenta hasta que MongoDB responda
+        try {
+            while (!rebuild()) {
+                Thread.sleep(retryInterval.toMillis());
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Rebuilds the index when removed posts exceed the compact ratio, so their
+     * ids stop slowing down queries and their memory is released. Runs on the
+     * async executor because a rebuild reads every post.
+     */
+    @Async
+    @Scheduled(fixedDelayString = "${posts.search.compact-interval:PT1M}")
+    public synchronized void compactIfNeeded() {
+        // Sincronizado con rebuild para no encadenar reconstrucciones ya resueltas
+        boolean needed = ready && read(index -> index.removedCount() > 0
+                && index.removedCount() > compactRatio * (index.size() + index.removedCount()));
+        if (needed) {
+            rebuild();
+        }
+    }
+
+    /**
+     * Builds a new index from every live post in the database and replaces
+     * the current one. Searches keep using the current index meanwhile.
+     *
+     * @return Whether the index was built; false if the database could not be
+     *         read, in which case the current index is kept.
+     */
+    public synchronized boolean rebuild() {
+        setPendingChanges(new ArrayList<>());
+        long start = System.nanoTime();
+        InvertedIndex rebuilt = new InvertedIndex();
+        try (Stream<Post> posts = postRepository.streamForSearchIndex()) {
+            posts.forEach(post -> rebuilt.add(post.getId(), post.getContent()));
+        } catch (RuntimeException e) {
+            setPendingChanges(null);
+            log.error("No se pudo construir el índice de búsqueda: {}", e.getMessage());
+            return false;
+        }
+
+        lock.writeLock().lock();
+        try {
+            pendingChanges.forEach(change -> change.accept(rebuilt));
+            pendingChanges = null;
+            index = rebuilt;
+            ready = true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+        rebuildLatency.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        log.info("Índice de búsqueda construido: {} posts, {} términos", rebuilt.size(), rebuilt.termCount());
+        return true;
+    }
+
+    @EventListener
+    public void onPostCreated(PostCreatedEvent event) {
+        Post post = event.getPost();
+        write(index -> index.add(post.getId(), post.getContent()));
+    }
+
+    @EventListener
+    public void onPostDeleted(PostDeletedEvent event) {
+        write(index -> index.remove(event.getPostId()));
+    }
+
+    private void write(Consumer<InvertedIndex> change) {
+        lock.writeLock().lock();
+        try {
+            change.accept(index);
+            if (pendingChanges != null) {
+                pendingChanges.add(change);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private void setPendingChanges(List<Consumer<InvertedIndex>> changes) {
+        lock.writeLock().lock();
+        try {
+            pendingChanges = changes;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private <T> T read(Function<InvertedIndex, T> query) {
+        lock.readLock().lock();
+        try {
+            return query.apply(index);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+}
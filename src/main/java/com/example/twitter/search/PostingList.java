@@ -0,0 +1,143 @@
+package com.example.twitter.search;
+
+import java.util.Arrays;
+
+/**
+ * Ascending list of document ids, stored as variable-length deltas in blocks
+ * of {@link #BLOCK_SIZE}. Each block keeps its first id and offset apart, so a
+ * cursor can jump to any block with a binary search and decode only that
+ * block, walking the list from the newest document backwards.
+ *
+ * Not thread-safe; {@link InvertedIndex} serializes writes.
+ */
+final class PostingList {
+    static final int BLOCK_SIZE = 128;
+
+    private byte[] deltas = new byte[16];
+    private int length;
+    private int size;
+    private int lastDoc = InvertedIndex.NO_DOC;
+    private int[] blockFirstDoc = new int[1];
+    private int[] blockOffset = new int[1];
+    private int blocks;
+
+    /**
+     * Appends a document id, which must be greater than every id already in
+     * the list.
+     */
+    void add(int doc) {
+        if (doc <= lastDoc) {
+            throw new IllegalArgumentException("Document ids must be added in ascending order");
+        }
+        if (size % BLOCK_SIZE == 0) {
+            if (blocks == blockFirstDoc.length) {
+                blockFirstDoc = Arrays.copyOf(blockFirstDoc, blocks * 2);
+                blockOffset = Arrays.copyOf(blockOffset, blocks * 2);
+            }
+            blockFirstDoc[blocks] = doc;
+            blockOffset[blocks] = length;
+            blocks++;
+        } else {
+            writeVarInt(doc - lastDoc);
+        }
+        lastDoc = doc;
+        size++;
+    }
+
+    int size() {
+        return size;
+    }
+
+    /**
+     * Approximate heap used by the encoded ids, for the memory metrics.
+     */
+    long sizeInBytes() {
+        return deltas.length + 8L * blockFirstDoc.length;
+    }
+
+    Cursor cursor() {
+        return new Cursor();
+    }
+
+    private void writeVarInt(int value) {
+        if (length + 5 > deltas.length) {
+            deltas = Arrays.copyOf(deltas, Math.max(deltas.length * 2, length + 5));
+        }
+        while ((value & ~0x7F) != 0) {
+            deltas[length++] = (byte) ((value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        deltas[length++] = (byte) value;
+    }
+
+    /**
+     * Walks the list from the newest document backwards.
+     */
+    final class Cursor implements DocCursor {
+        private final int[] buffer = new int[BLOCK_SIZE];
+        private int block = -1;
+        private int count;
+
+        @Override
+        public int prev(int target) {
+            if (target < 0 || blocks == 0 || target < blockFirstDoc[0]) {
+                return InvertedIndex.NO_DOC;
+            }
+            int wanted = lastBlockStartingAtOrBefore(target);
+            if (wanted != block) {
+                decode(wanted);
+            }
+            // Último id del bloque que no supera target
+            int low = 0;
+            int high = count - 1;
+            while (low < high) {
+                int mid = (low + high + 1) >>> 1;
+                if (buffer[mid] <= target) {
+                    low = mid;
+                } else {
+                    high = mid - 1;
+                }
+            }
+            return buffer[low];
+        }
+
+        @Override
+        public long cost() {
+            return size;
+        }
+
+        private int lastBlockStartingAtOrBefore(int target) {
+            int low = 0;
+            int high = blocks - 1;
+            while (low < high) {
+                int mid = (low + high + 1) >>> 1;
+                if (blockFirstDoc[mid] <= target) {
+                    low = mid;
+                } else {
+                    high = mid - 1;
+                }
+            }
+            return low;
+        }
+
+        private void decode(int wanted) {
+            block = wanted;
+            count = Math.min(BLOCK_SIZE, size - wanted * BLOCK_SIZE);
+            int offset = blockOffset[wanted];
+            int doc = blockFirstDoc[wanted];
+            buffer[0] = doc;
+            for (int i = 1; i < count; i++) {
+                int delta = 0;
+                int shift = 0;
+                byte b;
+                do {
+                    b = deltas[offset++];
+                    delta |= (b & 0x7F) << shift;
+                    shift += 7;
+                } while (b < 0);
+                doc += delta;
+                buffer[i] = doc;
+            }
+        }
+    }
+}
@@ -0,0 +1,51 @@
+package com.example.twitter.security;
+
+import io.jsonwebtoken.Claims;
+
+import java.security.Principal;
+import java.util.Optional;
+
+/**
+ * The user of a request, as identified by the {@code userID} and
+ * {@code username} claims of its JWT.
+ */
+public class AuthenticatedUser implements Principal {
+    private final String userId;
+    private final String username;
+
+    public AuthenticatedUser(String userId, String username) {
+        this.userId = userId;
+        this.username = username;
+    }
+
+    /**
+     * Reads the user of a verified token.
+     *
+     * @param claims the claims of the token
+     * @return the user, or empty if the token has no {@code userID} claim
+     */
+    public static Optional<AuthenticatedUser> fromClaims(Claims claims) {
+        if (claims.get("userID") == null) {
+            return Optional.empty();
+        }
+        return Optional.of(new AuthenticatedUser(claim(claims, "userID"), claim(claims, "username")));
+    }
+
+    public String getUserId() {
+        return userId;
+    }
+
+    public String getUsername() {
+        return username;
+    }
+
+    @Override
+    public String getName() {
+        return username;
+    }
+
+    private static String claim(Claims claims, String name) {
+        Object value = claims.get(name);
+        return value == null ? null : value.toString();
+    }
+}
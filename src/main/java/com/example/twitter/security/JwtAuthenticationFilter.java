@@ -0,0 +1,54 @@
+package com.example.twitter.security;
+
+import com.example.twitter.services.JWTService;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.HttpHeaders;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContext;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Authenticates each request with the JWT of its "Authorization: Bearer"
+ * header.
+ *
+ * The token is verified once per request and its claims become an
+ * {@link AuthenticatedUser} principal, which controllers receive with
+ * {@code @AuthenticationPrincipal}. Nothing is kept between requests. A
+ * request without a valid token goes on unauthenticated, and the security
+ * rules decide whether it is rejected.
+ */
+public class JwtAuthenticationFilter extends OncePerRequestFilter {
+    private static final String BEARER = "Bearer ";
+
+    private final JWTService jwtService;
+
+    public JwtAuthenticationFilter(JWTService jwtService) {
+        this.jwtService = jwtService;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        String header = request.getHeader(HttpHeaders.AUTHORIZATION);
+        if (header != null && header.startsWith(BEARER)) {
+            authenticate(header.substring(BEARER.length())).ifPresent(user -> {
+                SecurityContext context = SecurityContextHolder.createEmptyContext();
+                context.setAuthentication(UsernamePasswordAuthenticationToken.authenticated(user, null, List.of()));
+                SecurityContextHolder.setContext(context);
+            });
+        }
+        chain.doFilter(request, response);
+    }
+
+    private Optional<AuthenticatedUser> authenticate(String token) {
+        return jwtService.parse(token).flatMap(AuthenticatedUser::fromClaims);
+    }
+}
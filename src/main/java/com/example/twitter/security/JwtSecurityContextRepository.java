@@ -0,0 +1,51 @@
+package com.example.twitter.security;
+
+import com.example.twitter.services.JWTService;
+import org.springframework.http.HttpHeaders;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContext;
+import org.springframework.security.core.context.SecurityContextImpl;
+import org.springframework.security.web.server.context.ServerSecurityContextRepository;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+import java.util.List;
+
+/**
+ * Reactive counterpart of {@link JwtAuthenticationFilter}: loads the security
+ * context of each exchange from the JWT of its "Authorization: Bearer" header.
+ *
+ * Nothing is saved between requests. An exchange without a valid token has no
+ * context, and the security rules decide whether it is rejected.
+ */
+public class JwtSecurityContextRepository implements ServerSecurityContextRepository {
+    private static final String BEARER = "Bearer ";
+
+    private final JWTService jwtService;
+
+    public JwtSecurityContextRepository(JWTService jwtService) {
+        this.jwtService = jwtService;
+    }
+
+    @Override
+    public Mono<Void> save(ServerWebExchange exchange, SecurityContext context) {
+        return Mono.empty();
+    }
+
+    @Override
+    public Mono<SecurityContext> load(ServerWebExchange exchange) {
+        String header = exchange.getRequest().getHeaders().getFirst(HttpHeaders.AUTHORIZATION);
+        if (header == null || !header.startsWith(BEARER)) {
+            return Mono.empty();
+        }
+        String token = header.substring(BEARER.length());
+
+        // La verificación de la firma es CPU; no se hace en el hilo del event loop
+        return Mono.fromCallable(() -> jwtService.parse(token).flatMap(AuthenticatedUser::fromClaims))
+                .subscribeOn(Schedulers.parallel())
+                .flatMap(Mono::justOrEmpty)
+                .map(user -> new SecurityContextImpl(
+                        UsernamePasswordAuthenticationToken.authenticated(user, null, List.of())));
+    }
+}
@@ -1,30 +1,204 @@
 package com.example.twitter.services;
 
+import com.example.twitter.events.UserRegisteredEvent;
 import com.example.twitter.model.User;
 import com.example.twitter.repository.UserRepository;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import com.github.benmanes.caffeine.cache.Ticker;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.security.core.GrantedAuthority;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.stereotype.Service;
 
-import java.util.ArrayList;
+import java.time.Duration;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
 
+/**
+ * Loads the credentials of a user for Spring Security, through a bounded
+ * Caffeine cache keyed by username.
+ *
+ * Known users are cached for {@code users.details-cache.ttl}, and unknown
+ * usernames for the much shorter {@code users.details-cache.negative-ttl}, so a
+ * burst of logins against the same names does not become one query per
+ * attempt. Concurrent lookups of a name share one query. The cached details are
+ * immutable and are returned as they are, so Spring Security erasing the
+ * credentials of an authentication does not clear the cached password. An entry
+ * is dropped when its user registers or with {@link #invalidate(String)};
+ * other instances of the application only see the change once the TTL expires.
+ *
+ * {@link UserService} uses the same cache for logins and for the username
+ * check of each registration, through {@link #findUser(String)}.
+ */
 @Service
 public class CustomUserDetailsService implements UserDetailsService {
 
+    private final UserRepository userRepository;
+    private final Cache<String, Optional<CachedUserDetails>> usersByName;
+
+    /**
+     * Constructs a new CustomUserDetailsService.
+     *
+     * @param userRepository Repository the users are loaded from.
+     * @param meterRegistry  Registry for the hit, miss and eviction metrics.
+     * @param maxSize        Maximum number of usernames cached, known or not.
+     * @param ttl            Time the details of a known user stay cached.
+     * @param negativeTtl    Time an unknown username stays cached.
+     */
     @Autowired
-    private UserRepository userRepository;
+    public CustomUserDetailsService(UserRepository userRepository, MeterRegistry meterRegistry,
+            @Value("${users.details-cache.max-size:10000}") long maxSize,
+            @Value("${users.details-cache.ttl:PT5M}") Duration ttl,
+            @Value("${users.details-cache.negative-ttl:PT10S}") Duration negativeTtl) {
+        this(userRepository, meterRegistry, maxSize, ttl, negativeTtl, Ticker.systemTicker());
+    }
+
+    CustomUserDetailsService(UserRepository userRepository, MeterRegistry meterRegistry, long maxSize,
+            Duration ttl, Duration negativeTtl, Ticker ticker) {
+        this.userRepository = userRepository;
+        this.usersByName = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfter(new LookupExpiry(ttl, negativeTtl))
+                .ticker(ticker)
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, usersByName, "users.details");
+    }
 
     @Override
     public UserDetails loadUserByUsername(String username) throws UsernameNotFoundException {
-        User user = userRepository.findByUsername(username)
+        return findUser(username)
                 .orElseThrow(() -> new UsernameNotFoundException("Usuario no encontrado"));
+    }
+
+    /**
+     * Looks a user up by username through the cache.
+     *
+     * @param username The username to look up.
+     * @return The id, username and password hash of the user, or empty if no
+     *         user has that name.
+     */
+    Optional<CachedUserDetails> findUser(String username) {
+        return usersByName.get(username, this::load);
+    }
+
+    /**
+     * Forgets the cached lookup of a username, so the next login reads it from
+     * the database. Call it whenever the password of a user changes.
+     *
+     * @param username The username whose entry is dropped.
+     */
+    public void invalidate(String username) {
+        usersByName.invalidate(username);
+    }
+
+    /**
+     * Drops the negative entry a registered username may have left.
+     */
+    @EventListener
+    public void onUserRegistered(UserRegisteredEvent event) {
+        invalidate(event.getUser().getUsername());
+    }
+
+    private Optional<CachedUserDetails> load(String username) {
+        return userRepository.findByUsername(username)
+                .map(user -> new CachedUserDetails(user.getId(), user.getUsername(), user.getPassword()));
+    }
+
+    /**
+     * Immutable details of a user with no authorities. Unlike Spring's
+     * {@link org.springframework.security.core.userdetails.User} it does not
+     * implement {@code CredentialsContainer}, so the cached password survives
+     * the credential erasure that follows each authentication.
+     */
+    static final class CachedUserDetails implements UserDetails {
+        private final String id;
+        private final String username;
+        private final String password;
+
+        private CachedUserDetails(String id, String username, String password) {
+            this.id = id;
+            this.username = username;
+            this.password = password;
+        }
+
+        String getId() {
+            return id;
+        }
+
+        @Override
+        public Collection<? extends GrantedAuthority> getAuthorities() {
+            return List.of();
+        }
+
+        @Override
+        public String getPassword() {
+            return password;
+        }
+
+        @Override
+        public String getUsername() {
+            return username;
+        }
+
+        @Override
+        public boolean isAccountNonExpired() {
+            return true;
+        }
+
+        @Override
+        public boolean isAccountNonLocked() {
+            return true;
+        }
+
+        @Override
+        public boolean isCredentialsNonExpired() {
+            return true;
+        }
+
+        @Override
+        public boolean isEnabled() {
+            return true;
+        }
+    }
+
+    /**
+     * Expires known users after the TTL and unknown usernames after the
+     * negative TTL, counted from the lookup.
+     */
+    private static final class LookupExpiry implements Expiry<String, Optional<CachedUserDetails>> {
+        private final long ttlNanos;
+        private final long negativeTtlNanos;
+
+        private LookupExpiry(Duration ttl, Duration negativeTtl) {
+            this.ttlNanos = ttl.toNanos();
+            this.negativeTtlNanos = negativeTtl.toNanos();
+        }
+
+        @Override
+        public long expireAfterCreate(String username, Optional<CachedUserDetails> details, long currentTime) {
+            return details.isPresent() ? ttlNanos : negativeTtlNanos;
+        }
+
+        @Override
+        public long expireAfterUpdate(String username, Optional<CachedUserDetails> details, long currentTime,
+                long currentDuration) {
+            return expireAfterCreate(username, details, currentTime);
+        }
 
-        return new org.springframework.security.core.userdetails.User(
-                user.getUsername(),
-                user.getPassword(),
-                new ArrayList<>()
-        );
+        @Override
+        public long expireAfterRead(String username, Optional<CachedUserDetails> details, long currentTime,
+                long currentDuration) {
+            return currentDuration;
+        }
     }
 }
@@ -0,0 +1,212 @@
+package com.example.twitter.services;
+
+import com.example.twitter.cache.PostCache;
+import com.example.twitter.dto.CounterDelta;
+import com.example.twitter.repository.PostRepository;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+
+/**
+ * Reply and like counters of posts, accumulated in memory and written to
+ * MongoDB in batches.
+ *
+ * Every increment goes to a {@link LongAdder}, which spreads concurrent
+ * updates over several cells, so a viral post does not turn into a single
+ * contended counter or a single contended document. Every
+ * {@code posts.counters.flush-interval} the accumulated deltas are written
+ * with one bulk write of {@code $inc} updates. At most one interval of
+ * increments is lost if the process dies; a failed write keeps its deltas for
+ * the next flush and a graceful shutdown flushes what is left.
+ */
+@Service
+public class EngagementCounters {
+    private static final Logger log = LoggerFactory.getLogger(EngagementCounters.class);
+
+    private final PostRepository postRepository;
+    private final PostCache postCache;
+    private final Timer flushLatency;
+    // Tiempo sin incrementos tras el que se olvida un post
+    private final long idleNanos;
+    private final Map<String, Counters> counters = new ConcurrentHashMap<>();
+    private final Map<String, CounterDelta> failed = new HashMap<>();
+
+    /**
+     * Constructs a new EngagementCounters.
+     *
+     * @param postRepository Repository for managing posts.
+     * @param postCache      Cache from which posts with new counts are evicted.
+     * @param meterRegistry  Registry for the tracked posts and flush latency
+     *                       metrics.
+     */
+    @Autowired
+    public EngagementCounters(PostRepository postRepository, PostCache postCache, MeterRegistry meterRegistry) {
+        this(postRepository, postCache, meterRegistry, Duration.ofMinutes(1));
+    }
+
+    EngagementCounters(PostRepository postRepository, PostCache postCache, MeterRegistry meterRegistry,
+            Duration idleTime) {
+        this.postRepository = postRepository;
+        this.postCache = postCache;
+        this.idleNanos = idleTime.toNanos();
+
+        Gauge.builder("posts.counters.tracked", counters, Map::size)
+                .description("Posts with counters held in memory")
+                .register(meterRegistry);
+        this.flushLatency = Timer.builder("posts.counters.flush")
+                .description("Time to write the accumulated counter increments")
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+    }
+
+    /**
+     * Counts a new reply to a post.
+     *
+     * @param parentPostId The ID of the replied post.
+     */
+    public void replyAdded(String parentPostId) {
+        update(parentPostId, postCounters -> postCounters.replies.increment());
+    }
+
+    /**
+     * Discounts a deleted reply from its parent post.
+     *
+     * @param parentPostId The ID of the replied post.
+     */
+    public void replyRemoved(String parentPostId) {
+        update(parentPostId, postCounters -> postCounters.replies.decrement());
+    }
+
+    /**
+     * Counts a like on a post.
+     *
+     * @param postId The ID of the liked post.
+     */
+    public void liked(String postId) {
+        update(postId, postCounters -> postCounters.likes.increment());
+    }
+
+    /**
+     * Writes the increments accumulated since the last flush with a single
+     * bulk write. Runs every {@code posts.counters.flush-interval} and on
+     * shutdown.
+     */
+    @Scheduled(fixedDelayString = "${posts.counters.flush-interval:PT1S}")
+    @PreDestroy
+    public synchronized void flush() {
+        Map<String, CounterDelta> deltas = new HashMap<>(failed);
+        failed.clear();
+        long now = System.nanoTime();
+        counters.forEach((id, postCounters) -> {
+            CounterDelta delta = postCounters.drain();
+            if (!delta.isEmpty()) {
+                deltas.merge(id, delta, CounterDelta::plus);
+                postCounters.lastActive = now;
+            } else if (now - postCounters.lastActive > idleNanos) {
+                retire(id, postCounters, deltas);
+            }
+        });
+        if (deltas.isEmpty()) {
+            return;
+        }
+
+        try {
+            postRepository.incrementCounters(deltas);
+            postCache.postsUpdated(deltas.keySet());
+        } catch (RuntimeException e) {
+            // Se conservan para el siguiente volcado
+            failed.putAll(deltas);
+            log.warn("No se pudieron escribir los contadores de {} posts: {}", deltas.size(), e.getMessage());
+        } finally {
+            flushLatency.record(System.nanoTime() - now, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    /**
+     * Removes an idle entry and drains it one last time. Threads that read it
+     * afterwards create a new one; a thread that got it just before and
+     * updates it after the last drain moves its update to the new entry in
+     * {@link #update}.
+     */
+    private void retire(String id, Counters postCounters, Map<String, CounterDelta> deltas) {
+        counters.computeIfPresent(id, (key, current) -> {
+            if (current != postCounters) {
+                return current;
+            }
+            postCounters.retired = true;
+            return null;
+        });
+        if (!postCounters.retired) {
+            return;
+        }
+        synchronized (postCounters) {
+            CounterDelta delta = postCounters.drain();
+            if (!delta.isEmpty()) {
+                deltas.merge(id, delta, CounterDelta::plus);
+            }
+            postCounters.drained = true;
+        }
+    }
+
+    private void update(String postId, Consumer<Counters> change) {
+        Counters postCounters = counters(postId);
+        change.accept(postCounters);
+        // Solo si el volcado retiró la entrada a la vez: lo que su último drenado
+        // no recogió pasa a la entrada nueva
+        while (postCounters.retired) {
+            CounterDelta residual;
+            synchronized (postCounters) {
+                if (!postCounters.drained) {
+                    // El último drenado aún no ha ocurrido y recogerá este cambio
+                    return;
+                }
+                residual = postCounters.drain();
+            }
+            if (residual.isEmpty()) {
+                return;
+            }
+            postCounters = counters(postId);
+            postCounters.replies.add(residual.getReplies());
+            postCounters.likes.add(residual.getLikes());
+        }
+    }
+
+    private Counters counters(String postId) {
+        Counters postCounters = counters.get(postId);
+        if (postCounters == null || postCounters.retired) {
+            // computeIfAbsent nunca devuelve una entrada retirada: se quita del mapa al marcarla
+            postCounters = counters.computeIfAbsent(postId, id -> new Counters());
+        }
+        return postCounters;
+    }
+
+    private static final class Counters {
+        private final LongAdder replies = new LongAdder();
+        private final LongAdder likes = new LongAdder();
+        // Se marca al quitar la entrada del mapa, bajo el lock de su clave
+        private volatile boolean retired;
+        // Protegido por el monitor de la entrada
+        private boolean drained;
+        // Solo lo usa el volcado, que está sincronizado
+        private long lastActive = System.nanoTime();
+
+        // sumThenReset no pierde incrementos concurrentes: van a este volcado o al siguiente
+        private CounterDelta drain() {
+            return new CounterDelta(replies.sumThenReset(), likes.sumThenReset());
+        }
+    }
+}
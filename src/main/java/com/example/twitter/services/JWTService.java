@@ -1,24 +1,42 @@
 package com.example.twitter.services;
 
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
 import io.jsonwebtoken.Claims;
-import io.jsonwebtoken.Jws;
+import io.jsonwebtoken.JwtParser;
 import io.jsonwebtoken.Jwts;
-import io.jsonwebtoken.SignatureAlgorithm;
+import io.jsonwebtoken.security.SignatureAlgorithm;
+import io.micrometer.core.annotation.Timed;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
+import java.nio.charset.StandardCharsets;
 import java.security.KeyFactory;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
 import java.security.PrivateKey;
 import java.security.PublicKey;
 import java.security.spec.PKCS8EncodedKeySpec;
 import java.security.spec.X509EncodedKeySpec;
+import java.time.Duration;
 import java.util.Base64;
+import java.util.Date;
+import java.util.Locale;
+import java.util.Optional;
 
 @Service
+@Timed("service.method")
 public class JWTService {
+    private static final Logger log = LoggerFactory.getLogger(JWTService.class);
 
+    private final Algorithm algorithm;
     private final PrivateKey privateKey;
     private final PublicKey publicKey;
+    private final JwtParser parser;
+    private final Cache<String, Claims> verifiedTokens;
 
     /**
      * Constructor for JWTService.
@@ -27,22 +45,54 @@ public class JWTService {
      * JWT
      * operations from PEM-encoded strings provided through environment variables.
      * 
+     * @param algorithmName The signing algorithm: RS256, ES256 or EdDSA
+     *                      (Ed25519); the keys must be of its type
      * @param privateJwtPem The PEM-encoded private key string injected from the
      *                      environment variable PRIVATE_JWT
      * @param publicJwtPem  The PEM-encoded public key string injected from the
      *                      environment variable PUBLIC_JWT
+     * @param cacheMaxSize  Maximum number of verified tokens kept in memory; 0
+     *                      disables the verification cache
+     * @param cacheMaxTtl   How long a verified token without an {@code exp} claim
+     *                      stays cached, also the upper bound for tokens with one
+     * @throws IllegalStateException if the keys do not match each other or the
+     *                               algorithm
      */
-    public JWTService(@Value("${PRIVATE_JWT}") String privateJwtPem,
-            @Value("${PUBLIC_JWT}") String publicJwtPem) {
+    public JWTService(@Value("${jwt.algorithm:RS256}") String algorithmName,
+            @Value("${PRIVATE_JWT}") String privateJwtPem,
+            @Value("${PUBLIC_JWT}") String publicJwtPem,
+            @Value("${jwt.cache.max-size:10000}") long cacheMaxSize,
+            @Value("${jwt.cache.max-ttl:PT15M}") Duration cacheMaxTtl) {
+        this.algorithm = Algorithm.from(algorithmName);
         this.privateKey = loadPrivateKey(privateJwtPem);
         this.publicKey = loadPublicKey(publicJwtPem);
+        // El parser es inmutable y seguro entre hilos: se construye una sola vez
+        this.parser = Jwts.parser()
+                .verifyWith(publicKey)
+                .build();
+        this.verifiedTokens = cacheMaxSize > 0
+                ? Caffeine.newBuilder()
+                        .maximumSize(cacheMaxSize)
+                        .expireAfter(new TokenExpiry(cacheMaxTtl))
+                        .build()
+                : null;
+
+        // Falla al arrancar, no en el primer login, si las claves no encajan
+        try {
+            parser.parseSignedClaims(sign("", ""));
+        } catch (RuntimeException e) {
+            throw new IllegalStateException("Las claves JWT no corresponden entre sí o con " + algorithm, e);
+        }
+    }
+
+    public Algorithm getAlgorithm() {
+        return algorithm;
     }
 
-    // 🔹 Firma un string usando RS256
     /**
      * Signs a JWT (JSON Web Token) with the specified user information.
      * This method creates a token containing user identifiers and signs it
-     * with a private key using the RS256 algorithm.
+     * with the private key using the configured algorithm.
      *
      * @param userID   the unique identifier of the user
      * @param username the username of the user
@@ -52,7 +102,7 @@ public class JWTService {
         return Jwts.builder()
                 .claim("userID", userID)
                 .claim("username", username)
-                .signWith(privateKey, SignatureAlgorithm.RS256)
+                .signWith(privateKey, algorithm.signature)
                 .compact();
     }
 
@@ -62,26 +112,59 @@ public class JWTService {
      * @param token The JWT token to verify
      * @return true if the token has a valid signature and structure, false
      *         otherwise
-     * 
-     *         This method attempts to parse the provided JWT token using the
-     *         configured
-     *         public key. If the parsing completes without exceptions, the token is
-     *         considered valid. Any exceptions during token verification are
-     *         caught,
-     *         logged to the console, and result in returning false.
      */
     public boolean verify(String token) {
+        return parse(token).isPresent();
+    }
+
+    /**
+     * Verifies a JWT token and reads its claims.
+     *
+     * Tokens that already passed verification are remembered, keyed by their
+     * SHA-256 digest, until their {@code exp} claim (or the configured maximum
+     * TTL), so repeated requests with the same token skip the signature
+     * check. Any exceptions during token verification are caught and logged
+     * at debug level.
+     *
+     * @param token The JWT token to verify
+     * @return The claims of the token, or empty if its signature or structure
+     *         are not valid
+     */
+    public Optional<Claims> parse(String token) {
         try {
-            Jws<Claims> claims = Jwts.parserBuilder()
-                    .setSigningKey(publicKey)
-                    .build()
-                    .parseClaimsJws(token);
+            if (verifiedTokens == null) {
+                return Optional.of(parser.parseSignedClaims(token).getPayload());
+            }
+
+            String digest = digest(token);
+            Claims cached = verifiedTokens.getIfPresent(digest);
+            if (cached != null) {
+                return Optional.of(cached);
+            }
 
             // Si no lanza excepción, la firma es válida
-            return true;
+            Claims claims = parser.parseSignedClaims(token).getPayload();
+            verifiedTokens.put(digest, claims);
+            return Optional.of(claims);
         } catch (Exception e) {
-            System.out.println("❌ Error al verificar la firma del token: " + e.getMessage());
-            return false;
+            log.debug("Error al verificar la firma del token: {}", e.getMessage());
+            return Optional.empty();
+        }
+    }
+
+    /**
+     * Computes the cache key of a token, so the cache does not keep the tokens
+     * themselves.
+     *
+     * @param token The JWT token
+     * @return The Base64 encoded SHA-256 digest of the token
+     */
+    private static String digest(String token) {
+        try {
+            MessageDigest sha256 = MessageDigest.getInstance("SHA-256");
+            return Base64.getEncoder().encodeToString(sha256.digest(token.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 no disponible", e);
         }
     }
 
@@ -89,8 +172,7 @@ public class JWTService {
      * Loads a private key from a PEM-encoded string.
      * 
      * This method converts a Base64 encoded private key in PKCS#8 format into a
-     * PrivateKey object
-     * that can be used for cryptographic operations.
+     * PrivateKey object of the type required by the signing algorithm.
      * 
      * @param pem The Base64 encoded private key string (PEM format without headers
      *            and footers)
@@ -101,11 +183,11 @@ public class JWTService {
         try {
             // Decodificar y convertir a PrivateKey
             byte[] encoded = Base64.getDecoder().decode(pem);
-            KeyFactory keyFactory = KeyFactory.getInstance("RSA");
+            KeyFactory keyFactory = KeyFactory.getInstance(algorithm.keyAlgorithm);
             PKCS8EncodedKeySpec keySpec = new PKCS8EncodedKeySpec(encoded);
             return keyFactory.generatePrivate(keySpec);
         } catch (Exception e) {
-            throw new RuntimeException("Error al cargar la clave privada", e);
+            throw new RuntimeException("Error al cargar la clave privada " + algorithm.keyAlgorithm, e);
         }
     }
 
@@ -113,8 +195,8 @@ public class JWTService {
      * Loads a public key from its Base64 encoded PEM format string.
      * 
      * This method takes a Base64 encoded string representation of a public key,
-     * decodes it, and converts it into a {@link PublicKey} object using RSA
-     * algorithm.
+     * decodes it, and converts it into a {@link PublicKey} object of the type
+     * required by the signing algorithm.
      * 
      * @param pem A Base64 encoded string representing a public key in PEM format
      *            (without the BEGIN/END headers and newlines)
@@ -126,11 +208,82 @@ public class JWTService {
         try {
             // Decodificar y convertir a PublicKey
             byte[] encoded = Base64.getDecoder().decode(pem);
-            KeyFactory keyFactory = KeyFactory.getInstance("RSA");
+            KeyFactory keyFactory = KeyFactory.getInstance(algorithm.keyAlgorithm);
             X509EncodedKeySpec keySpec = new X509EncodedKeySpec(encoded);
             return keyFactory.generatePublic(keySpec);
         } catch (Exception e) {
-            throw new RuntimeException("Error al cargar la clave pública", e);
+            throw new RuntimeException("Error al cargar la clave pública " + algorithm.keyAlgorithm, e);
+        }
+    }
+
+    /**
+     * Supported signing algorithms and the type of their keys.
+     */
+    public enum Algorithm {
+        /** RSA with SHA-256; the default, with 2048-bit or larger keys. */
+        RS256("RSA", Jwts.SIG.RS256),
+        /** ECDSA on the P-256 curve with SHA-256. */
+        ES256("EC", Jwts.SIG.ES256),
+        /** EdDSA with Ed25519 keys. */
+        EdDSA("Ed25519", Jwts.SIG.EdDSA);
+
+        private final String keyAlgorithm;
+        private final SignatureAlgorithm signature;
+
+        Algorithm(String keyAlgorithm, SignatureAlgorithm signature) {
+            this.keyAlgorithm = keyAlgorithm;
+            this.signature = signature;
+        }
+
+        public String getKeyAlgorithm() {
+            return keyAlgorithm;
+        }
+
+        /**
+         * @throws IllegalArgumentException if the name is not a supported
+         *                                  algorithm
+         */
+        public static Algorithm from(String name) {
+            for (Algorithm algorithm : values()) {
+                if (algorithm.name().equalsIgnoreCase(name.trim())
+                        || algorithm.keyAlgorithm.equalsIgnoreCase(name.trim())) {
+                    return algorithm;
+                }
+            }
+            throw new IllegalArgumentException("Algoritmo JWT no soportado: " + name.toUpperCase(Locale.ROOT)
+                    + " (RS256, ES256 o EdDSA)");
+        }
+    }
+
+    /**
+     * Expires each cached token at its {@code exp} claim, never later than the
+     * configured maximum TTL.
+     */
+    private static final class TokenExpiry implements Expiry<String, Claims> {
+        private final long maxTtlNanos;
+
+        private TokenExpiry(Duration maxTtl) {
+            this.maxTtlNanos = maxTtl.toNanos();
+        }
+
+        @Override
+        public long expireAfterCreate(String digest, Claims claims, long currentTime) {
+            Date expiration = claims.getExpiration();
+            if (expiration == null) {
+                return maxTtlNanos;
+            }
+            long remainingNanos = Duration.ofMillis(expiration.getTime() - System.currentTimeMillis()).toNanos();
+            return Math.max(0, Math.min(remainingNanos, maxTtlNanos));
+        }
+
+        @Override
+        public long expireAfterUpdate(String digest, Claims claims, long currentTime, long currentDuration) {
+            return expireAfterCreate(digest, claims, currentTime);
+        }
+
+        @Override
+        public long expireAfterRead(String digest, Claims claims, long currentTime, long currentDuration) {
+            return currentDuration;
         }
     }
 }
\ No newline at end of file
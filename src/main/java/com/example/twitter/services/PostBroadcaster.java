@@ -0,0 +1,316 @@
+package com.example.twitter.services;
+
+import com.example.twitter.events.PostCreatedEvent;
+import com.example.twitter.model.Post;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Pushes every new post and reply to the connected clients.
+ *
+ * Publishing never blocks: each subscriber has a bounded buffer of pending
+ * posts and, when a slow subscriber lets it fill up, the oldest post is
+ * dropped. Subscribers with pending posts wait in a lock-free ready queue that
+ * a small dedicated pool drains, so a subscriber without pending posts costs
+ * no thread and a publish does not submit one task per subscriber.
+ *
+ * A send that blocks longer than the send timeout, e.g. on a client that
+ * stopped reading, drops its subscriber: it gets no more posts and its
+ * connection is closed once the blocked send returns. The pool never grows
+ * beyond its size, so a blocked send keeps its thread until the server's write
+ * timeout ({@code server.tomcat.connection-timeout}) makes it fail.
+ * {@code SseEmitter} serializes sends and completion on one monitor, so the
+ * send cannot be cut short from another thread.
+ */
+@Service
+public class PostBroadcaster {
+    private static final Logger log = LoggerFactory.getLogger(PostBroadcaster.class);
+
+    private static final long IDLE = 0;
+    private static final long RELEASED = 1;
+
+    private final Set<Subscription> subscribers = ConcurrentHashMap.newKeySet();
+    private final Set<Subscription> sending = ConcurrentHashMap.newKeySet();
+    private final Queue<Subscription> ready = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger activeWorkers = new AtomicInteger();
+    private final ThreadPoolExecutor executor;
+    private final int poolSize;
+    private final int bufferSize;
+    private final long sendTimeoutNanos;
+    private final Counter dropped;
+    private final Counter slow;
+
+    /**
+     * Constructs a new PostBroadcaster.
+     *
+     * @param meterRegistry Registry for the subscriber and dropped post metrics.
+     * @param threads       Number of delivery threads; 0 uses the number of
+     *                      available processors.
+     * @param bufferSize    Maximum number of posts pending per subscriber.
+     * @param sendTimeout   Maximum time a single send may block before its
+     *                      subscriber is dropped.
+     */
+    public PostBroadcaster(MeterRegistry meterRegistry,
+            @Value("${posts.stream.delivery-threads:0}") int threads,
+            @Value("${posts.stream.buffer-size:32}") int bufferSize,
+            @Value("${posts.stream.send-timeout:PT5S}") Duration sendTimeout) {
+        if (bufferSize < 1) {
+            throw new IllegalArgumentException("posts.stream.buffer-size must be at least 1");
+        }
+        this.bufferSize = bufferSize;
+        this.sendTimeoutNanos = sendTimeout.toNanos();
+        this.poolSize = threads > 0 ? threads : Runtime.getRuntime().availableProcessors();
+        this.executor = new ThreadPoolExecutor(poolSize, poolSize, 0L, TimeUnit.MILLISECONDS,
+                new LinkedBlockingQueue<>(), new CustomizableThreadFactory("post-broadcaster-"));
+
+        Gauge.builder("posts.stream.subscribers", subscribers, Set::size)
+                .description("Clients subscribed to new posts")
+                .register(meterRegistry);
+        this.dropped = Counter.builder("posts.stream.dropped")
+                .description("Posts dropped because a subscriber's buffer was full")
+                .register(meterRegistry);
+        this.slow = Counter.builder("posts.stream.slow")
+                .description("Subscribers dropped because a send exceeded the send timeout")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Registers a subscriber. It receives the posts published from now on, in
+     * order, until it is cancelled or its sink fails.
+     *
+     * @param sink Destination of the posts of this subscriber.
+     * @return The subscription, to be cancelled when the client disconnects.
+     */
+    public Subscription subscribe(Sink sink) {
+        Subscription subscription = new Subscription(sink);
+        subscribers.add(subscription);
+        return subscription;
+    }
+
+    /**
+     * Publishes each created post, root or reply, to the subscribers.
+     *
+     * @param event The event carrying the created post.
+     */
+    @EventListener
+    public void onPostCreated(PostCreatedEvent event) {
+        publish(event.getPost());
+    }
+
+    /**
+     * Queues a post for every subscriber without waiting for any of them.
+     *
+     * @param post The post to publish.
+     */
+    public void publish(Post post) {
+        for (Subscription subscription : subscribers) {
+            subscription.offer(post);
+        }
+        startWorkers();
+    }
+
+    public int getSubscriberCount() {
+        return subscribers.size();
+    }
+
+    /**
+     * Drops the subscribers whose current send has exceeded the send timeout.
+     * Their pending posts are discarded and the worker blocked in the send
+     * closes the connection when the send returns or fails, then goes on with
+     * the ready queue.
+     */
+    @Scheduled(fixedDelayString = "PT1S")
+    public void dropSlowSubscribers() {
+        long now = System.nanoTime();
+        for (Subscription subscription : sending) {
+            long started = subscription.sendStarted.get();
+            if (started != IDLE && started != RELEASED && now - started > sendTimeoutNanos
+                    && subscription.sendStarted.compareAndSet(started, RELEASED)) {
+                log.debug("Suscriptor lento: un envío superó {} ms", TimeUnit.NANOSECONDS.toMillis(sendTimeoutNanos));
+                slow.increment();
+                subscription.cancel();
+            }
+        }
+    }
+
+    private void startWorkers() {
+        int active;
+        while (!ready.isEmpty() && (active = activeWorkers.get()) < poolSize) {
+            if (activeWorkers.compareAndSet(active, active + 1)) {
+                try {
+                    executor.execute(this::drainReady);
+                } catch (RejectedExecutionException e) {
+                    // El pool solo rechaza trabajo al apagarse la aplicación
+                    activeWorkers.decrementAndGet();
+                    return;
+                }
+            }
+        }
+    }
+
+    private void drainReady() {
+        try {
+            Subscription subscription;
+            while ((subscription = ready.poll()) != null) {
+                subscription.drain();
+            }
+        } finally {
+            activeWorkers.decrementAndGet();
+        }
+        // Un suscriptor pudo quedar listo después del último poll
+        startWorkers();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdown();
+    }
+
+    /**
+     * Destination of the posts of one subscriber, e.g. an SSE connection.
+     */
+    @FunctionalInterface
+    public interface Sink {
+        void send(Post post) throws IOException;
+
+        /**
+         * Called from the delivery thread once a send that exceeded the send
+         * timeout returns, so the connection of the dropped subscriber can be
+         * closed.
+         */
+        default void close() {
+        }
+    }
+
+    /**
+     * A subscriber with its buffer of pending posts.
+     */
+    public final class Subscription {
+        private final Sink sink;
+        private final ArrayDeque<Post> pending = new ArrayDeque<>(1);
+        private final AtomicBoolean queued = new AtomicBoolean();
+        // IDLE, RELEASED o el System.nanoTime() del inicio del envío en curso
+        private final AtomicLong sendStarted = new AtomicLong(IDLE);
+        private volatile boolean cancelled;
+
+        private Subscription(Sink sink) {
+            this.sink = sink;
+        }
+
+        /**
+         * Stops the delivery and discards the pending posts.
+         */
+        public void cancel() {
+            cancelled = true;
+            subscribers.remove(this);
+            synchronized (pending) {
+                pending.clear();
+            }
+        }
+
+        public boolean isCancelled() {
+            return cancelled;
+        }
+
+        private void offer(Post post) {
+            synchronized (pending) {
+                if (pending.size() == bufferSize) {
+                    pending.pollFirst();
+                    dropped.increment();
+                }
+                pending.addLast(post);
+            }
+            enqueue();
+        }
+
+        // Un suscriptor está como mucho una vez en la cola de listos
+        private void enqueue() {
+            if (!cancelled && queued.compareAndSet(false, true)) {
+                ready.add(this);
+            }
+        }
+
+        /**
+         * Sends the pending posts.
+         */
+        private void drain() {
+            try {
+                Post next;
+                while (!cancelled && (next = poll()) != null) {
+                    send(next);
+                }
+            } finally {
+                queued.set(false);
+            }
+            // Un post pudo llegar entre el último poll y la salida de la cola
+            if (hasPending()) {
+                enqueue();
+            }
+        }
+
+        private void send(Post post) {
+            long started = System.nanoTime();
+            if (started == IDLE || started == RELEASED) {
+                started += 2;
+            }
+            sendStarted.set(started);
+            sending.add(this);
+            try {
+                sink.send(post);
+            } catch (IOException | RuntimeException e) {
+                log.debug("Suscriptor desconectado: {}", e.getMessage());
+                cancel();
+            } finally {
+                sending.remove(this);
+            }
+            // dropSlowSubscribers dio de baja al suscriptor mientras el envío estaba bloqueado
+            if (!sendStarted.compareAndSet(started, IDLE)) {
+                closeQuietly();
+            }
+        }
+
+        private void closeQuietly() {
+            try {
+                sink.close();
+            } catch (RuntimeException e) {
+                log.debug("Error al cerrar un suscriptor lento: {}", e.getMessage());
+            }
+        }
+
+        private Post poll() {
+            synchronized (pending) {
+                return pending.pollFirst();
+            }
+        }
+
+        private boolean hasPending() {
+            synchronized (pending) {
+                return !pending.isEmpty();
+            }
+        }
+    }
+}
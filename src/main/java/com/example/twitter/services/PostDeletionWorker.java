@@ -0,0 +1,237 @@
+package com.example.twitter.services;
+
+import com.example.twitter.cache.PostCache;
+import com.example.twitter.events.PostDeletedEvent;
+import com.example.twitter.model.Post;
+import com.example.twitter.repository.PostLikeRepository;
+import com.example.twitter.repository.PostRepository;
+import com.example.twitter.repository.ThreadRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Background cleanup of deleted posts.
+ *
+ * {@link PostService#deletePost} only tombstones the post, so the request
+ * costs one update however large the conversation below it is. This worker
+ * then removes the subtree in batches of {@code posts.deletion.batch-size}:
+ * <ul>
+ * <li>for the root post of a thread, every post of the thread with
+ * {@code deleteMany} by {@code threadId}, then the thread document;</li>
+ * <li>for a reply, its descendants level by level through
+ * {@code parentPostId}, pruning their ids from {@code Thread.posts}.</li>
+ * </ul>
+ * The likes of every removed post are deleted with it.
+ *
+ * Replies are tombstoned before their parent is deleted, so every post still
+ * waiting for cleanup is a tombstone. Tombstones are therefore the durable
+ * work list: posts that do not fit in the in-memory queue, or whose cleanup
+ * was cut short by a failure or a restart, are found again by a sweep every
+ * {@code posts.deletion.sweep-interval}.
+ */
+@Service
+public class PostDeletionWorker {
+    private static final Logger log = LoggerFactory.getLogger(PostDeletionWorker.class);
+    private static final long SHUTDOWN_WAIT_MS = 5_000;
+
+    private final PostRepository postRepository;
+    private final ThreadRepository threadRepository;
+    private final PostLikeRepository likeRepository;
+    private final PostCache postCache;
+    private final ApplicationEventPublisher eventPublisher;
+    private final BlockingQueue<Post> queue;
+    private final int batchSize;
+    private final Duration sweepInterval;
+    private final Counter removed;
+    private final Timer cleanupLatency;
+    private final java.lang.Thread worker;
+    private volatile boolean stopping;
+
+    /**
+     * Constructs a new PostDeletionWorker and starts its thread.
+     *
+     * @param postRepository   Repository for managing posts.
+     * @param threadRepository Repository for managing threads.
+     * @param likeRepository   Repository of the likes of the removed posts.
+     * @param postCache        Cache from which the removed posts are evicted.
+     * @param eventPublisher   Publisher for the {@link PostDeletedEvent} of each
+     *                         removed reply.
+     * @param meterRegistry    Registry for the queue depth, removed posts and
+     *                         cleanup latency metrics.
+     * @param queueCapacity    Maximum number of deleted posts waiting for
+     *                         cleanup in memory; the rest wait for the sweep.
+     * @param batchSize        Maximum number of posts per query and per
+     *                         {@code deleteMany}.
+     * @param sweepInterval    Time between sweeps for unfinished tombstones.
+     */
+    public PostDeletionWorker(PostRepository postRepository, ThreadRepository threadRepository,
+            PostLikeRepository likeRepository, PostCache postCache, ApplicationEventPublisher eventPublisher, MeterRegistry meterRegistry,
+            @Value("${posts.deletion.queue-capacity:10000}") int queueCapacity,
+            @Value("${posts.deletion.batch-size:1000}") int batchSize,
+            @Value("${posts.deletion.sweep-interval:PT1M}") Duration sweepInterval) {
+        this.postRepository = postRepository;
+        this.threadRepository = threadRepository;
+        this.likeRepository = likeRepository;
+        this.postCache = postCache;
+        this.eventPublisher = eventPublisher;
+        this.queue = new LinkedBlockingQueue<>(queueCapacity);
+        this.batchSize = batchSize;
+        this.sweepInterval = sweepInterval;
+
+        Gauge.builder("posts.deletion.queue", queue, BlockingQueue::size)
+                .description("Deleted posts waiting for their subtree to be removed")
+                .register(meterRegistry);
+        this.removed = Counter.builder("posts.deletion.removed")
+                .description("Posts removed from the database by the cleanup")
+                .register(meterRegistry);
+        this.cleanupLatency = Timer.builder("posts.deletion.cleanup")
+                .description("Time to remove a deleted post and its subtree")
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+
+        // Hilo daemon: el trabajo pendiente está en los tombstones y no se pierde al salir
+        CustomizableThreadFactory threadFactory = new CustomizableThreadFactory("post-deletion-");
+        threadFactory.setDaemon(true);
+        this.worker = threadFactory.newThread(this::run);
+        worker.start();
+    }
+
+    /**
+     * Schedules the cleanup of a tombstoned post. If the queue is full the
+     * post is left to the next sweep.
+     *
+     * @param post The tombstoned post.
+     */
+    public void submit(Post post) {
+        if (!queue.offer(post)) {
+            log.debug("Cola de borrado llena, el post {} queda para el barrido", post.getId());
+        }
+    }
+
+    /**
+     * Stops the cleanup between two batches. Unfinished subtrees are resumed
+     * by the sweep after the next start.
+     */
+    @PreDestroy
+    public void shutdown() throws InterruptedException {
+        stopping = true;
+        worker.interrupt();
+        worker.join(SHUTDOWN_WAIT_MS);
+    }
+
+    private void run() {
+        // El barrido va por plazo: con borrados continuos la cola nunca se vacía
+        long nextSweep = System.nanoTime() + sweepInterval.toNanos();
+        while (!stopping) {
+            try {
+                long wait = nextSweep - System.nanoTime();
+                Post post = wait > 0 ? queue.poll(wait, TimeUnit.NANOSECONDS) : null;
+                if (post != null) {
+                    cleanUp(post);
+                } else {
+                    nextSweep = System.nanoTime() + sweepInterval.toNanos();
+                    sweep();
+                }
+            } catch (InterruptedException e) {
+                java.lang.Thread.currentThread().interrupt();
+                return;
+            } catch (RuntimeException e) {
+                // Los tombstones siguen ahí: el siguiente barrido reintenta
+                log.warn("No se pudo completar el borrado de posts: {}", e.getMessage());
+            }
+        }
+    }
+
+    private void sweep() {
+        List<Post> tombstones;
+        do {
+            tombstones = postRepository.findDeleted(batchSize);
+            for (Post post : tombstones) {
+                if (stopping) {
+                    return;
+                }
+                cleanUp(post);
+            }
+        } while (tombstones.size() == batchSize);
+    }
+
+    /**
+     * Removes a tombstoned post and everything below it. Every step can be
+     * repeated, so a post cleaned up twice is harmless.
+     */
+    void cleanUp(Post post) {
+        long start = System.nanoTime();
+        if (post.getParentPostId() == null && post.getThreadId() != null) {
+            deleteThread(post);
+        } else {
+            deleteSubtree(post);
+        }
+        cleanupLatency.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+    }
+
+    // El post raíz se borra el último para que el barrido pueda retomar el hilo
+    private void deleteThread(Post root) {
+        List<String> ids;
+        do {
+            ids = postRepository.deleteBatchByThreadId(root.getThreadId(), root.getId(), batchSize);
+            evict(ids);
+        } while (ids.size() == batchSize && !stopping);
+        if (stopping) {
+            return;
+        }
+        threadRepository.deleteById(root.getThreadId());
+        postRepository.deleteById(root.getId());
+        evict(List.of(root.getId()));
+    }
+
+    private void deleteSubtree(Post post) {
+        Deque<String> pending = new ArrayDeque<>();
+        pending.add(post.getId());
+        while (!pending.isEmpty() && !stopping) {
+            List<String> parents = new ArrayList<>(Math.min(batchSize, pending.size()));
+            while (parents.size() < batchSize && !pending.isEmpty()) {
+                parents.add(pending.poll());
+            }
+
+            // Las respuestas se marcan antes de borrar a sus padres
+            List<Post> replies;
+            do {
+                replies = postRepository.markRepliesDeleted(parents, batchSize);
+                replies.forEach(reply -> pending.add(reply.getId()));
+            } while (replies.size() == batchSize);
+
+            postRepository.deleteAllById(parents);
+            if (post.getThreadId() != null) {
+                threadRepository.removePosts(post.getThreadId(), parents);
+            }
+            evict(parents);
+        }
+    }
+
+    private void evict(List<String> ids) {
+        likeRepository.deleteByPostIdIn(ids);
+        for (String id : ids) {
+            postCache.postDeleted(id, null);
+            eventPublisher.publishEvent(new PostDeletedEvent(id));
+        }
+        removed.increment(ids.size());
+    }
+}
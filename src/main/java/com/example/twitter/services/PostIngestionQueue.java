@@ -0,0 +1,309 @@
+package com.example.twitter.services;
+
+import com.example.twitter.events.PostCreatedEvent;
+import com.example.twitter.model.Post;
+import com.example.twitter.model.Thread;
+import com.example.twitter.repository.PostRepository;
+import com.example.twitter.repository.ThreadRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Write-behind ingestion of new posts ({@code posts.ingestion.write-behind}).
+ *
+ * Posts arrive with their ids already assigned and wait in a bounded
+ * in-memory queue. A single flusher thread writes them in batches, when
+ * {@code batch-size} posts are waiting or {@code flush-interval} after the
+ * first one: one bulk insert of the new threads, one of the posts and one bulk
+ * update for the replies appended to existing threads. Insert throughput then
+ * depends on the batch size instead of on the latency of a round trip per
+ * post.
+ *
+ * When the queue is full the post is rejected with
+ * {@link RejectedExecutionException} and the caller should answer "try again
+ * later". A failed batch is retried until it succeeds, so while MongoDB is
+ * unavailable the queue fills up and creation is throttled. Queued posts are
+ * only in memory: a graceful shutdown writes them, a crash loses them.
+ *
+ * A post deleted while it is still queued is written as usual and tombstoned
+ * right after its batch, so {@link PostDeletionWorker} cleans it up like any
+ * other deleted post.
+ */
+@Service
+public class PostIngestionQueue {
+    private static final Logger log = LoggerFactory.getLogger(PostIngestionQueue.class);
+    private static final long INITIAL_BACKOFF_MS = 100;
+    private static final long MAX_BACKOFF_MS = 5_000;
+    // Las esperas se trocean para notar el apagado aunque flush-interval sea largo
+    private static final long STOP_CHECK_NANOS = TimeUnit.MILLISECONDS.toNanos(10);
+
+    private final PostRepository postRepository;
+    private final ThreadRepository threadRepository;
+    private final ApplicationEventPublisher eventPublisher;
+    private final boolean enabled;
+    private final BlockingQueue<Post> queue;
+    // Posts aceptados y aún no escritos, para poder leerlos por id
+    private final Map<String, Post> pending = new ConcurrentHashMap<>();
+    // Posts borrados mientras esperaban; se marcan como borrados al escribirse
+    private final Set<String> deleted = ConcurrentHashMap.newKeySet();
+    private final int batchSize;
+    private final Duration flushInterval;
+    private final Duration shutdownTimeout;
+    private final Timer flushLatency;
+    private final Counter rejected;
+    private final java.lang.Thread flusher;
+    private volatile boolean stopping;
+
+    /**
+     * Constructs a new PostIngestionQueue.
+     *
+     * @param postRepository   Repository for managing posts.
+     * @param threadRepository Repository for managing threads.
+     * @param eventPublisher   Publisher for the {@link PostCreatedEvent} of each
+     *                         written post.
+     * @param meterRegistry    Registry for the queue depth, flush latency and
+     *                         rejection metrics.
+     * @param enabled          Whether posts are written behind; when false no
+     *                         thread is started and {@link #enqueue} must not
+     *                         be called.
+     * @param queueCapacity    Maximum number of posts waiting to be written.
+     * @param batchSize        Maximum number of posts per batch.
+     * @param flushInterval    Maximum time a post waits for its batch to fill.
+     * @param shutdownTimeout  Maximum time to write the queued posts on shutdown.
+     */
+    public PostIngestionQueue(PostRepository postRepository, ThreadRepository threadRepository,
+            ApplicationEventPublisher eventPublisher, MeterRegistry meterRegistry,
+            @Value("${posts.ingestion.write-behind:false}") boolean enabled,
+            @Value("${posts.ingestion.queue-capacity:10000}") int queueCapacity,
+            @Value("${posts.ingestion.batch-size:500}") int batchSize,
+            @Value("${posts.ingestion.flush-interval:PT0.05S}") Duration flushInterval,
+            @Value("${posts.ingestion.shutdown-timeout:PT30S}") Duration shutdownTimeout) {
+        this.postRepository = postRepository;
+        this.threadRepository = threadRepository;
+        this.eventPublisher = eventPublisher;
+        this.enabled = enabled;
+        this.queue = new ArrayBlockingQueue<>(queueCapacity);
+        this.batchSize = batchSize;
+        this.flushInterval = flushInterval;
+        this.shutdownTimeout = shutdownTimeout;
+
+        Gauge.builder("posts.ingestion.queue", queue, BlockingQueue::size)
+                .description("Posts accepted and waiting to be written")
+                .register(meterRegistry);
+        this.flushLatency = Timer.builder("posts.ingestion.flush")
+                .description("Time to write a batch of posts, retries included")
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+        this.rejected = Counter.builder("posts.ingestion.rejected")
+                .description("Posts rejected because the ingestion queue was full")
+                .register(meterRegistry);
+
+        this.flusher = enabled ? new CustomizableThreadFactory("post-ingestion-").newThread(this::run) : null;
+        if (flusher != null) {
+            flusher.start();
+        }
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Accepts a post to be written in a later batch. The post must already
+     * have its id and, for root posts, the id of the thread to create.
+     *
+     * @param post The post to write.
+     * @throws RejectedExecutionException if the queue is full or the
+     *                                    application is shutting down.
+     */
+    public void enqueue(Post post) {
+        if (stopping) {
+            throw new RejectedExecutionException("Post ingestion is shutting down");
+        }
+        pending.put(post.getId(), post);
+        if (!queue.offer(post)) {
+            pending.remove(post.getId());
+            rejected.increment();
+            throw new RejectedExecutionException("Post ingestion queue is full");
+        }
+    }
+
+    /**
+     * Looks up a post that was accepted but is not written yet.
+     *
+     * @param id The ID of the post.
+     * @return The queued post, or empty if it is not in the queue.
+     */
+    public Optional<Post> findPending(String id) {
+        return deleted.contains(id) ? Optional.empty() : Optional.ofNullable(pending.get(id));
+    }
+
+    /**
+     * Deletes a post that is not written yet: it stops being readable now and
+     * is tombstoned as soon as its batch is written.
+     *
+     * @param id The ID of the post.
+     * @return true if the post was still queued, false if it is already
+     *         written (or was never accepted) and must be deleted in the
+     *         database.
+     */
+    public boolean markDeleted(String id) {
+        // Atómico con pending.remove: o lo ve el flusher al terminar el lote o el post ya está escrito
+        return pending.computeIfPresent(id, (key, post) -> {
+            deleted.add(key);
+            return post;
+        }) != null;
+    }
+
+    /**
+     * Stops accepting posts and writes the queued ones, waiting at most
+     * {@code shutdown-timeout}.
+     */
+    @PreDestroy
+    public void shutdown() throws InterruptedException {
+        if (flusher == null) {
+            return;
+        }
+        stopping = true;
+        flusher.join(shutdownTimeout.toMillis());
+        if (flusher.isAlive()) {
+            flusher.interrupt();
+            log.error("Se descartan {} posts sin escribir al apagar", pending.size());
+        }
+    }
+
+    private void run() {
+        List<Post> batch = new ArrayList<>(batchSize);
+        try {
+            while (!stopping || !queue.isEmpty()) {
+                Post first = queue.poll(Math.min(flushInterval.toNanos(), STOP_CHECK_NANOS), TimeUnit.NANOSECONDS);
+                if (first == null) {
+                    continue;
+                }
+                try {
+                    batch.add(first);
+                    fillBatch(batch);
+                    flushWithRetry(batch);
+                } catch (RuntimeException e) {
+                    // Es el único hilo que escribe: si muriera, la cola se llenaría para siempre
+                    log.error("Error inesperado al escribir un lote de {} posts", batch.size(), e);
+                } finally {
+                    batch.clear();
+                }
+            }
+        } catch (InterruptedException e) {
+            java.lang.Thread.currentThread().interrupt();
+        }
+    }
+
+    // Espera a que el lote se llene como mucho flushInterval desde el primer post
+    private void fillBatch(List<Post> batch) throws InterruptedException {
+        long deadline = System.nanoTime() + flushInterval.toNanos();
+        while (true) {
+            queue.drainTo(batch, batchSize - batch.size());
+            long remaining = deadline - System.nanoTime();
+            if (batch.size() >= batchSize || remaining <= 0 || stopping) {
+                return;
+            }
+            Post next = queue.poll(Math.min(remaining, STOP_CHECK_NANOS), TimeUnit.NANOSECONDS);
+            if (next != null) {
+                batch.add(next);
+            }
+        }
+    }
+
+    private void flushWithRetry(List<Post> batch) throws InterruptedException {
+        long start = System.nanoTime();
+        retry(batch.size(), () -> flush(batch));
+        flushLatency.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+
+        List<String> tombstones = new ArrayList<>();
+        List<Post> created = new ArrayList<>(batch.size());
+        for (Post post : batch) {
+            pending.remove(post.getId());
+            if (deleted.remove(post.getId())) {
+                tombstones.add(post.getId());
+            } else {
+                created.add(post);
+            }
+        }
+        if (!tombstones.isEmpty()) {
+            retry(tombstones.size(), () -> tombstones.forEach(postRepository::markDeleted));
+        }
+
+        for (Post post : created) {
+            try {
+                eventPublisher.publishEvent(new PostCreatedEvent(post));
+            } catch (RuntimeException e) {
+                // El post ya está escrito; un listener que falla no debe parar la ingesta
+                log.warn("Error al notificar el post {}: {}", post.getId(), e.getMessage());
+            }
+        }
+    }
+
+    private void retry(int posts, Runnable write) throws InterruptedException {
+        long backoff = INITIAL_BACKOFF_MS;
+        while (true) {
+            try {
+                write.run();
+                return;
+            } catch (RuntimeException e) {
+                log.warn("No se pudo escribir un lote de {} posts, reintento en {} ms: {}",
+                        posts, backoff, e.getMessage());
+                java.lang.Thread.sleep(backoff);
+                backoff = Math.min(backoff * 2, MAX_BACKOFF_MS);
+            }
+        }
+    }
+
+    /**
+     * Writes a batch. Every write is idempotent, so a failed batch is retried
+     * as a whole.
+     */
+    private void flush(List<Post> batch) {
+        Map<String, Thread> newThreads = new LinkedHashMap<>();
+        Map<String, List<String>> appended = new LinkedHashMap<>();
+        for (Post post : batch) {
+            String threadId = post.getThreadId();
+            if (threadId == null) {
+                continue;
+            }
+            if (post.getParentPostId() == null) {
+                Thread thread = new Thread(post.getId());
+                thread.setId(threadId);
+                newThreads.put(threadId, thread);
+            } else if (newThreads.containsKey(threadId)) {
+                // El hilo se crea en este mismo lote: se inserta ya con la respuesta
+                newThreads.get(threadId).addPost(post.getId());
+            } else {
+                appended.computeIfAbsent(threadId, id -> new ArrayList<>()).add(post.getId());
+            }
+        }
+
+        threadRepository.insertBatch(newThreads.values());
+        postRepository.insertBatch(batch);
+        threadRepository.appendPosts(appended);
+    }
+}
@@ -1,84 +1,171 @@
 package com.example.twitter.services;
 
+import com.example.twitter.cache.PostCache;
+import com.example.twitter.dto.PostWithReplies;
+import com.example.twitter.dto.ThreadNode;
+import com.example.twitter.dto.TimelineCursor;
+import com.example.twitter.dto.TimelinePage;
+import com.example.twitter.events.PostCreatedEvent;
+import com.example.twitter.events.PostDeletedEvent;
 import com.example.twitter.model.Post;
+import com.example.twitter.model.PostLike;
 import com.example.twitter.model.Thread;
+import com.example.twitter.repository.PostLikeRepository;
 import com.example.twitter.repository.PostRepository;
 import com.example.twitter.repository.ThreadRepository;
+import com.example.twitter.search.PostSearchIndex;
 
+import io.micrometer.core.annotation.Timed;
+import org.bson.types.ObjectId;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DuplicateKeyException;
 import org.springframework.stereotype.Service;
 
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
-import java.util.Random;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.stream.Stream;
 
 /**
  * Service class for handling operations related to posts.
  */
 @Service
+@Timed("service.method")
 public class PostService {
+    private static final int FEED_SIZE = 5;
+    private static final int MAX_PAGE_SIZE = 100;
+    private static final int MAX_BATCH_PARENTS = 100;
+
     private final PostRepository postRepository;
     private final ThreadRepository threadRepository;
+    private final ApplicationEventPublisher eventPublisher;
+    private final PostIngestionQueue ingestionQueue;
+    private final PostCache postCache;
+    private final PostDeletionWorker deletionWorker;
+    private final EngagementCounters engagementCounters;
+    private final PostSearchIndex searchIndex;
+    private final PostLikeRepository likeRepository;
 
     /**
      * Constructs a new PostService with the required repositories.
      *
      * @param postRepository   Repository for managing posts.
      * @param threadRepository Repository for managing threads.
+     * @param eventPublisher   Publisher for {@link PostCreatedEvent}s.
+     * @param ingestionQueue   Write-behind queue used for new posts when it is
+     *                         enabled.
+     * @param postCache        Cache of posts by id and of reply lists.
+     * @param deletionWorker     Background cleanup of deleted posts.
+     * @param engagementCounters Reply and like counters of posts.
+     * @param searchIndex        Full-text index of post contents.
+     * @param likeRepository     Repository of the likes of each user.
      */
-    public PostService(PostRepository postRepository, ThreadRepository threadRepository) {
+    public PostService(PostRepository postRepository, ThreadRepository threadRepository,
+            ApplicationEventPublisher eventPublisher, PostIngestionQueue ingestionQueue, PostCache postCache,
+            PostDeletionWorker deletionWorker, EngagementCounters engagementCounters, PostSearchIndex searchIndex,
+            PostLikeRepository likeRepository) {
         this.postRepository = postRepository;
         this.threadRepository = threadRepository;
+        this.eventPublisher = eventPublisher;
+        this.ingestionQueue = ingestionQueue;
+        this.postCache = postCache;
+        this.deletionWorker = deletionWorker;
+        this.engagementCounters = engagementCounters;
+        this.searchIndex = searchIndex;
+        this.likeRepository = likeRepository;
     }
 
     /**
      * Creates a new post. If the post is a reply to an existing post, it will be
      * linked to the same thread.
      * Otherwise, a new thread will be created.
+     * With write-behind ingestion the post is returned as soon as it is queued.
      *
      * @param userId       The ID of the user creating the post.
      * @param content      The content of the post.
      * @param parentPostId (Optional) The ID of the parent post if this is a reply.
      * @return The created post.
-     * @throws IllegalArgumentException if the parent post is not found.
+     * @throws IllegalArgumentException   if the parent post is not found.
+     * @throws RejectedExecutionException if the ingestion queue is full.
      */
     public Post createPost(String userId, String content, String parentPostId) {
         Post post = new Post(userId, content);
 
         if (parentPostId != null) {
-            Optional<Post> parentPost = postRepository.findById(parentPostId);
+            Optional<Post> parentPost = findPost(parentPostId);
             if (parentPost.isPresent()) {
                 post.setParentPostId(parentPostId);
                 post.setThreadId(parentPost.get().getThreadId());
             } else {
                 throw new IllegalArgumentException("Parent post not found");
             }
+        } else if (ingestionQueue.isEnabled()) {
+            assignThread(post);
         } else {
-            Thread thread = new Thread(post.getId());
-            thread = threadRepository.save(thread);
-            post.setThreadId(thread.getId());
+            startThread(post);
         }
 
-        return postRepository.save(post);
+        if (ingestionQueue.isEnabled()) {
+            enqueue(post);
+        } else {
+            post = postRepository.save(post);
+            if (parentPostId != null && post.getThreadId() != null) {
+                threadRepository.appendPost(post.getThreadId(), post.getId());
+            }
+            postCache.postCreated(post);
+            eventPublisher.publishEvent(new PostCreatedEvent(post));
+        }
+        if (parentPostId != null) {
+            engagementCounters.replyAdded(parentPostId);
+        }
+        return post;
+    }
+
+    /**
+     * Records the like of a user on a post. Each user counts once: the like is
+     * stored with a unique index on the post and the user, and only a new like
+     * is added to the counters, which are written with the next batch.
+     *
+     * @param id     The ID of the liked post.
+     * @param userId The ID of the user who likes the post.
+     * @return true if the like is new, false if the user already liked the post.
+     * @throws IllegalArgumentException if the post is not found.
+     */
+    public boolean likePost(String id, String userId) {
+        if (findPost(id).isEmpty()) {
+            throw new IllegalArgumentException("Post not found");
+        }
+        try {
+            likeRepository.insert(new PostLike(id, userId));
+        } catch (DuplicateKeyException e) {
+            return false;
+        }
+        engagementCounters.liked(id);
+        return true;
     }
 
     /**
      * Retrieves a random selection of up to 5 posts to display as a feed.
+     * The sampling is done by MongoDB ({@code $sample}), so only the selected
+     * posts are loaded regardless of the size of the collection.
      *
      * @return A list of randomly selected posts.
      */
     public List<Post> getFeed() {
-        List<Post> posts = postRepository.findAll();
-        List<Post> randomPosts = new ArrayList<>();
-        Random random = new Random();
-        int size = Math.min(5, posts.size());
-        while (randomPosts.size() < size) {
-            Post randomPost = posts.get(random.nextInt(posts.size()));
-            if (!randomPosts.contains(randomPost)) {
-                randomPosts.add(randomPost);
+        // $sample puede repetir documentos; se eliminan duplicados por id
+        Map<String, Post> sampled = new LinkedHashMap<>();
+        for (Post post : postRepository.findRandomPosts(FEED_SIZE)) {
+            if (!post.isDeleted()) {
+                sampled.putIfAbsent(post.getId(), post);
             }
         }
-        return randomPosts;
+        return new ArrayList<>(sampled.values());
     }
 
     /**
@@ -86,12 +173,51 @@ public class PostService {
      *
      * @param post The post to create a thread for.
      * @return The updated post with a thread ID assigned.
+     * @throws RejectedExecutionException if the ingestion queue is full.
      */
     public Post createThread(Post post) {
-        Thread thread = new Thread(post.getId());
-        thread = threadRepository.save(thread);
-        post.setThreadId(thread.getId());
-        return postRepository.save(post);
+        if (ingestionQueue.isEnabled()) {
+            assignThread(post);
+            return enqueue(post);
+        }
+        startThread(post);
+        Post saved = postRepository.save(post);
+        postCache.postCreated(saved);
+        eventPublisher.publishEvent(new PostCreatedEvent(saved));
+        return saved;
+    }
+
+    /**
+     * Retrieves a whole conversation with a single query and arranges it as a
+     * reply tree.
+     *
+     * @param threadId The ID of the thread.
+     * @return The top-level posts of the thread with their nested replies: the
+     *         root post, plus any reply whose parent is not in the thread.
+     *         Deleted posts are left out together with their replies.
+     */
+    public List<ThreadNode> getThread(String threadId) {
+        List<Post> posts = postRepository.findByThreadIdOrderByCreationDateAscIdAsc(threadId);
+
+        // Dos pasadas O(n): indexar por id y enlazar cada post con su padre
+        Map<String, ThreadNode> nodes = new HashMap<>(posts.size() * 2);
+        for (Post post : posts) {
+            nodes.put(post.getId(), new ThreadNode(post));
+        }
+        List<ThreadNode> roots = new ArrayList<>();
+        for (Post post : posts) {
+            if (post.isDeleted()) {
+                // Sin enlazar, su subárbol queda inalcanzable hasta que se limpie
+                continue;
+            }
+            ThreadNode parent = post.getParentPostId() == null ? null : nodes.get(post.getParentPostId());
+            if (parent == null) {
+                roots.add(nodes.get(post.getId()));
+            } else {
+                parent.addReply(nodes.get(post.getId()));
+            }
+        }
+        return roots;
     }
 
     /**
@@ -104,6 +230,60 @@ public class PostService {
         return postRepository.findByUserId(userId);
     }
 
+    /**
+     * Retrieves one page of the posts made by a specific user, newest first.
+     *
+     * @param userId The ID of the user whose posts are to be retrieved.
+     * @param after  (Optional) The cursor returned with the previous page.
+     * @param limit  The maximum number of posts in the page.
+     * @return The page of posts and the cursor of the next page.
+     * @throws IllegalArgumentException if the cursor or the limit are invalid.
+     */
+    public TimelinePage<Post> getPostsByUser(String userId, String after, int limit) {
+        int size = checkPageSize(limit);
+        return toPage(postRepository.findPageByUserId(userId, decodeCursor(after), size + 1), size);
+    }
+
+    /**
+     * Streams every post made by a specific user, newest first, straight from
+     * the database cursor so that memory does not grow with the number of
+     * posts. The caller must close the stream.
+     *
+     * @param userId The ID of the user whose posts are to be exported.
+     * @param after  (Optional) The position after which the export resumes.
+     * @return The posts of the user.
+     */
+    public Stream<Post> streamPostsByUser(String userId, TimelineCursor after) {
+        return postRepository.streamByUserId(userId, after);
+    }
+
+    /**
+     * Finds the newest posts whose content contains every term of a query.
+     * Matching is case and accent insensitive, and a term ending in {@code *}
+     * matches any word that starts with it.
+     *
+     * @param query The terms to search for, separated by spaces.
+     * @param limit The maximum number of posts.
+     * @return The matching posts, newest first.
+     * @throws IllegalArgumentException if the query or the limit are invalid.
+     * @throws IllegalStateException    if the search index is still being
+     *                                  built.
+     */
+    public List<Post> searchPosts(String query, int limit) {
+        List<String> ids = searchIndex.search(query, checkPageSize(limit));
+        if (ids.isEmpty()) {
+            return List.of();
+        }
+        // Una sola consulta; se devuelven en el orden del índice
+        Map<String, Post> found = new HashMap<>();
+        for (Post post : postRepository.findAllById(ids)) {
+            if (!post.isDeleted()) {
+                found.put(post.getId(), post);
+            }
+        }
+        return ids.stream().map(found::get).filter(Objects::nonNull).toList();
+    }
+
     /**
      * Retrieves a specific post by its ID.
      *
@@ -111,25 +291,159 @@ public class PostService {
      * @return An Optional containing the post if found, otherwise empty.
      */
     public Optional<Post> getPostById(String id) {
-        return postRepository.findById(id);
+        return findPost(id);
     }
 
     /**
-     * Retrieves all replies to a given post.
+     * Retrieves all replies to a given post. Reply lists are cached.
      *
      * @param parentPostId The ID of the parent post.
      * @return A list of replies to the given post.
      */
     public List<Post> getReplies(String parentPostId) {
-        return postRepository.findByParentPostId(parentPostId);
+        return postCache.getReplies(parentPostId, postRepository::findByParentPostId);
+    }
+
+    /**
+     * Retrieves one page of the replies to a given post, newest first.
+     *
+     * @param parentPostId The ID of the parent post.
+     * @param after        (Optional) The cursor returned with the previous page.
+     * @param limit        The maximum number of replies in the page.
+     * @return The page of replies and the cursor of the next page.
+     * @throws IllegalArgumentException if the cursor or the limit are invalid.
+     */
+    public TimelinePage<Post> getReplies(String parentPostId, String after, int limit) {
+        int size = checkPageSize(limit);
+        return toPage(postRepository.findPageByParentPostId(parentPostId, decodeCursor(after), size + 1), size);
+    }
+
+    /**
+     * Retrieves the newest replies of several posts with a single query.
+     *
+     * @param parentPostIds The IDs of the parent posts.
+     * @param perParent     The maximum number of replies per parent post.
+     * @return The replies grouped by parent post ID; parents without replies map
+     *         to an empty list.
+     * @throws IllegalArgumentException if there are too many parent IDs or the
+     *                                  limit is invalid.
+     */
+    public Map<String, List<Post>> getRepliesByParents(Collection<String> parentPostIds, int perParent) {
+        checkPageSize(perParent);
+        if (parentPostIds.size() > MAX_BATCH_PARENTS) {
+            throw new IllegalArgumentException("At most " + MAX_BATCH_PARENTS + " parent posts per request");
+        }
+        Map<String, List<Post>> grouped = new LinkedHashMap<>();
+        if (parentPostIds.isEmpty()) {
+            return grouped;
+        }
+        Map<String, List<Post>> replies = postRepository.findRepliesByParentPostIdIn(parentPostIds, perParent);
+        for (String parentPostId : parentPostIds) {
+            grouped.put(parentPostId, replies.getOrDefault(parentPostId, List.of()));
+        }
+        return grouped;
     }
 
     /**
-     * Deletes a post by its ID.
+     * Attaches to each post its first replies, loaded with one query per 100
+     * posts, so unpaginated lists of any size can be hydrated.
+     *
+     * @param posts     The posts to hydrate.
+     * @param perParent The maximum number of replies per post.
+     * @return The posts with their replies, in the same order.
+     * @throws IllegalArgumentException if the limit is invalid.
+     */
+    public List<PostWithReplies> withReplies(List<Post> posts, int perParent) {
+        checkPageSize(perParent);
+        List<String> ids = posts.stream().map(Post::getId).toList();
+        Map<String, List<Post>> replies = new HashMap<>();
+        for (int from = 0; from < ids.size(); from += MAX_BATCH_PARENTS) {
+            replies.putAll(getRepliesByParents(ids.subList(from, Math.min(from + MAX_BATCH_PARENTS, ids.size())),
+                    perParent));
+        }
+        return posts.stream()
+                .map(post -> new PostWithReplies(post, replies.getOrDefault(post.getId(), List.of())))
+                .toList();
+    }
+
+    /**
+     * Deletes a post and, in the background, its replies. The post is only
+     * tombstoned here, so it disappears from reads at once and the cost does
+     * not depend on the size of the conversation; {@link PostDeletionWorker}
+     * removes the subtree later.
      *
      * @param id The ID of the post to delete.
      */
     public void deletePost(String id) {
-        postRepository.deleteById(id);
+        // Se lee antes para saber de qué lista de respuestas quitarlo y cómo limpiarlo
+        Optional<Post> post = findPost(id);
+        if (post.isEmpty()) {
+            return;
+        }
+        // Un post aún en cola se marca como borrado al escribirse
+        boolean queued = ingestionQueue.isEnabled() && ingestionQueue.markDeleted(id);
+        if (!queued && !postRepository.markDeleted(id)) {
+            return;
+        }
+        String parentPostId = post.get().getParentPostId();
+        postCache.postDeleted(id, parentPostId);
+        if (parentPostId != null) {
+            engagementCounters.replyRemoved(parentPostId);
+        }
+        eventPublisher.publishEvent(new PostDeletedEvent(id));
+        deletionWorker.submit(post.get());
+    }
+
+    private int checkPageSize(int limit) {
+        if (limit < 1 || limit > MAX_PAGE_SIZE) {
+            throw new IllegalArgumentException("limit must be between 1 and " + MAX_PAGE_SIZE);
+        }
+        return limit;
+    }
+
+    private TimelineCursor decodeCursor(String after) {
+        return after == null || after.isEmpty() ? null : TimelineCursor.decode(after);
+    }
+
+    // Se pide un elemento de más para saber si existe una página siguiente
+    private TimelinePage<Post> toPage(List<Post> posts, int size) {
+        if (posts.size() <= size) {
+            return new TimelinePage<>(posts, null);
+        }
+        List<Post> items = posts.subList(0, size);
+        Post last = items.get(size - 1);
+        return new TimelinePage<>(items, new TimelineCursor(last.getCreationDate(), last.getId()).encode());
+    }
+
+    // Los ids se generan aquí para que el hilo registre el post raíz desde el inicio
+    private void startThread(Post post) {
+        assignThread(post);
+        Thread thread = new Thread(post.getId());
+        thread.setId(post.getThreadId());
+        threadRepository.save(thread);
+    }
+
+    private void assignThread(Post post) {
+        if (post.getId() == null) {
+            post.setId(new ObjectId().toHexString());
+        }
+        post.setThreadId(new ObjectId().toHexString());
+    }
+
+    // Con escritura diferida el post se devuelve en cuanto está en la cola
+    private Post enqueue(Post post) {
+        if (post.getId() == null) {
+            post.setId(new ObjectId().toHexString());
+        }
+        ingestionQueue.enqueue(post);
+        postCache.postCreated(post);
+        return post;
+    }
+
+    // Los posts aún en la cola de escritura también se encuentran por id
+    private Optional<Post> findPost(String id) {
+        Optional<Post> queued = ingestionQueue.isEnabled() ? ingestionQueue.findPending(id) : Optional.empty();
+        return queued.isPresent() ? queued
+                : postCache.getPost(id, key -> postRepository.findById(key).filter(post -> !post.isDeleted()));
     }
 }
@@ -0,0 +1,165 @@
+package com.example.twitter.services;
+
+import com.example.twitter.cache.PostCache;
+import com.example.twitter.events.PostCreatedEvent;
+import com.example.twitter.events.PostDeletedEvent;
+import com.example.twitter.model.Post;
+import com.example.twitter.model.Thread;
+import com.example.twitter.repository.reactive.ReactivePostRepository;
+import com.example.twitter.repository.reactive.ReactiveThreadRepository;
+import org.bson.types.ObjectId;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * Non-blocking counterpart of {@link PostService}, used when the application
+ * runs on the reactive stack ({@code WEB_STACK=reactive}).
+ *
+ * Lists are returned as {@link Flux}es backed by the Mongo cursor, so the
+ * demand of the HTTP client is what drives how many documents are fetched.
+ */
+@Service
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+public class ReactivePostService {
+    private static final int FEED_SIZE = 5;
+
+    private final ReactivePostRepository postRepository;
+    private final ReactiveThreadRepository threadRepository;
+    private final ApplicationEventPublisher eventPublisher;
+    private final PostCache postCache;
+    private final PostDeletionWorker deletionWorker;
+    private final EngagementCounters engagementCounters;
+
+    /**
+     * Constructs a new ReactivePostService with the required repositories.
+     *
+     * @param postRepository     Reactive repository for managing posts.
+     * @param threadRepository   Reactive repository for managing threads.
+     * @param eventPublisher     Publisher for {@link PostCreatedEvent}s and
+     *                           {@link PostDeletedEvent}s.
+     * @param postCache          Cache of posts by id and of reply lists.
+     * @param deletionWorker     Background cleanup of deleted posts.
+     * @param engagementCounters Reply and like counters of posts.
+     */
+    public ReactivePostService(ReactivePostRepository postRepository, ReactiveThreadRepository threadRepository,
+            ApplicationEventPublisher eventPublisher, PostCache postCache, PostDeletionWorker deletionWorker,
+            EngagementCounters engagementCounters) {
+        this.postRepository = postRepository;
+        this.threadRepository = threadRepository;
+        this.eventPublisher = eventPublisher;
+        this.postCache = postCache;
+        this.deletionWorker = deletionWorker;
+        this.engagementCounters = engagementCounters;
+    }
+
+    /**
+     * Creates a new post, see {@link PostService#createPost(String, String, String)}.
+     *
+     * @param userId       The ID of the user creating the post.
+     * @param content      The content of the post.
+     * @param parentPostId (Optional) The ID of the parent post if this is a reply.
+     * @return The created post, or an {@link IllegalArgumentException} error if
+     *         the parent post is not found.
+     */
+    public Mono<Post> createPost(String userId, String content, String parentPostId) {
+        Post post = new Post(userId, content);
+
+        if (parentPostId == null) {
+            post.setId(new ObjectId().toHexString());
+            Thread thread = new Thread(post.getId());
+            thread.setId(new ObjectId().toHexString());
+            post.setThreadId(thread.getId());
+            return threadRepository.save(thread)
+                    .then(postRepository.save(post))
+                    .doOnNext(this::publishCreated);
+        }
+
+        return postRepository.findLiveById(parentPostId)
+                .switchIfEmpty(Mono.error(() -> new IllegalArgumentException("Parent post not found")))
+                .flatMap(parent -> {
+                    post.setParentPostId(parentPostId);
+                    post.setThreadId(parent.getThreadId());
+                    return postRepository.save(post);
+                })
+                .flatMap(saved -> saved.getThreadId() == null
+                        ? Mono.just(saved)
+                        : threadRepository.appendPost(saved.getThreadId(), saved.getId()).thenReturn(saved))
+                .doOnNext(saved -> {
+                    publishCreated(saved);
+                    engagementCounters.replyAdded(parentPostId);
+                });
+    }
+
+    /**
+     * Retrieves a random selection of up to 5 posts, sampled by MongoDB.
+     *
+     * @return The randomly selected posts, without duplicates.
+     */
+    public Flux<Post> getFeed() {
+        return postRepository.findRandomPosts(FEED_SIZE).distinct(Post::getId);
+    }
+
+    /**
+     * Retrieves all posts made by a specific user.
+     *
+     * @param userId The ID of the user whose posts are to be retrieved.
+     * @return The posts made by the user.
+     */
+    public Flux<Post> getPostsByUser(String userId) {
+        return postRepository.findByUserId(userId);
+    }
+
+    /**
+     * Retrieves a specific post by its ID.
+     *
+     * @param id The ID of the post to retrieve.
+     * @return The post, or empty if it does not exist or is deleted.
+     */
+    public Mono<Post> getPostById(String id) {
+        return postRepository.findLiveById(id);
+    }
+
+    /**
+     * Retrieves all replies to a given post.
+     *
+     * @param parentPostId The ID of the parent post.
+     * @return The replies to the given post.
+     */
+    public Flux<Post> getReplies(String parentPostId) {
+        return postRepository.findByParentPostId(parentPostId);
+    }
+
+    /**
+     * Deletes a post, see {@link PostService#deletePost(String)}: the post is
+     * tombstoned and {@link PostDeletionWorker} removes its subtree on its own
+     * thread.
+     *
+     * @param id The ID of the post to delete.
+     * @return Completes when the post has been tombstoned, or at once if it
+     *         does not exist or was already deleted.
+     */
+    public Mono<Void> deletePost(String id) {
+        // Se lee antes para saber de qué lista de respuestas quitarlo y cómo limpiarlo
+        return postRepository.findLiveById(id)
+                .filterWhen(post -> postRepository.markDeleted(id).map(modified -> modified > 0))
+                .doOnNext(this::publishDeleted)
+                .then();
+    }
+
+    private void publishCreated(Post post) {
+        eventPublisher.publishEvent(new PostCreatedEvent(post));
+    }
+
+    private void publishDeleted(Post post) {
+        String parentPostId = post.getParentPostId();
+        postCache.postDeleted(post.getId(), parentPostId);
+        if (parentPostId != null) {
+            engagementCounters.replyRemoved(parentPostId);
+        }
+        eventPublisher.publishEvent(new PostDeletedEvent(post.getId()));
+        deletionWorker.submit(post);
+    }
+}
@@ -0,0 +1,125 @@
+package com.example.twitter.services;
+
+import com.example.twitter.events.PostCreatedEvent;
+import com.example.twitter.model.Post;
+import com.example.twitter.model.Timeline;
+import com.example.twitter.model.User;
+import com.example.twitter.repository.PostRepository;
+import com.example.twitter.repository.TimelineRepository;
+import com.example.twitter.repository.UserRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Async;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Service that maintains the home timeline of each user.
+ *
+ * New root posts are pushed (fan-out on write) into the materialized timeline
+ * of every follower of the author. Posts of accounts with at least
+ * {@code timeline.celebrity-threshold} followers are not pushed; they are read
+ * from the posts collection when the timeline is requested (fan-out on read)
+ * and merged with the materialized ids.
+ */
+@Service
+public class TimelineService {
+    private static final Comparator<Post> NEWEST_FIRST = Comparator
+            .comparing(Post::getCreationDate, Comparator.nullsLast(Comparator.reverseOrder()))
+            .thenComparing(Post::getId, Comparator.nullsLast(Comparator.reverseOrder()));
+
+    private final TimelineRepository timelineRepository;
+    private final UserRepository userRepository;
+    private final PostRepository postRepository;
+    private final int maxLength;
+    private final long celebrityThreshold;
+
+    /**
+     * Constructs a new TimelineService.
+     *
+     * @param timelineRepository Repository for the materialized timelines.
+     * @param userRepository     Repository for users and the follow graph.
+     * @param postRepository     Repository for managing posts.
+     * @param maxLength          Maximum number of post ids kept per timeline.
+     * @param celebrityThreshold Number of followers from which an author's posts
+     *                           are merged at read time instead of pushed.
+     */
+    public TimelineService(TimelineRepository timelineRepository, UserRepository userRepository,
+            PostRepository postRepository,
+            @Value("${timeline.max-length:800}") int maxLength,
+            @Value("${timeline.celebrity-threshold:10000}") long celebrityThreshold) {
+        this.timelineRepository = timelineRepository;
+        this.userRepository = userRepository;
+        this.postRepository = postRepository;
+        this.maxLength = maxLength;
+        this.celebrityThreshold = celebrityThreshold;
+    }
+
+    /**
+     * Pushes a new root post into the timelines of the author's followers. Runs
+     * outside the request thread, so {@code createPost} does not wait for it.
+     *
+     * @param event The event carrying the created post.
+     */
+    @Async
+    @EventListener
+    public void onPostCreated(PostCreatedEvent event) {
+        Post post = event.getPost();
+        if (post.getParentPostId() != null || post.getId() == null) {
+            return;
+        }
+        Optional<User> author = userRepository.findById(post.getUserId());
+        if (author.isEmpty() || author.get().getFollowerCount() >= celebrityThreshold) {
+            return;
+        }
+        timelineRepository.pushToAll(userRepository.findFollowerIds(post.getUserId()), post.getId(), maxLength);
+    }
+
+    /**
+     * Retrieves the newest posts of the accounts a user follows.
+     *
+     * @param userId The ID of the user whose timeline is requested.
+     * @param limit  The maximum number of posts to return.
+     * @return The posts of the timeline, newest first.
+     * @throws IllegalArgumentException if the user does not exist or the limit
+     *                                  is out of range.
+     */
+    public List<Post> getHomeTimeline(String userId, int limit) {
+        if (limit < 1 || limit > maxLength) {
+            throw new IllegalArgumentException("limit must be between 1 and " + maxLength);
+        }
+        User user = userRepository.findById(userId)
+                .orElseThrow(() -> new IllegalArgumentException("User not found"));
+
+        List<String> postIds = timelineRepository.findById(userId)
+                .map(Timeline::getPostIds)
+                .orElse(List.of());
+        List<Post> posts = new ArrayList<>();
+        if (!postIds.isEmpty()) {
+            for (Post post : postRepository.findAllById(postIds.subList(0, Math.min(limit, postIds.size())))) {
+                if (!post.isDeleted()) {
+                    posts.add(post);
+                }
+            }
+        }
+
+        if (!user.getFollowing().isEmpty()) {
+            List<String> celebrities = userRepository.findIdsWithFollowersAtLeast(user.getFollowing(),
+                    celebrityThreshold);
+            if (!celebrities.isEmpty()) {
+                posts.addAll(postRepository.findRecentByUserIdIn(celebrities, limit));
+            }
+        }
+
+        // Fusión de ambas fuentes: sin duplicados, más recientes primero
+        Map<String, Post> merged = new LinkedHashMap<>();
+        posts.stream().sorted(NEWEST_FIRST).forEach(post -> merged.putIfAbsent(post.getId(), post));
+        return merged.values().stream().limit(limit).toList();
+    }
+}
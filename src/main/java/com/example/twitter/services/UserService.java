@@ -1,32 +1,60 @@
 package com.example.twitter.services;
 
+import com.example.twitter.dto.UserSuggestion;
+import com.example.twitter.events.UserRegisteredEvent;
 import com.example.twitter.model.User;
 import com.example.twitter.repository.UserRepository;
+import com.example.twitter.users.UserSuggestions;
+import com.example.twitter.users.UsernameFilter;
+import io.micrometer.core.annotation.Timed;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DuplicateKeyException;
 import org.springframework.stereotype.Service;
 import java.util.List;
-import org.springframework.security.crypto.password.PasswordEncoder;
 
 /**
  * Servicio para la gestión de usuarios en la aplicación.
  */
 @Service
+@Timed("service.method")
 public class UserService {
+    private static final Logger log = LoggerFactory.getLogger(UserService.class);
 
     private final UserRepository userRepository;
-    private final PasswordEncoder passwordEncoder;
+    private final PasswordHasher passwordHasher;
     private final JWTService jwtService;
+    private final ApplicationEventPublisher eventPublisher;
+    private final UsernameFilter usernameFilter;
+    private final UserSuggestions userSuggestions;
+    private final CustomUserDetailsService userDetailsService;
 
     /**
      * Constructor para inyectar las dependencias necesarias.
      *
-     * @param userRepository  Repositorio para gestionar usuarios.
-     * @param passwordEncoder Codificador de contraseñas para seguridad.
-     * @param jwtService      Servicio para la generación y validación de JWTs.
+     * @param userRepository Repositorio para gestionar usuarios.
+     * @param passwordHasher Codificador de contraseñas con su propio pool de
+     *                       hilos acotado.
+     * @param jwtService     Servicio para la generación y validación de JWTs.
+     * @param eventPublisher Publica {@link UserRegisteredEvent} tras cada
+     *                       registro.
+     * @param usernameFilter Filtro de Bloom que descarta sin consultar los
+     *                       nombres de usuario libres.
+     * @param userSuggestions Autocompletado de nombres de usuario en memoria.
+     * @param userDetailsService Caché de usuarios por nombre que comparten el
+     *                       login y la comprobación de nombres.
      */
-    public UserService(UserRepository userRepository, PasswordEncoder passwordEncoder, JWTService jwtService) {
+    public UserService(UserRepository userRepository, PasswordHasher passwordHasher, JWTService jwtService,
+            ApplicationEventPublisher eventPublisher, UsernameFilter usernameFilter,
+            UserSuggestions userSuggestions, CustomUserDetailsService userDetailsService) {
         this.userRepository = userRepository;
-        this.passwordEncoder = passwordEncoder;
+        this.passwordHasher = passwordHasher;
         this.jwtService = jwtService;
+        this.eventPublisher = eventPublisher;
+        this.usernameFilter = usernameFilter;
+        this.userSuggestions = userSuggestions;
+        this.userDetailsService = userDetailsService;
     }
 
     /**
@@ -38,16 +66,15 @@ public class UserService {
      * @return Un token JWT si la autenticación es exitosa.
      * @throws RuntimeException Si el usuario no existe o la contraseña es
      *                          incorrecta.
+     * @throws java.util.concurrent.RejectedExecutionException Si el pool de
+     *                          hashing está saturado.
      */
     public String authUser(String username, String password) {
-        if (!userRepository.findByUsername(username).isPresent()) {
-            throw new RuntimeException("El usuario no existe");
-        }
-
-        User user = userRepository.findByUsername(username).get();
-        System.out.println(user.getId());
+        CustomUserDetailsService.CachedUserDetails user = userDetailsService.findUser(username)
+                .orElseThrow(() -> new RuntimeException("El usuario no existe"));
+        log.debug("Autenticando usuario {}", user.getId());
 
-        if (!passwordEncoder.matches(password, user.getPassword())) {
+        if (!passwordHasher.matches(password, user.getPassword())) {
             throw new RuntimeException("Contraseña incorrecta");
         }
 
@@ -61,15 +88,25 @@ public class UserService {
      * @param user Objeto usuario con los datos a registrar.
      * @return El usuario guardado en la base de datos.
      * @throws RuntimeException Si el nombre de usuario ya está en uso.
+     * @throws java.util.concurrent.RejectedExecutionException Si el pool de
+     *                          hashing está saturado.
      */
     public User registerUser(User user) {
-        if (userRepository.findByUsername(user.getUsername()).isPresent()) {
+        if (existsByUsername(user.getUsername())) {
             throw new RuntimeException("El usuario ya existe");
         }
 
-        user.setPassword(passwordEncoder.encode(user.getPassword().strip()));
+        user.setPassword(passwordHasher.encode(user.getPassword().strip()));
 
-        return userRepository.save(user);
+        User saved;
+        try {
+            saved = userRepository.save(user);
+        } catch (DuplicateKeyException e) {
+            // Otro registro con el mismo nombre ganó la carrera: lo detecta el índice único
+            throw new RuntimeException("El usuario ya existe");
+        }
+        eventPublisher.publishEvent(new UserRegisteredEvent(saved));
+        return saved;
     }
 
     /**
@@ -81,13 +118,62 @@ public class UserService {
         return userRepository.findAll();
     }
 
+    /**
+     * Sugiere los usuarios más seguidos cuyo nombre empieza por un prefijo,
+     * sin distinguir mayúsculas, para autocompletar menciones.
+     *
+     * @param prefix Inicio del nombre de usuario, sin la {@code @}.
+     * @param limit  Número máximo de usuarios.
+     * @return Los usuarios, del más seguido al menos seguido.
+     * @throws IllegalArgumentException Si el prefijo o el límite no son
+     *                                  válidos.
+     * @throws IllegalStateException    Si las sugerencias aún se están
+     *                                  cargando.
+     */
+    public List<UserSuggestion> suggestUsers(String prefix, int limit) {
+        return userSuggestions.suggest(prefix, limit);
+    }
+
     /**
      * Verifica si un usuario existe en el sistema por su nombre de usuario.
+     * Solo se consulta la caché de usuarios, y tras ella la base de datos, si
+     * el filtro de nombres no descarta el nombre.
      *
      * @param username Nombre de usuario a verificar.
      * @return true si el usuario existe, false en caso contrario.
      */
     public boolean existsByUsername(String username) {
-        return userRepository.findByUsername(username).isPresent();
+        return usernameFilter.mightContain(username) && userDetailsService.findUser(username).isPresent();
+    }
+
+    /**
+     * Hace que un usuario siga a otro.
+     *
+     * @param followerId Id del usuario que empieza a seguir.
+     * @param followeeId Id del usuario seguido.
+     * @return true si la relación es nueva, false si ya existía.
+     * @throws IllegalArgumentException Si el usuario intenta seguirse a sí mismo
+     *                                  o alguno de los usuarios no existe.
+     */
+    public boolean follow(String followerId, String followeeId) {
+        if (followerId.equals(followeeId)) {
+            throw new IllegalArgumentException("Un usuario no puede seguirse a sí mismo");
+        }
+        // El seguidor viene de un token que puede haber sobrevivido a su usuario
+        if (!userRepository.existsById(followeeId) || !userRepository.existsById(followerId)) {
+            throw new IllegalArgumentException("El usuario no existe");
+        }
+        return userRepository.follow(followerId, followeeId);
+    }
+
+    /**
+     * Hace que un usuario deje de seguir a otro.
+     *
+     * @param followerId Id del usuario que deja de seguir.
+     * @param followeeId Id del usuario seguido.
+     * @return true si la relación existía.
+     */
+    public boolean unfollow(String followerId, String followeeId) {
+        return userRepository.unfollow(followerId, followeeId);
     }
 }
@@ -0,0 +1,82 @@
+package com.example.twitter.trends;
+
+import java.util.concurrent.atomic.AtomicIntegerArray;
+
+/**
+ * Count-min sketch: {@code depth} rows of {@code width} counters, where each
+ * item increments one counter per row. The estimate of an item is the
+ * smallest of its counters, so it never falls below the true count and
+ * exceeds it by more than {@code e / width} of all the increments only with
+ * probability {@code e^-depth}. Memory stays the same however many distinct
+ * items are counted.
+ *
+ * Increments are atomic and never block, so many threads can count at once.
+ */
+final class CountMinSketch {
+    private final int depth;
+    private final int width;
+    private final AtomicIntegerArray counts;
+
+    /**
+     * @param depth Number of rows.
+     * @param width Counters per row; must be a power of two.
+     */
+    CountMinSketch(int depth, int width) {
+        if (depth < 1 || width < 1 || Integer.bitCount(width) != 1) {
+            throw new IllegalArgumentException("The width must be a power of two and the depth positive");
+        }
+        this.depth = depth;
+        this.width = width;
+        this.counts = new AtomicIntegerArray(depth * width);
+    }
+
+    /**
+     * Counts one occurrence of an item.
+     *
+     * @return The estimate of the item after counting it.
+     */
+    int add(String item) {
+        long hash = hash(item);
+        int estimate = Integer.MAX_VALUE;
+        for (int row = 0; row < depth; row++) {
+            estimate = Math.min(estimate, counts.incrementAndGet(index(hash, row)));
+        }
+        return estimate;
+    }
+
+    int estimate(String item) {
+        long hash = hash(item);
+        int estimate = Integer.MAX_VALUE;
+        for (int row = 0; row < depth; row++) {
+            estimate = Math.min(estimate, counts.get(index(hash, row)));
+        }
+        return estimate;
+    }
+
+    long sizeInBytes() {
+        return 4L * depth * width;
+    }
+
+    // Cada fila mezcla el hash con su propia semilla. Con doble hashing
+    // (h1 + fila * h2) basta que coincidan h1 y h2 para chocar en todas las filas
+    private int index(long hash, int row) {
+        long h = hash + (row + 1) * 0x9e3779b97f4a7c15L;
+        h ^= h >>> 33;
+        h *= 0xc4ceb9fe1a85ec53L;
+        h ^= h >>> 33;
+        return row * width + (int) (h & (width - 1));
+    }
+
+    // FNV-1a de 64 bits con mezcla final; String.hashCode tiene colisiones fáciles de fabricar
+    private static long hash(String item) {
+        long h = 0xcbf29ce484222325L;
+        for (int i = 0; i < item.length(); i++) {
+            h ^= item.charAt(i);
+            h *= 0x100000001b3L;
+        }
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        return h;
+    }
+}
@@ -0,0 +1,235 @@
+package com.example.twitter.trends;
+
+import com.example.twitter.dto.HashtagCount;
+import com.example.twitter.events.PostCreatedEvent;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.function.LongSupplier;
+
+/**
+ * Most used hashtags of the last minutes.
+ *
+ * Hashtags are counted in one bucket per minute, the last
+ * {@link #MAX_WINDOW_MINUTES} kept in a ring. Each bucket holds a
+ * {@link CountMinSketch}, so its memory does not grow with the number of
+ * distinct hashtags, and a bounded set of heavy-hitter candidates: the
+ * hashtags whose estimate beat the smallest of the top ones when they were
+ * counted. The trends of a window are the candidates of its buckets ranked by
+ * the sum of their estimates.
+ *
+ * Counting never blocks: sketch counters are atomic, a new minute replaces its
+ * bucket with a compare-and-set, and the candidates are pruned by whichever
+ * thread gets there first while the others carry on. A count that races with
+ * the change of minute may be lost. Counts are estimates that can exceed the
+ * real ones, never fall below them.
+ */
+@Component
+public class TrendingHashtags {
+    public static final int MAX_WINDOW_MINUTES = 60;
+    static final int MAX_HASHTAGS_PER_POST = 10;
+    static final int MAX_HASHTAG_LENGTH = 100;
+
+    private final int sketchDepth;
+    private final int sketchWidth;
+    private final int heavyHitters;
+    private final LongSupplier currentTimeMillis;
+    private final AtomicReferenceArray<Bucket> buckets = new AtomicReferenceArray<>(MAX_WINDOW_MINUTES);
+    private final Counter counted;
+
+    /**
+     * Constructs a new TrendingHashtags.
+     *
+     * @param meterRegistry Registry for the counted hashtags metric.
+     * @param sketchDepth   Rows of each minute's count-min sketch.
+     * @param sketchWidth   Counters per row; a power of two. Wider sketches
+     *                      overestimate less.
+     * @param heavyHitters  Candidates kept per minute, at least the number
+     *                      of trends that will be asked for.
+     */
+    @Autowired
+    public TrendingHashtags(MeterRegistry meterRegistry,
+            @Value("${trends.sketch.depth:4}") int sketchDepth,
+            @Value("${trends.sketch.width:2048}") int sketchWidth,
+            @Value("${trends.heavy-hitters:100}") int heavyHitters) {
+        this(meterRegistry, sketchDepth, sketchWidth, heavyHitters, System::currentTimeMillis);
+    }
+
+    TrendingHashtags(MeterRegistry meterRegistry, int sketchDepth, int sketchWidth, int heavyHitters,
+            LongSupplier currentTimeMillis) {
+        // Se valida aquí para no fallar en el primer post
+        if (sketchDepth < 1 || Integer.bitCount(sketchWidth) != 1 || heavyHitters < 1) {
+            throw new IllegalArgumentException("The sketch width must be a power of two, the depth and heavy hitters positive");
+        }
+        this.sketchDepth = sketchDepth;
+        this.sketchWidth = sketchWidth;
+        this.heavyHitters = heavyHitters;
+        this.currentTimeMillis = currentTimeMillis;
+
+        this.counted = Counter.builder("trends.hashtags")
+                .description("Hashtags counted for the trends")
+                .register(meterRegistry);
+    }
+
+    @EventListener
+    public void onPostCreated(PostCreatedEvent event) {
+        Set<String> hashtags = hashtags(event.getPost().getContent());
+        if (hashtags.isEmpty()) {
+            return;
+        }
+        Bucket bucket = bucket(currentMinute());
+        for (String hashtag : hashtags) {
+            bucket.add(hashtag);
+        }
+        counted.increment(hashtags.size());
+    }
+
+    /**
+     * Finds the most used hashtags of the last minutes.
+     *
+     * @param windowMinutes The minutes to look back, the current one included;
+     *                      from 1 to {@link #MAX_WINDOW_MINUTES}.
+     * @param limit         The maximum number of hashtags.
+     * @return The hashtags with their estimated number of posts, most used
+     *         first.
+     * @throws IllegalArgumentException if the window is out of range.
+     */
+    public List<HashtagCount> top(int windowMinutes, int limit) {
+        if (windowMinutes < 1 || windowMinutes > MAX_WINDOW_MINUTES) {
+            throw new IllegalArgumentException("The window must be between 1 and " + MAX_WINDOW_MINUTES + " minutes");
+        }
+        long now = currentMinute();
+        List<Bucket> window = new ArrayList<>(windowMinutes);
+        Set<String> candidates = new LinkedHashSet<>();
+        for (int i = 0; i < buckets.length(); i++) {
+            Bucket bucket = buckets.get(i);
+            if (bucket != null && bucket.minute > now - windowMinutes && bucket.minute <= now) {
+                window.add(bucket);
+                candidates.addAll(bucket.candidates.keySet());
+            }
+        }
+
+        // Una estimación por candidato sumando los minutos de la ventana
+        Map<String, Long> counts = new HashMap<>();
+        for (String hashtag : candidates) {
+            long count = 0;
+            for (Bucket bucket : window) {
+                count += bucket.sketch.estimate(hashtag);
+            }
+            counts.put(hashtag, count);
+        }
+        return counts.entrySet().stream()
+                .sorted(Map.Entry.<String, Long>comparingByValue().reversed().thenComparing(Map.Entry.comparingByKey()))
+                .limit(limit)
+                .map(entry -> new HashtagCount(entry.getKey(), entry.getValue()))
+                .toList();
+    }
+
+    /**
+     * Extracts the hashtags of a post, lowercase and without duplicates. A
+     * hashtag is a {@code #} that does not follow a letter or digit,
+     * followed by letters, digits or underscores, not all of them digits.
+     */
+    static Set<String> hashtags(String content) {
+        Set<String> hashtags = new LinkedHashSet<>();
+        if (content == null) {
+            return hashtags;
+        }
+        int i = content.indexOf('#');
+        while (i >= 0 && hashtags.size() < MAX_HASHTAGS_PER_POST) {
+            int end = i + 1;
+            boolean letters = false;
+            while (end < content.length() && isHashtagChar(content.charAt(end))) {
+                letters |= !Character.isDigit(content.charAt(end));
+                end++;
+            }
+            boolean startsWord = i == 0 || !isHashtagChar(content.charAt(i - 1));
+            if (startsWord && letters && end - i - 1 <= MAX_HASHTAG_LENGTH) {
+                hashtags.add(content.substring(i + 1, end).toLowerCase(Locale.ROOT));
+            }
+            i = content.indexOf('#', end);
+        }
+        return hashtags;
+    }
+
+    private static boolean isHashtagChar(char c) {
+        return Character.isLetterOrDigit(c) || c == '_';
+    }
+
+    private long currentMinute() {
+        return TimeUnit.MILLISECONDS.toMinutes(currentTimeMillis.getAsLong());
+    }
+
+    private Bucket bucket(long minute) {
+        int slot = (int) (minute % MAX_WINDOW_MINUTES);
+        Bucket bucket = buckets.get(slot);
+        // El primero que llega al nuevo minuto sustituye el cubo de hace una hora
+        while (bucket == null || bucket.minute < minute) {
+            Bucket fresh = new Bucket(minute);
+            if (buckets.compareAndSet(slot, bucket, fresh)) {
+                return fresh;
+            }
+            bucket = buckets.get(slot);
+        }
+        return bucket;
+    }
+
+    /**
+     * Hashtags counted during one minute.
+     */
+    private final class Bucket {
+        private final long minute;
+        private final CountMinSketch sketch = new CountMinSketch(sketchDepth, sketchWidth);
+        private final Map<String, Integer> candidates = new ConcurrentHashMap<>();
+        private final AtomicBoolean pruning = new AtomicBoolean();
+        // Estimación mínima para entrar en los candidatos una vez llenos
+        private volatile int threshold;
+
+        Bucket(long minute) {
+            this.minute = minute;
+        }
+
+        void add(String hashtag) {
+            int estimate = sketch.add(hashtag);
+            if (estimate <= threshold && !candidates.containsKey(hashtag)) {
+                return;
+            }
+            candidates.put(hashtag, estimate);
+            if (candidates.size() > 2 * heavyHitters && pruning.compareAndSet(false, true)) {
+                try {
+                    prune();
+                } finally {
+                    pruning.set(false);
+                }
+            }
+        }
+
+        // Deja los heavyHitters candidatos con mayor estimación
+        private void prune() {
+            PriorityQueue<Map.Entry<String, Integer>> top = new PriorityQueue<>(Map.Entry.comparingByValue());
+            for (Map.Entry<String, Integer> candidate : candidates.entrySet()) {
+                top.add(Map.entry(candidate.getKey(), candidate.getValue()));
+                if (top.size() > heavyHitters) {
+                    candidates.remove(top.poll().getKey());
+                }
+            }
+            threshold = top.isEmpty() ? 0 : top.peek().getValue();
+        }
+    }
+}
@@ -0,0 +1,135 @@
+package com.example.twitter.users;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Bloom filter of strings: a set that answers "definitely absent" or "maybe
+ * present" in a fixed amount of memory, whatever the length of its elements.
+ *
+ * It is sized for an expected number of elements and false positive rate,
+ * with {@code m = -n ln p / (ln 2)^2} bits and {@code k = m / n ln 2} hash
+ * functions. Past that number of elements the false positive rate grows, but
+ * an added element is never reported absent. The bits live in an
+ * {@link AtomicLongArray}, so adding and querying are safe from any thread
+ * without locks.
+ */
+public class BloomFilter {
+    private static final double LN2 = Math.log(2);
+
+    private final AtomicLongArray words;
+    private final long bitCount;
+    private final int hashCount;
+
+    /**
+     * @param expectedElements  Number of elements the filter is sized for.
+     * @param falsePositiveRate Probability that an absent element is reported
+     *                          present once the filter holds
+     *                          {@code expectedElements}.
+     * @throws IllegalArgumentException if the arguments are out of range or
+     *                                  the filter would not fit in an array.
+     */
+    public BloomFilter(long expectedElements, double falsePositiveRate) {
+        if (expectedElements < 1) {
+            throw new IllegalArgumentException("expectedElements must be positive");
+        }
+        if (!(falsePositiveRate > 0 && falsePositiveRate < 1)) {
+            throw new IllegalArgumentException("falsePositiveRate must be between 0 and 1");
+        }
+        long bits = optimalBitCount(expectedElements, falsePositiveRate);
+        long wordCount = (bits + 63) / 64;
+        if (wordCount > Integer.MAX_VALUE - 8) {
+            throw new IllegalArgumentException("The filter would need " + bits + " bits");
+        }
+        this.words = new AtomicLongArray((int) wordCount);
+        this.bitCount = wordCount * 64;
+        this.hashCount = optimalHashCount(expectedElements, bitCount);
+    }
+
+    static long optimalBitCount(long expectedElements, double falsePositiveRate) {
+        return (long) Math.ceil(-expectedElements * Math.log(falsePositiveRate) / (LN2 * LN2));
+    }
+
+    static int optimalHashCount(long expectedElements, long bitCount) {
+        return Math.max(1, (int) Math.round((double) bitCount / expectedElements * LN2));
+    }
+
+    public void add(String element) {
+        long hash = hash(element);
+        long step = step(hash);
+        for (int i = 0; i < hashCount; i++) {
+            long bit = Math.floorMod(hash + i * step, bitCount);
+            int index = (int) (bit >>> 6);
+            long mask = 1L << bit;
+            // Solo se escribe si el bit no estaba ya puesto
+            long word = words.get(index);
+            while ((word & mask) == 0 && !words.weakCompareAndSetVolatile(index, word, word | mask)) {
+                word = words.get(index);
+            }
+        }
+    }
+
+    /**
+     * @return false if the element was definitely never added; true if it may
+     *         have been.
+     */
+    public boolean mightContain(String element) {
+        long hash = hash(element);
+        long step = step(hash);
+        for (int i = 0; i < hashCount; i++) {
+            long bit = Math.floorMod(hash + i * step, bitCount);
+            if ((words.get((int) (bit >>> 6)) & (1L << bit)) == 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    public long bitCount() {
+        return bitCount;
+    }
+
+    public int hashCount() {
+        return hashCount;
+    }
+
+    /**
+     * @return Bytes taken by the bits of the filter.
+     */
+    public long memoryBytes() {
+        return (long) words.length() * Long.BYTES;
+    }
+
+    /**
+     * @return The expected false positive rate once the filter holds
+     *         {@code elements} elements: {@code (1 - e^(-k n / m))^k}.
+     */
+    public double falsePositiveRate(long elements) {
+        return Math.pow(1 - Math.exp(-(double) hashCount * elements / bitCount), hashCount);
+    }
+
+    /**
+     * FNV-1a over the UTF-16 chars with a 64-bit finalizer, so that similar
+     * usernames ("user1", "user2") spread over the whole filter.
+     */
+    private static long hash(String element) {
+        long hash = 0xcbf29ce484222325L;
+        for (int i = 0; i < element.length(); i++) {
+            hash = (hash ^ element.charAt(i)) * 0x100000001b3L;
+        }
+        return mix(hash);
+    }
+
+    /**
+     * Second hash for double hashing: position i is {@code hash + i * step}.
+     * It is odd, so it is never 0 and the k positions differ.
+     */
+    private static long step(long hash) {
+        return mix(hash ^ 0x9e3779b97f4a7c15L) | 1;
+    }
+
+    private static long mix(long h) {
+        h = (h ^ (h >>> 33)) * 0xff51afd7ed558ccdL;
+        h = (h ^ (h >>> 33)) * 0xc4ceb9fe1a85ec53L;
+        return h ^ (h >>> 33);
+    }
+}
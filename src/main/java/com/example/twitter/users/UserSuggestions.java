@@ -0,0 +1,196 @@
+package com.example.twitter.users;
+
+import com.example.twitter.dto.UserSuggestion;
+import com.example.twitter.events.UserRegisteredEvent;
+import com.example.twitter.model.User;
+import com.example.twitter.repository.UserRepository;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Async;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Function;
+import java.util.stream.Stream;
+
+/**
+ * Username autocomplete for mentions, served from a {@link UsernameTrie} kept
+ * in memory by each instance.
+ *
+ * The trie is built from MongoDB when the application starts and then new
+ * users are added to it with {@link UserRegisteredEvent}s; users registered
+ * while it is being built are added once it is ready, so none is lost. Users
+ * are ranked by their follower count when the trie was built, and new ones
+ * with none. Until the first build finishes, suggestions fail with
+ * {@link IllegalStateException}; if the database is unavailable at startup
+ * the build is retried until it succeeds.
+ */
+@Component
+public class UserSuggestions {
+    private static final Logger log = LoggerFactory.getLogger(UserSuggestions.class);
+    public static final int MAX_PREFIX_LENGTH = 30;
+
+    private final UserRepository userRepository;
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Timer rebuildLatency;
+    private final Duration retryInterval;
+    private final int topK;
+    private UsernameTrie trie;
+    // Usuarios registrados durante una reconstrucción; null si no hay ninguna en curso
+    private List<User> pendingUsers;
+    private volatile boolean ready;
+
+    /**
+     * Constructs a new UserSuggestions. The trie stays empty until
+     * {@link #rebuild()} runs.
+     *
+     * @param userRepository Repository from which the trie is built.
+     * @param meterRegistry  Registry for the size and rebuild time metrics.
+     * @param topK           Users kept per prefix: the maximum number of
+     *                       suggestions.
+     * @param retryInterval  Time between attempts to build the trie at startup
+     *                       while the database is unavailable.
+     */
+    public UserSuggestions(UserRepository userRepository, MeterRegistry meterRegistry,
+            @Value("${users.suggest.top-k:10}") int topK,
+            @Value("${users.suggest.retry-interval:PT30S}") Duration retryInterval) {
+        this.userRepository = userRepository;
+        this.topK = topK;
+        this.retryInterval = retryInterval;
+        this.trie = new UsernameTrie(topK);
+
+        Gauge.builder("users.suggest.usernames", this, suggestions -> suggestions.read(UsernameTrie::size))
+                .description("Usernames in the autocomplete trie")
+                .register(meterRegistry);
+        Gauge.builder("users.suggest.nodes", this, suggestions -> suggestions.read(UsernameTrie::nodeCount))
+                .description("Nodes of the autocomplete trie")
+                .register(meterRegistry);
+        this.rebuildLatency = Timer.builder("users.suggest.rebuild")
+                .description("Time to build the autocomplete trie from the database")
+                .register(meterRegistry);
+    }
+
+    public boolean isReady() {
+        return ready;
+    }
+
+    /**
+     * Suggests the most followed users whose name starts with a prefix,
+     * without distinguishing case.
+     *
+     * @param prefix The start of the username, without the {@code @}.
+     * @param limit  The maximum number of users.
+     * @return The users, most followed first.
+     * @throws IllegalArgumentException if the prefix is empty or longer than
+     *                                  {@link #MAX_PREFIX_LENGTH}, or the limit
+     *                                  is not between 1 and {@code top-k}.
+     * @throws IllegalStateException    if the trie is still being built.
+     */
+    public List<UserSuggestion> suggest(String prefix, int limit) {
+        if (prefix == null || prefix.isEmpty() || prefix.length() > MAX_PREFIX_LENGTH) {
+            throw new IllegalArgumentException(
+                    "The prefix must have between 1 and " + MAX_PREFIX_LENGTH + " characters");
+        }
+        if (limit < 1 || limit > topK) {
+            throw new IllegalArgumentException("The limit must be between 1 and " + topK);
+        }
+        if (!ready) {
+            throw new IllegalStateException("The username suggestions are being built");
+        }
+        return read(trie -> trie.suggest(prefix, limit));
+    }
+
+    @Async
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        try {
+            while (!rebuild()) {
+                Thread.sleep(retryInterval.toMillis());
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Builds a new trie from every user in the database, with their current
+     * follower counts, and replaces the current one. Suggestions keep using
+     * the current trie meanwhile.
+     *
+     * @return Whether the trie was built; false if the database could not be
+     *         read, in which case the current trie is kept.
+     */
+    public synchronized boolean rebuild() {
+        setPendingUsers(new ArrayList<>());
+        long start = System.nanoTime();
+        UsernameTrie rebuilt = new UsernameTrie(topK);
+        try (Stream<User> users = userRepository.streamUsernames()) {
+            users.forEach(user -> rebuilt.add(user.getUsername(), user.getFollowerCount()));
+            rebuilt.trimToSize();
+        } catch (RuntimeException e) {
+            setPendingUsers(null);
+            log.error("No se pudieron cargar las sugerencias de usuarios: {}", e.getMessage());
+            return false;
+        }
+
+        lock.writeLock().lock();
+        try {
+            // La lectura pudo ver ya a algunos de estos usuarios: se añaden los que falten
+            for (User user : pendingUsers) {
+                if (!rebuilt.contains(user.getUsername())) {
+                    rebuilt.add(user.getUsername(), user.getFollowerCount());
+                }
+            }
+            pendingUsers = null;
+            trie = rebuilt;
+            ready = true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+        rebuildLatency.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        log.info("Sugerencias de usuarios cargadas: {} nombres, {} nodos", rebuilt.size(), rebuilt.nodeCount());
+        return true;
+    }
+
+    @EventListener
+    public void onUserRegistered(UserRegisteredEvent event) {
+        User user = event.getUser();
+        lock.writeLock().lock();
+        try {
+            trie.add(user.getUsername(), user.getFollowerCount());
+            if (pendingUsers != null) {
+                pendingUsers.add(user);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private void setPendingUsers(List<User> users) {
+        lock.writeLock().lock();
+        try {
+            pendingUsers = users;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private <T> T read(Function<UsernameTrie, T> query) {
+        lock.readLock().lock();
+        try {
+            return query.apply(trie);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+}
@@ -0,0 +1,154 @@
+package com.example.twitter.users;
+
+import com.example.twitter.events.UserRegisteredEvent;
+import com.example.twitter.model.User;
+import com.example.twitter.repository.UserRepository;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Async;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.stream.Stream;
+
+/**
+ * Bloom filter of every registered username, kept in memory by each instance,
+ * so that checking whether a name is taken only reaches MongoDB when it may
+ * be.
+ *
+ * The filter is loaded from MongoDB when the application starts, sized for
+ * twice the users found (and at least {@code users.bloom.min-capacity}) so
+ * that it can take as many registrations again before its false positive rate
+ * rises, and then kept up to date with {@link UserRegisteredEvent}s. Until it
+ * is loaded every name may be taken, so callers go to the database as before;
+ * if the database is unavailable at startup the load is retried until it
+ * succeeds. Users registered on other instances are not seen until restart,
+ * which the unique index on {@code username} makes safe for registration.
+ */
+@Component
+public class UsernameFilter {
+    private static final Logger log = LoggerFactory.getLogger(UsernameFilter.class);
+
+    private final UserRepository userRepository;
+    private final long minCapacity;
+    private final double falsePositiveRate;
+    private final Duration retryInterval;
+    private final LongAdder usernames = new LongAdder();
+    private final Timer loadLatency;
+    private volatile BloomFilter filter;
+    private volatile boolean ready;
+
+    /**
+     * Constructs a new UsernameFilter. It answers "maybe taken" for every
+     * name until {@link #load()} runs.
+     *
+     * @param userRepository    Repository from which the filter is loaded.
+     * @param meterRegistry     Registry for the size and load time metrics.
+     * @param minCapacity       Minimum number of usernames the filter is sized
+     *                          for.
+     * @param falsePositiveRate Probability that a free name needs a query,
+     *                          once the filter is full.
+     * @param retryInterval     Time between attempts to load the filter at
+     *                          startup while the database is unavailable.
+     */
+    public UsernameFilter(UserRepository userRepository, MeterRegistry meterRegistry,
+            @Value("${users.bloom.min-capacity:1000000}") long minCapacity,
+            @Value("${users.bloom.false-positive-rate:0.01}") double falsePositiveRate,
+            @Value("${users.bloom.retry-interval:PT30S}") Duration retryInterval) {
+        this.userRepository = userRepository;
+        this.minCapacity = minCapacity;
+        this.falsePositiveRate = falsePositiveRate;
+        this.retryInterval = retryInterval;
+        this.filter = new BloomFilter(minCapacity, falsePositiveRate);
+
+        Gauge.builder("users.bloom.memory", this, bloom -> bloom.filter.memoryBytes())
+                .description("Memory taken by the bits of the username filter")
+                .baseUnit("bytes")
+                .register(meterRegistry);
+        Gauge.builder("users.bloom.usernames", usernames, LongAdder::sum)
+                .description("Usernames added to the username filter")
+                .register(meterRegistry);
+        Gauge.builder("users.bloom.false-positive-rate", this,
+                bloom -> bloom.filter.falsePositiveRate(bloom.usernames.sum()))
+                .description("Expected share of free usernames that still need a query")
+                .register(meterRegistry);
+        this.loadLatency = Timer.builder("users.bloom.load")
+                .description("Time to load the username filter from the database")
+                .register(meterRegistry);
+    }
+
+    public boolean isReady() {
+        return ready;
+    }
+
+    /**
+     * @return false if no user has that name, without any I/O; true if one may
+     *         have it, or if the filter is not loaded yet.
+     */
+    public boolean mightContain(String username) {
+        return !ready || filter.mightContain(username);
+    }
+
+    @Async
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        try {
+            while (!load()) {
+                Thread.sleep(retryInterval.toMillis());
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Replaces the filter with a new one loaded with every username in the
+     * database.
+     *
+     * @return Whether the filter was loaded; false if the database could not
+     *         be read, in which case every name may be taken until a load
+     *         succeeds.
+     */
+    public synchronized boolean load() {
+        long start = System.nanoTime();
+        try {
+            long capacity = Math.max(minCapacity, 2 * userRepository.count());
+            // Se publica antes de leer: un registro llega a este filtro o ya
+            // está en MongoDB cuando empieza la lectura
+            BloomFilter loaded = new BloomFilter(capacity, falsePositiveRate);
+            filter = loaded;
+            usernames.reset();
+            try (Stream<User> users = userRepository.streamUsernames()) {
+                users.forEach(user -> add(loaded, user.getUsername()));
+            }
+        } catch (RuntimeException e) {
+            // Un filtro a medias daría nombres ocupados por libres
+            ready = false;
+            log.error("No se pudo cargar el filtro de nombres de usuario: {}", e.getMessage());
+            return false;
+        }
+        ready = true;
+        loadLatency.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        log.info("Filtro de nombres de usuario cargado: {} nombres en {} KB", usernames.sum(),
+                filter.memoryBytes() / 1024);
+        return true;
+    }
+
+    @EventListener
+    public void onUserRegistered(UserRegisteredEvent event) {
+        add(filter, event.getUser().getUsername());
+    }
+
+    private void add(BloomFilter target, String username) {
+        target.add(username);
+        usernames.increment();
+    }
+}
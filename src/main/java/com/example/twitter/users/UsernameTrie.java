@@ -0,0 +1,486 @@
+package com.example.twitter.users;
+
+import com.example.twitter.dto.UserSuggestion;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Radix tree of usernames, case-insensitive, that answers "the most followed
+ * users whose name starts with this prefix" in O(prefix length).
+ *
+ * Every node whose subtree holds more than {@code topK} users keeps the ids of
+ * its {@code topK} most followed ones, ranked by follower count and then by
+ * name. Smaller subtrees are walked instead, which costs no more than reading
+ * a stored list and saves one list per leaf. The names are stored once, one
+ * after another in a single {@code char[]}, and the edges of the tree are
+ * ranges of it, so no {@code String} is kept per name or per edge; leaves,
+ * about three out of four nodes, only hold where their edge starts and their
+ * user.
+ *
+ * Users are only added, with the follower count they have when added. The
+ * tree is not thread-safe: callers must not read while it is being written.
+ */
+public class UsernameTrie {
+    private final int topK;
+    private final Branch root = new Branch(0, 0);
+    private final List<Branch> path = new ArrayList<>();
+
+    // Tabla de usuarios: el nombre del usuario u es chars[starts[u], end(u))
+    private char[] chars = new char[1024];
+    private int charCount;
+    private int[] starts = new int[64];
+    private long[] followerCounts = new long[64];
+    // Siguiente usuario con el mismo nombre salvo mayúsculas, -1 si no hay
+    private int[] sameName = new int[64];
+    private int userCount;
+    private int nodeCount = 1;
+
+    /**
+     * @param topK Number of users kept per node: the maximum number of
+     *             suggestions for a prefix.
+     * @throws IllegalArgumentException if {@code topK} is not positive.
+     */
+    public UsernameTrie(int topK) {
+        if (topK < 1) {
+            throw new IllegalArgumentException("topK must be positive");
+        }
+        this.topK = topK;
+    }
+
+    public int size() {
+        return userCount;
+    }
+
+    public int nodeCount() {
+        return nodeCount;
+    }
+
+    /**
+     * Adds a user. Updates the stored rankings along its path, O(name length
+     * times {@code topK}).
+     *
+     * @throws IllegalArgumentException if the username is empty.
+     */
+    public void add(String username, long followerCount) {
+        if (username == null || username.isEmpty()) {
+            throw new IllegalArgumentException("The username cannot be empty");
+        }
+        int user = appendUser(username, followerCount);
+        int start = starts[user];
+        int length = username.length();
+
+        path.clear();
+        Branch node = root;
+        node.size++;
+        path.add(node);
+        int position = 0;
+        while (position < length) {
+            int index = findChild(node, lower(chars[start + position]));
+            if (index < 0) {
+                node.children = insert(node.children, -index - 1, new Node(start + position, user));
+                nodeCount++;
+                break;
+            }
+            Node child = node.children[index];
+            int labelLength = labelLength(child);
+            int common = commonPrefix(child.labelStart, labelLength, start + position, length - position);
+            position += common;
+            if (common < labelLength) {
+                child = split(node, index, common);
+            } else if (!(child instanceof Branch)) {
+                if (position == length) {
+                    // Mismo nombre salvo mayúsculas que una hoja: se encadena en ella
+                    chainSameName(child.user, user);
+                    break;
+                }
+                child = grow(node, index);
+            }
+            Branch branch = (Branch) child;
+            branch.size++;
+            path.add(branch);
+            node = branch;
+            if (position == length) {
+                if (node.user < 0) {
+                    node.user = user;
+                } else {
+                    chainSameName(node.user, user);
+                }
+            }
+        }
+        for (Branch onPath : path) {
+            rank(onPath, user);
+        }
+    }
+
+    /**
+     * Finds the most followed users whose name starts with the prefix,
+     * without distinguishing case.
+     *
+     * @param prefix The start of the names; empty for the most followed users.
+     * @param limit  The maximum number of users, at most {@code topK}.
+     * @return The users, most followed first.
+     */
+    public List<UserSuggestion> suggest(String prefix, int limit) {
+        Node node = root;
+        int position = 0;
+        while (position < prefix.length()) {
+            if (!(node instanceof Branch branch)) {
+                return List.of();
+            }
+            int index = findChild(branch, lower(prefix.charAt(position)));
+            if (index < 0) {
+                return List.of();
+            }
+            Node child = branch.children[index];
+            int common = Math.min(labelLength(child), prefix.length() - position);
+            if (!sameChars(child.labelStart, prefix, position, common, true)) {
+                return List.of();
+            }
+            node = child;
+            position += common;
+        }
+
+        int[] ranked = node instanceof Branch branch && branch.top != null ? branch.top : top(node);
+        List<UserSuggestion> suggestions = new ArrayList<>(Math.min(limit, ranked.length));
+        for (int i = 0; i < ranked.length && i < limit; i++) {
+            int user = ranked[i];
+            suggestions.add(new UserSuggestion(new String(chars, starts[user], end(user) - starts[user]),
+                    followerCounts[user]));
+        }
+        return suggestions;
+    }
+
+    /**
+     * @return Whether a user with exactly this name, with the same case, was
+     *         added.
+     */
+    public boolean contains(String username) {
+        Node node = root;
+        int position = 0;
+        while (position < username.length()) {
+            if (!(node instanceof Branch branch)) {
+                return false;
+            }
+            int index = findChild(branch, lower(username.charAt(position)));
+            if (index < 0) {
+                return false;
+            }
+            node = branch.children[index];
+            int labelLength = labelLength(node);
+            if (labelLength > username.length() - position
+                    || !sameChars(node.labelStart, username, position, labelLength, true)) {
+                return false;
+            }
+            position += labelLength;
+        }
+        for (int user = node.user; user >= 0; user = sameName[user]) {
+            if (end(user) - starts[user] == username.length()
+                    && sameChars(starts[user], username, 0, username.length(), false)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Releases the spare capacity of the user table, for after a bulk load.
+     */
+    public void trimToSize() {
+        chars = Arrays.copyOf(chars, Math.max(charCount, 1));
+        starts = Arrays.copyOf(starts, Math.max(userCount, 1));
+        followerCounts = Arrays.copyOf(followerCounts, Math.max(userCount, 1));
+        sameName = Arrays.copyOf(sameName, Math.max(userCount, 1));
+    }
+
+    /**
+     * Approximate bytes taken by the names, the user table and the nodes,
+     * assuming compressed references.
+     */
+    public long sizeInBytes() {
+        long users = 2L * chars.length + 4L * starts.length + 8L * followerCounts.length + 4L * sameName.length;
+        return users + nodeBytes(root);
+    }
+
+    private long nodeBytes(Node node) {
+        if (!(node instanceof Branch branch)) {
+            return 24;
+        }
+        long bytes = 40;
+        if (branch.top != null) {
+            bytes += 16 + 4L * branch.top.length;
+        }
+        if (branch.children != null) {
+            bytes += 16 + 4L * branch.children.length;
+            for (Node child : branch.children) {
+                bytes += nodeBytes(child);
+            }
+        }
+        return bytes;
+    }
+
+    private int appendUser(String username, long followerCount) {
+        if (userCount == starts.length) {
+            int capacity = userCount * 2;
+            starts = Arrays.copyOf(starts, capacity);
+            followerCounts = Arrays.copyOf(followerCounts, capacity);
+            sameName = Arrays.copyOf(sameName, capacity);
+        }
+        if (charCount + username.length() > chars.length) {
+            chars = Arrays.copyOf(chars, Math.max(chars.length * 2, charCount + username.length()));
+        }
+        username.getChars(0, username.length(), chars, charCount);
+        int user = userCount++;
+        starts[user] = charCount;
+        followerCounts[user] = followerCount;
+        sameName[user] = -1;
+        charCount += username.length();
+        return user;
+    }
+
+    /**
+     * The names are stored in the order users were added, so each one ends
+     * where the next one starts.
+     */
+    private int end(int user) {
+        return user + 1 < userCount ? starts[user + 1] : charCount;
+    }
+
+    private int labelLength(Node node) {
+        return node instanceof Branch branch ? branch.labelLength : end(node.user) - node.labelStart;
+    }
+
+    /**
+     * Splits the edge to a child after {@code common} chars and returns the
+     * new node between both, which starts with the child's ranking.
+     */
+    private Branch split(Branch parent, int index, int common) {
+        Node child = parent.children[index];
+        Branch middle = new Branch(child.labelStart, common);
+        middle.children = new Node[] { child };
+        if (child instanceof Branch branch) {
+            middle.size = branch.size;
+            middle.top = branch.top == null ? null : branch.top.clone();
+            branch.labelLength -= common;
+        } else {
+            middle.size = sameNameCount(child.user);
+        }
+        child.labelStart += common;
+        parent.children[index] = middle;
+        nodeCount++;
+        return middle;
+    }
+
+    /**
+     * Replaces a leaf with a node that can have children, for a name that
+     * continues past it.
+     */
+    private Branch grow(Branch parent, int index) {
+        Node leaf = parent.children[index];
+        Branch branch = new Branch(leaf.labelStart, labelLength(leaf));
+        branch.user = leaf.user;
+        branch.size = sameNameCount(leaf.user);
+        parent.children[index] = branch;
+        return branch;
+    }
+
+    private void chainSameName(int first, int user) {
+        sameName[user] = sameName[first];
+        sameName[first] = user;
+    }
+
+    private int sameNameCount(int first) {
+        int count = 0;
+        for (int user = first; user >= 0; user = sameName[user]) {
+            count++;
+        }
+        return count;
+    }
+
+    /**
+     * Updates the ranking of a node on the path of a new user. A node gets a
+     * ranking when its subtree outgrows {@code topK}.
+     */
+    private void rank(Branch node, int user) {
+        if (node.top == null) {
+            if (node.size > topK) {
+                node.top = top(node);
+            }
+            return;
+        }
+        int[] top = node.top;
+        int position = top.length;
+        while (position > 0 && before(user, top[position - 1])) {
+            position--;
+        }
+        if (position < top.length) {
+            System.arraycopy(top, position, top, position + 1, top.length - position - 1);
+            top[position] = user;
+        }
+    }
+
+    /**
+     * Ranks the users of a node: its own and those of its subtree, taking the
+     * stored ranking of the descendants that have one.
+     */
+    private int[] top(Node node) {
+        int[] candidates = new int[topK * 4];
+        int count = 0;
+        List<Node> pending = new ArrayList<>();
+        pending.add(node);
+        while (!pending.isEmpty()) {
+            Node next = pending.remove(pending.size() - 1);
+            Branch branch = next instanceof Branch b ? b : null;
+            if (branch != null && next != node && branch.top != null) {
+                for (int user : branch.top) {
+                    candidates = add(candidates, count++, user);
+                }
+                continue;
+            }
+            for (int user = next.user; user >= 0; user = sameName[user]) {
+                candidates = add(candidates, count++, user);
+            }
+            if (branch != null && branch.children != null) {
+                pending.addAll(Arrays.asList(branch.children));
+            }
+        }
+
+        Integer[] sorted = new Integer[count];
+        for (int i = 0; i < count; i++) {
+            sorted[i] = candidates[i];
+        }
+        Arrays.sort(sorted, (a, b) -> before(a, b) ? -1 : before(b, a) ? 1 : 0);
+        int[] top = new int[Math.min(topK, count)];
+        for (int i = 0; i < top.length; i++) {
+            top[i] = sorted[i];
+        }
+        return top;
+    }
+
+    private static int[] add(int[] array, int index, int value) {
+        if (index == array.length) {
+            array = Arrays.copyOf(array, array.length * 2);
+        }
+        array[index] = value;
+        return array;
+    }
+
+    /**
+     * Whether a user ranks before another: more followers, then the name in
+     * alphabetical order.
+     */
+    private boolean before(int a, int b) {
+        if (followerCounts[a] != followerCounts[b]) {
+            return followerCounts[a] > followerCounts[b];
+        }
+        return compareNames(a, b) < 0;
+    }
+
+    private int compareNames(int a, int b) {
+        int lengthA = end(a) - starts[a];
+        int lengthB = end(b) - starts[b];
+        for (int i = 0; i < Math.min(lengthA, lengthB); i++) {
+            int difference = lower(chars[starts[a] + i]) - lower(chars[starts[b] + i]);
+            if (difference != 0) {
+                return difference;
+            }
+        }
+        return lengthA - lengthB;
+    }
+
+    private int commonPrefix(int labelStart, int labelLength, int start, int length) {
+        int limit = Math.min(labelLength, length);
+        int common = 0;
+        while (common < limit && lower(chars[labelStart + common]) == lower(chars[start + common])) {
+            common++;
+        }
+        return common;
+    }
+
+    private boolean sameChars(int start, String text, int offset, int length, boolean ignoreCase) {
+        for (int i = 0; i < length; i++) {
+            char stored = chars[start + i];
+            char given = text.charAt(offset + i);
+            if (ignoreCase ? lower(stored) != lower(given) : stored != given) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Binary search of the child whose label starts with {@code c}.
+     *
+     * @return Its index, or {@code -(insertion point) - 1}.
+     */
+    private int findChild(Branch node, char c) {
+        Node[] children = node.children;
+        if (children == null) {
+            return -1;
+        }
+        int low = 0;
+        int high = children.length - 1;
+        while (low <= high) {
+            int middle = (low + high) >>> 1;
+            char first = lower(chars[children[middle].labelStart]);
+            if (first < c) {
+                low = middle + 1;
+            } else if (first > c) {
+                high = middle - 1;
+            } else {
+                return middle;
+            }
+        }
+        return -low - 1;
+    }
+
+    private static Node[] insert(Node[] children, int index, Node child) {
+        if (children == null) {
+            return new Node[] { child };
+        }
+        Node[] grown = new Node[children.length + 1];
+        System.arraycopy(children, 0, grown, 0, index);
+        grown[index] = child;
+        System.arraycopy(children, index, grown, index + 1, children.length - index);
+        return grown;
+    }
+
+    private static char lower(char c) {
+        return Character.toLowerCase(c);
+    }
+
+    /**
+     * A leaf: its edge from the parent runs from {@code labelStart} to the end
+     * of the name of its user.
+     */
+    private static class Node {
+        int labelStart;
+        // Usuario cuyo nombre termina aquí, -1 si no hay
+        int user;
+
+        private Node(int labelStart, int user) {
+            this.labelStart = labelStart;
+            this.user = user;
+        }
+    }
+
+    /**
+     * A node with children, or where a name ends that others continue. Its
+     * edge from the parent is {@code chars[labelStart, labelStart +
+     * labelLength)}.
+     */
+    private static final class Branch extends Node {
+        private int labelLength;
+        // Usuarios en el subárbol
+        private int size;
+        private Node[] children;
+        // Los topK usuarios más seguidos del subárbol, o null si caben en topK
+        private int[] top;
+
+        private Branch(int labelStart, int labelLength) {
+            super(labelStart, -1);
+            this.labelLength = labelLength;
+        }
+    }
+}
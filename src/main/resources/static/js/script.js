@@ -1,5 +1,8 @@
 const API_URL = "http://localhost:8080";
 
+// Replies embedded in each post of the feed and of "Your Posts"
+const EMBEDDED_REPLIES = 3;
+
 // Get user info from JWT stored in session cookie
 function getUserInfo() {
 	// Function to get a cookie value by name
@@ -35,7 +38,8 @@ function getUserInfo() {
 		
 		return {
 			userID: payload.userID,
-			username: payload.username || `User ${payload.userID}` // Use username if available, otherwise fall back to user ID
+			username: payload.username || `User ${payload.userID}`, // Use username if available, otherwise fall back to user ID
+			token: sessionCookie
 		};
 	} catch (error) {
 		console.error("Error parsing JWT:", error);
@@ -51,11 +55,14 @@ async function createPost(content, parentPostId = null) {
 	if (!userInfo) return null;
 
 	try {
+		// The author is taken from the token, not from the body
 		const response = await fetch(`${API_URL}/posts/create`, {
 			method: "POST",
-			headers: { "Content-Type": "application/json" },
+			headers: {
+				"Content-Type": "application/json",
+				"Authorization": `Bearer ${userInfo.token}`
+			},
 			body: JSON.stringify({
-				userId: userInfo.userID.toString(),
 				content,
 				parentPostId,
 			}),
@@ -86,6 +93,7 @@ async function getReplies(postId) {
 function createReplyElement(reply) {
 	const replyElement = document.createElement("div");
 	replyElement.classList.add("reply");
+	replyElement.setAttribute("data-reply-id", reply.id);
 	replyElement.innerHTML = `
     <div class="reply-header">
       <div class="avatar small"></div>
@@ -125,8 +133,8 @@ function createReplyForm(postId) {
 
 			if (result) {
 				input.value = "";
-				// Refresh replies for this post
-				loadRepliesForPost(postId);
+				// The reply arrives through the post stream; reload only without it
+				if (!isPostStreamOpen()) loadRepliesForPost(postId);
 			} else {
 				alert("Failed to post reply. Please try again.");
 			}
@@ -136,7 +144,7 @@ function createReplyForm(postId) {
 }
 
 // Toggle replies visibility and load them if needed
-async function toggleReplies(postElement, postId) {
+async function toggleReplies(postElement, postId, embeddedReplies = null) {
 	// Check if replies container already exists
 	let repliesContainer = postElement.querySelector(".replies-container");
 
@@ -157,14 +165,15 @@ async function toggleReplies(postElement, postId) {
 	postElement.appendChild(repliesContainer);
 
 	// Load replies
-	await loadRepliesForPost(postId, repliesContainer);
+	await loadRepliesForPost(postId, repliesContainer, embeddedReplies);
 
 	// Add reply form
 	repliesContainer.appendChild(createReplyForm(postId));
 }
 
-// Load replies for a specific post
-async function loadRepliesForPost(postId, containerParam = null) {
+// Load replies for a specific post. Embedded replies are used as-is when they
+// are fewer than EMBEDDED_REPLIES, since then they are all the replies there are.
+async function loadRepliesForPost(postId, containerParam = null, embeddedReplies = null) {
 	// If no container is provided, find it in the DOM
 	let repliesContainer = containerParam;
 	if (!repliesContainer) {
@@ -178,7 +187,10 @@ async function loadRepliesForPost(postId, containerParam = null) {
 	repliesContainer.innerHTML = "";
 
 	// Fetch replies
-	const replies = await getReplies(postId);
+	const replies =
+		embeddedReplies && embeddedReplies.length < EMBEDDED_REPLIES
+			? embeddedReplies
+			: await getReplies(postId);
 
 	if (replies.length === 0) {
 		const noRepliesMsg = document.createElement("p");
@@ -240,7 +252,7 @@ function createTweetElement(post, isUserPost = false) {
 			this.textContent = isShowingReplies ? "Show replies" : "Hide replies";
 
 			// Toggle replies visibility
-			toggleReplies(tweetElement, post.id);
+			toggleReplies(tweetElement, post.id, post.replies);
 		});
 
 	return tweetElement;
@@ -267,7 +279,7 @@ async function loadFeed() {
 			return;
 		}
 
-		const response = await fetch(`${API_URL}/posts/feed`, {
+		const response = await fetch(`${API_URL}/posts/feed?embedReplies=${EMBEDDED_REPLIES}`, {
 			method: "GET",
 			headers: {
 				"Authorization": `Bearer ${sessionCookie}`
@@ -298,22 +310,32 @@ async function loadFeed() {
 	}
 }
 
-async function loadUserPosts() {
+const USER_POSTS_PAGE_SIZE = 20;
+
+async function loadUserPosts(after = null) {
 	const myTweetsContainer = document.querySelector(".my-tweets");
-	myTweetsContainer.innerHTML = "<p>Loading your posts...</p>";
+	if (!after) myTweetsContainer.innerHTML = "<p>Loading your posts...</p>";
 
 	const userInfo = getUserInfo();
 	if (!userInfo) return;
 
 	try {
-		const response = await fetch(`${API_URL}/posts/user?userId=${userInfo.userID}`);
+		let url = `${API_URL}/posts/user?userId=${userInfo.userID}&limit=${USER_POSTS_PAGE_SIZE}&embedReplies=${EMBEDDED_REPLIES}`;
+		if (after) url += `&after=${encodeURIComponent(after)}`;
+
+		const response = await fetch(url);
 
 		if (!response.ok) throw new Error("Error fetching user posts");
 
-		const posts = await response.json();
-		myTweetsContainer.innerHTML = "";
+		const page = await response.json();
+		const posts = page.items;
+
+		// Remove the previous "load more" button, the new page brings its own
+		const loadMoreBtn = myTweetsContainer.querySelector(".load-more-btn");
+		if (loadMoreBtn) loadMoreBtn.remove();
+		if (!after) myTweetsContainer.innerHTML = "";
 
-		if (posts.length === 0) {
+		if (!after && posts.length === 0) {
 			myTweetsContainer.innerHTML = "<p>You haven't posted anything yet.</p>";
 			return;
 		}
@@ -322,6 +344,14 @@ async function loadUserPosts() {
 			const tweetElement = createTweetElement(post, true);
 			myTweetsContainer.appendChild(tweetElement);
 		}
+
+		if (page.nextCursor) {
+			const button = document.createElement("button");
+			button.classList.add("load-more-btn");
+			button.textContent = "Load more";
+			button.addEventListener("click", () => loadUserPosts(page.nextCursor));
+			myTweetsContainer.appendChild(button);
+		}
 	} catch (error) {
 		console.error("Error loading user posts:", error);
 		myTweetsContainer.innerHTML =
@@ -329,6 +359,63 @@ async function loadUserPosts() {
 	}
 }
 
+// Live updates: new posts and replies pushed by the server (Server-Sent Events)
+let postStream = null;
+
+function isPostStreamOpen() {
+	return postStream !== null && postStream.readyState === EventSource.OPEN;
+}
+
+function subscribeToNewPosts() {
+	if (!window.EventSource) return;
+
+	const userInfo = getUserInfo();
+	if (!userInfo) return;
+
+	// EventSource reconnects by itself when the connection drops
+	postStream = new EventSource(`${API_URL}/posts/stream`);
+	postStream.addEventListener("post", (event) => {
+		const post = JSON.parse(event.data);
+		if (post.parentPostId) {
+			showNewReply(post);
+		} else {
+			prependTweet(document.querySelector(".tweets"), post, false);
+			if (post.userId === userInfo.userID.toString()) {
+				prependTweet(document.querySelector(".my-tweets"), post, true);
+			}
+		}
+	});
+}
+
+function prependTweet(container, post, isUserPost) {
+	if (!container || container.querySelector(`.tweet[data-post-id="${post.id}"]`)) return;
+
+	// Remove placeholder messages such as "No posts yet"
+	container.querySelectorAll(":scope > p").forEach((message) => message.remove());
+	container.prepend(createTweetElement(post, isUserPost));
+}
+
+// Append a reply to every open replies container of its parent post
+function showNewReply(reply) {
+	const containers = document.querySelectorAll(
+		`.tweet[data-post-id="${reply.parentPostId}"] .replies-container`,
+	);
+	for (const container of containers) {
+		if (container.querySelector(`.reply[data-reply-id="${reply.id}"]`)) continue;
+
+		const noReplies = container.querySelector(".no-replies");
+		if (noReplies) noReplies.remove();
+
+		let repliesList = container.querySelector(".replies-list");
+		if (!repliesList) {
+			repliesList = document.createElement("div");
+			repliesList.classList.add("replies-list");
+			container.prepend(repliesList);
+		}
+		repliesList.appendChild(createReplyElement(reply));
+	}
+}
+
 // Handle posting a new tweet
 document
 	.querySelector(".post-btn")
@@ -350,8 +437,11 @@ document
 
 		if (result) {
 			input.value = "";
-			loadFeed(); // Reload the feed
-			loadUserPosts(); // Also reload user posts
+			// The post arrives through the post stream; reload only without it
+			if (!isPostStreamOpen()) {
+				loadFeed(); // Reload the feed
+				loadUserPosts(); // Also reload user posts
+			}
 		} else {
 			alert("Failed to create post. Please try again.");
 		}
@@ -361,4 +451,5 @@ document
 document.addEventListener("DOMContentLoaded", () => {
 	loadFeed();
 	loadUserPosts(); // Load the user's posts when the page loads
+	subscribeToNewPosts();
 });
\ No newline at end of file
@@ -0,0 +1,94 @@
+package com.example.twitter.benchmark;
+
+import com.example.twitter.model.Post;
+import com.example.twitter.services.EngagementCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Likes per second with 8 threads liking {@code hotPosts} posts at once; with
+ * 1 every thread hits the same post, as with a viral post.
+ * {@code striped} uses {@link EngagementCounters}, flushed every second in the
+ * background. {@code atomic} keeps one {@link AtomicLong} per post and
+ * {@code lockedDocument} updates the post under its lock, the way every like
+ * would serialize on the same document if it were written directly.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 3, time = 2)
+@Fork(1)
+@Threads(8)
+@State(Scope.Benchmark)
+public class EngagementCountersBenchmark {
+
+    @Param({ "1", "1000" })
+    private int hotPosts;
+
+    private String[] postIds;
+    private Post[] posts;
+    private EngagementCounters engagementCounters;
+    private ConcurrentHashMap<String, AtomicLong> atomicCounters;
+    private ScheduledExecutorService flusher;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        InMemoryPostRepository postRepository = new InMemoryPostRepository();
+        postIds = new String[hotPosts];
+        posts = new Post[hotPosts];
+        for (int i = 0; i < hotPosts; i++) {
+            posts[i] = postRepository.save(new Post("user" + i, "Post " + i));
+            postIds[i] = posts[i].getId();
+        }
+        engagementCounters = Fixtures.engagementCounters(postRepository, Fixtures.postCache());
+        atomicCounters = new ConcurrentHashMap<>();
+        flusher = Executors.newSingleThreadScheduledExecutor();
+        flusher.scheduleWithFixedDelay(engagementCounters::flush, 1, 1, TimeUnit.SECONDS);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        flusher.shutdownNow();
+    }
+
+    @Benchmark
+    public void striped() {
+        engagementCounters.liked(postIds[next()]);
+    }
+
+    @Benchmark
+    public long atomic() {
+        return atomicCounters.computeIfAbsent(postIds[next()], id -> new AtomicLong()).incrementAndGet();
+    }
+
+    @Benchmark
+    public void lockedDocument() {
+        Post post = posts[next()];
+        synchronized (post) {
+            post.setLikeCount(post.getLikeCount() + 1);
+        }
+    }
+
+    private int next() {
+        return hotPosts == 1 ? 0 : ThreadLocalRandom.current().nextInt(hotPosts);
+    }
+}
@@ -0,0 +1,113 @@
+package com.example.twitter.benchmark;
+
+import com.example.twitter.cache.PostCache;
+import com.example.twitter.repository.PostRepository;
+import com.example.twitter.repository.ThreadRepository;
+import com.example.twitter.search.PostSearchIndex;
+import com.example.twitter.services.EngagementCounters;
+import com.example.twitter.services.JWTService;
+import com.example.twitter.services.PostDeletionWorker;
+import com.example.twitter.services.PostIngestionQueue;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+import java.security.GeneralSecurityException;
+import java.security.KeyPair;
+import java.security.KeyPairGenerator;
+import java.security.spec.ECGenParameterSpec;
+import java.time.Duration;
+import java.util.Base64;
+
+/**
+ * Objects shared by the benchmarks.
+ */
+final class Fixtures {
+
+    private Fixtures() {
+    }
+
+    /**
+     * Creates an RS256 JWTService with a freshly generated key pair.
+     *
+     * @param cacheMaxSize Size of the verification cache, 0 to disable it.
+     */
+    static JWTService jwtService(long cacheMaxSize) {
+        return jwtService(JWTService.Algorithm.RS256, cacheMaxSize);
+    }
+
+    /**
+     * Creates a JWTService with a freshly generated key pair for the algorithm:
+     * RSA 2048, EC P-256 or Ed25519.
+     *
+     * @param cacheMaxSize Size of the verification cache, 0 to disable it.
+     */
+    static JWTService jwtService(JWTService.Algorithm algorithm, long cacheMaxSize) {
+        KeyPair keyPair = keyPair(algorithm);
+        return new JWTService(algorithm.name(),
+                Base64.getEncoder().encodeToString(keyPair.getPrivate().getEncoded()),
+                Base64.getEncoder().encodeToString(keyPair.getPublic().getEncoded()),
+                cacheMaxSize,
+                Duration.ofMinutes(15));
+    }
+
+    static KeyPair keyPair(JWTService.Algorithm algorithm) {
+        try {
+            KeyPairGenerator generator = KeyPairGenerator.getInstance(algorithm.getKeyAlgorithm());
+            switch (algorithm) {
+                case RS256 -> generator.initialize(2048);
+                case ES256 -> generator.initialize(new ECGenParameterSpec("secp256r1"));
+                case EdDSA -> {
+                }
+            }
+            return generator.generateKeyPair();
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * Creates a PostIngestionQueue that does not publish events.
+     *
+     * @param batchSize Posts per batch, 0 to disable write-behind ingestion.
+     */
+    static PostIngestionQueue ingestionQueue(PostRepository postRepository, ThreadRepository threadRepository,
+            int batchSize) {
+        return new PostIngestionQueue(postRepository, threadRepository, event -> {
+        }, new SimpleMeterRegistry(), batchSize > 0, 100_000, Math.max(batchSize, 1), Duration.ofMillis(5),
+                Duration.ofSeconds(30));
+    }
+
+    /**
+     * Creates a PostCache with the default sizes and TTLs.
+     */
+    static PostCache postCache() {
+        return new PostCache(new SimpleMeterRegistry(), 100_000, Duration.ofMinutes(10), 10_000,
+                Duration.ofMinutes(1), Duration.ofSeconds(2));
+    }
+
+    /**
+     * Creates a PostDeletionWorker with the default batch size.
+     */
+    static PostDeletionWorker deletionWorker(PostRepository postRepository, ThreadRepository threadRepository,
+            PostCache postCache) {
+        return new PostDeletionWorker(postRepository, threadRepository, new InMemoryPostLikeRepository(), postCache,
+                event -> {
+                }, new SimpleMeterRegistry(), 10_000, 1_000, Duration.ofMinutes(1));
+    }
+
+    /**
+     * Creates EngagementCounters that are only flushed when called directly.
+     */
+    static EngagementCounters engagementCounters(PostRepository postRepository, PostCache postCache) {
+        return new EngagementCounters(postRepository, postCache, new SimpleMeterRegistry());
+    }
+
+    /**
+     * Creates an empty PostSearchIndex, ready to be queried.
+     */
+    static PostSearchIndex searchIndex(PostRepository postRepository) {
+        PostSearchIndex searchIndex = new PostSearchIndex(postRepository, new SimpleMeterRegistry(),
+                Duration.ofSeconds(30), 0.25);
+        searchIndex.rebuild();
+        return searchIndex;
+    }
+}
@@ -0,0 +1,22 @@
+package com.example.twitter.benchmark;
+
+import com.example.twitter.model.PostLike;
+import com.example.twitter.repository.PostLikeRepository;
+
+import java.util.Collection;
+
+class InMemoryPostLikeRepository extends InMemoryMongoRepository<PostLike> implements PostLikeRepository {
+
+    InMemoryPostLikeRepository() {
+        super(PostLike::getId, PostLike::setId);
+    }
+
+    @Override
+    public void deleteByPostIdIn(Collection<String> postIds) {
+        store.values().stream()
+                .filter(like -> postIds.contains(like.getPostId()))
+                .map(PostLike::getId)
+                .toList()
+                .forEach(this::deleteById);
+    }
+}
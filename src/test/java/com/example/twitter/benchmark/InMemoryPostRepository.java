@@ -0,0 +1,160 @@
+package com.example.twitter.benchmark;
+
+import com.example.twitter.dto.CounterDelta;
+import com.example.twitter.dto.TimelineCursor;
+import com.example.twitter.model.Post;
+import com.example.twitter.repository.PostRepository;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.Predicate;
+import java.util.stream.Stream;
+
+class InMemoryPostRepository extends InMemoryMongoRepository<Post> implements PostRepository {
+    private static final Comparator<Post> NEWEST_FIRST = Comparator.comparing(Post::getCreationDate)
+            .thenComparing(Post::getId).reversed();
+
+    InMemoryPostRepository() {
+        super(Post::getId, Post::setId);
+    }
+
+    @Override
+    public List<Post> findByParentPostId(String parentPostId) {
+        return filter(post -> parentPostId.equals(post.getParentPostId()) && !post.isDeleted());
+    }
+
+    @Override
+    public List<Post> findByUserId(String userId) {
+        return filter(post -> userId.equals(post.getUserId()) && !post.isDeleted());
+    }
+
+    @Override
+    public List<Post> findByThreadIdOrderByCreationDateAscIdAsc(String threadId) {
+        List<Post> posts = filter(post -> threadId.equals(post.getThreadId()));
+        posts.sort(NEWEST_FIRST.reversed());
+        return posts;
+    }
+
+    @Override
+    public List<Post> findRandomPosts(int size) {
+        List<Post> sample = new ArrayList<>(size);
+        synchronized (ids) {
+            for (int i = 0; i < size && !ids.isEmpty(); i++) {
+                sample.add(store.get(ids.get(ThreadLocalRandom.current().nextInt(ids.size()))));
+            }
+        }
+        return sample;
+    }
+
+    @Override
+    public List<Post> findPageByUserId(String userId, TimelineCursor after, int limit) {
+        return page(findByUserId(userId), after, limit);
+    }
+
+    @Override
+    public Stream<Post> streamByUserId(String userId, TimelineCursor after) {
+        return page(findByUserId(userId), after, Integer.MAX_VALUE).stream();
+    }
+
+    @Override
+    public Stream<Post> streamForSearchIndex() {
+        return filter(post -> !post.isDeleted()).stream().sorted(Comparator.comparing(Post::getId));
+    }
+
+    @Override
+    public List<Post> findPageByParentPostId(String parentPostId, TimelineCursor after, int limit) {
+        return page(findByParentPostId(parentPostId), after, limit);
+    }
+
+    @Override
+    public void insertBatch(Collection<Post> posts) {
+        insert(posts);
+    }
+
+    @Override
+    public List<Post> findRecentByUserIdIn(Collection<String> userIds, int limit) {
+        return filter(post -> userIds.contains(post.getUserId()) && !post.isDeleted()).stream()
+                .sorted(NEWEST_FIRST).limit(limit).toList();
+    }
+
+    @Override
+    public Map<String, List<Post>> findRepliesByParentPostIdIn(Collection<String> parentPostIds, int perParent) {
+        Map<String, List<Post>> replies = new HashMap<>();
+        for (String parentPostId : parentPostIds) {
+            List<Post> page = page(findByParentPostId(parentPostId), null, perParent);
+            if (!page.isEmpty()) {
+                replies.put(parentPostId, page);
+            }
+        }
+        return replies;
+    }
+
+    @Override
+    public boolean markDeleted(String id) {
+        Post post = store.get(id);
+        if (post == null || post.isDeleted()) {
+            return false;
+        }
+        post.setDeleted(true);
+        return true;
+    }
+
+    @Override
+    public List<Post> findDeleted(int limit) {
+        return filter(Post::isDeleted).stream().limit(limit).toList();
+    }
+
+    @Override
+    public List<Post> markRepliesDeleted(Collection<String> parentPostIds, int limit) {
+        List<Post> replies = filter(post -> parentPostIds.contains(post.getParentPostId()) && !post.isDeleted())
+                .stream().limit(limit).toList();
+        replies.forEach(reply -> reply.setDeleted(true));
+        return replies;
+    }
+
+    @Override
+    public List<String> deleteBatchByThreadId(String threadId, String exceptId, int limit) {
+        List<String> ids = filter(post -> threadId.equals(post.getThreadId()) && !post.getId().equals(exceptId))
+                .stream().limit(limit).map(Post::getId).toList();
+        deleteAllById(ids);
+        return ids;
+    }
+
+    @Override
+    public void incrementCounters(Map<String, CounterDelta> deltas) {
+        deltas.forEach((id, delta) -> {
+            Post post = store.get(id);
+            if (post != null) {
+                synchronized (post) {
+                    post.setReplyCount(post.getReplyCount() + delta.getReplies());
+                    post.setLikeCount(post.getLikeCount() + delta.getLikes());
+                }
+            }
+        });
+    }
+
+    private List<Post> filter(Predicate<Post> predicate) {
+        List<Post> posts = new ArrayList<>();
+        for (Post post : store.values()) {
+            if (predicate.test(post)) {
+                posts.add(post);
+            }
+        }
+        return posts;
+    }
+
+    private static List<Post> page(List<Post> posts, TimelineCursor after, int limit) {
+        return posts.stream()
+                .filter(post -> after == null || post.getCreationDate().isBefore(after.getCreationDate())
+                        || (post.getCreationDate().equals(after.getCreationDate())
+                                && post.getId().compareTo(after.getId()) < 0))
+                .sorted(NEWEST_FIRST)
+                .limit(limit)
+                .toList();
+    }
+}
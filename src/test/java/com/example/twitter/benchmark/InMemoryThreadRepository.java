@@ -0,0 +1,45 @@
+package com.example.twitter.benchmark;
+
+import com.example.twitter.model.Thread;
+import com.example.twitter.repository.ThreadRepository;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+
+class InMemoryThreadRepository extends InMemoryMongoRepository<Thread> implements ThreadRepository {
+
+    InMemoryThreadRepository() {
+        super(Thread::getId, Thread::setId);
+    }
+
+    @Override
+    public void appendPost(String threadId, String postId) {
+        Thread thread = store.get(threadId);
+        if (thread != null) {
+            synchronized (thread) {
+                thread.addPost(postId);
+            }
+        }
+    }
+
+    @Override
+    public void insertBatch(Collection<Thread> threads) {
+        insert(threads);
+    }
+
+    @Override
+    public void appendPosts(Map<String, List<String>> postIdsByThread) {
+        postIdsByThread.forEach((threadId, postIds) -> postIds.forEach(postId -> appendPost(threadId, postId)));
+    }
+
+    @Override
+    public void removePosts(String threadId, Collection<String> postIds) {
+        Thread thread = store.get(threadId);
+        if (thread != null) {
+            synchronized (thread) {
+                thread.getPosts().removeAll(postIds);
+            }
+        }
+    }
+}
@@ -0,0 +1,64 @@
+package com.example.twitter.benchmark;
+
+import com.example.twitter.model.User;
+import com.example.twitter.repository.UserRepository;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Stream;
+
+class InMemoryUserRepository extends InMemoryMongoRepository<User> implements UserRepository {
+    private final Map<String, String> idsByUsername = new ConcurrentHashMap<>();
+
+    InMemoryUserRepository() {
+        super(User::getId, User::setId);
+    }
+
+    @Override
+    public <S extends User> S save(S user) {
+        S saved = super.save(user);
+        idsByUsername.put(saved.getUsername(), saved.getId());
+        return saved;
+    }
+
+    @Override
+    public Optional<User> findByUsername(String username) {
+        String id = idsByUsername.get(username);
+        return id == null ? Optional.empty() : findById(id);
+    }
+
+    @Override
+    public boolean follow(String followerId, String followeeId) {
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public boolean unfollow(String followerId, String followeeId) {
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public List<String> findFollowerIds(String userId) {
+        return store.values().stream()
+                .filter(user -> user.getFollowing().contains(userId))
+                .map(User::getId)
+                .toList();
+    }
+
+    @Override
+    public List<String> findIdsWithFollowersAtLeast(Collection<String> userIds, long followerCount) {
+        return userIds.stream()
+                .map(store::get)
+                .filter(user -> user != null && user.getFollowerCount() >= followerCount)
+                .map(User::getId)
+                .toList();
+    }
+
+    @Override
+    public Stream<User> streamUsernames() {
+        return store.values().stream();
+    }
+}
@@ -0,0 +1,135 @@
+package com.example.twitter.benchmark;
+
+import com.example.twitter.cache.PostCache;
+import com.example.twitter.model.Post;
+import com.example.twitter.model.Thread;
+import com.example.twitter.services.PostIngestionQueue;
+import com.example.twitter.services.PostService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Throughput of post creation until the posts are written, with a simulated
+ * database round trip of {@code roundTripMicros}. {@code batchSize} 0 writes
+ * each post synchronously (two round trips per root post); any other value
+ * uses write-behind ingestion with batches of that size.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 3, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class IngestionBenchmark {
+    private static final int POSTS_PER_INVOCATION = 1000;
+
+    @Param({ "0", "50", "500" })
+    private int batchSize;
+
+    @Param({ "500" })
+    private long roundTripMicros;
+
+    private PostService postService;
+    private PostIngestionQueue ingestionQueue;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        SlowPostRepository postRepository = new SlowPostRepository(roundTripMicros);
+        SlowThreadRepository threadRepository = new SlowThreadRepository(roundTripMicros);
+        ingestionQueue = Fixtures.ingestionQueue(postRepository, threadRepository, batchSize);
+        PostCache postCache = Fixtures.postCache();
+        postService = new PostService(postRepository, threadRepository, event -> {
+        }, ingestionQueue, postCache,
+                Fixtures.deletionWorker(postRepository, threadRepository, postCache),
+                Fixtures.engagementCounters(postRepository, postCache), Fixtures.searchIndex(postRepository),
+                new InMemoryPostLikeRepository());
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws InterruptedException {
+        ingestionQueue.shutdown();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(POSTS_PER_INVOCATION)
+    public void createRootPosts() {
+        Post last = null;
+        for (int i = 0; i < POSTS_PER_INVOCATION; i++) {
+            last = postService.createPost("user1", "Benchmark post", null);
+        }
+        // Se mide hasta que el último post está escrito, no solo encolado
+        while (ingestionQueue.findPending(last.getId()).isPresent()) {
+            LockSupport.parkNanos(10_000);
+        }
+    }
+
+    private static void roundTrip(long micros) {
+        LockSupport.parkNanos(TimeUnit.MICROSECONDS.toNanos(micros));
+    }
+
+    static class SlowPostRepository extends InMemoryPostRepository {
+        private final long roundTripMicros;
+
+        SlowPostRepository(long roundTripMicros) {
+            this.roundTripMicros = roundTripMicros;
+        }
+
+        @Override
+        public <S extends Post> S save(S entity) {
+            roundTrip(roundTripMicros);
+            return super.save(entity);
+        }
+
+        @Override
+        public void insertBatch(Collection<Post> posts) {
+            roundTrip(roundTripMicros);
+            posts.forEach(super::save);
+        }
+    }
+
+    static class SlowThreadRepository extends InMemoryThreadRepository {
+        private final long roundTripMicros;
+
+        SlowThreadRepository(long roundTripMicros) {
+            this.roundTripMicros = roundTripMicros;
+        }
+
+        @Override
+        public <S extends Thread> S save(S entity) {
+            roundTrip(roundTripMicros);
+            return super.save(entity);
+        }
+
+        @Override
+        public void insertBatch(Collection<Thread> threads) {
+            roundTrip(roundTripMicros);
+            threads.forEach(super::save);
+        }
+
+        @Override
+        public void appendPosts(Map<String, List<String>> postIdsByThread) {
+            if (!postIdsByThread.isEmpty()) {
+                roundTrip(roundTripMicros);
+                super.appendPosts(postIdsByThread);
+            }
+        }
+    }
+}
@@ -0,0 +1,74 @@
+package com.example.twitter.benchmark;
+
+import com.example.twitter.services.JWTService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Throughput of {@link JWTService#sign(String, String)}, and of
+ * {@link JWTService#verify(String)} with the verification cache disabled (every
+ * call checks the signature) and enabled (repeated tokens skip it), for each
+ * signing algorithm. The size of the signed token is printed at setup.
+ * <p>
+ * Each nested class runs the same benchmarks with 1, 8 and 32 threads, so a
+ * single {@code -Pbenchmark} run covers the whole sweep.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public abstract class JWTServiceBenchmark {
+
+    @Param({ "RS256", "ES256", "EdDSA" })
+    private JWTService.Algorithm algorithm;
+
+    @Param({ "false", "true" })
+    private boolean cached;
+
+    private JWTService jwtService;
+    private String token;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        jwtService = Fixtures.jwtService(algorithm, cached ? 10_000 : 0);
+        token = jwtService.sign("user123", "benchmark");
+        System.out.println(algorithm + " token: " + token.length() + " bytes");
+    }
+
+    @Benchmark
+    public String sign() {
+        return jwtService.sign("user123", "benchmark");
+    }
+
+    @Benchmark
+    public boolean verify() {
+        return jwtService.verify(token);
+    }
+
+    @Threads(1)
+    public static class OneThread extends JWTServiceBenchmark {
+    }
+
+    @Threads(8)
+    public static class EightThreads extends JWTServiceBenchmark {
+    }
+
+    @Threads(32)
+    public static class ThirtyTwoThreads extends JWTServiceBenchmark {
+    }
+}
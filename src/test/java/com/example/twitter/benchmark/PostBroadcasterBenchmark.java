@@ -0,0 +1,65 @@
+package com.example.twitter.benchmark;
+
+import com.example.twitter.model.Post;
+import com.example.twitter.services.PostBroadcaster;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Time for {@link PostBroadcaster#publish(Post)} to return with
+ * {@code subscribers} idle connections, which is what creating a post pays.
+ * Run with {@code -prof gc} to see the allocation per publish.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 3, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class PostBroadcasterBenchmark {
+
+    @Param({ "100", "10000" })
+    private int subscribers;
+
+    private PostBroadcaster broadcaster;
+    private LongAdder delivered;
+    private Post post;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        broadcaster = new PostBroadcaster(new SimpleMeterRegistry(), 4, 32, Duration.ofSeconds(5));
+        delivered = new LongAdder();
+        for (int i = 0; i < subscribers; i++) {
+            broadcaster.subscribe(post -> delivered.increment());
+        }
+        post = new Post("user1", "Post");
+        post.setId("post1");
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        broadcaster.shutdown();
+        System.out.println(delivered.sum() + " posts delivered");
+    }
+
+    @Benchmark
+    public void publish() {
+        broadcaster.publish(post);
+    }
+}
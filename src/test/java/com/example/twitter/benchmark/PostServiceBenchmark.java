@@ -0,0 +1,73 @@
+package com.example.twitter.benchmark;
+
+import com.example.twitter.cache.PostCache;
+import com.example.twitter.model.Post;
+import com.example.twitter.services.PostService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of the {@link PostService} code paths on top of in-memory repositories.
+ * Database latency is deliberately left out, so differences between runs come
+ * from the service code only.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class PostServiceBenchmark {
+
+    @Param({ "10000", "100000" })
+    private int posts;
+
+    private PostService postService;
+    private List<String> postIds;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        InMemoryPostRepository postRepository = new InMemoryPostRepository();
+        InMemoryThreadRepository threadRepository = new InMemoryThreadRepository();
+        PostCache postCache = Fixtures.postCache();
+        postService = new PostService(postRepository, threadRepository, event -> {
+        }, Fixtures.ingestionQueue(postRepository, threadRepository, 0), postCache,
+                Fixtures.deletionWorker(postRepository, threadRepository, postCache),
+                Fixtures.engagementCounters(postRepository, postCache), Fixtures.searchIndex(postRepository),
+                new InMemoryPostLikeRepository());
+        for (int i = 0; i < posts; i++) {
+            postService.createPost("user" + (i % 1000), "Post " + i, null);
+        }
+        postIds = postRepository.findAll().stream().map(Post::getId).toList();
+    }
+
+    @Benchmark
+    public List<Post> getFeed() {
+        return postService.getFeed();
+    }
+
+    @Benchmark
+    public Post createRootPost() {
+        return postService.createPost("user1", "Benchmark post", null);
+    }
+
+    @Benchmark
+    public Post createReply() {
+        String parentId = postIds.get(ThreadLocalRandom.current().nextInt(postIds.size()));
+        return postService.createPost("user2", "Benchmark reply", parentId);
+    }
+}
@@ -0,0 +1,101 @@
+package com.example.twitter.benchmark;
+
+import com.example.twitter.search.InvertedIndex;
+import org.bson.types.ObjectId;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Latency of {@link InvertedIndex} queries for the 20 newest matches over
+ * {@code posts} synthetic posts of 8 words each, drawn from a vocabulary of
+ * 100,000 words with Zipf frequencies, as in natural language. Word {@code n}
+ * by frequency is {@code "t"} followed by {@code n} in base 36.
+ * {@code commonTerm} searches the most frequent word, {@code twoTerms} two
+ * words that appear together in about 1 post in 1,500, {@code rareAndCommon}
+ * a rare word together with a frequent one, {@code prefix} the 1,300 words
+ * starting with {@code "t1z"} and {@code widePrefix} the 48,000 starting with
+ * {@code "t1"}, of which only the most frequent are used.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 3, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx3g")
+@State(Scope.Benchmark)
+public class SearchBenchmark {
+    private static final int VOCABULARY = 100_000;
+    private static final int WORDS_PER_POST = 8;
+    private static final int LIMIT = 20;
+
+    @Param({ "1000000", "10000000" })
+    private int posts;
+
+    private InvertedIndex index;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        double[] cumulative = new double[VOCABULARY];
+        double sum = 0;
+        for (int rank = 0; rank < VOCABULARY; rank++) {
+            sum += 1.0 / (rank + 1);
+            cumulative[rank] = sum;
+        }
+        SplittableRandom random = new SplittableRandom(42);
+        index = new InvertedIndex();
+        StringBuilder content = new StringBuilder();
+        for (int i = 0; i < posts; i++) {
+            content.setLength(0);
+            for (int w = 0; w < WORDS_PER_POST; w++) {
+                int rank = Arrays.binarySearch(cumulative, random.nextDouble(sum));
+                content.append(word(rank < 0 ? -rank - 1 : rank)).append(' ');
+            }
+            index.add(new ObjectId().toHexString(), content.toString());
+        }
+        System.out.printf("%n%d posts, %d terms, ~%d MB in posting lists and ids%n",
+                index.size(), index.termCount(), index.sizeInBytes() >> 20);
+    }
+
+    @Benchmark
+    public List<String> commonTerm() {
+        return index.search(word(0), LIMIT);
+    }
+
+    @Benchmark
+    public List<String> twoTerms() {
+        return index.search(word(20) + " " + word(30), LIMIT);
+    }
+
+    @Benchmark
+    public List<String> rareAndCommon() {
+        return index.search(word(5000) + " " + word(1), LIMIT);
+    }
+
+    @Benchmark
+    public List<String> prefix() {
+        return index.search("t1z*", LIMIT);
+    }
+
+    @Benchmark
+    public List<String> widePrefix() {
+        return index.search("t1*", LIMIT);
+    }
+
+    private static String word(int rank) {
+        return "t" + Integer.toString(rank, 36);
+    }
+}
@@ -0,0 +1,73 @@
+package com.example.twitter.benchmark;
+
+import com.example.twitter.events.UserRegisteredEvent;
+import com.example.twitter.model.User;
+import com.example.twitter.services.CustomUserDetailsService;
+import com.example.twitter.services.PasswordHasher;
+import com.example.twitter.services.UserService;
+import com.example.twitter.users.UserSuggestions;
+import com.example.twitter.users.UsernameFilter;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Latency of a successful {@link UserService#authUser(String, String)}: one
+ * cached user lookup, one BCrypt check on the hashing pool and one token signature.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class UserServiceBenchmark {
+
+    private UserService userService;
+    private PasswordHasher passwordHasher;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        passwordHasher = new PasswordHasher(new BCryptPasswordEncoder(), new SimpleMeterRegistry(), 0, 1024,
+                Duration.ofSeconds(30));
+        InMemoryUserRepository userRepository = new InMemoryUserRepository();
+        CustomUserDetailsService userDetailsService = new CustomUserDetailsService(userRepository,
+                new SimpleMeterRegistry(), 1000, Duration.ofMinutes(5), Duration.ofSeconds(10));
+        userService = new UserService(userRepository, passwordHasher, Fixtures.jwtService(0), event -> {
+            if (event instanceof UserRegisteredEvent registered) {
+                userDetailsService.onUserRegistered(registered);
+            }
+        }, new UsernameFilter(userRepository, new SimpleMeterRegistry(), 1000, 0.01, Duration.ofSeconds(30)),
+                new UserSuggestions(userRepository, new SimpleMeterRegistry(), 10, Duration.ofSeconds(30)),
+                userDetailsService);
+
+        User user = new User();
+        user.setUsername("benchmark");
+        user.setPassword("password123");
+        userService.registerUser(user);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        passwordHasher.shutdown();
+    }
+
+    @Benchmark
+    public String authUser() {
+        return userService.authUser("benchmark", "password123");
+    }
+}
@@ -0,0 +1,91 @@
+package com.example.twitter.benchmark;
+
+import com.example.twitter.dto.UserSuggestion;
+import com.example.twitter.users.UsernameTrie;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryMXBean;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Latency distribution (read the p99 of the sample) of
+ * {@link UsernameTrie#suggest(String, int)} for 10 suggestions over
+ * {@code users} synthetic usernames, with prefixes of 1 to 4 characters taken
+ * from existing names. Names are two or three syllables followed by up to
+ * four digits, and follower counts follow a Pareto distribution, as on a
+ * social network. The setup prints the heap retained by the trie, measured
+ * after a full GC, per million usernames.
+ */
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 3, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx3g")
+@State(Scope.Benchmark)
+public class UserSuggestBenchmark {
+    private static final String[] SYLLABLES = { "an", "ma", "ri", "jo", "se", "lu", "ca", "pe", "to", "la",
+            "mi", "go", "el", "sa", "ju", "da", "ne", "ro", "vi", "al", "be", "co", "fe", "ka" };
+    private static final int PREFIXES = 4096;
+
+    @Param({ "1000000", "5000000" })
+    private int users;
+
+    private UsernameTrie trie;
+    private String[] prefixes;
+    private int next;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        MemoryMXBean memory = ManagementFactory.getMemoryMXBean();
+        System.gc();
+        long before = memory.getHeapMemoryUsage().getUsed();
+
+        SplittableRandom random = new SplittableRandom(42);
+        trie = new UsernameTrie(10);
+        prefixes = new String[PREFIXES];
+        for (int i = 0; i < users; i++) {
+            String username = username(random);
+            // Pareto con alfa 1,2: la mayoría con pocos seguidores, unos pocos con millones
+            long followers = (long) (Math.pow(1 - random.nextDouble(), -1 / 1.2) - 1);
+            trie.add(username, followers);
+            if (i < PREFIXES) {
+                prefixes[i] = username.substring(0, Math.min(username.length(), 1 + random.nextInt(4)));
+            }
+        }
+        trie.trimToSize();
+
+        System.gc();
+        long retained = memory.getHeapMemoryUsage().getUsed() - before;
+        System.out.printf("%n%d usernames, %d nodes, %d MB of heap (%d MB per million, ~%d MB estimated)%n",
+                trie.size(), trie.nodeCount(), retained >> 20, (retained >> 20) * 1_000_000 / users,
+                trie.sizeInBytes() >> 20);
+    }
+
+    private static String username(SplittableRandom random) {
+        StringBuilder name = new StringBuilder();
+        for (int s = 2 + random.nextInt(2); s > 0; s--) {
+            name.append(SYLLABLES[random.nextInt(SYLLABLES.length)]);
+        }
+        return name.append(random.nextInt(10_000)).toString();
+    }
+
+    @Benchmark
+    public List<UserSuggestion> suggest() {
+        next = (next + 1) & (PREFIXES - 1);
+        return trie.suggest(prefixes[next], 10);
+    }
+}
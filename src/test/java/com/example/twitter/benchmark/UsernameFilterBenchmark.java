@@ -0,0 +1,73 @@
+package com.example.twitter.benchmark;
+
+import com.example.twitter.users.BloomFilter;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Sizing of the username {@link BloomFilter} holding {@code users} usernames
+ * at a {@code falsePositiveRate}, and latency of a lookup of a taken name
+ * ({@code taken}, which checks every hash) and of a free one ({@code free},
+ * which usually stops at the first unset bit). The setup prints the memory
+ * of the filter and the false positive rate measured over 1,000,000 free
+ * names.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 3, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx1g")
+@State(Scope.Benchmark)
+public class UsernameFilterBenchmark {
+    private static final int PROBES = 1_000_000;
+
+    @Param({ "1000000", "50000000" })
+    private int users;
+
+    @Param({ "0.01", "0.001" })
+    private double falsePositiveRate;
+
+    private BloomFilter filter;
+    private int next;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        filter = new BloomFilter(users, falsePositiveRate);
+        for (int i = 0; i < users; i++) {
+            filter.add("user" + i);
+        }
+        int falsePositives = 0;
+        for (int i = 0; i < PROBES; i++) {
+            if (filter.mightContain("free" + i)) {
+                falsePositives++;
+            }
+        }
+        System.out.printf("%n%d users at %s: %d hashes, %.1f MB, %.3f %% false positives%n", users,
+                falsePositiveRate, filter.hashCount(), filter.memoryBytes() / 1e6,
+                100.0 * falsePositives / PROBES);
+    }
+
+    @Benchmark
+    public boolean taken() {
+        next = (next + 7919) % users;
+        return filter.mightContain("user" + next);
+    }
+
+    @Benchmark
+    public boolean free() {
+        next = (next + 7919) % users;
+        return filter.mightContain("free" + next);
+    }
+}
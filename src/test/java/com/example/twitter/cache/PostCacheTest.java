@@ -0,0 +1,143 @@
+package com.example.twitter.cache;
+
+import com.example.twitter.model.Post;
+import com.example.twitter.repository.PostRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class PostCacheTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private PostCache postCache;
+
+    @BeforeEach
+    void setUp() {
+        postCache = new PostCache(meterRegistry, 100, Duration.ofMinutes(10), 100, Duration.ofMinutes(1),
+                Duration.ofSeconds(5));
+    }
+
+    @Test
+    void getPostLoadsOnce() {
+        // Arrange
+        AtomicInteger loads = new AtomicInteger();
+        Post post = post("post1", null);
+
+        // Act
+        for (int i = 0; i < 3; i++) {
+            postCache.getPost("post1", id -> {
+                loads.incrementAndGet();
+                return Optional.of(post);
+            });
+        }
+
+        // Assert
+        assertEquals(1, loads.get());
+        assertEquals(2.0, meterRegistry.get("cache.gets").tag("cache", "posts.by-id").tag("result", "hit")
+                .functionCounter().count());
+    }
+
+    @Test
+    void missingPostIsNotCached() {
+        // Arrange
+        AtomicInteger loads = new AtomicInteger();
+
+        // Act
+        postCache.getPost("missing", id -> {
+            loads.incrementAndGet();
+            return Optional.empty();
+        });
+        Optional<Post> result = postCache.getPost("missing", id -> {
+            loads.incrementAndGet();
+            return Optional.empty();
+        });
+
+        // Assert
+        assertTrue(result.isEmpty());
+        assertEquals(2, loads.get());
+    }
+
+    @Test
+    void createdReplyIsAppendedToCachedReplies() {
+        // Arrange
+        Post reply1 = post("reply1", "post1");
+        postCache.getReplies("post1", id -> List.of(reply1));
+        Post reply2 = post("reply2", "post1");
+
+        // Act
+        postCache.postCreated(reply2);
+        postCache.postCreated(reply2);
+
+        // Assert
+        assertEquals(List.of(reply1, reply2), postCache.getReplies("post1", id -> fail("Should be cached")));
+        assertEquals(Optional.of(reply2), postCache.getPost("reply2", id -> fail("Should be cached")));
+    }
+
+    @Test
+    void deletedReplyIsRemovedFromCachedReplies() {
+        // Arrange
+        Post reply1 = post("reply1", "post1");
+        Post reply2 = post("reply2", "post1");
+        postCache.getReplies("post1", id -> List.of(reply1, reply2));
+        postCache.getPost("reply1", id -> Optional.of(reply1));
+
+        // Act
+        postCache.postDeleted("reply1", "post1");
+
+        // Assert
+        assertEquals(List.of(reply2), postCache.getReplies("post1", id -> fail("Should be cached")));
+        assertTrue(postCache.getPost("reply1", id -> Optional.empty()).isEmpty());
+    }
+
+    @Test
+    void concurrentMissesShareOneRepositoryCall() throws Exception {
+        // Arrange: la consulta no termina hasta que todos los hilos han llegado
+        int callers = 50;
+        PostRepository postRepository = mock(PostRepository.class);
+        Post post = post("post1", null);
+        CountDownLatch started = new CountDownLatch(callers);
+        when(postRepository.findById("post1")).thenAnswer(invocation -> {
+            started.await(5, TimeUnit.SECONDS);
+            Thread.sleep(50);
+            return Optional.of(post);
+        });
+        ExecutorService executor = Executors.newFixedThreadPool(callers);
+
+        // Act
+        List<Future<Optional<Post>>> results = new ArrayList<>();
+        for (int i = 0; i < callers; i++) {
+            results.add(executor.submit(() -> {
+                started.countDown();
+                return postCache.getPost("post1", postRepository::findById);
+            }));
+        }
+
+        // Assert
+        for (Future<Optional<Post>> result : results) {
+            assertEquals(Optional.of(post), result.get(5, TimeUnit.SECONDS));
+        }
+        executor.shutdown();
+        verify(postRepository, times(1)).findById("post1");
+    }
+
+    private static Post post(String id, String parentPostId) {
+        Post post = new Post("user1", "Post " + id);
+        post.setId(id);
+        post.setParentPostId(parentPostId);
+        return post;
+    }
+}
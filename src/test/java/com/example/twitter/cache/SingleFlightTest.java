@@ -0,0 +1,180 @@
+package com.example.twitter.cache;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.QueryTimeoutException;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SingleFlightTest {
+
+    private final ExecutorService executor = Executors.newCachedThreadPool();
+
+    @AfterEach
+    void tearDown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    void concurrentCallersShareOneLoad() throws Exception {
+        // Arrange
+        int callers = 100;
+        SingleFlight<String, String> singleFlight = new SingleFlight<>(Duration.ofSeconds(5));
+        AtomicInteger loads = new AtomicInteger();
+        CountDownLatch arrived = new CountDownLatch(callers);
+
+        // Act
+        List<Future<String>> results = new ArrayList<>();
+        for (int i = 0; i < callers; i++) {
+            results.add(executor.submit(() -> {
+                arrived.countDown();
+                return singleFlight.load("post1", key -> {
+                    loads.incrementAndGet();
+                    awaitQuietly(arrived);
+                    sleepQuietly(50);
+                    return "value of " + key;
+                });
+            }));
+        }
+
+        // Assert
+        for (Future<String> result : results) {
+            assertEquals("value of post1", result.get(5, TimeUnit.SECONDS));
+        }
+        assertEquals(1, loads.get());
+        assertEquals(0, singleFlight.inFlight());
+    }
+
+    @Test
+    void differentKeysLoadIndependently() {
+        // Arrange
+        SingleFlight<String, String> singleFlight = new SingleFlight<>(Duration.ofSeconds(5));
+
+        // Act & Assert
+        assertEquals("a", singleFlight.load("a", key -> key));
+        assertEquals("b", singleFlight.load("b", key -> key));
+    }
+
+    @Test
+    void waitersTimeOutAndHungFlightIsReplaced() throws Exception {
+        // Arrange: el primer vuelo no termina
+        SingleFlight<String, String> singleFlight = new SingleFlight<>(Duration.ofMillis(100));
+        CountDownLatch loading = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        executor.submit(() -> singleFlight.load("post1", key -> {
+            loading.countDown();
+            awaitQuietly(release);
+            return "stale";
+        }));
+        assertTrue(loading.await(5, TimeUnit.SECONDS));
+
+        // Act & Assert
+        assertThrows(QueryTimeoutException.class, () -> singleFlight.load("post1", key -> "unused"));
+        assertEquals("fresh", singleFlight.load("post1", key -> "fresh"));
+        release.countDown();
+    }
+
+    @Test
+    void loadFailureReachesEveryCaller() throws Exception {
+        // Arrange
+        SingleFlight<String, String> singleFlight = new SingleFlight<>(Duration.ofSeconds(5));
+        CountDownLatch loading = new CountDownLatch(1);
+        CountDownLatch fail = new CountDownLatch(1);
+        Future<String> leader = executor.submit(() -> singleFlight.load("post1", key -> {
+            loading.countDown();
+            awaitQuietly(fail);
+            throw new IllegalStateException("Mongo unavailable");
+        }));
+        assertTrue(loading.await(5, TimeUnit.SECONDS));
+
+        // Act
+        Future<String> follower = executor.submit(() -> singleFlight.load("post1", key -> "unused"));
+        Thread.sleep(50);
+        fail.countDown();
+
+        // Assert
+        ExecutionException leaderError = assertThrows(ExecutionException.class, () -> leader.get(5, TimeUnit.SECONDS));
+        ExecutionException followerError = assertThrows(ExecutionException.class,
+                () -> follower.get(5, TimeUnit.SECONDS));
+        assertInstanceOf(IllegalStateException.class, leaderError.getCause());
+        assertInstanceOf(IllegalStateException.class, followerError.getCause());
+    }
+
+    @Test
+    void cancelledLeaderHandsOverToWaiter() throws Exception {
+        // Arrange: el líder se interrumpe durante la carga
+        SingleFlight<String, String> singleFlight = new SingleFlight<>(Duration.ofSeconds(5));
+        CountDownLatch loading = new CountDownLatch(1);
+        Future<String> leader = executor.submit(() -> singleFlight.load("post1", key -> {
+            loading.countDown();
+            try {
+                Thread.sleep(10_000);
+                return "never";
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("Interrupted", e);
+            }
+        }));
+        assertTrue(loading.await(5, TimeUnit.SECONDS));
+        Future<String> follower = executor.submit(() -> singleFlight.load("post1", key -> "reloaded"));
+        Thread.sleep(50);
+
+        // Act
+        leader.cancel(true);
+
+        // Assert
+        assertEquals("reloaded", follower.get(5, TimeUnit.SECONDS));
+    }
+
+    @Test
+    void interruptedWaiterDoesNotAffectFlight() throws Exception {
+        // Arrange
+        SingleFlight<String, String> singleFlight = new SingleFlight<>(Duration.ofSeconds(5));
+        CountDownLatch loading = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        Future<String> leader = executor.submit(() -> singleFlight.load("post1", key -> {
+            loading.countDown();
+            awaitQuietly(release);
+            return "value";
+        }));
+        assertTrue(loading.await(5, TimeUnit.SECONDS));
+        Future<String> waiter = executor.submit(() -> singleFlight.load("post1", key -> "unused"));
+        Thread.sleep(50);
+
+        // Act
+        waiter.cancel(true);
+        release.countDown();
+
+        // Assert
+        assertThrows(CancellationException.class, () -> waiter.get(5, TimeUnit.SECONDS));
+        assertEquals("value", leader.get(5, TimeUnit.SECONDS));
+    }
+
+    private static void awaitQuietly(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static void sleepQuietly(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -1,23 +1,39 @@
 package com.example.twitter.controller;
 
+import com.example.twitter.dto.TimelineCursor;
+import com.example.twitter.dto.TimelinePage;
 import com.example.twitter.model.Post;
+import com.example.twitter.security.AuthenticatedUser;
 import com.example.twitter.services.PostService;
+import com.example.twitter.services.TimelineService;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
+import org.mockito.Spy;
+import org.springframework.dao.QueryTimeoutException;
 import org.springframework.http.MediaType;
 import org.springframework.http.converter.json.MappingJackson2HttpMessageConverter;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.web.method.annotation.AuthenticationPrincipalArgumentResolver;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 import org.springframework.test.web.servlet.setup.MockMvcBuilders;
 
 import java.time.LocalDate;
 import java.util.Arrays;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.stream.Stream;
 
+import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
 import static org.mockito.ArgumentMatchers.anyString;
 import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.*;
@@ -32,20 +48,32 @@ class AppControllerTest {
         @Mock
         private PostService postService;
 
+        @Mock
+        private TimelineService timelineService;
+
+        @Spy
+        private ObjectMapper objectMapper = new ObjectMapper().findAndRegisterModules(); // Para manejar LocalDate
+
         @InjectMocks
         private AppController appController;
 
-        private ObjectMapper objectMapper;
-
         @BeforeEach
         void setUp() {
                 MockitoAnnotations.openMocks(this);
-                objectMapper = new ObjectMapper();
-                objectMapper.findAndRegisterModules(); // Para manejar LocalDate
 
                 mockMvc = MockMvcBuilders.standaloneSetup(appController)
                                 .setMessageConverters(new MappingJackson2HttpMessageConverter(objectMapper))
+                                .setCustomArgumentResolvers(new AuthenticationPrincipalArgumentResolver())
                                 .build();
+
+                // Lo que JwtAuthenticationFilter deja para un token válido
+                SecurityContextHolder.getContext().setAuthentication(UsernamePasswordAuthenticationToken
+                                .authenticated(new AuthenticatedUser("user123", "ana"), null, List.of()));
+        }
+
+        @AfterEach
+        void tearDown() {
+                SecurityContextHolder.clearContext();
         }
 
         @Test
@@ -60,9 +88,9 @@ class AppControllerTest {
                 when(postService.createPost(eq("user123"), eq("Test post content"), isNull()))
                                 .thenReturn(newPost);
 
-                // Crear el objeto de post para la solicitud
+                // Crear el objeto de post para la solicitud; el autor sale del token
                 Post requestPost = new Post();
-                requestPost.setUserId("user123");
+                requestPost.setUserId("otro-usuario");
                 requestPost.setContent("Test post content");
 
                 // Act & Assert
@@ -79,6 +107,111 @@ class AppControllerTest {
                 verify(postService, times(1)).createPost(eq("user123"), eq("Test post content"), isNull());
         }
 
+        @Test
+        void createPostReturnsTooManyRequestsWhenQueueIsFull() throws Exception {
+                // Arrange
+                when(postService.createPost(anyString(), anyString(), isNull()))
+                                .thenThrow(new RejectedExecutionException("Post ingestion queue is full"));
+
+                Post requestPost = new Post();
+                requestPost.setUserId("user123");
+                requestPost.setContent("Test post content");
+
+                // Act & Assert
+                mockMvc.perform(post("/posts/create")
+                                .contentType(MediaType.APPLICATION_JSON)
+                                .content(objectMapper.writeValueAsString(requestPost)))
+                                .andExpect(status().isTooManyRequests())
+                                .andExpect(header().string("Retry-After", "1"));
+        }
+
+        @Test
+        void createThreadUsesAuthenticatedUser() throws Exception {
+                // Arrange
+                when(postService.createThread(any(Post.class))).thenAnswer(invocation -> invocation.getArgument(0));
+
+                Post requestPost = new Post();
+                requestPost.setUserId("otro-usuario");
+                requestPost.setContent("Inicio del hilo");
+
+                // Act & Assert
+                mockMvc.perform(post("/posts/thread")
+                                .contentType(MediaType.APPLICATION_JSON)
+                                .content(objectMapper.writeValueAsString(requestPost)))
+                                .andExpect(status().isOk())
+                                .andExpect(jsonPath("$.userId").value("user123"));
+        }
+
+        @Test
+        void getPostByIdReturnsServiceUnavailableWhenLoadTimesOut() throws Exception {
+                // Arrange
+                when(postService.getPostById("post123"))
+                                .thenThrow(new QueryTimeoutException("Timed out waiting for post123"));
+
+                // Act & Assert
+                mockMvc.perform(get("/posts/post123"))
+                                .andExpect(status().isServiceUnavailable())
+                                .andExpect(header().string("Retry-After", "1"));
+        }
+
+        @Test
+        void searchPosts() throws Exception {
+                // Arrange
+                Post post = new Post("user1", "Hola mundo");
+                post.setId("post1");
+                when(postService.searchPosts("hola mun*", 20)).thenReturn(List.of(post));
+
+                // Act & Assert
+                mockMvc.perform(get("/posts/search").param("q", "hola mun*"))
+                                .andExpect(status().isOk())
+                                .andExpect(jsonPath("$[0].id").value("post1"));
+        }
+
+        @Test
+        void searchPostsReturnsServiceUnavailableWhileIndexIsBuilt() throws Exception {
+                // Arrange
+                when(postService.searchPosts(anyString(), anyInt()))
+                                .thenThrow(new IllegalStateException("The search index is being built"));
+
+                // Act & Assert
+                mockMvc.perform(get("/posts/search").param("q", "hola"))
+                                .andExpect(status().isServiceUnavailable());
+        }
+
+        @Test
+        void getTimelineUsesAuthenticatedUser() throws Exception {
+                // Arrange
+                Post post = new Post("user456", "Post de alguien a quien sigue");
+                post.setId("post1");
+                when(timelineService.getHomeTimeline("user123", 20)).thenReturn(List.of(post));
+
+                // Act & Assert: un userId en la consulta se ignora
+                mockMvc.perform(get("/posts/timeline").param("userId", "otro"))
+                                .andExpect(status().isOk())
+                                .andExpect(jsonPath("$[0].id").value("post1"));
+
+                verify(timelineService).getHomeTimeline("user123", 20);
+        }
+
+        @Test
+        void likePostIsAccepted() throws Exception {
+                // Act & Assert
+                mockMvc.perform(post("/posts/post123/like"))
+                                .andExpect(status().isAccepted());
+
+                verify(postService, times(1)).likePost("post123", "user123");
+        }
+
+        @Test
+        void likeMissingPostReturnsNotFound() throws Exception {
+                // Arrange
+                when(postService.likePost("missing", "user123")).thenThrow(new IllegalArgumentException("Post not found"));
+
+                // Act & Assert
+                mockMvc.perform(post("/posts/missing/like"))
+                                .andExpect(status().isNotFound());
+        }
+
         @Test
         void getReplies() throws Exception {
                 // Arrange
@@ -102,6 +235,91 @@ class AppControllerTest {
                 verify(postService, times(1)).getReplies(postId);
         }
 
+        @Test
+        void getRepliesPage() throws Exception {
+                // Arrange
+                String postId = "post123";
+                Post reply = new Post("user1", "Reply 1 content");
+                reply.setId("reply1");
+
+                when(postService.getReplies(postId, "cursor1", 1))
+                                .thenReturn(new TimelinePage<>(List.of(reply), "cursor2"));
+
+                // Act & Assert
+                mockMvc.perform(get("/posts/{id}/replies", postId)
+                                .param("limit", "1")
+                                .param("after", "cursor1"))
+                                .andExpect(status().isOk())
+                                .andExpect(jsonPath("$.items[0].id").value("reply1"))
+                                .andExpect(jsonPath("$.nextCursor").value("cursor2"));
+
+                verify(postService, never()).getReplies(postId);
+        }
+
+        @Test
+        void getRepliesBatch() throws Exception {
+                // Arrange
+                Post reply = new Post("user1", "Reply 1 content");
+                reply.setId("reply1");
+
+                when(postService.getRepliesByParents(List.of("post1", "post2"), 20))
+                                .thenReturn(Map.of("post1", List.of(reply), "post2", List.of()));
+
+                // Act & Assert
+                mockMvc.perform(get("/posts/replies").param("parentIds", "post1,post2"))
+                                .andExpect(status().isOk())
+                                .andExpect(jsonPath("$.post1[0].id").value("reply1"))
+                                .andExpect(jsonPath("$.post2").isEmpty());
+
+                verify(postService, never()).getReplies(anyString());
+        }
+
+        @Test
+        void exportPostsByUserResumesFromCursor() throws Exception {
+                // Arrange
+                LocalDate date = LocalDate.of(2025, 3, 1);
+                Post post1 = new Post("user123", "Post 1 content");
+                post1.setId("post1");
+                post1.setCreationDate(date);
+                Post post2 = new Post("user123", "Post 2 content");
+                post2.setId("post2");
+                post2.setCreationDate(date);
+                String after = new TimelineCursor(date, "post3").encode();
+
+                when(postService.streamPostsByUser(eq("user123"), any(TimelineCursor.class)))
+                                .thenReturn(Stream.of(post2, post1));
+
+                // Act
+                MvcResult result = mockMvc.perform(get("/posts/user/export")
+                                .param("userId", "user123")
+                                .param("after", after))
+                                .andExpect(request().asyncStarted())
+                                .andReturn();
+
+                // Assert
+                String[] lines = mockMvc.perform(asyncDispatch(result))
+                                .andExpect(status().isOk())
+                                .andExpect(content().contentType(MediaType.APPLICATION_NDJSON))
+                                .andReturn().getResponse().getContentAsString().split("\n");
+                assertEquals(2, lines.length);
+                assertEquals("post2", objectMapper.readTree(lines[0]).get("id").asText());
+                assertEquals(new TimelineCursor(date, "post1").encode(),
+                                objectMapper.readTree(lines[1]).get("cursor").asText());
+                verify(postService).streamPostsByUser(eq("user123"),
+                                argThat(cursor -> "post3".equals(cursor.getId())));
+        }
+
+        @Test
+        void exportPostsByUserRejectsInvalidCursor() throws Exception {
+                // Act & Assert
+                mockMvc.perform(get("/posts/user/export")
+                                .param("userId", "user123")
+                                .param("after", "not-a-cursor"))
+                                .andExpect(status().isBadRequest());
+
+                verify(postService, never()).streamPostsByUser(anyString(), any());
+        }
+
         @Test
         void deleteStream() throws Exception {
                 // Arrange
@@ -0,0 +1,61 @@
+package com.example.twitter.controller;
+
+import com.example.twitter.dto.HashtagCount;
+import com.example.twitter.trends.TrendingHashtags;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+
+import java.util.List;
+
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+class TrendsControllerTest {
+
+        private MockMvc mockMvc;
+
+        @Mock
+        private TrendingHashtags trendingHashtags;
+
+        @InjectMocks
+        private TrendsController trendsController;
+
+        @BeforeEach
+        void setUp() {
+                MockitoAnnotations.openMocks(this);
+                mockMvc = MockMvcBuilders.standaloneSetup(trendsController).build();
+        }
+
+        @Test
+        void getTrendsUsesFiveMinutesByDefault() throws Exception {
+                // Arrange
+                when(trendingHashtags.top(5, 10)).thenReturn(List.of(new HashtagCount("java", 42)));
+
+                // Act & Assert
+                mockMvc.perform(get("/trends"))
+                                .andExpect(status().isOk())
+                                .andExpect(jsonPath("$[0].hashtag").value("java"))
+                                .andExpect(jsonPath("$[0].count").value(42));
+        }
+
+        @Test
+        void getTrendsRejectsInvalidWindow() throws Exception {
+                // Arrange
+                when(trendingHashtags.top(eq(90), anyInt()))
+                                .thenThrow(new IllegalArgumentException("The window must be between 1 and 60 minutes"));
+
+                // Act & Assert
+                mockMvc.perform(get("/trends").param("window", "90"))
+                                .andExpect(status().isBadRequest());
+                mockMvc.perform(get("/trends").param("limit", "0"))
+                                .andExpect(status().isBadRequest());
+                verify(trendingHashtags, never()).top(5, 0);
+        }
+}
@@ -1,9 +1,13 @@
 package com.example.twitter.controller;
 
+import com.example.twitter.dto.UserSuggestion;
 import com.example.twitter.model.User;
+import com.example.twitter.security.AuthenticatedUser;
 import com.example.twitter.services.UserService;
+import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
@@ -11,12 +15,20 @@ import org.springframework.http.MediaType;
 import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.security.web.method.annotation.AuthenticationPrincipalArgumentResolver;
 import org.springframework.test.web.servlet.MockMvc;
 import org.springframework.test.web.servlet.setup.MockMvcBuilders;
 
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
 import static org.mockito.Mockito.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
@@ -43,7 +55,18 @@ class UserControllerTest {
     @BeforeEach
     void setUp() {
         MockitoAnnotations.openMocks(this);
-        mockMvc = MockMvcBuilders.standaloneSetup(userController).build();
+        mockMvc = MockMvcBuilders.standaloneSetup(userController)
+                .setCustomArgumentResolvers(new AuthenticationPrincipalArgumentResolver())
+                .build();
+
+        // Lo que JwtAuthenticationFilter deja para un token válido
+        SecurityContextHolder.getContext().setAuthentication(UsernamePasswordAuthenticationToken
+                .authenticated(new AuthenticatedUser("user123", "ana"), null, List.of()));
+    }
+
+    @AfterEach
+    void tearDown() {
+        SecurityContextHolder.clearContext();
     }
 
     @Test
@@ -93,4 +116,72 @@ class UserControllerTest {
         verify(passwordEncoder, times(1)).encode(anyString());
         verify(userService, times(1)).registerUser(any(User.class));
     }
-} 
\ No newline at end of file
+
+    @Test
+    void registerIgnoresFollowersAndFollowing() throws Exception {
+        // Arrange
+        when(userService.registerUser(any(User.class))).thenAnswer(invocation -> invocation.getArgument(0));
+
+        // Act
+        mockMvc.perform(post("/register")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"username\":\"newuser\",\"password\":\"password123\","
+                        + "\"followerCount\":1000000,\"following\":[\"user456\"]}"))
+                .andExpect(status().isCreated());
+
+        // Assert
+        ArgumentCaptor<User> captor = ArgumentCaptor.forClass(User.class);
+        verify(userService).registerUser(captor.capture());
+        assertEquals(0, captor.getValue().getFollowerCount());
+        assertTrue(captor.getValue().getFollowing().isEmpty());
+    }
+
+    @Test
+    void followUsesAuthenticatedUser() throws Exception {
+        // Act & Assert
+        mockMvc.perform(post("/users/user456/follow").param("followerId", "someoneElse"))
+                .andExpect(status().isOk());
+        mockMvc.perform(delete("/users/user456/follow").param("followerId", "someoneElse"))
+                .andExpect(status().isOk());
+
+        verify(userService).follow("user123", "user456");
+        verify(userService).unfollow("user123", "user456");
+    }
+
+    @Test
+    void followRejectsInvalidUser() throws Exception {
+        // Arrange
+        doThrow(new IllegalArgumentException("No puedes seguirte a ti mismo"))
+                .when(userService).follow("user123", "user123");
+
+        // Act & Assert
+        mockMvc.perform(post("/users/user123/follow"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void suggestReturnsUsersForPrefix() throws Exception {
+        // Arrange
+        when(userService.suggestUsers("an", 10)).thenReturn(List.of(new UserSuggestion("andres", 50)));
+
+        // Act & Assert
+        mockMvc.perform(get("/users/suggest").param("prefix", "an"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].username").value("andres"))
+                .andExpect(jsonPath("$[0].followerCount").value(50));
+    }
+
+    @Test
+    void suggestRejectsInvalidPrefixAndWaitsForLoad() throws Exception {
+        // Arrange
+        when(userService.suggestUsers("", 10)).thenThrow(new IllegalArgumentException("prefijo vacío"));
+        when(userService.suggestUsers("an", 10)).thenThrow(new IllegalStateException("cargando"));
+
+        // Act & Assert
+        mockMvc.perform(get("/users/suggest").param("prefix", ""))
+                .andExpect(status().isBadRequest());
+        mockMvc.perform(get("/users/suggest").param("prefix", "an"))
+                .andExpect(status().isServiceUnavailable())
+                .andExpect(header().string("Retry-After", "5"));
+    }
+}
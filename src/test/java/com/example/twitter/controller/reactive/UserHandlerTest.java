@@ -0,0 +1,130 @@
+package com.example.twitter.controller.reactive;
+
+import com.example.twitter.model.User;
+import com.example.twitter.security.AuthenticatedUser;
+import com.example.twitter.services.UserService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.http.MediaType;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.ReactiveSecurityContextHolder;
+import org.springframework.test.web.reactive.server.WebTestClient;
+
+import java.util.List;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+class UserHandlerTest {
+
+    @Mock
+    private UserService userService;
+
+    private WebTestClient client;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        UserHandler handler = new UserHandler(userService);
+
+        // Lo que JwtSecurityContextRepository deja para un token válido
+        client = WebTestClient.bindToRouterFunction(new UserRouter().userRoutes(handler))
+                .webFilter((exchange, chain) -> chain.filter(exchange)
+                        .contextWrite(ReactiveSecurityContextHolder.withAuthentication(
+                                UsernamePasswordAuthenticationToken.authenticated(
+                                        new AuthenticatedUser("user123", "ana"), null, List.of()))))
+                .build();
+    }
+
+    @Test
+    void loginRunsOffTheEventLoop() {
+        // Arrange
+        AtomicReference<String> thread = new AtomicReference<>();
+        when(userService.authUser("ana", "secret")).thenAnswer(invocation -> {
+            thread.set(Thread.currentThread().getName());
+            return "token";
+        });
+
+        // Act & Assert
+        client.post().uri("/log-in")
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue("{\"username\":\"ana\",\"password\":\"secret\"}")
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody().jsonPath("$.session").isEqualTo("token");
+        assertTrue(thread.get().startsWith("boundedElastic"), thread.get());
+    }
+
+    @Test
+    void loginAnswersUnauthorizedOrBusy() {
+        // Arrange
+        when(userService.authUser("ana", "wrong")).thenThrow(new RuntimeException("Contraseña incorrecta"));
+        when(userService.authUser("ana", "busy")).thenThrow(new RejectedExecutionException());
+
+        // Act & Assert
+        client.post().uri("/log-in")
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue("{\"username\":\"ana\",\"password\":\"wrong\"}")
+                .exchange()
+                .expectStatus().isUnauthorized();
+        client.post().uri("/log-in")
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue("{\"username\":\"ana\",\"password\":\"busy\"}")
+                .exchange()
+                .expectStatus().isEqualTo(503)
+                .expectHeader().valueEquals("Retry-After", "1");
+    }
+
+    @Test
+    void registerReturnsCreatedUser() {
+        // Arrange
+        when(userService.registerUser(any(User.class))).thenAnswer(invocation -> {
+            User user = invocation.getArgument(0);
+            user.setId("user456");
+            return user;
+        });
+
+        // Act & Assert
+        client.post().uri("/register")
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue("{\"username\":\"newuser\",\"password\":\"password123\",\"followerCount\":1000}")
+                .exchange()
+                .expectStatus().isCreated()
+                .expectBody()
+                .jsonPath("$.id").isEqualTo("user456")
+                .jsonPath("$.followerCount").isEqualTo(0);
+    }
+
+    @Test
+    void followUsesAuthenticatedUser() {
+        // Arrange
+        doThrow(new IllegalArgumentException("No puedes seguirte a ti mismo"))
+                .when(userService).follow("user123", "user123");
+
+        // Act & Assert
+        client.post().uri("/users/user456/follow").exchange().expectStatus().isOk();
+        client.delete().uri("/users/user456/follow").exchange().expectStatus().isOk();
+        client.post().uri("/users/user123/follow").exchange().expectStatus().isBadRequest();
+
+        verify(userService).follow("user123", "user456");
+        verify(userService).unfollow("user123", "user456");
+    }
+
+    @Test
+    void suggestRejectsInvalidPrefixAndWaitsForLoad() {
+        // Arrange
+        when(userService.suggestUsers("", 10)).thenThrow(new IllegalArgumentException("prefijo vacío"));
+        when(userService.suggestUsers("an", 10)).thenThrow(new IllegalStateException("cargando"));
+
+        // Act & Assert
+        client.get().uri("/users/suggest?prefix=").exchange().expectStatus().isBadRequest();
+        client.get().uri("/users/suggest?prefix=an").exchange()
+                .expectStatus().isEqualTo(503)
+                .expectHeader().valueEquals("Retry-After", "5");
+    }
+}
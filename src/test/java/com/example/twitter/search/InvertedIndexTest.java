@@ -0,0 +1,156 @@
+package com.example.twitter.search;
+
+import org.bson.types.ObjectId;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class InvertedIndexTest {
+
+    private InvertedIndex index;
+
+    @BeforeEach
+    void setUp() {
+        index = new InvertedIndex();
+    }
+
+    @Test
+    void searchMatchesEveryTermNewestFirst() {
+        // Arrange
+        String first = add("Hola mundo");
+        add("Hola a todos");
+        String third = add("El mundo dice hola");
+
+        // Act
+        List<String> result = index.search("hola mundo", 10);
+
+        // Assert
+        assertEquals(List.of(third, first), result);
+    }
+
+    @Test
+    void searchStopsAtLimit() {
+        // Arrange
+        List<String> ids = new ArrayList<>();
+        for (int i = 0; i < 1000; i++) {
+            ids.add(add(i % 3 == 0 ? "partido de futbol " + i : "otro tema " + i));
+        }
+
+        // Act
+        List<String> result = index.search("futbol partido", 5);
+
+        // Assert: los cinco más recientes múltiplos de 3
+        assertEquals(List.of(ids.get(999), ids.get(996), ids.get(993), ids.get(990), ids.get(987)), result);
+    }
+
+    @Test
+    void searchWalksSeveralBlocks() {
+        // Arrange: términos intercalados en más de un bloque de cada lista
+        List<String> both = new ArrayList<>();
+        for (int i = 0; i < 5 * PostingList.BLOCK_SIZE; i++) {
+            String content = (i % 2 == 0 ? "par " : "") + (i % 5 == 0 ? "cinco" : "");
+            String id = add(content);
+            if (i % 10 == 0) {
+                both.add(0, id);
+            }
+        }
+
+        // Act
+        List<String> result = index.search("cinco par", 1000);
+
+        // Assert
+        assertEquals(both, result);
+    }
+
+    @Test
+    void searchMatchesPrefixes() {
+        // Arrange
+        String first = add("Mundial de futbol");
+        add("Hola a todos");
+        String third = add("Todo el mundo");
+
+        // Act
+        List<String> result = index.search("mund*", 10);
+
+        // Assert
+        assertEquals(List.of(third, first), result);
+    }
+
+    @Test
+    void searchIgnoresCaseAndAccents() {
+        // Arrange
+        String id = add("Nueva CANCIÓN de Año Nuevo");
+
+        // Act & Assert
+        assertEquals(List.of(id), index.search("cancion año", 10));
+        assertEquals(List.of(id), index.search("Canción ANO", 10));
+    }
+
+    @Test
+    void searchReturnsNothingForUnknownTerm() {
+        // Arrange
+        add("Hola mundo");
+
+        // Act & Assert
+        assertTrue(index.search("hola desconocido", 10).isEmpty());
+        assertTrue(index.search("zz*", 10).isEmpty());
+    }
+
+    @Test
+    void searchRejectsInvalidQueries() {
+        // Act & Assert
+        assertThrows(IllegalArgumentException.class, () -> index.search("  ¡! ", 10));
+        assertThrows(IllegalArgumentException.class, () -> index.search("h*", 10));
+        assertThrows(IllegalArgumentException.class, () -> index.search("a b c d e f g h i", 10));
+        assertThrows(IllegalArgumentException.class, () -> index.search("ho* mu*", 10));
+    }
+
+    @Test
+    void removedPostsAreNotReturned() {
+        // Arrange
+        String first = add("Hola mundo");
+        String second = add("Hola de nuevo");
+
+        // Act
+        boolean removed = index.remove(second);
+
+        // Assert
+        assertTrue(removed);
+        assertFalse(index.remove(second));
+        assertEquals(List.of(first), index.search("hola", 10));
+        assertEquals(1, index.size());
+    }
+
+    @Test
+    void addIgnoresDuplicatesAndInvalidIds() {
+        // Arrange
+        String id = add("Hola mundo");
+
+        // Act & Assert
+        assertFalse(index.add(id, "Hola otra vez"));
+        assertFalse(index.add("no-es-un-objectid", "Hola"));
+        assertEquals(1, index.size());
+        assertEquals(List.of(id), index.search("hola", 10));
+    }
+
+    @Test
+    void termsSplitsOnAnythingButLettersAndDigits() {
+        // Act & Assert
+        assertEquals(Set.of("hola", "mundo", "2024", "que", "tal"),
+                InvertedIndex.terms("¡Hola, mundo! #2024 ¿Qué tal?"));
+    }
+
+    private String add(String content) {
+        String id = new ObjectId().toHexString();
+        assertTrue(index.add(id, content));
+        return id;
+    }
+}
@@ -0,0 +1,138 @@
+package com.example.twitter.search;
+
+import com.example.twitter.events.PostCreatedEvent;
+import com.example.twitter.events.PostDeletedEvent;
+import com.example.twitter.model.Post;
+import com.example.twitter.repository.PostRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.bson.types.ObjectId;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class PostSearchIndexTest {
+
+    @Mock
+    private PostRepository postRepository;
+
+    private PostSearchIndex searchIndex;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        searchIndex = new PostSearchIndex(postRepository, new SimpleMeterRegistry(), Duration.ofSeconds(30), 0.25);
+    }
+
+    @Test
+    void searchFailsUntilIndexIsBuilt() {
+        // Act & Assert
+        assertFalse(searchIndex.isReady());
+        assertThrows(IllegalStateException.class, () -> searchIndex.search("hola", 10));
+    }
+
+    @Test
+    void rebuildLoadsPostsFromRepository() {
+        // Arrange
+        Post first = post("Hola mundo");
+        Post second = post("Adiós mundo");
+        when(postRepository.streamForSearchIndex()).thenReturn(Stream.of(first, second));
+
+        // Act
+        searchIndex.rebuild();
+
+        // Assert
+        assertTrue(searchIndex.isReady());
+        assertEquals(List.of(second.getId(), first.getId()), searchIndex.search("mundo", 10));
+    }
+
+    @Test
+    void eventsDuringRebuildAreKeptInNewIndex() {
+        // Arrange: se crea un post y se borra otro mientras se lee la base de datos
+        Post stored = post("Hola mundo");
+        Post deleted = post("Hola a todos");
+        Post created = post("Hola de nuevo");
+        when(postRepository.streamForSearchIndex()).thenReturn(Stream.of(stored, deleted)
+                .peek(post -> {
+                    if (post == deleted) {
+                        searchIndex.onPostCreated(new PostCreatedEvent(created));
+                        searchIndex.onPostDeleted(new PostDeletedEvent(deleted.getId()));
+                    }
+                }));
+
+        // Act
+        searchIndex.rebuild();
+
+        // Assert
+        assertEquals(List.of(created.getId(), stored.getId()), searchIndex.search("hola", 10));
+    }
+
+    @Test
+    void failedRebuildKeepsIndexNotReady() {
+        // Arrange
+        when(postRepository.streamForSearchIndex()).thenThrow(new IllegalStateException("Mongo down"));
+
+        // Act
+        boolean rebuilt = searchIndex.rebuild();
+
+        // Assert
+        assertFalse(rebuilt);
+        assertFalse(searchIndex.isReady());
+    }
+
+    @Test
+    void compactRebuildsOnceRemovedPostsPileUp() {
+        // Arrange: se borra la mitad de los posts, por encima del 25 %
+        Post first = post("Hola mundo");
+        Post second = post("Hola a todos");
+        Post third = post("Hola de nuevo");
+        Post fourth = post("Adiós mundo");
+        when(postRepository.streamForSearchIndex())
+                .thenReturn(Stream.of(first, second, third, fourth))
+                .thenReturn(Stream.of(first, fourth));
+        searchIndex.rebuild();
+        searchIndex.onPostDeleted(new PostDeletedEvent(second.getId()));
+        searchIndex.onPostDeleted(new PostDeletedEvent(third.getId()));
+
+        // Act
+        searchIndex.compactIfNeeded();
+
+        // Assert
+        verify(postRepository, times(2)).streamForSearchIndex();
+        assertEquals(List.of(fourth.getId(), first.getId()), searchIndex.search("mundo", 10));
+        assertEquals(List.of(first.getId()), searchIndex.search("hola", 10));
+    }
+
+    @Test
+    void compactSkipsRebuildBelowRatio() {
+        // Arrange: uno de cinco posts borrado, por debajo del 25 %
+        List<Post> posts = List.of(post("uno"), post("dos"), post("tres"), post("cuatro"), post("cinco"));
+        when(postRepository.streamForSearchIndex()).thenReturn(posts.stream());
+        searchIndex.rebuild();
+        searchIndex.onPostDeleted(new PostDeletedEvent(posts.get(0).getId()));
+
+        // Act
+        searchIndex.compactIfNeeded();
+
+        // Assert
+        verify(postRepository, times(1)).streamForSearchIndex();
+    }
+
+    private static Post post(String content) {
+        Post post = new Post("user1", content);
+        post.setId(new ObjectId().toHexString());
+        return post;
+    }
+}
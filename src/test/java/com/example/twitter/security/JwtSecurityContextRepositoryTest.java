@@ -0,0 +1,74 @@
+package com.example.twitter.security;
+
+import com.example.twitter.services.JWTService;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.Jwts;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.mock.http.server.reactive.MockServerHttpRequest;
+import org.springframework.mock.web.server.MockServerWebExchange;
+import reactor.test.StepVerifier;
+
+import java.util.Map;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+class JwtSecurityContextRepositoryTest {
+
+    @Mock
+    private JWTService jwtService;
+
+    private JwtSecurityContextRepository repository;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        repository = new JwtSecurityContextRepository(jwtService);
+    }
+
+    @Test
+    void validTokenBecomesPrincipal() {
+        // Arrange
+        Claims claims = Jwts.claims().add(Map.of("userID", "user123", "username", "ana")).build();
+        when(jwtService.parse("token")).thenReturn(Optional.of(claims));
+        MockServerWebExchange exchange = MockServerWebExchange.from(MockServerHttpRequest.post("/posts/create")
+                .header("Authorization", "Bearer token"));
+
+        // Act & Assert
+        StepVerifier.create(repository.load(exchange))
+                .assertNext(context -> {
+                    AuthenticatedUser user = (AuthenticatedUser) context.getAuthentication().getPrincipal();
+                    assertTrue(context.getAuthentication().isAuthenticated());
+                    assertEquals("user123", user.getUserId());
+                    assertEquals("ana", user.getUsername());
+                })
+                .verifyComplete();
+    }
+
+    @Test
+    void invalidTokenLeavesExchangeAnonymous() {
+        // Arrange
+        when(jwtService.parse(anyString())).thenReturn(Optional.empty());
+        MockServerWebExchange exchange = MockServerWebExchange.from(MockServerHttpRequest.post("/posts/create")
+                .header("Authorization", "Bearer forged"));
+
+        // Act & Assert
+        StepVerifier.create(repository.load(exchange)).verifyComplete();
+    }
+
+    @Test
+    void exchangeWithoutBearerTokenIsNotParsed() {
+        // Arrange
+        MockServerWebExchange exchange = MockServerWebExchange.from(MockServerHttpRequest.get("/posts/feed")
+                .header("Authorization", "Basic dXNlcjpwYXNz"));
+
+        // Act & Assert
+        StepVerifier.create(repository.load(exchange)).verifyComplete();
+        verifyNoInteractions(jwtService);
+    }
+}
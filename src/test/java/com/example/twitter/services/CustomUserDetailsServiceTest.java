@@ -2,15 +2,23 @@ package com.example.twitter.services;
 
 import com.example.twitter.model.User;
 import com.example.twitter.repository.UserRepository;
+import com.example.twitter.events.UserRegisteredEvent;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
-import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
+import org.springframework.security.authentication.ProviderManager;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.authentication.dao.DaoAuthenticationProvider;
+import org.springframework.security.core.Authentication;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
 
+import java.time.Duration;
 import java.util.Optional;
+import java.util.concurrent.TimeUnit;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.Mockito.*;
@@ -20,12 +28,14 @@ class CustomUserDetailsServiceTest {
     @Mock
     private UserRepository userRepository;
 
-    @InjectMocks
+    private long nanos;
     private CustomUserDetailsService userDetailsService;
 
     @BeforeEach
     void setUp() {
         MockitoAnnotations.openMocks(this);
+        userDetailsService = new CustomUserDetailsService(userRepository, new SimpleMeterRegistry(), 100,
+                Duration.ofMinutes(5), Duration.ofSeconds(10), () -> nanos);
     }
 
     @Test
@@ -50,4 +60,71 @@ class CustomUserDetailsServiceTest {
         verify(userRepository, times(1)).findByUsername(username);
     }
 
-} 
\ No newline at end of file
+    @Test
+    void loadUserByUsernameIsCached() {
+        // Arrange
+        when(userRepository.findByUsername("testuser"))
+                .thenReturn(Optional.of(new User("user123", "testuser", "password123")));
+
+        // Act
+        UserDetails first = userDetailsService.loadUserByUsername("testuser");
+        UserDetails second = userDetailsService.loadUserByUsername("testuser");
+
+        // Assert
+        assertSame(first, second);
+        verify(userRepository, times(1)).findByUsername("testuser");
+    }
+
+    @Test
+    void unknownUsernameIsCachedForTheNegativeTtl() {
+        // Arrange
+        when(userRepository.findByUsername("nadie")).thenReturn(Optional.empty());
+
+        // Act & Assert: el segundo intento no consulta MongoDB
+        assertThrows(UsernameNotFoundException.class, () -> userDetailsService.loadUserByUsername("nadie"));
+        assertThrows(UsernameNotFoundException.class, () -> userDetailsService.loadUserByUsername("nadie"));
+        verify(userRepository, times(1)).findByUsername("nadie");
+
+        nanos += TimeUnit.SECONDS.toNanos(11);
+        assertThrows(UsernameNotFoundException.class, () -> userDetailsService.loadUserByUsername("nadie"));
+        verify(userRepository, times(2)).findByUsername("nadie");
+    }
+
+    @Test
+    void registrationDropsTheNegativeEntry() {
+        // Arrange
+        User user = new User("user123", "nuevo", "password123");
+        when(userRepository.findByUsername("nuevo")).thenReturn(Optional.empty());
+        assertThrows(UsernameNotFoundException.class, () -> userDetailsService.loadUserByUsername("nuevo"));
+        when(userRepository.findByUsername("nuevo")).thenReturn(Optional.of(user));
+
+        // Act
+        userDetailsService.onUserRegistered(new UserRegisteredEvent(user));
+
+        // Assert
+        assertEquals("password123", userDetailsService.loadUserByUsername("nuevo").getPassword());
+    }
+
+    @Test
+    void cachedPasswordSurvivesCredentialErasure() {
+        // Arrange
+        BCryptPasswordEncoder passwordEncoder = new BCryptPasswordEncoder(4);
+        when(userRepository.findByUsername("testuser"))
+                .thenReturn(Optional.of(new User("user123", "testuser", passwordEncoder.encode("password123"))));
+        DaoAuthenticationProvider provider = new DaoAuthenticationProvider();
+        provider.setUserDetailsService(userDetailsService);
+        provider.setPasswordEncoder(passwordEncoder);
+        ProviderManager authenticationManager = new ProviderManager(provider);
+
+        // Act: el ProviderManager borra las credenciales tras cada autenticación
+        Authentication first = authenticationManager
+                .authenticate(new UsernamePasswordAuthenticationToken("testuser", "password123"));
+        Authentication second = authenticationManager
+                .authenticate(new UsernamePasswordAuthenticationToken("testuser", "password123"));
+
+        // Assert
+        assertTrue(first.isAuthenticated());
+        assertTrue(second.isAuthenticated());
+        verify(userRepository, times(1)).findByUsername("testuser");
+    }
+}
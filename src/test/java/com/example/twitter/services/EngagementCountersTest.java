@@ -0,0 +1,182 @@
+package com.example.twitter.services;
+
+import com.example.twitter.cache.PostCache;
+import com.example.twitter.dto.CounterDelta;
+import com.example.twitter.repository.PostRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.dao.DataAccessResourceFailureException;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyMap;
+import static org.mockito.Mockito.*;
+
+class EngagementCountersTest {
+
+    @Mock
+    private PostRepository postRepository;
+
+    @Mock
+    private PostCache postCache;
+
+    private EngagementCounters engagementCounters;
+    private final List<Map<String, CounterDelta>> flushes = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        engagementCounters = new EngagementCounters(postRepository, postCache, new SimpleMeterRegistry());
+        doAnswer(invocation -> {
+            flushes.add(Map.copyOf(invocation.<Map<String, CounterDelta>>getArgument(0)));
+            return null;
+        }).when(postRepository).incrementCounters(anyMap());
+    }
+
+    @Test
+    void flushWritesAllIncrementsInOneBulkWrite() {
+        // Arrange
+        engagementCounters.liked("post1");
+        engagementCounters.liked("post1");
+        engagementCounters.replyAdded("post1");
+        engagementCounters.liked("post2");
+
+        // Act
+        engagementCounters.flush();
+
+        // Assert
+        assertEquals(1, flushes.size());
+        assertEquals(1, flushes.get(0).get("post1").getReplies());
+        assertEquals(2, flushes.get(0).get("post1").getLikes());
+        assertEquals(1, flushes.get(0).get("post2").getLikes());
+        verify(postCache).postsUpdated(flushes.get(0).keySet());
+    }
+
+    @Test
+    void flushWithoutIncrementsWritesNothing() {
+        // Arrange
+        engagementCounters.replyAdded("post1");
+        engagementCounters.replyRemoved("post1");
+
+        // Act
+        engagementCounters.flush();
+        engagementCounters.flush();
+
+        // Assert
+        verify(postRepository, never()).incrementCounters(anyMap());
+    }
+
+    @Test
+    void failedFlushIsRetriedWithNewIncrements() {
+        // Arrange
+        engagementCounters.liked("post1");
+        doThrow(new DataAccessResourceFailureException("Mongo unavailable"))
+                .when(postRepository).incrementCounters(anyMap());
+        engagementCounters.flush();
+        doAnswer(invocation -> {
+            flushes.add(Map.copyOf(invocation.<Map<String, CounterDelta>>getArgument(0)));
+            return null;
+        }).when(postRepository).incrementCounters(anyMap());
+        engagementCounters.liked("post1");
+
+        // Act
+        engagementCounters.flush();
+
+        // Assert
+        assertEquals(2, flushes.get(0).get("post1").getLikes());
+    }
+
+    @Test
+    void concurrentIncrementsAreNotLostAcrossFlushes() throws Exception {
+        // Arrange
+        int threads = 8;
+        int likesPerThread = 50_000;
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        CountDownLatch done = new CountDownLatch(threads);
+        AtomicBoolean running = new AtomicBoolean(true);
+
+        // Act: se vuelca continuamente mientras los hilos incrementan
+        for (int i = 0; i < threads; i++) {
+            executor.execute(() -> {
+                for (int j = 0; j < likesPerThread; j++) {
+                    engagementCounters.liked("viral");
+                }
+                done.countDown();
+            });
+        }
+        java.lang.Thread flusher = new java.lang.Thread(() -> {
+            while (running.get()) {
+                engagementCounters.flush();
+            }
+        });
+        flusher.start();
+        assertTrue(done.await(30, TimeUnit.SECONDS));
+        running.set(false);
+        flusher.join();
+        executor.shutdown();
+        engagementCounters.flush();
+        engagementCounters.flush();
+
+        // Assert
+        Map<String, Long> totals = new HashMap<>();
+        for (Map<String, CounterDelta> flush : flushes) {
+            flush.forEach((id, delta) -> totals.merge(id, delta.getLikes(), Long::sum));
+        }
+        assertEquals((long) threads * likesPerThread, totals.get("viral"));
+    }
+
+    @Test
+    void incrementsOnRetiredEntriesAreNotLost() throws Exception {
+        // Arrange: sin tiempo de inactividad, cada volcado retira las entradas sin incrementos
+        engagementCounters = new EngagementCounters(postRepository, postCache, new SimpleMeterRegistry(),
+                Duration.ZERO);
+        int threads = 4;
+        int likesPerThread = 50_000;
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        CountDownLatch done = new CountDownLatch(threads);
+        AtomicBoolean running = new AtomicBoolean(true);
+
+        // Act: likes repartidos entre muchos posts mientras se vuelca continuamente
+        for (int i = 0; i < threads; i++) {
+            executor.execute(() -> {
+                for (int j = 0; j < likesPerThread; j++) {
+                    engagementCounters.liked("post" + ThreadLocalRandom.current().nextInt(1_000));
+                }
+                done.countDown();
+            });
+        }
+        java.lang.Thread flusher = new java.lang.Thread(() -> {
+            while (running.get()) {
+                engagementCounters.flush();
+            }
+        });
+        flusher.start();
+        assertTrue(done.await(30, TimeUnit.SECONDS));
+        running.set(false);
+        flusher.join();
+        executor.shutdown();
+        engagementCounters.flush();
+        engagementCounters.flush();
+
+        // Assert
+        long total = flushes.stream()
+                .flatMap(flush -> flush.values().stream())
+                .mapToLong(CounterDelta::getLikes)
+                .sum();
+        assertEquals((long) threads * likesPerThread, total);
+    }
+}
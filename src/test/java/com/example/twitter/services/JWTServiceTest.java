@@ -0,0 +1,132 @@
+package com.example.twitter.services;
+
+import io.jsonwebtoken.Claims;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.EnumSource;
+
+import java.security.Key;
+import java.security.KeyPair;
+import java.security.KeyPairGenerator;
+import java.security.spec.ECGenParameterSpec;
+import java.time.Duration;
+import java.util.Base64;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class JWTServiceTest {
+
+    private JWTService jwtService;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        KeyPairGenerator generator = KeyPairGenerator.getInstance("RSA");
+        generator.initialize(2048);
+        KeyPair keyPair = generator.generateKeyPair();
+
+        jwtService = new JWTService("RS256",
+                Base64.getEncoder().encodeToString(keyPair.getPrivate().getEncoded()),
+                Base64.getEncoder().encodeToString(keyPair.getPublic().getEncoded()),
+                100,
+                Duration.ofMinutes(15));
+    }
+
+    @Test
+    void verifySignedToken() {
+        // Arrange
+        String token = jwtService.sign("user123", "testuser");
+
+        // Act & Assert
+        assertTrue(jwtService.verify(token));
+        assertTrue(jwtService.verify(token)); // servido desde la caché
+    }
+
+    @Test
+    void verifyRejectsTamperedToken() {
+        // Arrange
+        String token = jwtService.sign("user123", "testuser");
+        assertTrue(jwtService.verify(token));
+
+        // Act: cambiar la firma invalida el token aunque el original esté en caché
+        String tampered = token.substring(0, token.length() - 4) + "AAAA";
+
+        // Assert
+        assertFalse(jwtService.verify(tampered));
+        assertFalse(jwtService.verify("not-a-token"));
+    }
+
+    @Test
+    void parseReturnsClaimsOfSignedToken() {
+        // Arrange
+        String token = jwtService.sign("user123", "testuser");
+
+        // Act
+        Claims claims = jwtService.parse(token).orElseThrow();
+        Claims cached = jwtService.parse(token).orElseThrow();
+
+        // Assert
+        assertEquals("user123", claims.get("userID"));
+        assertEquals("testuser", claims.get("username"));
+        assertSame(claims, cached);
+        assertTrue(jwtService.parse("not-a-token").isEmpty());
+    }
+
+    @ParameterizedTest
+    @EnumSource(JWTService.Algorithm.class)
+    void everyAlgorithmSignsAndVerifies(JWTService.Algorithm algorithm) throws Exception {
+        // Arrange
+        KeyPair keyPair = keyPair(algorithm);
+        JWTService service = new JWTService(algorithm.name().toLowerCase(), encode(keyPair.getPrivate()),
+                encode(keyPair.getPublic()), 0, Duration.ofMinutes(15));
+
+        // Act
+        String token = service.sign("user123", "testuser");
+
+        // Assert
+        assertEquals(algorithm, service.getAlgorithm());
+        assertEquals("user123", service.parse(token).orElseThrow().get("userID"));
+    }
+
+    @Test
+    void tokenOfAnotherAlgorithmIsRejected() throws Exception {
+        // Arrange
+        KeyPair keyPair = keyPair(JWTService.Algorithm.ES256);
+        JWTService es256 = new JWTService("ES256", encode(keyPair.getPrivate()), encode(keyPair.getPublic()), 0,
+                Duration.ofMinutes(15));
+
+        // Act & Assert
+        assertFalse(jwtService.verify(es256.sign("user123", "testuser")));
+        assertFalse(es256.verify(jwtService.sign("user123", "testuser")));
+    }
+
+    @Test
+    void constructorRejectsKeysThatDoNotMatch() throws Exception {
+        // Arrange
+        String privateKey = encode(keyPair(JWTService.Algorithm.EdDSA).getPrivate());
+        String otherPublicKey = encode(keyPair(JWTService.Algorithm.EdDSA).getPublic());
+        String rsaPublicKey = encode(keyPair(JWTService.Algorithm.RS256).getPublic());
+
+        // Act & Assert
+        assertThrows(IllegalStateException.class,
+                () -> new JWTService("EdDSA", privateKey, otherPublicKey, 0, Duration.ofMinutes(15)));
+        assertThrows(RuntimeException.class,
+                () -> new JWTService("EdDSA", privateKey, rsaPublicKey, 0, Duration.ofMinutes(15)));
+        assertThrows(IllegalArgumentException.class,
+                () -> new JWTService("HS256", privateKey, otherPublicKey, 0, Duration.ofMinutes(15)));
+    }
+
+    private static KeyPair keyPair(JWTService.Algorithm algorithm) throws Exception {
+        KeyPairGenerator generator = KeyPairGenerator.getInstance(algorithm.getKeyAlgorithm());
+        if (algorithm == JWTService.Algorithm.RS256) {
+            generator.initialize(2048);
+        } else if (algorithm == JWTService.Algorithm.ES256) {
+            generator.initialize(new ECGenParameterSpec("secp256r1"));
+        }
+        return generator.generateKeyPair();
+    }
+
+    private static String encode(Key key) {
+        return Base64.getEncoder().encodeToString(key.getEncoded());
+    }
+}
@@ -0,0 +1,176 @@
+package com.example.twitter.services;
+
+import com.example.twitter.model.Post;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BooleanSupplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PostBroadcasterTest {
+    private static final Duration TIMEOUT = Duration.ofSeconds(5);
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private PostBroadcaster broadcaster;
+
+    @AfterEach
+    void tearDown() {
+        broadcaster.shutdown();
+    }
+
+    @Test
+    void deliversPostsInOrder() throws Exception {
+        // Arrange
+        broadcaster = new PostBroadcaster(meterRegistry, 2, 32, TIMEOUT);
+        List<String> received = new CopyOnWriteArrayList<>();
+        CountDownLatch delivered = new CountDownLatch(3);
+        broadcaster.subscribe(post -> {
+            received.add(post.getId());
+            delivered.countDown();
+        });
+
+        // Act
+        broadcaster.publish(post("1"));
+        broadcaster.publish(post("2"));
+        broadcaster.publish(post("3"));
+
+        // Assert
+        assertTrue(delivered.await(5, TimeUnit.SECONDS));
+        assertEquals(List.of("1", "2", "3"), received);
+    }
+
+    @Test
+    void slowSubscriberDropsOldestPosts() throws Exception {
+        // Arrange: el primer envío queda bloqueado y el buffer admite 2 posts
+        broadcaster = new PostBroadcaster(meterRegistry, 1, 2, TIMEOUT);
+        CountDownLatch sending = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        CountDownLatch delivered = new CountDownLatch(3);
+        List<String> received = new CopyOnWriteArrayList<>();
+        broadcaster.subscribe(post -> {
+            sending.countDown();
+            awaitQuietly(release);
+            received.add(post.getId());
+            delivered.countDown();
+        });
+
+        // Act
+        broadcaster.publish(post("1"));
+        assertTrue(sending.await(5, TimeUnit.SECONDS));
+        for (int i = 2; i <= 5; i++) {
+            broadcaster.publish(post(String.valueOf(i)));
+        }
+        release.countDown();
+
+        // Assert
+        assertTrue(delivered.await(5, TimeUnit.SECONDS));
+        assertEquals(List.of("1", "4", "5"), received);
+        assertEquals(2, meterRegistry.get("posts.stream.dropped").counter().count());
+    }
+
+    @Test
+    void failingSinkIsUnsubscribed() throws Exception {
+        // Arrange
+        broadcaster = new PostBroadcaster(meterRegistry, 1, 32, TIMEOUT);
+        CountDownLatch failed = new CountDownLatch(1);
+        PostBroadcaster.Subscription subscription = broadcaster.subscribe(post -> {
+            failed.countDown();
+            throw new IOException("Broken pipe");
+        });
+
+        // Act
+        broadcaster.publish(post("1"));
+
+        // Assert
+        assertTrue(failed.await(5, TimeUnit.SECONDS));
+        waitUntil(subscription::isCancelled);
+        assertEquals(0, broadcaster.getSubscriberCount());
+    }
+
+    @Test
+    void blockedSendDropsSubscriberWithoutGrowingThePool() throws Exception {
+        // Arrange: un solo hilo de envío y un cliente que deja de leer
+        broadcaster = new PostBroadcaster(meterRegistry, 1, 32, Duration.ofMillis(50));
+        CountDownLatch sending = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        CountDownLatch closed = new CountDownLatch(1);
+        List<String> slowReceived = new CopyOnWriteArrayList<>();
+        PostBroadcaster.Subscription slow = broadcaster.subscribe(new PostBroadcaster.Sink() {
+            @Override
+            public void send(Post post) {
+                slowReceived.add(post.getId());
+                sending.countDown();
+                awaitQuietly(release);
+            }
+
+            @Override
+            public void close() {
+                closed.countDown();
+            }
+        });
+        broadcaster.publish(post("1"));
+        assertTrue(sending.await(5, TimeUnit.SECONDS));
+        CountDownLatch delivered = new CountDownLatch(1);
+        broadcaster.subscribe(post -> delivered.countDown());
+
+        // Act
+        broadcaster.publish(post("2"));
+        Thread.sleep(100);
+        broadcaster.dropSlowSubscribers();
+
+        // Assert: no se crea otro hilo; el único sigue bloqueado hasta que el envío falla o vuelve
+        assertTrue(slow.isCancelled());
+        assertEquals(1, broadcaster.getSubscriberCount());
+        assertEquals(1, meterRegistry.get("posts.stream.slow").counter().count());
+        assertFalse(delivered.await(200, TimeUnit.MILLISECONDS));
+        release.countDown();
+        assertTrue(closed.await(5, TimeUnit.SECONDS));
+        assertTrue(delivered.await(5, TimeUnit.SECONDS));
+        assertEquals(List.of("1"), slowReceived);
+    }
+
+    @Test
+    void cancelledSubscriberReceivesNothing() {
+        // Arrange
+        broadcaster = new PostBroadcaster(meterRegistry, 1, 32, TIMEOUT);
+        List<String> received = new CopyOnWriteArrayList<>();
+        broadcaster.subscribe(post -> received.add(post.getId())).cancel();
+
+        // Act
+        broadcaster.publish(post("1"));
+
+        // Assert
+        assertEquals(0, broadcaster.getSubscriberCount());
+        assertTrue(received.isEmpty());
+    }
+
+    private static Post post(String id) {
+        Post post = new Post("user1", "Post " + id);
+        post.setId(id);
+        return post;
+    }
+
+    private static void awaitQuietly(CountDownLatch latch) {
+        try {
+            latch.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static void waitUntil(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (!condition.getAsBoolean() && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+        }
+        assertTrue(condition.getAsBoolean());
+    }
+}
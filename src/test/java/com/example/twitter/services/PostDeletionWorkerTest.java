@@ -0,0 +1,164 @@
+package com.example.twitter.services;
+
+import com.example.twitter.cache.PostCache;
+import com.example.twitter.events.PostDeletedEvent;
+import com.example.twitter.model.Post;
+import com.example.twitter.repository.PostLikeRepository;
+import com.example.twitter.repository.PostRepository;
+import com.example.twitter.repository.ThreadRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.InOrder;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.context.ApplicationEventPublisher;
+
+import java.time.Duration;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+class PostDeletionWorkerTest {
+
+    @Mock
+    private PostRepository postRepository;
+
+    @Mock
+    private ThreadRepository threadRepository;
+
+    @Mock
+    private PostLikeRepository likeRepository;
+
+    @Mock
+    private PostCache postCache;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private PostDeletionWorker deletionWorker;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+    }
+
+    @AfterEach
+    void tearDown() throws InterruptedException {
+        if (deletionWorker != null) {
+            deletionWorker.shutdown();
+        }
+    }
+
+    @Test
+    void replySubtreeIsMarkedBeforeParentsAreDeleted() {
+        // Arrange: lotes de 2, así que las respuestas de "reply1" llegan en dos consultas
+        deletionWorker = worker(2, Duration.ofMinutes(10));
+        Post reply = post("reply1", "post1", "thread1");
+        when(postRepository.markRepliesDeleted(List.of("reply1"), 2))
+                .thenReturn(List.of(post("r2", "reply1", "thread1"), post("r3", "reply1", "thread1")))
+                .thenReturn(List.of(post("r4", "reply1", "thread1")));
+
+        // Act
+        deletionWorker.cleanUp(reply);
+
+        // Assert
+        InOrder inOrder = inOrder(postRepository);
+        inOrder.verify(postRepository, times(2)).markRepliesDeleted(List.of("reply1"), 2);
+        inOrder.verify(postRepository).deleteAllById(List.of("reply1"));
+        inOrder.verify(postRepository).markRepliesDeleted(List.of("r2", "r3"), 2);
+        inOrder.verify(postRepository).deleteAllById(List.of("r2", "r3"));
+        inOrder.verify(postRepository).markRepliesDeleted(List.of("r4"), 2);
+        inOrder.verify(postRepository).deleteAllById(List.of("r4"));
+        verify(threadRepository).removePosts("thread1", List.of("r2", "r3"));
+        verify(postCache).postDeleted("r4", null);
+        verify(eventPublisher, times(4)).publishEvent(any(PostDeletedEvent.class));
+        verify(threadRepository, never()).deleteById(anyString());
+        assertEquals(4.0, meterRegistry.counter("posts.deletion.removed").count());
+    }
+
+    @Test
+    void threadRootDeletesWholeThreadInBatches() {
+        // Arrange
+        deletionWorker = worker(2, Duration.ofMinutes(10));
+        Post root = post("post1", null, "thread1");
+        when(postRepository.deleteBatchByThreadId("thread1", "post1", 2))
+                .thenReturn(List.of("r1", "r2"))
+                .thenReturn(List.of("r3"));
+
+        // Act
+        deletionWorker.cleanUp(root);
+
+        // Assert: el post raíz se borra el último
+        InOrder inOrder = inOrder(postRepository, threadRepository);
+        inOrder.verify(postRepository, times(2)).deleteBatchByThreadId("thread1", "post1", 2);
+        inOrder.verify(threadRepository).deleteById("thread1");
+        inOrder.verify(postRepository).deleteById("post1");
+        verify(likeRepository).deleteByPostIdIn(List.of("r1", "r2"));
+        verify(likeRepository).deleteByPostIdIn(List.of("post1"));
+        verify(postRepository, never()).markRepliesDeleted(anyCollection(), anyInt());
+        assertEquals(4.0, meterRegistry.counter("posts.deletion.removed").count());
+    }
+
+    @Test
+    void submittedPostIsCleanedUpInBackground() {
+        // Arrange
+        deletionWorker = worker(100, Duration.ofMinutes(10));
+
+        // Act
+        deletionWorker.submit(post("reply1", "post1", "thread1"));
+
+        // Assert
+        verify(postRepository, timeout(5000)).deleteAllById(List.of("reply1"));
+    }
+
+    @Test
+    void sweepResumesUnfinishedTombstones() {
+        // Arrange: un tombstone que quedó de un reinicio
+        when(postRepository.findDeleted(100))
+                .thenReturn(List.of(post("reply1", "post1", "thread1")))
+                .thenReturn(List.of());
+
+        // Act
+        deletionWorker = worker(100, Duration.ofMillis(20));
+
+        // Assert
+        verify(postRepository, timeout(5000)).deleteAllById(List.of("reply1"));
+    }
+
+    @Test
+    void failedCleanupIsRetriedBySweep() {
+        // Arrange
+        Post reply = post("reply1", "post1", "thread1");
+        doThrow(new IllegalStateException("Mongo unavailable")).doNothing()
+                .when(postRepository).deleteAllById(List.of("reply1"));
+        when(postRepository.findDeleted(100)).thenReturn(List.of(reply)).thenReturn(List.of());
+        deletionWorker = worker(100, Duration.ofMillis(50));
+
+        // Act
+        deletionWorker.submit(reply);
+
+        // Assert
+        verify(postRepository, timeout(5000).times(2)).deleteAllById(List.of("reply1"));
+    }
+
+    private PostDeletionWorker worker(int batchSize, Duration sweepInterval) {
+        return new PostDeletionWorker(postRepository, threadRepository, likeRepository, postCache, eventPublisher,
+                meterRegistry, 100, batchSize, sweepInterval);
+    }
+
+    private static Post post(String id, String parentPostId, String threadId) {
+        Post post = new Post("user1", "Post " + id);
+        post.setId(id);
+        post.setParentPostId(parentPostId);
+        post.setThreadId(threadId);
+        return post;
+    }
+}
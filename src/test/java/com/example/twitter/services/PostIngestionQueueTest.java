@@ -0,0 +1,259 @@
+package com.example.twitter.services;
+
+import com.example.twitter.events.PostCreatedEvent;
+import com.example.twitter.model.Post;
+import com.example.twitter.model.Thread;
+import com.example.twitter.repository.PostRepository;
+import com.example.twitter.repository.ThreadRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataAccessResourceFailureException;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.Mockito.*;
+
+class PostIngestionQueueTest {
+
+    @Mock
+    private PostRepository postRepository;
+
+    @Mock
+    private ThreadRepository threadRepository;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final List<List<Post>> batches = new ArrayList<>();
+    private PostIngestionQueue ingestionQueue;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        doAnswer(invocation -> {
+            Collection<Post> batch = invocation.getArgument(0);
+            synchronized (batches) {
+                batches.add(List.copyOf(batch));
+            }
+            return null;
+        }).when(postRepository).insertBatch(anyCollection());
+    }
+
+    @AfterEach
+    void tearDown() throws InterruptedException {
+        if (ingestionQueue != null) {
+            ingestionQueue.shutdown();
+        }
+    }
+
+    @Test
+    void flushesFullBatchesWithOneInsert() throws Exception {
+        // Arrange: un intervalo largo, así que solo el tamaño dispara la escritura
+        ingestionQueue = queue(10, 5, Duration.ofSeconds(30));
+        CountDownLatch written = publishedLatch(10);
+
+        // Act
+        for (int i = 0; i < 10; i++) {
+            ingestionQueue.enqueue(rootPost("post" + i, "thread" + i));
+        }
+
+        // Assert
+        assertTrue(written.await(5, TimeUnit.SECONDS));
+        assertEquals(List.of(5, 5), batches.stream().map(List::size).toList());
+        verify(threadRepository, times(2)).insertBatch(anyCollection());
+    }
+
+    @Test
+    void flushesPartialBatchAfterInterval() throws Exception {
+        // Arrange
+        ingestionQueue = queue(10, 100, Duration.ofMillis(20));
+        CountDownLatch written = publishedLatch(1);
+
+        // Act
+        ingestionQueue.enqueue(rootPost("post1", "thread1"));
+
+        // Assert
+        assertTrue(written.await(5, TimeUnit.SECONDS));
+        assertEquals(1, batches.size());
+        assertTrue(ingestionQueue.findPending("post1").isEmpty());
+    }
+
+    @Test
+    void replyToThreadInSameBatchIsInsertedWithThread() throws Exception {
+        // Arrange
+        ingestionQueue = queue(10, 2, Duration.ofSeconds(30));
+        CountDownLatch written = publishedLatch(3);
+        Post reply = new Post("user2", "Reply");
+        reply.setId("reply1");
+        reply.setParentPostId("post1");
+        reply.setThreadId("thread1");
+        Post otherReply = new Post("user2", "Reply to an older post");
+        otherReply.setId("reply2");
+        otherReply.setParentPostId("old");
+        otherReply.setThreadId("thread0");
+
+        // Act
+        ingestionQueue.enqueue(rootPost("post1", "thread1"));
+        ingestionQueue.enqueue(reply);
+        ingestionQueue.enqueue(otherReply);
+        ingestionQueue.shutdown();
+
+        // Assert
+        assertTrue(written.await(5, TimeUnit.SECONDS));
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<Collection<Thread>> threads = ArgumentCaptor.forClass(Collection.class);
+        verify(threadRepository, atLeastOnce()).insertBatch(threads.capture());
+        Thread thread = threads.getAllValues().get(0).iterator().next();
+        assertEquals(List.of("post1", "reply1"), thread.getPosts());
+        verify(threadRepository).appendPosts(Map.of("thread0", List.of("reply2")));
+    }
+
+    @Test
+    void rejectsWhenQueueIsFull() throws Exception {
+        // Arrange: la primera escritura queda bloqueada y la cola admite 1 post
+        CountDownLatch flushing = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        doAnswer(invocation -> {
+            flushing.countDown();
+            release.await();
+            return null;
+        }).when(postRepository).insertBatch(anyCollection());
+        ingestionQueue = queue(1, 1, Duration.ofMillis(1));
+
+        ingestionQueue.enqueue(rootPost("post1", "thread1"));
+        assertTrue(flushing.await(5, TimeUnit.SECONDS));
+        ingestionQueue.enqueue(rootPost("post2", "thread2"));
+
+        // Act & Assert
+        assertThrows(RejectedExecutionException.class, () -> ingestionQueue.enqueue(rootPost("post3", "thread3")));
+        assertTrue(ingestionQueue.findPending("post3").isEmpty());
+        assertEquals(1, meterRegistry.get("posts.ingestion.rejected").counter().count());
+        release.countDown();
+    }
+
+    @Test
+    void retriesFailedBatch() throws Exception {
+        // Arrange
+        doThrow(new DataAccessResourceFailureException("Mongo unavailable"))
+                .doNothing()
+                .when(postRepository).insertBatch(anyCollection());
+        ingestionQueue = queue(10, 10, Duration.ofMillis(1));
+        CountDownLatch written = publishedLatch(1);
+
+        // Act
+        ingestionQueue.enqueue(rootPost("post1", "thread1"));
+
+        // Assert
+        assertTrue(written.await(5, TimeUnit.SECONDS));
+        verify(postRepository, times(2)).insertBatch(anyCollection());
+    }
+
+    @Test
+    void failingListenerDoesNotStopTheFlusher() throws Exception {
+        // Arrange: el primer listener falla, como un executor que rechaza trabajo
+        CountDownLatch written = new CountDownLatch(3);
+        doAnswer(invocation -> {
+            written.countDown();
+            if (written.getCount() == 2) {
+                throw new RejectedExecutionException("Timeline executor saturated");
+            }
+            return null;
+        }).when(eventPublisher).publishEvent(any(PostCreatedEvent.class));
+        ingestionQueue = queue(10, 1, Duration.ofMillis(1));
+
+        // Act
+        ingestionQueue.enqueue(rootPost("post1", "thread1"));
+        ingestionQueue.enqueue(rootPost("post2", "thread2"));
+        ingestionQueue.enqueue(rootPost("post3", "thread3"));
+
+        // Assert
+        assertTrue(written.await(5, TimeUnit.SECONDS));
+        assertEquals(3, batches.stream().mapToInt(List::size).sum());
+    }
+
+    @Test
+    void postDeletedWhileQueuedIsTombstonedOnFlush() throws Exception {
+        // Arrange: la escritura queda bloqueada hasta que se borra el post
+        CountDownLatch flushing = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        doAnswer(invocation -> {
+            flushing.countDown();
+            release.await();
+            return null;
+        }).when(postRepository).insertBatch(anyCollection());
+        CountDownLatch tombstoned = new CountDownLatch(1);
+        when(postRepository.markDeleted("post1")).thenAnswer(invocation -> {
+            tombstoned.countDown();
+            return true;
+        });
+        ingestionQueue = queue(10, 1, Duration.ofMillis(1));
+        ingestionQueue.enqueue(rootPost("post1", "thread1"));
+        assertTrue(flushing.await(5, TimeUnit.SECONDS));
+
+        // Act
+        boolean queued = ingestionQueue.markDeleted("post1");
+        release.countDown();
+
+        // Assert
+        assertTrue(queued);
+        assertTrue(ingestionQueue.findPending("post1").isEmpty());
+        assertTrue(tombstoned.await(5, TimeUnit.SECONDS));
+        assertFalse(ingestionQueue.markDeleted("post1"));
+        verify(eventPublisher, never()).publishEvent(any(PostCreatedEvent.class));
+    }
+
+    @Test
+    void shutdownWritesQueuedPosts() throws Exception {
+        // Arrange
+        ingestionQueue = queue(100, 50, Duration.ofSeconds(30));
+        for (int i = 0; i < 20; i++) {
+            ingestionQueue.enqueue(rootPost("post" + i, "thread" + i));
+        }
+
+        // Act
+        ingestionQueue.shutdown();
+
+        // Assert
+        assertEquals(20, batches.stream().mapToInt(List::size).sum());
+        verify(eventPublisher, times(20)).publishEvent(any(PostCreatedEvent.class));
+        assertThrows(RejectedExecutionException.class, () -> ingestionQueue.enqueue(rootPost("late", "thread")));
+    }
+
+    private PostIngestionQueue queue(int capacity, int batchSize, Duration flushInterval) {
+        return new PostIngestionQueue(postRepository, threadRepository, eventPublisher, meterRegistry, true,
+                capacity, batchSize, flushInterval, Duration.ofSeconds(5));
+    }
+
+    private CountDownLatch publishedLatch(int posts) {
+        CountDownLatch latch = new CountDownLatch(posts);
+        doAnswer(invocation -> {
+            latch.countDown();
+            return null;
+        }).when(eventPublisher).publishEvent(any(PostCreatedEvent.class));
+        return latch;
+    }
+
+    private static Post rootPost(String id, String threadId) {
+        Post post = new Post("user1", "Post " + id);
+        post.setId(id);
+        post.setThreadId(threadId);
+        return post;
+    }
+}
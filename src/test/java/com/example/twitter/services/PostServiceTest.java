@@ -1,16 +1,35 @@
 package com.example.twitter.services;
 
+import com.example.twitter.cache.PostCache;
+import com.example.twitter.dto.PostWithReplies;
+import com.example.twitter.dto.ThreadNode;
+import com.example.twitter.dto.TimelineCursor;
+import com.example.twitter.dto.TimelinePage;
+import com.example.twitter.events.PostCreatedEvent;
+import com.example.twitter.events.PostDeletedEvent;
 import com.example.twitter.model.Post;
+import com.example.twitter.model.PostLike;
+import com.example.twitter.model.Thread;
+import com.example.twitter.repository.PostLikeRepository;
 import com.example.twitter.repository.PostRepository;
+import com.example.twitter.repository.ThreadRepository;
+import com.example.twitter.search.PostSearchIndex;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DuplicateKeyException;
 
+import java.time.LocalDate;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.function.Function;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.Mockito.*;
@@ -20,12 +39,41 @@ class PostServiceTest {
     @Mock
     private PostRepository postRepository;
 
+    @Mock
+    private ThreadRepository threadRepository;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    @Mock
+    private PostIngestionQueue ingestionQueue;
+
+    @Mock
+    private PostCache postCache;
+
+    @Mock
+    private PostDeletionWorker deletionWorker;
+
+    @Mock
+    private EngagementCounters engagementCounters;
+
+    @Mock
+    private PostSearchIndex searchIndex;
+
+    @Mock
+    private PostLikeRepository likeRepository;
+
     @InjectMocks
     private PostService postService;
 
     @BeforeEach
     void setUp() {
         MockitoAnnotations.openMocks(this);
+        // La caché siempre falla: las lecturas llegan al repositorio
+        when(postCache.getPost(anyString(), any())).thenAnswer(invocation -> invocation
+                .<Function<String, Optional<Post>>>getArgument(1).apply(invocation.getArgument(0)));
+        when(postCache.getReplies(anyString(), any())).thenAnswer(invocation -> invocation
+                .<Function<String, List<Post>>>getArgument(1).apply(invocation.getArgument(0)));
     }
 
     @Test
@@ -71,6 +119,106 @@ class PostServiceTest {
         assertEquals(parentId, result.getParentPostId());
         verify(postRepository, times(1)).findById(parentId);
         verify(postRepository, times(1)).save(any(Post.class));
+        verify(eventPublisher, times(1)).publishEvent(any(PostCreatedEvent.class));
+    }
+
+    @Test
+    void createReplyAppendsToThread() {
+        // Arrange
+        Post parentPost = new Post("user1", "Parent post");
+        parentPost.setId("post456");
+        parentPost.setThreadId("thread1");
+        when(postRepository.findById("post456")).thenReturn(Optional.of(parentPost));
+        when(postRepository.save(any(Post.class))).thenAnswer(invocation -> {
+            Post saved = invocation.getArgument(0);
+            saved.setId("reply1");
+            return saved;
+        });
+
+        // Act
+        Post result = postService.createPost("user2", "Reply", "post456");
+
+        // Assert
+        assertEquals("thread1", result.getThreadId());
+        verify(threadRepository, times(1)).appendPost("thread1", "reply1");
+        verify(threadRepository, never()).save(any(Thread.class));
+    }
+
+    @Test
+    void createPostWriteBehindOnlyQueues() {
+        // Arrange
+        when(ingestionQueue.isEnabled()).thenReturn(true);
+
+        // Act
+        Post result = postService.createPost("user1", "Queued post", null);
+
+        // Assert
+        assertNotNull(result.getId());
+        assertNotNull(result.getThreadId());
+        verify(ingestionQueue).enqueue(result);
+        verifyNoInteractions(postRepository, threadRepository, eventPublisher);
+    }
+
+    @Test
+    void createReplyWriteBehindFindsQueuedParent() {
+        // Arrange
+        Post parentPost = new Post("user1", "Queued parent");
+        parentPost.setId("post456");
+        parentPost.setThreadId("thread1");
+        when(ingestionQueue.isEnabled()).thenReturn(true);
+        when(ingestionQueue.findPending("post456")).thenReturn(Optional.of(parentPost));
+
+        // Act
+        Post result = postService.createPost("user2", "Reply", "post456");
+
+        // Assert
+        assertEquals("thread1", result.getThreadId());
+        verify(ingestionQueue).enqueue(result);
+        verify(postRepository, never()).findById(anyString());
+    }
+
+    @Test
+    void createPostWriteBehindPropagatesFullQueue() {
+        // Arrange
+        when(ingestionQueue.isEnabled()).thenReturn(true);
+        doThrow(new RejectedExecutionException("Post ingestion queue is full"))
+                .when(ingestionQueue).enqueue(any(Post.class));
+
+        // Act & Assert
+        assertThrows(RejectedExecutionException.class, () -> postService.createPost("user1", "Post", null));
+    }
+
+    @Test
+    void createReplyUpdatesCache() {
+        // Arrange
+        Post parentPost = new Post("user1", "Parent post");
+        parentPost.setId("post456");
+        when(postRepository.findById("post456")).thenReturn(Optional.of(parentPost));
+        when(postRepository.save(any(Post.class))).thenAnswer(invocation -> invocation.getArgument(0));
+
+        // Act
+        Post result = postService.createPost("user2", "Reply", "post456");
+
+        // Assert
+        verify(postCache).getPost(eq("post456"), any());
+        verify(postCache).postCreated(result);
+    }
+
+    @Test
+    void deletePostInvalidatesCache() {
+        // Arrange
+        Post reply = new Post("user1", "Reply");
+        reply.setId("reply1");
+        reply.setParentPostId("post1");
+        when(postRepository.findById("reply1")).thenReturn(Optional.of(reply));
+        when(postRepository.markDeleted("reply1")).thenReturn(true);
+
+        // Act
+        postService.deletePost("reply1");
+
+        // Assert
+        verify(postCache).postDeleted("reply1", "post1");
+        verify(engagementCounters).replyRemoved("post1");
     }
 
     @Test
@@ -90,29 +238,319 @@ class PostServiceTest {
         verify(postRepository, times(1)).findByParentPostId(parentId);
     }
 
+    @Test
+    void getFeedSamplesInDatabase() {
+        // Arrange
+        Post first = new Post("user1", "Post 1");
+        first.setId("post1");
+        Post second = new Post("user2", "Post 2");
+        second.setId("post2");
+        when(postRepository.findRandomPosts(5)).thenReturn(Arrays.asList(first, second, first));
+
+        // Act
+        List<Post> result = postService.getFeed();
+
+        // Assert
+        assertEquals(2, result.size());
+        assertEquals("post1", result.get(0).getId());
+        assertEquals("post2", result.get(1).getId());
+        verify(postRepository, times(1)).findRandomPosts(5);
+        verify(postRepository, never()).findAll();
+    }
+
+    @Test
+    void getRepliesPageReturnsNextCursor() {
+        // Arrange
+        String parentId = "post123";
+        Post first = new Post("user1", "Reply 1");
+        first.setId("reply1");
+        Post second = new Post("user2", "Reply 2");
+        second.setId("reply2");
+        second.setCreationDate(LocalDate.of(2024, 3, 1));
+        Post third = new Post("user3", "Reply 3");
+        third.setId("reply3");
+        when(postRepository.findPageByParentPostId(eq(parentId), isNull(), eq(3)))
+                .thenReturn(Arrays.asList(first, second, third));
+
+        // Act
+        TimelinePage<Post> page = postService.getReplies(parentId, null, 2);
+
+        // Assert
+        assertEquals(2, page.getItems().size());
+        TimelineCursor next = TimelineCursor.decode(page.getNextCursor());
+        assertEquals(LocalDate.of(2024, 3, 1), next.getCreationDate());
+        assertEquals("reply2", next.getId());
+    }
+
+    @Test
+    void getPostsByUserLastPageHasNoCursor() {
+        // Arrange
+        TimelineCursor after = new TimelineCursor(LocalDate.of(2024, 3, 1), "post9");
+        when(postRepository.findPageByUserId(eq("user1"), any(TimelineCursor.class), eq(11)))
+                .thenReturn(List.of(new Post("user1", "Post 1")));
+
+        // Act
+        TimelinePage<Post> page = postService.getPostsByUser("user1", after.encode(), 10);
+
+        // Assert
+        assertEquals(1, page.getItems().size());
+        assertNull(page.getNextCursor());
+    }
+
+    @Test
+    void getPostsByUserRejectsInvalidCursor() {
+        assertThrows(IllegalArgumentException.class, () -> postService.getPostsByUser("user1", "%%%", 10));
+        verify(postRepository, never()).findPageByUserId(anyString(), any(), anyInt());
+    }
+
+    @Test
+    void getRepliesByParentsUsesOneQuery() {
+        // Arrange
+        List<String> parentIds = List.of("post1", "post2");
+        Post reply = new Post("user1", "Reply 1");
+        reply.setParentPostId("post1");
+        when(postRepository.findRepliesByParentPostIdIn(parentIds, 3))
+                .thenReturn(Map.of("post1", List.of(reply)));
+
+        // Act
+        Map<String, List<Post>> result = postService.getRepliesByParents(parentIds, 3);
+
+        // Assert
+        assertEquals(List.of(reply), result.get("post1"));
+        assertTrue(result.get("post2").isEmpty());
+        verify(postRepository, times(1)).findRepliesByParentPostIdIn(parentIds, 3);
+        verify(postRepository, never()).findByParentPostId(anyString());
+    }
+
+    @Test
+    void withRepliesBatchesLongLists() {
+        // Arrange
+        List<Post> posts = new ArrayList<>();
+        for (int i = 0; i < 250; i++) {
+            Post post = new Post("user1", "Post " + i);
+            post.setId("post" + i);
+            posts.add(post);
+        }
+        Post reply = new Post("user2", "Reply");
+        reply.setParentPostId("post249");
+        when(postRepository.findRepliesByParentPostIdIn(anyCollection(), eq(3)))
+                .thenReturn(Map.of())
+                .thenReturn(Map.of())
+                .thenReturn(Map.of("post249", List.of(reply)));
+
+        // Act
+        List<PostWithReplies> result = postService.withReplies(posts, 3);
+
+        // Assert
+        assertEquals(250, result.size());
+        assertEquals(List.of(reply), result.get(249).getReplies());
+        assertTrue(result.get(0).getReplies().isEmpty());
+        verify(postRepository, times(3)).findRepliesByParentPostIdIn(anyCollection(), eq(3));
+    }
+
+    @Test
+    void getThreadBuildsReplyTree() {
+        // Arrange
+        Post root = new Post("user1", "Root");
+        root.setId("root");
+        Post reply = new Post("user2", "Reply");
+        reply.setId("reply");
+        reply.setParentPostId("root");
+        Post nested = new Post("user1", "Nested reply");
+        nested.setId("nested");
+        nested.setParentPostId("reply");
+        when(postRepository.findByThreadIdOrderByCreationDateAscIdAsc("thread1"))
+                .thenReturn(List.of(root, reply, nested));
+
+        // Act
+        List<ThreadNode> result = postService.getThread("thread1");
+
+        // Assert
+        assertEquals(1, result.size());
+        assertEquals("root", result.get(0).getPost().getId());
+        ThreadNode replyNode = result.get(0).getReplies().get(0);
+        assertEquals("reply", replyNode.getPost().getId());
+        assertEquals("nested", replyNode.getReplies().get(0).getPost().getId());
+        verify(postRepository, times(1)).findByThreadIdOrderByCreationDateAscIdAsc("thread1");
+    }
+
+    @Test
+    void createReplyCountsReplyOnParent() {
+        // Arrange
+        Post parentPost = new Post("user1", "Parent");
+        parentPost.setId("post1");
+        parentPost.setThreadId("thread1");
+        when(postRepository.findById("post1")).thenReturn(Optional.of(parentPost));
+        when(postRepository.save(any(Post.class))).thenAnswer(invocation -> invocation.getArgument(0));
+
+        // Act
+        postService.createPost("user2", "Reply", "post1");
+        postService.createPost("user2", "Root post", null);
+
+        // Assert
+        verify(engagementCounters, times(1)).replyAdded("post1");
+        verifyNoMoreInteractions(engagementCounters);
+    }
+
+    @Test
+    void likePostCountsLike() {
+        // Arrange
+        Post post = new Post("user1", "Post");
+        post.setId("post1");
+        when(postRepository.findById("post1")).thenReturn(Optional.of(post));
+
+        // Act
+        boolean liked = postService.likePost("post1", "user2");
+
+        // Assert
+        assertTrue(liked);
+        verify(likeRepository, times(1)).insert(any(PostLike.class));
+        verify(engagementCounters, times(1)).liked("post1");
+        verify(postRepository, never()).save(any(Post.class));
+    }
+
+    @Test
+    void repeatedLikeIsNotCounted() {
+        // Arrange: el índice único rechaza el segundo like del mismo usuario
+        Post post = new Post("user1", "Post");
+        post.setId("post1");
+        when(postRepository.findById("post1")).thenReturn(Optional.of(post));
+        when(likeRepository.insert(any(PostLike.class))).thenThrow(new DuplicateKeyException("post_user"));
+
+        // Act
+        boolean liked = postService.likePost("post1", "user2");
+
+        // Assert
+        assertFalse(liked);
+        verifyNoInteractions(engagementCounters);
+    }
+
+    @Test
+    void likeMissingPostThrows() {
+        // Arrange
+        when(postRepository.findById("missing")).thenReturn(Optional.empty());
+
+        // Act & Assert
+        assertThrows(IllegalArgumentException.class, () -> postService.likePost("missing", "user2"));
+        verifyNoInteractions(engagementCounters, likeRepository);
+    }
+
+    @Test
+    void searchPostsKeepsIndexOrderAndSkipsDeletedPosts() {
+        // Arrange
+        Post newest = new Post("user1", "Hola mundo");
+        newest.setId("post3");
+        Post deleted = new Post("user1", "Hola otra vez");
+        deleted.setId("post2");
+        deleted.setDeleted(true);
+        Post oldest = new Post("user2", "Hola");
+        oldest.setId("post1");
+        when(searchIndex.search("hola", 10)).thenReturn(List.of("post3", "post2", "post1"));
+        when(postRepository.findAllById(List.of("post3", "post2", "post1")))
+                .thenReturn(List.of(oldest, deleted, newest));
+
+        // Act
+        List<Post> result = postService.searchPosts("hola", 10);
+
+        // Assert
+        assertEquals(List.of("post3", "post1"), result.stream().map(Post::getId).toList());
+        verify(postRepository, times(1)).findAllById(any());
+    }
+
+    @Test
+    void searchPostsRejectsInvalidLimit() {
+        // Act & Assert
+        assertThrows(IllegalArgumentException.class, () -> postService.searchPosts("hola", 0));
+        verifyNoInteractions(searchIndex);
+    }
+
+    @Test
+    void getThreadHidesDeletedSubtree() {
+        // Arrange: "reply" está borrado y "nested" aún no se ha limpiado
+        Post root = new Post("user1", "Root");
+        root.setId("root");
+        Post reply = new Post("user2", "Reply");
+        reply.setId("reply");
+        reply.setParentPostId("root");
+        reply.setDeleted(true);
+        Post nested = new Post("user1", "Nested reply");
+        nested.setId("nested");
+        nested.setParentPostId("reply");
+        when(postRepository.findByThreadIdOrderByCreationDateAscIdAsc("thread1"))
+                .thenReturn(List.of(root, reply, nested));
+
+        // Act
+        List<ThreadNode> result = postService.getThread("thread1");
+
+        // Assert
+        assertEquals(1, result.size());
+        assertTrue(result.get(0).getReplies().isEmpty());
+    }
+
     @Test
     void deletePost() {
         // Arrange
         String postId = "post123";
-        List<Post> replies = Arrays.asList(
-                new Post("user1", "Reply 1"),
-                new Post("user2", "Reply 2"));
-        replies.get(0).setId("reply1");
-        replies.get(1).setId("reply2");
-
-        when(postRepository.findByParentPostId(postId)).thenReturn(replies);
-        when(postRepository.findByParentPostId("reply1")).thenReturn(List.of());
-        when(postRepository.findByParentPostId("reply2")).thenReturn(List.of());
+        Post post = new Post("user1", "Post");
+        post.setId(postId);
+        post.setThreadId("thread1");
+        when(postRepository.findById(postId)).thenReturn(Optional.of(post));
+        when(postRepository.markDeleted(postId)).thenReturn(true);
 
         // Act
         postService.deletePost(postId);
 
+        // Assert: solo se marca; las respuestas se borran en segundo plano
+        verify(postRepository, times(1)).markDeleted(postId);
+        verify(eventPublisher, times(1)).publishEvent(any(PostDeletedEvent.class));
+        verify(deletionWorker, times(1)).submit(post);
+        verify(postRepository, never()).deleteById(anyString());
+        verify(postRepository, never()).findByParentPostId(anyString());
+    }
+
+    @Test
+    void deleteQueuedPostIsLeftToTheIngestionQueue() {
+        // Arrange
+        Post post = new Post("user1", "Post");
+        post.setId("post123");
+        when(ingestionQueue.isEnabled()).thenReturn(true);
+        when(ingestionQueue.findPending("post123")).thenReturn(Optional.of(post));
+        when(ingestionQueue.markDeleted("post123")).thenReturn(true);
+
+        // Act
+        postService.deletePost("post123");
+
+        // Assert: aún no está en Mongo; la cola lo marca al escribirlo
+        verify(postRepository, never()).markDeleted(anyString());
+        verify(eventPublisher, times(1)).publishEvent(any(PostDeletedEvent.class));
+        verify(deletionWorker, times(1)).submit(post);
+    }
+
+    @Test
+    void deletePostIgnoresMissingPost() {
+        // Arrange
+        when(postRepository.findById("missing")).thenReturn(Optional.empty());
+
+        // Act
+        postService.deletePost("missing");
+
+        // Assert
+        verify(postRepository, never()).markDeleted(anyString());
+        verifyNoInteractions(deletionWorker);
+    }
+
+    @Test
+    void getPostByIdHidesDeletedPost() {
+        // Arrange
+        Post post = new Post("user1", "Deleted");
+        post.setId("post1");
+        post.setDeleted(true);
+        when(postRepository.findById("post1")).thenReturn(Optional.of(post));
+
+        // Act
+        Optional<Post> result = postService.getPostById("post1");
+
         // Assert
-        verify(postRepository, times(1)).findByParentPostId(postId);
-        verify(postRepository, times(1)).findByParentPostId("reply1");
-        verify(postRepository, times(1)).findByParentPostId("reply2");
-        verify(postRepository, times(1)).deleteById(postId);
-        verify(postRepository, times(1)).deleteById("reply1");
-        verify(postRepository, times(1)).deleteById("reply2");
+        assertTrue(result.isEmpty());
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,176 @@
+package com.example.twitter.services;
+
+import com.example.twitter.cache.PostCache;
+import com.example.twitter.events.PostCreatedEvent;
+import com.example.twitter.events.PostDeletedEvent;
+import com.example.twitter.model.Post;
+import com.example.twitter.model.Thread;
+import com.example.twitter.repository.reactive.ReactivePostRepository;
+import com.example.twitter.repository.reactive.ReactiveThreadRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.context.ApplicationEventPublisher;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class ReactivePostServiceTest {
+
+    @Mock
+    private ReactivePostRepository postRepository;
+
+    @Mock
+    private ReactiveThreadRepository threadRepository;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    @Mock
+    private PostCache postCache;
+
+    @Mock
+    private PostDeletionWorker deletionWorker;
+
+    @Mock
+    private EngagementCounters engagementCounters;
+
+    @InjectMocks
+    private ReactivePostService postService;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+    }
+
+    @Test
+    void createPostWithoutParentStartsThread() {
+        // Arrange
+        when(threadRepository.save(any(Thread.class))).thenAnswer(inv -> Mono.just(inv.getArgument(0)));
+        when(postRepository.save(any(Post.class))).thenAnswer(inv -> Mono.just(inv.getArgument(0)));
+
+        // Act & Assert
+        StepVerifier.create(postService.createPost("user123", "Test post", null))
+                .assertNext(post -> {
+                    assertNotNull(post.getId());
+                    assertNotNull(post.getThreadId());
+                    assertNull(post.getParentPostId());
+                })
+                .verifyComplete();
+        verify(eventPublisher).publishEvent(any(PostCreatedEvent.class));
+    }
+
+    @Test
+    void createReplyAppendsToThread() {
+        // Arrange
+        Post parent = new Post("user1", "Parent");
+        parent.setId("parent");
+        parent.setThreadId("thread1");
+        Post saved = new Post("user2", "Reply");
+        saved.setId("reply");
+        saved.setThreadId("thread1");
+        when(postRepository.findLiveById("parent")).thenReturn(Mono.just(parent));
+        when(postRepository.save(any(Post.class))).thenReturn(Mono.just(saved));
+        when(threadRepository.appendPost("thread1", "reply")).thenReturn(Mono.empty());
+
+        // Act & Assert
+        StepVerifier.create(postService.createPost("user2", "Reply", "parent"))
+                .expectNext(saved)
+                .verifyComplete();
+        verify(threadRepository).appendPost("thread1", "reply");
+        verify(engagementCounters).replyAdded("parent");
+    }
+
+    @Test
+    void createReplyWithUnknownParentFails() {
+        // Arrange
+        when(postRepository.findLiveById("missing")).thenReturn(Mono.empty());
+
+        // Act & Assert
+        StepVerifier.create(postService.createPost("user2", "Reply", "missing"))
+                .expectError(IllegalArgumentException.class)
+                .verify();
+        verify(postRepository, never()).save(any());
+        verifyNoInteractions(eventPublisher, engagementCounters);
+    }
+
+    @Test
+    void getPostByIdSkipsDeletedPosts() {
+        // Arrange: el repositorio descarta los tombstones
+        when(postRepository.findLiveById("deleted")).thenReturn(Mono.empty());
+
+        // Act & Assert
+        StepVerifier.create(postService.getPostById("deleted")).verifyComplete();
+        verify(postRepository, never()).findById(anyString());
+    }
+
+    @Test
+    void deletePostTombstonesAndSchedulesCleanup() {
+        // Arrange
+        Post reply = new Post("user2", "Reply");
+        reply.setId("reply");
+        reply.setParentPostId("parent");
+        when(postRepository.findLiveById("reply")).thenReturn(Mono.just(reply));
+        when(postRepository.markDeleted("reply")).thenReturn(Mono.just(1L));
+
+        // Act & Assert
+        StepVerifier.create(postService.deletePost("reply")).verifyComplete();
+        verify(postRepository, never()).deleteById(anyString());
+        verify(postCache).postDeleted("reply", "parent");
+        verify(engagementCounters).replyRemoved("parent");
+        verify(eventPublisher).publishEvent(any(PostDeletedEvent.class));
+        verify(deletionWorker).submit(reply);
+    }
+
+    @Test
+    void deletePostLostToAnotherDeleteDoesNothing() {
+        // Arrange: otro borrado marcó el post entre la lectura y la actualización
+        Post post = new Post("user1", "Post");
+        post.setId("post");
+        when(postRepository.findLiveById("post")).thenReturn(Mono.just(post));
+        when(postRepository.markDeleted("post")).thenReturn(Mono.just(0L));
+
+        // Act & Assert
+        StepVerifier.create(postService.deletePost("post")).verifyComplete();
+        verifyNoInteractions(eventPublisher, deletionWorker, engagementCounters);
+    }
+
+    @Test
+    void getFeedRemovesDuplicates() {
+        // Arrange
+        Post post1 = new Post("user1", "Post 1");
+        post1.setId("1");
+        Post post2 = new Post("user2", "Post 2");
+        post2.setId("2");
+        when(postRepository.findRandomPosts(5)).thenReturn(Flux.just(post1, post2, post1));
+
+        // Act & Assert
+        StepVerifier.create(postService.getFeed())
+                .expectNext(post1, post2)
+                .verifyComplete();
+    }
+
+    @Test
+    void getRepliesPropagatesDemand() {
+        // Arrange
+        AtomicLong requested = new AtomicLong();
+        Flux<Post> replies = Flux.range(0, 1000)
+                .map(i -> new Post("user", "Reply " + i))
+                .doOnRequest(requested::addAndGet);
+        when(postRepository.findByParentPostId("parent")).thenReturn(replies);
+
+        // Act & Assert
+        StepVerifier.create(postService.getReplies("parent"), 10)
+                .expectNextCount(10)
+                .thenCancel()
+                .verify();
+        assertEquals(10, requested.get());
+    }
+}
@@ -0,0 +1,110 @@
+package com.example.twitter.services;
+
+import com.example.twitter.events.PostCreatedEvent;
+import com.example.twitter.model.Post;
+import com.example.twitter.model.Timeline;
+import com.example.twitter.model.User;
+import com.example.twitter.repository.PostRepository;
+import com.example.twitter.repository.TimelineRepository;
+import com.example.twitter.repository.UserRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class TimelineServiceTest {
+
+    private static final long CELEBRITY_THRESHOLD = 100;
+
+    @Mock
+    private TimelineRepository timelineRepository;
+
+    @Mock
+    private UserRepository userRepository;
+
+    @Mock
+    private PostRepository postRepository;
+
+    private TimelineService timelineService;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        timelineService = new TimelineService(timelineRepository, userRepository, postRepository, 50,
+                CELEBRITY_THRESHOLD);
+    }
+
+    @Test
+    void fanOutPushesToFollowers() {
+        // Arrange
+        User author = new User("author", "author", "pwd");
+        author.setFollowerCount(2);
+        Post post = new Post("author", "Hello");
+        post.setId("post1");
+        when(userRepository.findById("author")).thenReturn(Optional.of(author));
+        when(userRepository.findFollowerIds("author")).thenReturn(List.of("f1", "f2"));
+
+        // Act
+        timelineService.onPostCreated(new PostCreatedEvent(post));
+
+        // Assert
+        verify(timelineRepository, times(1)).pushToAll(List.of("f1", "f2"), "post1", 50);
+    }
+
+    @Test
+    void celebrityPostsAreNotFannedOut() {
+        // Arrange
+        User author = new User("star", "star", "pwd");
+        author.setFollowerCount(CELEBRITY_THRESHOLD);
+        Post post = new Post("star", "Hello fans");
+        post.setId("post1");
+        when(userRepository.findById("star")).thenReturn(Optional.of(author));
+
+        // Act
+        timelineService.onPostCreated(new PostCreatedEvent(post));
+
+        // Assert
+        verify(userRepository, never()).findFollowerIds(anyString());
+        verify(timelineRepository, never()).pushToAll(any(), anyString(), anyInt());
+    }
+
+    @Test
+    void homeTimelineMergesCelebrityPosts() {
+        // Arrange
+        User reader = new User("reader", "reader", "pwd");
+        reader.setFollowing(List.of("friend", "star"));
+        Timeline timeline = new Timeline();
+        timeline.setUserId("reader");
+        timeline.setPostIds(List.of("p2"));
+
+        Post friendPost = new Post("friend", "Old news");
+        friendPost.setId("p2");
+        friendPost.setCreationDate(LocalDate.of(2024, 1, 1));
+        Post starPost = new Post("star", "Breaking");
+        starPost.setId("p3");
+        starPost.setCreationDate(LocalDate.of(2024, 2, 1));
+
+        when(userRepository.findById("reader")).thenReturn(Optional.of(reader));
+        when(timelineRepository.findById("reader")).thenReturn(Optional.of(timeline));
+        when(postRepository.findAllById(List.of("p2"))).thenReturn(List.of(friendPost));
+        when(userRepository.findIdsWithFollowersAtLeast(reader.getFollowing(), CELEBRITY_THRESHOLD))
+                .thenReturn(List.of("star"));
+        when(postRepository.findRecentByUserIdIn(List.of("star"), 10)).thenReturn(List.of(starPost));
+
+        // Act
+        List<Post> result = timelineService.getHomeTimeline("reader", 10);
+
+        // Assert
+        assertEquals(2, result.size());
+        assertEquals("p3", result.get(0).getId());
+        assertEquals("p2", result.get(1).getId());
+    }
+}
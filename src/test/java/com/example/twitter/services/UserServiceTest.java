@@ -1,20 +1,25 @@
 package com.example.twitter.services;
 
+import com.example.twitter.events.UserRegisteredEvent;
 import com.example.twitter.model.User;
 import com.example.twitter.repository.UserRepository;
+import com.example.twitter.users.UserSuggestions;
+import com.example.twitter.users.UsernameFilter;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
-import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
-import org.springframework.security.crypto.password.PasswordEncoder;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.springframework.context.ApplicationEventPublisher;
 
+import java.time.Duration;
 import java.util.Arrays;
 import java.util.List;
 import java.util.Optional;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
 import static org.mockito.Mockito.*;
 
 class UserServiceTest {
@@ -22,12 +27,32 @@ class UserServiceTest {
     @Mock
     private UserRepository userRepository;
 
-    @InjectMocks
+    @Mock
+    private PasswordHasher passwordHasher;
+
+    @Mock
+    private JWTService jwtService;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    @Mock
+    private UsernameFilter usernameFilter;
+
+    @Mock
+    private UserSuggestions userSuggestions;
+
+    private CustomUserDetailsService userDetailsService;
     private UserService userService;
 
     @BeforeEach
     void setUp() {
         MockitoAnnotations.openMocks(this);
+        when(usernameFilter.mightContain(anyString())).thenReturn(true);
+        userDetailsService = new CustomUserDetailsService(userRepository, new SimpleMeterRegistry(), 100,
+                Duration.ofMinutes(5), Duration.ofSeconds(10));
+        userService = new UserService(userRepository, passwordHasher, jwtService, eventPublisher, usernameFilter,
+                userSuggestions, userDetailsService);
     }
 
     @Test
@@ -54,6 +79,7 @@ class UserServiceTest {
         assertEquals("testuser", result.getUsername());
         verify(userRepository, times(1)).findByUsername("testuser");
         verify(userRepository, times(1)).save(any(User.class));
+        verify(eventPublisher).publishEvent(any(UserRegisteredEvent.class));
     }
 
     @Test
@@ -79,6 +105,68 @@ class UserServiceTest {
         verify(userRepository, never()).save(any(User.class));
     }
 
+    @Test
+    void authUserLooksUpOnce() {
+        // Arrange
+        User user = new User("user123", "testuser", "encodedPassword");
+        when(userRepository.findByUsername("testuser")).thenReturn(Optional.of(user));
+        when(passwordHasher.matches("password123", "encodedPassword")).thenReturn(true);
+        when(jwtService.sign("user123", "testuser")).thenReturn("token");
+
+        // Act
+        String token = userService.authUser("testuser", "password123");
+
+        // Assert
+        assertEquals("token", token);
+        verify(userRepository, times(1)).findByUsername("testuser");
+        verify(passwordHasher, times(1)).matches("password123", "encodedPassword");
+    }
+
+    @Test
+    void repeatedLoginsShareOneLookup() {
+        // Arrange
+        User user = new User("user123", "testuser", "encodedPassword");
+        when(userRepository.findByUsername("testuser")).thenReturn(Optional.of(user));
+        when(passwordHasher.matches("password123", "encodedPassword")).thenReturn(true);
+        when(jwtService.sign("user123", "testuser")).thenReturn("token");
+
+        // Act
+        userService.authUser("testuser", "password123");
+        userService.authUser("testuser", "password123");
+
+        // Assert: el segundo login sale de la caché
+        verify(userRepository, times(1)).findByUsername("testuser");
+        verify(jwtService, times(2)).sign("user123", "testuser");
+    }
+
+    @Test
+    void registeredUserCanLogInAfterFailedLookup() {
+        // Arrange: el nombre queda en la caché como inexistente al registrarse
+        User userToRegister = new User();
+        userToRegister.setUsername("nuevo");
+        userToRegister.setPassword("password123");
+        User savedUser = new User("user123", "nuevo", "encodedPassword");
+        when(userRepository.findByUsername("nuevo")).thenReturn(Optional.empty());
+        when(passwordHasher.encode("password123")).thenReturn("encodedPassword");
+        when(userRepository.save(any(User.class))).thenReturn(savedUser);
+        doAnswer(invocation -> {
+            userDetailsService.onUserRegistered(invocation.getArgument(0));
+            return null;
+        }).when(eventPublisher).publishEvent(any(UserRegisteredEvent.class));
+        userService.registerUser(userToRegister);
+
+        when(userRepository.findByUsername("nuevo")).thenReturn(Optional.of(savedUser));
+        when(passwordHasher.matches("password123", "encodedPassword")).thenReturn(true);
+        when(jwtService.sign("user123", "nuevo")).thenReturn("token");
+
+        // Act
+        String token = userService.authUser("nuevo", "password123");
+
+        // Assert
+        assertEquals("token", token);
+        verify(userRepository, times(2)).findByUsername("nuevo");
+    }
+
     @Test
     void getUsers() {
         // Arrange
@@ -123,4 +211,60 @@ class UserServiceTest {
         assertFalse(result);
         verify(userRepository, times(1)).findByUsername(username);
     }
+
+    @Test
+    void followCreatesRelationship() {
+        // Arrange
+        when(userRepository.existsById("user123")).thenReturn(true);
+        when(userRepository.existsById("user456")).thenReturn(true);
+        when(userRepository.follow("user123", "user456")).thenReturn(true);
+
+        // Act
+        boolean result = userService.follow("user123", "user456");
+
+        // Assert
+        assertTrue(result);
+        verify(userRepository).follow("user123", "user456");
+    }
+
+    @Test
+    void followRejectsMissingFollower() {
+        // Arrange: el token es de un usuario que ya no existe
+        when(userRepository.existsById("deleted")).thenReturn(false);
+        when(userRepository.existsById("user456")).thenReturn(true);
+
+        // Act & Assert
+        assertThrows(IllegalArgumentException.class, () -> userService.follow("deleted", "user456"));
+        verify(userRepository, never()).follow(anyString(), anyString());
+    }
+
+    @Test
+    void existsByUsernameSkipsDatabaseForFilteredName() {
+        // Arrange
+        when(usernameFilter.mightContain("libre")).thenReturn(false);
+
+        // Act
+        boolean result = userService.existsByUsername("libre");
+
+        // Assert
+        assertFalse(result);
+        verify(userRepository, never()).findByUsername(anyString());
+    }
+
+    @Test
+    void registerUserSkipsLookupForFilteredName() {
+        // Arrange
+        User userToRegister = new User();
+        userToRegister.setUsername("libre");
+        userToRegister.setPassword("password123");
+        when(usernameFilter.mightContain("libre")).thenReturn(false);
+        when(userRepository.save(any(User.class))).thenAnswer(invocation -> invocation.getArgument(0));
+
+        // Act
+        userService.registerUser(userToRegister);
+
+        // Assert: la única ida a MongoDB es la inserción
+        verify(userRepository, never()).findByUsername(anyString());
+        verify(userRepository, times(1)).save(userToRegister);
+    }
 }
@@ -0,0 +1,66 @@
+package com.example.twitter.trends;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class CountMinSketchTest {
+
+    @Test
+    void estimatesNeverFallBelowRealCounts() {
+        // Arrange: muchos más hashtags que contadores por fila
+        CountMinSketch sketch = new CountMinSketch(4, 256);
+        Map<String, Integer> exact = new HashMap<>();
+        SplittableRandom random = new SplittableRandom(1);
+        for (int i = 0; i < 50_000; i++) {
+            String hashtag = "tag" + random.nextInt(5_000);
+            sketch.add(hashtag);
+            exact.merge(hashtag, 1, Integer::sum);
+        }
+
+        // Act & Assert
+        exact.forEach((hashtag, count) -> assertTrue(sketch.estimate(hashtag) >= count, hashtag));
+    }
+
+    @Test
+    void concurrentAddsAreNotLost() throws Exception {
+        // Arrange
+        CountMinSketch sketch = new CountMinSketch(4, 1024);
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+
+        // Act
+        try {
+            List<CompletableFuture<Void>> writers = IntStream.range(0, 4)
+                    .mapToObj(i -> CompletableFuture.runAsync(() -> {
+                        for (int j = 0; j < 100_000; j++) {
+                            sketch.add("viral");
+                        }
+                    }, executor))
+                    .toList();
+            CompletableFuture.allOf(writers.toArray(CompletableFuture[]::new)).get();
+        } finally {
+            executor.shutdown();
+        }
+
+        // Assert
+        assertEquals(400_000, sketch.estimate("viral"));
+    }
+
+    @Test
+    void widthMustBePowerOfTwo() {
+        // Act & Assert
+        assertThrows(IllegalArgumentException.class, () -> new CountMinSketch(4, 1000));
+        assertThrows(IllegalArgumentException.class, () -> new CountMinSketch(0, 1024));
+    }
+}
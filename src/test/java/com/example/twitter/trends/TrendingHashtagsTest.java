@@ -0,0 +1,144 @@
+package com.example.twitter.trends;
+
+import com.example.twitter.dto.HashtagCount;
+import com.example.twitter.events.PostCreatedEvent;
+import com.example.twitter.model.Post;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class TrendingHashtagsTest {
+
+    private long now;
+    private TrendingHashtags trends;
+
+    @BeforeEach
+    void setUp() {
+        now = TimeUnit.DAYS.toMillis(1);
+        trends = new TrendingHashtags(new SimpleMeterRegistry(), 4, 2048, 100, () -> now);
+    }
+
+    @Test
+    void hashtagsAreExtractedLowercaseAndOnce() {
+        // Act
+        Set<String> hashtags = TrendingHashtags.hashtags(
+                "¡Vamos #Futbol! #futbol #2024 correo@x#no #Año_Nuevo ##doble #");
+
+        // Assert
+        assertEquals(Set.of("futbol", "año_nuevo", "doble"), hashtags);
+    }
+
+    @Test
+    void topRanksHashtagsByPosts() {
+        // Arrange
+        post("#java #spring");
+        post("Más #Java");
+        post("#java y #mongo");
+        post("#spring");
+
+        // Act
+        List<HashtagCount> top = trends.top(5, 2);
+
+        // Assert
+        assertEquals(List.of("java", "spring"), top.stream().map(HashtagCount::getHashtag).toList());
+        assertEquals(3, top.get(0).getCount());
+        assertEquals(2, top.get(1).getCount());
+    }
+
+    @Test
+    void oldMinutesLeaveTheWindow() {
+        // Arrange
+        post("#antiguo");
+        now += TimeUnit.MINUTES.toMillis(10);
+        post("#reciente");
+
+        // Act & Assert
+        assertEquals(List.of("reciente"), hashtags(trends.top(5, 10)));
+        assertEquals(List.of("antiguo", "reciente"), hashtags(trends.top(60, 10)));
+    }
+
+    @Test
+    void minutesOlderThanAnHourAreReplaced() {
+        // Arrange: el minuto 60 ocupa el mismo cubo que el 0
+        post("#antiguo");
+        now += TimeUnit.MINUTES.toMillis(TrendingHashtags.MAX_WINDOW_MINUTES);
+        post("#reciente");
+
+        // Act & Assert
+        assertEquals(List.of("reciente"), hashtags(trends.top(60, 10)));
+    }
+
+    @Test
+    void topRejectsInvalidWindow() {
+        // Act & Assert
+        assertThrows(IllegalArgumentException.class, () -> trends.top(0, 10));
+        assertThrows(IllegalArgumentException.class, () -> trends.top(61, 10));
+    }
+
+    @Test
+    void topMatchesExactCountsOnZipfStream() {
+        // Arrange: una hora de hashtags con frecuencias Zipf, muchos más que
+        // candidatos por minuto
+        int vocabulary = 100_000;
+        double[] cumulative = new double[vocabulary];
+        double sum = 0;
+        for (int rank = 0; rank < vocabulary; rank++) {
+            sum += 1.0 / (rank + 1);
+            cumulative[rank] = sum;
+        }
+        SplittableRandom random = new SplittableRandom(7);
+        Map<String, Long> lastFive = new HashMap<>();
+        Map<String, Long> lastHour = new HashMap<>();
+        for (int minute = 0; minute < 60; minute++) {
+            for (int i = 0; i < 5_000; i++) {
+                int rank = Arrays.binarySearch(cumulative, random.nextDouble(sum));
+                String hashtag = "tag" + (rank < 0 ? -rank - 1 : rank);
+                post("#" + hashtag);
+                lastHour.merge(hashtag, 1L, Long::sum);
+                if (minute >= 55) {
+                    lastFive.merge(hashtag, 1L, Long::sum);
+                }
+            }
+            now += TimeUnit.MINUTES.toMillis(1);
+        }
+        now -= TimeUnit.MINUTES.toMillis(1);
+
+        // Act & Assert: mismo top 10 y cada cuenta a menos de un 3 % de la exacta
+        assertMatchesExact(lastFive, trends.top(5, 10));
+        assertMatchesExact(lastHour, trends.top(60, 10));
+    }
+
+    private void assertMatchesExact(Map<String, Long> exact, List<HashtagCount> top) {
+        List<String> exactTop = exact.entrySet().stream()
+                .sorted(Map.Entry.<String, Long>comparingByValue().reversed())
+                .limit(10)
+                .map(Map.Entry::getKey)
+                .toList();
+        assertEquals(Set.copyOf(exactTop), Set.copyOf(hashtags(top)));
+        for (HashtagCount count : top) {
+            long real = exact.get(count.getHashtag());
+            assertTrue(count.getCount() >= real && count.getCount() <= real * 1.03,
+                    count.getHashtag() + ": " + count.getCount() + " vs " + real);
+        }
+    }
+
+    private void post(String content) {
+        trends.onPostCreated(new PostCreatedEvent(new Post("user1", content)));
+    }
+
+    private static List<String> hashtags(List<HashtagCount> top) {
+        return top.stream().map(HashtagCount::getHashtag).toList();
+    }
+}
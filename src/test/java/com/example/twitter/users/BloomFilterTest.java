@@ -0,0 +1,54 @@
+package com.example.twitter.users;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BloomFilterTest {
+
+    @Test
+    void sizingFollowsTheFalsePositiveRate() {
+        // Act
+        BloomFilter onePercent = new BloomFilter(1_000_000, 0.01);
+        BloomFilter oneInThousand = new BloomFilter(1_000_000, 0.001);
+
+        // Assert: 9,59 y 14,38 bits por nombre
+        assertEquals(9_585_088, onePercent.bitCount());
+        assertEquals(7, onePercent.hashCount());
+        assertEquals(1_198_136, onePercent.memoryBytes());
+        assertEquals(14_377_600, oneInThousand.bitCount());
+        assertEquals(10, oneInThousand.hashCount());
+        assertEquals(0.01, onePercent.falsePositiveRate(1_000_000), 0.0005);
+    }
+
+    @Test
+    void addedElementsAreAlwaysFoundAndAbsentOnesRarely() {
+        // Arrange
+        int elements = 200_000;
+        BloomFilter filter = new BloomFilter(elements, 0.01);
+        for (int i = 0; i < elements; i++) {
+            filter.add("user" + i);
+        }
+
+        // Act
+        int falsePositives = 0;
+        for (int i = 0; i < elements; i++) {
+            assertTrue(filter.mightContain("user" + i));
+            if (filter.mightContain("libre" + i)) {
+                falsePositives++;
+            }
+        }
+
+        // Assert
+        double rate = (double) falsePositives / elements;
+        assertTrue(rate > 0.007 && rate < 0.013, "tasa de falsos positivos " + rate);
+    }
+
+    @Test
+    void constructorRejectsInvalidSizing() {
+        // Act & Assert
+        assertThrows(IllegalArgumentException.class, () -> new BloomFilter(0, 0.01));
+        assertThrows(IllegalArgumentException.class, () -> new BloomFilter(1000, 0));
+        assertThrows(IllegalArgumentException.class, () -> new BloomFilter(1000, 1));
+    }
+}
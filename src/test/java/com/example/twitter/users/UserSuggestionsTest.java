@@ -0,0 +1,101 @@
+package com.example.twitter.users;
+
+import com.example.twitter.dto.UserSuggestion;
+import com.example.twitter.events.UserRegisteredEvent;
+import com.example.twitter.model.User;
+import com.example.twitter.repository.UserRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class UserSuggestionsTest {
+
+    @Mock
+    private UserRepository userRepository;
+
+    private UserSuggestions userSuggestions;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        userSuggestions = new UserSuggestions(userRepository, new SimpleMeterRegistry(), 10,
+                Duration.ofSeconds(30));
+    }
+
+    @Test
+    void suggestFailsUntilBuilt() {
+        // Act & Assert
+        assertThrows(IllegalStateException.class, () -> userSuggestions.suggest("an", 5));
+    }
+
+    @Test
+    void rebuildLoadsUsersWithTheirFollowers() {
+        // Arrange
+        when(userRepository.streamUsernames()).thenReturn(Stream.of(user("ana", 3), user("andres", 8)));
+
+        // Act
+        boolean built = userSuggestions.rebuild();
+        List<UserSuggestion> suggestions = userSuggestions.suggest("an", 5);
+
+        // Assert
+        assertTrue(built);
+        assertEquals(List.of("andres", "ana"), suggestions.stream().map(UserSuggestion::getUsername).toList());
+    }
+
+    @Test
+    void registeredUsersAreSuggested() {
+        // Arrange
+        when(userRepository.streamUsernames()).thenReturn(Stream.of(user("ana", 3)));
+        userSuggestions.rebuild();
+
+        // Act
+        userSuggestions.onUserRegistered(new UserRegisteredEvent(user("anita", 0)));
+
+        // Assert
+        assertEquals(List.of("ana", "anita"),
+                userSuggestions.suggest("an", 5).stream().map(UserSuggestion::getUsername).toList());
+    }
+
+    @Test
+    void usersRegisteredDuringRebuildAreKeptOnce() {
+        // Arrange: un registro llega mientras se lee la colección, que ya lo incluye
+        when(userRepository.streamUsernames()).thenAnswer(invocation -> {
+            userSuggestions.onUserRegistered(new UserRegisteredEvent(user("nuevo", 0)));
+            return Stream.of(user("nuevo", 0), user("viejo", 2));
+        });
+
+        // Act
+        userSuggestions.rebuild();
+
+        // Assert
+        assertEquals(1, userSuggestions.suggest("nu", 5).size());
+    }
+
+    @Test
+    void suggestRejectsInvalidArguments() {
+        // Arrange
+        when(userRepository.streamUsernames()).thenReturn(Stream.empty());
+        userSuggestions.rebuild();
+
+        // Act & Assert
+        assertThrows(IllegalArgumentException.class, () -> userSuggestions.suggest("", 5));
+        assertThrows(IllegalArgumentException.class, () -> userSuggestions.suggest("a".repeat(31), 5));
+        assertThrows(IllegalArgumentException.class, () -> userSuggestions.suggest("an", 0));
+        assertThrows(IllegalArgumentException.class, () -> userSuggestions.suggest("an", 11));
+    }
+
+    private static User user(String username, long followerCount) {
+        User user = new User(username);
+        user.setFollowerCount(followerCount);
+        return user;
+    }
+}
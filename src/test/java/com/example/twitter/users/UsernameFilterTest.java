@@ -0,0 +1,98 @@
+package com.example.twitter.users;
+
+import com.example.twitter.events.UserRegisteredEvent;
+import com.example.twitter.model.User;
+import com.example.twitter.repository.UserRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.dao.DataAccessResourceFailureException;
+
+import java.time.Duration;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class UsernameFilterTest {
+
+    @Mock
+    private UserRepository userRepository;
+
+    private SimpleMeterRegistry meterRegistry;
+    private UsernameFilter usernameFilter;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        meterRegistry = new SimpleMeterRegistry();
+        usernameFilter = new UsernameFilter(userRepository, meterRegistry, 1000, 0.01, Duration.ofSeconds(30));
+    }
+
+    @Test
+    void everyNameMayBeTakenUntilLoaded() {
+        // Act & Assert
+        assertFalse(usernameFilter.isReady());
+        assertTrue(usernameFilter.mightContain("cualquiera"));
+    }
+
+    @Test
+    void loadedFilterRulesOutFreeNames() {
+        // Arrange
+        when(userRepository.count()).thenReturn(2L);
+        when(userRepository.streamUsernames()).thenReturn(Stream.of(new User("ana"), new User("luis")));
+
+        // Act
+        boolean loaded = usernameFilter.load();
+
+        // Assert
+        assertTrue(loaded);
+        assertTrue(usernameFilter.mightContain("ana"));
+        assertTrue(usernameFilter.mightContain("luis"));
+        assertFalse(usernameFilter.mightContain("marta"));
+        assertEquals(2, meterRegistry.get("users.bloom.usernames").gauge().value());
+    }
+
+    @Test
+    void registeredNamesAreAdded() {
+        // Arrange
+        when(userRepository.streamUsernames()).thenReturn(Stream.empty());
+        usernameFilter.load();
+
+        // Act
+        usernameFilter.onUserRegistered(new UserRegisteredEvent(new User("marta")));
+
+        // Assert
+        assertTrue(usernameFilter.mightContain("marta"));
+    }
+
+    @Test
+    void filterIsSizedForTwiceTheUsers() {
+        // Arrange
+        when(userRepository.count()).thenReturn(1_000_000L);
+        when(userRepository.streamUsernames()).thenReturn(Stream.empty());
+
+        // Act
+        usernameFilter.load();
+
+        // Assert: 2 millones de nombres al 1 % son unos 2,4 MB
+        assertEquals(new BloomFilter(2_000_000, 0.01).memoryBytes(),
+                meterRegistry.get("users.bloom.memory").gauge().value());
+    }
+
+    @Test
+    void failedLoadKeepsGoingToTheDatabase() {
+        // Arrange
+        when(userRepository.streamUsernames()).thenThrow(new DataAccessResourceFailureException("caído"));
+
+        // Act
+        boolean loaded = usernameFilter.load();
+
+        // Assert
+        assertFalse(loaded);
+        assertFalse(usernameFilter.isReady());
+        assertTrue(usernameFilter.mightContain("marta"));
+    }
+}
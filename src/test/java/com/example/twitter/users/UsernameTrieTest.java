@@ -0,0 +1,106 @@
+package com.example.twitter.users;
+
+import com.example.twitter.dto.UserSuggestion;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+import java.util.SplittableRandom;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class UsernameTrieTest {
+
+    @Test
+    void suggestRanksByFollowersThenName() {
+        // Arrange
+        UsernameTrie trie = new UsernameTrie(3);
+        trie.add("ana", 10);
+        trie.add("andres", 50);
+        trie.add("Anabel", 10);
+        trie.add("andrea", 5);
+        trie.add("bruno", 100);
+
+        // Act
+        List<UserSuggestion> suggestions = trie.suggest("AN", 3);
+
+        // Assert
+        assertEquals(List.of("andres", "ana", "Anabel"), usernames(suggestions));
+        assertEquals(50, suggestions.get(0).getFollowerCount());
+    }
+
+    @Test
+    void prefixCanEndInsideAnEdgeOrMiss() {
+        // Arrange
+        UsernameTrie trie = new UsernameTrie(3);
+        trie.add("mariana", 1);
+        trie.add("mario", 2);
+
+        // Act & Assert
+        assertEquals(List.of("mario", "mariana"), usernames(trie.suggest("mar", 3)));
+        assertEquals(List.of("mariana"), usernames(trie.suggest("maria", 3)));
+        assertEquals(List.of(), usernames(trie.suggest("marx", 3)));
+        assertEquals(List.of(), usernames(trie.suggest("marianas", 3)));
+        assertEquals(List.of("mario"), usernames(trie.suggest("m", 1)));
+    }
+
+    @Test
+    void namesDifferingOnlyInCaseAreBothKept() {
+        // Arrange
+        UsernameTrie trie = new UsernameTrie(5);
+        trie.add("Sofia", 3);
+        trie.add("sofia", 7);
+
+        // Act & Assert
+        assertEquals(List.of("sofia", "Sofia"), usernames(trie.suggest("sof", 5)));
+        assertTrue(trie.contains("Sofia"));
+        assertTrue(trie.contains("sofia"));
+        assertFalse(trie.contains("SOFIA"));
+        assertFalse(trie.contains("sof"));
+    }
+
+    @Test
+    void storedRankingsMatchBruteForce() {
+        // Arrange: nombres con prefijos compartidos para forzar divisiones de aristas
+        SplittableRandom random = new SplittableRandom(3);
+        UsernameTrie trie = new UsernameTrie(5);
+        List<UserSuggestion> all = new ArrayList<>();
+        String[] syllables = { "ma", "ri", "an", "jo", "se", "lu", "Ca", "na" };
+        for (int i = 0; i < 20_000; i++) {
+            StringBuilder name = new StringBuilder();
+            for (int s = random.nextInt(1, 5); s > 0; s--) {
+                name.append(syllables[random.nextInt(syllables.length)]);
+            }
+            name.append(random.nextInt(100));
+            long followers = random.nextInt(1000);
+            trie.add(name.toString(), followers);
+            all.add(new UserSuggestion(name.toString(), followers));
+        }
+        Comparator<UserSuggestion> ranking = Comparator.comparingLong(UserSuggestion::getFollowerCount).reversed()
+                .thenComparing(suggestion -> suggestion.getUsername().toLowerCase(Locale.ROOT));
+
+        // Act & Assert
+        for (String prefix : List.of("m", "ma", "mari", "ca", "CAna", "lu1", "jose", "x")) {
+            String lowerPrefix = prefix.toLowerCase(Locale.ROOT);
+            List<String> expected = all.stream()
+                    .filter(user -> user.getUsername().toLowerCase(Locale.ROOT).startsWith(lowerPrefix))
+                    .sorted(ranking)
+                    .limit(5)
+                    .map(UserSuggestion::getFollowerCount)
+                    .map(String::valueOf)
+                    .toList();
+            List<String> actual = trie.suggest(prefix, 5).stream()
+                    .map(UserSuggestion::getFollowerCount)
+                    .map(String::valueOf)
+                    .toList();
+            assertEquals(expected, actual, prefix);
+        }
+        assertEquals(20_000, trie.size());
+    }
+
+    private static List<String> usernames(List<UserSuggestion> suggestions) {
+        return suggestions.stream().map(UserSuggestion::getUsername).toList();
+    }
+}